@@ -0,0 +1,44 @@
+package com.javafleet.metrics;
+
+import de.javafleet.common.metrics.SqlRecorder;
+import org.eclipse.persistence.internal.databaseaccess.DatabaseCall;
+import org.eclipse.persistence.queries.Call;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+
+/**
+ * SqlBudgetSessionListener - Meldet jedes SQL von EclipseLink an den SqlRecorder
+ *
+ * Registriert in persistence.xml:
+ * <pre>
+ * &lt;property name="eclipselink.session-event-listener"
+ *           value="com.javafleet.metrics.SqlBudgetSessionListener"/&gt;
+ * </pre>
+ *
+ * EclipseLink ruft preExecuteCall/postExecuteCall nur für Statements auf,
+ * die wirklich zur Datenbank gehen, Treffer im Shared Cache zählen nicht.
+ */
+public class SqlBudgetSessionListener extends SessionEventAdapter {
+
+    /** Startzeit des laufenden Statements pro Thread, ohne Allokation pro Aufruf */
+    private static final ThreadLocal<long[]> STARTED_AT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void preExecuteCall(SessionEvent event) {
+        if (SqlRecorder.current() != null) {
+            STARTED_AT.get()[0] = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void postExecuteCall(SessionEvent event) {
+        SqlRecorder recorder = SqlRecorder.current();
+        if (recorder == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - STARTED_AT.get()[0];
+        Call call = event.getCall();
+        String sql = call instanceof DatabaseCall databaseCall ? databaseCall.getSQLString() : null;
+        recorder.record(sql, elapsed);
+    }
+}
@@ -0,0 +1,121 @@
+package com.javafleet.service;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import jakarta.annotation.Resource;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.InvocationContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConnectionLimitInterceptor - Begrenzt die gleichzeitigen Datenbankzugriffe
+ *
+ * Jede Service-Methode braucht eine Connection aus jdbc/MyWebAppDB. Neben
+ * den Request-Threads rufen auch die parallelen Abfragen und die
+ * Export-Worker Services auf, zusammen könnten sie mehr Connections wollen,
+ * als der Pool hat. Ein fairer Semaphore mit so vielen Permits wie der Pool
+ * Connections hat lässt nur so viele Aufrufe durch, der Rest wartet in
+ * Ankunftsreihenfolge.
+ *
+ * Einbinden per @Interceptors an der Service-Klasse, nach dem
+ * ServiceMetricsInterceptor, damit die Wartezeit in die Dauer eingeht.
+ * Ruft eine Service-Methode eine andere auf, zählt nur der äußere Aufruf.
+ *
+ * Der Interceptor läuft innerhalb der Container-Transaktion: Wenn
+ * proceed() zurückkehrt, ist noch nicht committet und die Connection noch
+ * nicht zurück im Pool. Läuft eine Transaktion, gibt deshalb erst
+ * afterCompletion() das Permit frei, und weitere Aufrufe in derselben
+ * Transaktion brauchen keins. Die harte Grenze bleibt der Pool selbst
+ * (Max Pool Size und Max Wait Time, siehe README), der Semaphore hält nur
+ * die Warteschlange davor fair und messbar.
+ *
+ * Größe und Wartezeit über System-Properties:
+ * - javafleet.db.maxConcurrent (Standard: 20 = Max Pool Size)
+ * - javafleet.db.acquireTimeoutMillis (Standard: 5000 = Max Wait Time)
+ */
+public class ConnectionLimitInterceptor {
+
+    private static final int MAX_CONCURRENT =
+            Integer.getInteger("javafleet.db.maxConcurrent", 20);
+
+    private static final long TIMEOUT_MILLIS =
+            Long.getLong("javafleet.db.acquireTimeoutMillis", 5000);
+
+    private static final Semaphore PERMITS = new Semaphore(MAX_CONCURRENT, true);
+
+    /** Hält der Thread bereits ein Permit? (verschachtelte Service-Aufrufe) */
+    private static final ThreadLocal<Boolean> HOLDING = new ThreadLocal<>();
+
+    /** Schlüssel in der Transaktion, die bereits ein Permit hält */
+    private static final Object PERMIT_KEY = ConnectionLimitInterceptor.class;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactions;
+
+    static {
+        MetricRegistry registry = MetricRegistry.global();
+        registry.gauge("service_db_permits_in_use", "Service calls currently holding a database permit",
+                       () -> MAX_CONCURRENT - PERMITS.availablePermits());
+        registry.gauge("service_db_permits_waiting", "Service calls waiting for a database permit",
+                       PERMITS::getQueueLength);
+    }
+
+    @AroundInvoke
+    public Object limit(InvocationContext context) throws Exception {
+        if (HOLDING.get() != null || transactionHoldsPermit()) {
+            return context.proceed();
+        }
+
+        if (!PERMITS.tryAcquire(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            MetricRegistry.global().counter("service_db_permit_timeouts_total",
+                    "Service calls that got no database permit in time").increment();
+            throw new IllegalStateException("No database connection available within "
+                    + TIMEOUT_MILLIS + " ms (" + MAX_CONCURRENT + " in use)");
+        }
+        HOLDING.set(Boolean.TRUE);
+        boolean releasedByTransaction = false;
+        try {
+            releasedByTransaction = releaseAfterCompletion();
+            return context.proceed();
+        } finally {
+            HOLDING.remove();
+            if (!releasedByTransaction) {
+                PERMITS.release();
+            }
+        }
+    }
+
+    private boolean inTransaction() {
+        return transactions != null && transactions.getTransactionStatus() == Status.STATUS_ACTIVE;
+    }
+
+    private boolean transactionHoldsPermit() {
+        return inTransaction() && transactions.getResource(PERMIT_KEY) != null;
+    }
+
+    /**
+     * Bindet das Permit an die laufende Transaktion
+     * @return false ohne Transaktion, dann gibt der Aufrufer es selbst frei
+     */
+    private boolean releaseAfterCompletion() {
+        if (!inTransaction()) {
+            return false;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // Commit oder Rollback ist durch, die Connection zurück im Pool
+                PERMITS.release();
+            }
+        });
+        transactions.putResource(PERMIT_KEY, Boolean.TRUE);
+        return true;
+    }
+}
@@ -1,7 +1,9 @@
 package com.javafleet.service;
 
+import com.javafleet.metrics.ServiceMetricsInterceptor;
 import com.javafleet.model.*;
 import jakarta.ejb.Stateless;
+import jakarta.interceptor.Interceptors;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.math.BigDecimal;
@@ -9,6 +11,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Stateless
+@Interceptors({ServiceMetricsInterceptor.class, ConnectionLimitInterceptor.class})
 public class OrderManagementService {
     
     @PersistenceContext
@@ -53,9 +56,10 @@ public class OrderManagementService {
     }
     
     // Orders mit User-Info laden (JOIN FETCH)
+    // Das Profil ist EAGER und käme sonst mit einer eigenen Abfrage pro User
     public List<Order> findRecentOrders(int limit) {
         return em.createQuery(
-            "SELECT o FROM Order o JOIN FETCH o.user " +
+            "SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.user.profile " +
             "ORDER BY o.orderDate DESC", 
             Order.class
         )
@@ -121,4 +125,30 @@ public class OrderManagementService {
         
         return result != null ? result : BigDecimal.ZERO;
     }
+    
+    // Export - kleinste und größte Order-ID, null wenn es keine Orders gibt
+    public long[] findOrderIdRange() {
+        Object[] range = em.createQuery(
+            "SELECT MIN(o.id), MAX(o.id) FROM Order o", 
+            Object[].class
+        )
+        .getSingleResult();
+        
+        if (range[0] == null) {
+            return null;
+        }
+        return new long[] { ((Number) range[0]).longValue(), ((Number) range[1]).longValue() };
+    }
+    
+    // Export - Orders mit fromId <= id < toId als Projektion, ohne Entities im Persistence Context
+    public List<Object[]> findOrderRows(long fromId, long toId) {
+        return em.createQuery(
+            "SELECT o.id, o.orderNumber, o.totalAmount, o.orderDate, o.status, o.user.id " +
+            "FROM Order o WHERE o.id >= :fromId AND o.id < :toId ORDER BY o.id", 
+            Object[].class
+        )
+        .setParameter("fromId", fromId)
+        .setParameter("toId", toId)
+        .getResultList();
+    }
 }
@@ -0,0 +1,27 @@
+package com.javafleet.web;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Gibt die Metriken von OrderServlet und OrderManagementService im
+ * Prometheus-Textformat aus (GET /metrics).
+ * In Produktion nur für das Monitoring freigeben.
+ */
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        response.setHeader("Cache-Control", "no-store");
+        MetricRegistry.global().writeTo(response.getWriter());
+    }
+}
@@ -0,0 +1,293 @@
+package com.javafleet.web;
+
+import com.javafleet.service.OrderManagementService;
+import de.javafleet.common.compression.CompressionFilter;
+import de.javafleet.common.metrics.Counter;
+import de.javafleet.common.metrics.MetricRegistry;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exportiert alle Orders als NDJSON oder CSV über parallele Bereichsabfragen.
+ *
+ * <pre>
+ * GET /export/orders?format=csv&amp;gzip=true&amp;parallelism=4
+ * </pre>
+ *
+ * Der ID-Bereich wird in Bereiche zu 1000 IDs geteilt. Mehrere Worker holen
+ * sich reihum den nächsten Bereich, lesen ihn per
+ * {@link OrderManagementService#findOrderRows} (Projektion, eigene
+ * Transaktion und Connection), kodieren die Zeilen in einen eigenen Puffer
+ * und schreiben ihn blockweise unter einem Lock in die Antwort. Ist der
+ * Client langsam, warten die Worker. Mit gzip=true komprimiert jeder
+ * Worker seine Blöcke selbst, die gzip-Member werden aneinandergehängt.
+ * Die Worker laufen auf dem ManagedExecutorService, denn EJB-Aufrufe
+ * brauchen den Container-Kontext.
+ *
+ * Die Zeilen eines Bereichs sind nach ID sortiert, die Bereiche
+ * untereinander nicht, und der Export ist kein Snapshot. Wie viele Worker
+ * gleichzeitig in die Datenbank gehen, begrenzt zusätzlich der
+ * ConnectionLimitInterceptor.
+ */
+@WebServlet(urlPatterns = "/export/orders")
+public class OrderExportServlet extends HttpServlet {
+
+    private static final String[] FIELDS =
+            { "id", "orderNumber", "totalAmount", "orderDate", "status", "userId" };
+
+    private static final long RANGE_SIZE = 1000;
+    private static final int MAX_PARALLELISM = 8;
+    private static final int DEFAULT_PARALLELISM =
+            Math.min(Runtime.getRuntime().availableProcessors(), 4);
+
+    /** Zeichen pro Block, bevor ein Worker schreibt */
+    private static final int BLOCK_CHARS = 256 * 1024;
+
+    private static final Counter ROWS = MetricRegistry.global().counter("export_rows_total",
+            "Rows written by bulk exports", "entity", "orders");
+
+    @Inject
+    private OrderManagementService orderService;
+    
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String format = request.getParameter("format");
+        boolean csv = "csv".equals(format);
+        if (format != null && !csv && !"ndjson".equals(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown format, use csv or ndjson");
+            return;
+        }
+        boolean gzip = "true".equals(request.getParameter("gzip"));
+
+        int parallelism = DEFAULT_PARALLELISM;
+        String parallelismParam = request.getParameter("parallelism");
+        if (parallelismParam != null) {
+            try {
+                parallelism = Integer.parseInt(parallelismParam);
+            } catch (NumberFormatException e) {
+                parallelism = 0;
+            }
+            if (parallelism < 1 || parallelism > MAX_PARALLELISM) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                        "Invalid parallelism, allowed: 1 to " + MAX_PARALLELISM);
+                return;
+            }
+        }
+
+        String filename = "orders" + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        if (gzip) {
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType((csv ? "text/csv" : "application/x-ndjson") + ";charset=UTF-8");
+        }
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+
+        long[] ids = orderService.findOrderIdRange();
+        long ranges = ids != null ? (ids[1] - ids[0]) / RANGE_SIZE + 1 : 0;
+        Export export = new Export(response.getOutputStream(), ids, ranges, csv, gzip);
+
+        if (csv) {
+            export.write((String.join(",", FIELDS) + "\r\n").getBytes(StandardCharsets.UTF_8), 0);
+        }
+
+        int workers = (int) Math.min(parallelism, ranges);
+        List<Future<?>> futures = new ArrayList<>(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(export::work));
+            }
+        } catch (RejectedExecutionException e) {
+            // Ohne Worker bleiben Bereiche liegen: abbrechen statt unvollständig exportieren
+            export.failure.compareAndSet(null, e);
+        }
+        export.join(futures);
+
+        Throwable failure = export.failure.get();
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure != null) {
+            throw new ServletException("Export failed", failure);
+        }
+        if (gzip && export.bytes == 0) {
+            export.write(new byte[0], 0);
+        }
+    }
+
+    /**
+     * Zustand eines laufenden Exports, geteilt von allen Workern
+     */
+    private final class Export {
+
+        private final OutputStream out;
+        private final long[] ids;
+        private final long ranges;
+        private final boolean csv;
+        private final boolean gzip;
+
+        private final AtomicLong nextRange = new AtomicLong();
+        private final ReentrantLock writeLock = new ReentrantLock();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /** Nur unter writeLock geändert */
+        long bytes;
+
+        Export(OutputStream out, long[] ids, long ranges, boolean csv, boolean gzip) {
+            this.out = out;
+            this.ids = ids;
+            this.ranges = ranges;
+            this.csv = csv;
+            this.gzip = gzip;
+        }
+
+        /**
+         * Worker: Bereiche holen und lesen, bis alle vergeben sind oder einer scheitert
+         */
+        void work() {
+            StringBuilder block = new StringBuilder(BLOCK_CHARS + 8 * 1024);
+            int blockRows = 0;
+            try {
+                long range;
+                while (failure.get() == null && (range = nextRange.getAndIncrement()) < ranges) {
+                    long fromId = ids[0] + range * RANGE_SIZE;
+                    long toId = Math.min(fromId + RANGE_SIZE, ids[1] + 1);
+
+                    for (Object[] row : orderService.findOrderRows(fromId, toId)) {
+                        if (csv) {
+                            encodeCsv(row, block);
+                        } else {
+                            encodeJson(row, block);
+                        }
+                        blockRows++;
+                    }
+                    if (block.length() >= BLOCK_CHARS) {
+                        write(block.toString().getBytes(StandardCharsets.UTF_8), blockRows);
+                        block.setLength(0);
+                        blockRows = 0;
+                    }
+                }
+                if (failure.get() == null && block.length() > 0) {
+                    write(block.toString().getBytes(StandardCharsets.UTF_8), blockRows);
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        /**
+         * Komprimiert (außerhalb des Locks) und schreibt einen Block
+         */
+        void write(byte[] data, int rows) throws IOException {
+            if (gzip) {
+                data = CompressionFilter.gzip(data);
+            }
+            writeLock.lock();
+            try {
+                out.write(data);
+                bytes += data.length;
+            } finally {
+                writeLock.unlock();
+            }
+            ROWS.add(rows);
+        }
+
+        void join(List<Future<?>> futures) throws InterruptedIOException {
+            try {
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // work() fängt selbst, hier landet nur, was der Executor meldet
+                        failure.compareAndSet(null, e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Export interrupted");
+            }
+        }
+    }
+
+    /**
+     * id, orderNumber, totalAmount, orderDate, status, userId als JSON-Objekt
+     */
+    private static void encodeJson(Object[] row, StringBuilder out) {
+        out.append('{');
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append('"').append(FIELDS[i]).append("\":");
+            Object value = row[i];
+            if (value == null) {
+                out.append("null");
+            } else if (value instanceof Number number) {
+                out.append(number instanceof BigDecimal decimal ? decimal.toPlainString() : number.toString());
+            } else {
+                String text = value.toString();
+                out.append('"');
+                for (int j = 0; j < text.length(); j++) {
+                    char c = text.charAt(j);
+                    if (c == '"' || c == '\\') {
+                        out.append('\\').append(c);
+                    } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+                out.append('"');
+            }
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Wie encodeJson als CSV-Zeile nach RFC 4180, null wird ein leeres Feld
+     */
+    private static void encodeCsv(Object[] row, StringBuilder out) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Object value = row[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                out.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                out.append(text);
+            }
+        }
+        out.append("\r\n");
+    }
+}
@@ -2,6 +2,9 @@ package com.javafleet.web;
 
 import com.javafleet.model.*;
 import com.javafleet.service.OrderManagementService;
+import de.javafleet.common.metrics.MetricRegistry;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.inject.Inject;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -11,16 +14,26 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
-@WebServlet("/orders")
+@WebServlet(urlPatterns = "/orders", asyncSupported = true)
 public class OrderServlet extends HttpServlet {
     
+    /** Gemeinsame Frist für parallele Abfragen eines Requests */
+    private static final Duration QUERY_TIMEOUT = Duration.ofSeconds(5);
+    
     @Inject
     private OrderManagementService orderService;
     
+    /** Threads mit Container-Kontext für die parallelen Service-Aufrufe */
+    @Resource
+    private ManagedExecutorService executor;
+    
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
@@ -29,20 +42,27 @@ public class OrderServlet extends HttpServlet {
         PrintWriter out = response.getWriter();
         
         String action = request.getParameter("action");
+        String endpoint = "OrderServlet.menu";
+        long start = System.nanoTime();
         
         printHeader(out, "Java Web Aufbau Tag 9 - Order Management Demo");
         
         try {
             if ("create".equals(action)) {
+                endpoint = "OrderServlet.create";
                 handleCreate(out);
             } else if ("list".equals(action)) {
+                endpoint = "OrderServlet.list";
                 handleList(out);
             } else if ("stats".equals(action)) {
+                endpoint = "OrderServlet.stats";
                 handleStats(out);
             } else {
                 printMenu(out);
             }
         } catch (Exception e) {
+            MetricRegistry.global().counter("http_request_errors_total",
+                    "Failed requests by endpoint", "endpoint", endpoint).increment();
             out.println("<div class='error'>");
             out.println("<h2>❌ Fehler</h2>");
             out.println("<p>" + e.getMessage() + "</p>");
@@ -50,6 +70,10 @@ public class OrderServlet extends HttpServlet {
         }
         
         printFooter(out);
+        
+        MetricRegistry.global().summary("http_request_duration_seconds",
+                "Request duration by endpoint", "endpoint", endpoint, MetricRegistry.NANOS)
+                .record(System.nanoTime() - start);
     }
     
     private void handleCreate(PrintWriter out) {
@@ -141,7 +165,7 @@ public class OrderServlet extends HttpServlet {
         out.println("<p><a href='orders' class='button'>🏠 Zurück zum Menü</a></p>");
     }
     
-    private void handleStats(PrintWriter out) {
+    private void handleStats(PrintWriter out) throws TimeoutException {
         List<Order> orders = orderService.findRecentOrders(1);
         
         if (orders.isEmpty()) {
@@ -153,10 +177,21 @@ public class OrderServlet extends HttpServlet {
         }
         
         Long userId = orders.get(0).getUser().getId();
-        User user = orderService.findUserWithOrders(userId);
         
-        Long orderCount = orderService.countOrdersByUser(userId);
-        BigDecimal totalAmount = orderService.getTotalAmountByUser(userId);
+        // Die drei Abfragen hängen nur von userId ab: gleichzeitig statt nacheinander
+        User user;
+        Long orderCount;
+        BigDecimal totalAmount;
+        try (ParallelQueries queries = ParallelQueries.withTimeout(executor, QUERY_TIMEOUT)) {
+            Supplier<User> userQuery = queries.fork(() -> orderService.findUserWithOrders(userId));
+            Supplier<Long> countQuery = queries.fork(() -> orderService.countOrdersByUser(userId));
+            Supplier<BigDecimal> totalQuery = queries.fork(() -> orderService.getTotalAmountByUser(userId));
+            queries.join();
+            
+            user = userQuery.get();
+            orderCount = countQuery.get();
+            totalAmount = totalQuery.get();
+        }
         
         out.println("<h2>📊 Statistiken für User: " + user.getUsername() + "</h2>");
         
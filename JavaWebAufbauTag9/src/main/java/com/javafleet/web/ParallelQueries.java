@@ -0,0 +1,182 @@
+package com.javafleet.web;
+
+import de.javafleet.common.metrics.SqlRecorder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Führt unabhängige Service-Aufrufe eines Requests gleichzeitig aus.
+ *
+ * Angelehnt an StructuredTaskScope (in Java 21 noch Preview):
+ *
+ * <pre>
+ * try (ParallelQueries queries = ParallelQueries.withTimeout(executor, Duration.ofSeconds(2))) {
+ *     Supplier&lt;Long&gt; count = queries.fork(() -&gt; orderService.countOrdersByUser(id));
+ *     Supplier&lt;BigDecimal&gt; total = queries.fork(() -&gt; orderService.getTotalAmountByUser(id));
+ *     queries.join();
+ *     ... count.get(), total.get()
+ * }
+ * </pre>
+ *
+ * Jeder Aufruf läuft auf einem Thread des übergebenen Executors in einer
+ * eigenen Transaktion mit eigener Connection. Im Container muss das ein
+ * injizierter ManagedExecutorService sein: Nur dessen Threads bekommen den
+ * Kontext (JNDI, Security, Classloader), den EJB-Aufrufe brauchen. Schlägt
+ * einer fehl oder läuft die gemeinsame Frist ab, werden die übrigen
+ * abgebrochen. close() bricht alles ab, was noch läuft. Die Statements
+ * zählen im SqlRecorder des Requests mit.
+ */
+public final class ParallelQueries implements AutoCloseable {
+
+    private final Executor executor;
+    private final long deadline;
+    private final SqlRecorder recorder;
+
+    private final List<Query<?>> queries = new ArrayList<>();
+    private final BlockingQueue<Query<?>> finished = new LinkedBlockingQueue<>();
+    private boolean joined;
+
+    private ParallelQueries(Executor executor, Duration timeout) {
+        this.executor = executor;
+        this.deadline = System.nanoTime() + timeout.toNanos();
+        this.recorder = SqlRecorder.current();
+    }
+
+    /**
+     * Startet einen Block paralleler Aufrufe mit gemeinsamer Frist
+     * @param executor im Container der per @Resource injizierte ManagedExecutorService
+     */
+    public static ParallelQueries withTimeout(Executor executor, Duration timeout) {
+        return new ParallelQueries(executor, timeout);
+    }
+
+    /**
+     * Startet einen Aufruf, das Ergebnis gibt es nach {@link #join()}
+     */
+    public <T> Supplier<T> fork(Callable<T> call) {
+        if (joined) {
+            throw new IllegalStateException("Already joined");
+        }
+        Query<T> query = new Query<>(call);
+        queries.add(query);
+        try {
+            executor.execute(query);
+        } catch (RejectedExecutionException e) {
+            // Wie ein fehlgeschlagener Aufruf: join() wirft die Exception
+            query.reject(e);
+        }
+        return query;
+    }
+
+    /**
+     * Wartet auf alle Aufrufe
+     * Der erste Fehler wird weitergeworfen (geprüfte Exceptions in einer
+     * CompletionException), die übrigen Aufrufe werden abgebrochen.
+     * @throws TimeoutException wenn die Frist vorher abläuft
+     */
+    public void join() throws TimeoutException {
+        if (joined) {
+            return;
+        }
+        joined = true;
+
+        try {
+            for (int done = 0; done < queries.size(); done++) {
+                long remaining = deadline - System.nanoTime();
+                Query<?> query = remaining > 0 ? finished.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (query == null) {
+                    cancelAll();
+                    throw new TimeoutException("Parallel queries did not finish within the deadline ("
+                            + (queries.size() - done) + " of " + queries.size() + " still running)");
+                }
+                query.rethrowFailure();
+            }
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for parallel queries");
+        } catch (RuntimeException | Error e) {
+            cancelAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    private void cancelAll() {
+        for (Query<?> query : queries) {
+            query.cancel(true);
+        }
+    }
+
+    private final class Query<T> extends FutureTask<T> implements Supplier<T> {
+
+        Query(Callable<T> call) {
+            super(() -> {
+                SqlRecorder.Attachment attached = recorder != null ? recorder.attach() : null;
+                try {
+                    return call.call();
+                } finally {
+                    if (attached != null) {
+                        attached.close();
+                    }
+                }
+            });
+        }
+
+        @Override
+        protected void done() {
+            finished.add(this);
+        }
+
+        void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        @Override
+        public T get() {
+            if (!joined || !isDone() || isCancelled()) {
+                throw new IllegalStateException("Result not available, call join() first");
+            }
+            try {
+                return super.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Query failed", e);
+            }
+        }
+
+        void rethrowFailure() throws InterruptedException {
+            if (isCancelled()) {
+                throw new CancellationException("Query was cancelled");
+            }
+            try {
+                super.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new CompletionException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.javafleet.web;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.common.metrics.SqlRecorder;
+import de.javafleet.common.metrics.SqlReport;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.annotation.WebInitParam;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Zählt die SQL-Statements jedes Requests (über den SqlBudgetSessionListener)
+ * und meldet Requests über dem Budget oder mit wiederholten Statements (N+1).
+ *
+ * Init-Parameter: maxStatements (20), maxDbTimeMillis (500),
+ * repeatThreshold (5), devMode (false = keine X-Sql-*-Header).
+ * Im devMode wird der Antwortpuffer vergrößert, damit die Header noch
+ * vor dem Senden gesetzt werden können.
+ */
+@WebFilter(filterName = "SqlBudgetFilter",
+           urlPatterns = "/*",
+           asyncSupported = true,
+           initParams = {
+               @WebInitParam(name = "maxStatements", value = "20"),
+               @WebInitParam(name = "maxDbTimeMillis", value = "500"),
+               @WebInitParam(name = "repeatThreshold", value = "5"),
+               @WebInitParam(name = "devMode", value = "false")
+           })
+public class SqlBudgetFilter implements Filter {
+
+    private static final Logger LOG = Logger.getLogger(SqlBudgetFilter.class.getName());
+
+    private static final int DEV_BUFFER_SIZE = 1024 * 1024;
+
+    private int maxStatements;
+    private long maxDbTimeMillis;
+    private int repeatThreshold;
+    private boolean devMode;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        maxStatements = intParam(filterConfig, "maxStatements", 20);
+        maxDbTimeMillis = intParam(filterConfig, "maxDbTimeMillis", 500);
+        repeatThreshold = intParam(filterConfig, "repeatThreshold", 5);
+        devMode = Boolean.parseBoolean(filterConfig.getInitParameter("devMode"));
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        if (SqlRecorder.current() != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (devMode) {
+            response.setBufferSize(DEV_BUFFER_SIZE);
+        }
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            chain.doFilter(request, response);
+            check(recorder.report(), request, response);
+        }
+    }
+
+    private void check(SqlReport report, ServletRequest request, ServletResponse response) {
+        if (report.getStatementCount() == 0) {
+            return;
+        }
+
+        String target = request instanceof HttpServletRequest http
+                ? http.getRequestURI() + (http.getQueryString() != null ? "?" + http.getQueryString() : "")
+                : "request";
+        Map<String, Long> repeated = report.getRepeatedShapes(repeatThreshold);
+        long dbTimeMillis = report.getDbTime().toMillis();
+        boolean exceeded = report.getStatementCount() > maxStatements
+                || dbTimeMillis > maxDbTimeMillis;
+
+        if (exceeded || !repeated.isEmpty()) {
+            MetricRegistry.global().counter("sql_budget_violations_total",
+                    "Requests over the SQL budget or with repeated statements").increment();
+            LOG.warning(() -> "SQL budget violated by " + target
+                    + ": " + report.getStatementCount() + " statements (max " + maxStatements + "), "
+                    + dbTimeMillis + " ms (max " + maxDbTimeMillis + " ms)"
+                    + (repeated.isEmpty() ? "" : ", repeated statements: " + repeated));
+        }
+
+        if (devMode && response instanceof HttpServletResponse http && !http.isCommitted()) {
+            http.setHeader("X-Sql-Statements", Long.toString(report.getStatementCount()));
+            http.setHeader("X-Sql-Time-Ms", Long.toString(dbTimeMillis));
+            http.setHeader("X-Sql-Budget", exceeded ? "exceeded" : "ok");
+            if (!repeated.isEmpty()) {
+                http.setHeader("X-Sql-Repeated", repeated.size() + " statement(s) repeated "
+                        + repeatThreshold + "+ times");
+            }
+        }
+    }
+
+    private static int intParam(FilterConfig config, String name, int defaultValue) {
+        String value = config.getInitParameter(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Init parameter " + name + " must be a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.javafleet.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.javafleet.model.Order;
+import com.javafleet.model.User;
+import com.javafleet.service.OrderManagementService;
+import de.javafleet.common.metrics.SqlRecorder;
+import de.javafleet.common.metrics.SqlReport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Zählt die Statements von OrderManagementService über den
+ * SqlBudgetSessionListener, wie der SqlBudgetFilter im Betrieb.
+ */
+class SqlBudgetSessionListenerTest {
+
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private OrderManagementService service;
+
+    @BeforeAll
+    static void createFactory() {
+        emf = Persistence.createEntityManagerFactory("JavaWebAufbauTestPU");
+
+        EntityManager setup = emf.createEntityManager();
+        OrderManagementService service = serviceFor(setup);
+        setup.getTransaction().begin();
+        for (int u = 0; u < 3; u++) {
+            User user = service.createUserWithProfile("user" + u, "user" + u + "@example.com",
+                    "Vor" + u, "Nach" + u, LocalDate.of(1990, 1, 1 + u));
+            setup.flush();
+            Long userId = user.getId();
+            for (int o = 0; o < 2; o++) {
+                service.createOrder(userId, "ORD-" + u + "-" + o, new BigDecimal("19.99"));
+            }
+        }
+        setup.getTransaction().commit();
+        setup.close();
+    }
+
+    @AfterAll
+    static void closeFactory() {
+        emf.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        em = emf.createEntityManager();
+        service = serviceFor(em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    void joinFetchIsOneStatement() {
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            List<Order> orders = service.findRecentOrders(10);
+            for (Order order : orders) {
+                order.getUser().getUsername();
+            }
+
+            SqlReport report = recorder.report()
+                    .assertStatementsAtMost(1)
+                    .assertNoRepeatedStatements(2);
+            assertEquals(6, orders.size());
+            assertEquals(1, report.getStatementCount());
+        }
+    }
+
+    @Test
+    void lazyLoadingShowsUpAsRepeatedShape() {
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            for (long userId = 1; userId <= 3; userId++) {
+                service.countOrdersByUser(userId);
+            }
+
+            SqlReport report = recorder.report();
+            assertEquals(3, report.getStatementCount());
+            Map<String, Long> repeated = report.getRepeatedShapes(3);
+            assertEquals(1, repeated.size());
+            // Der Parameter ist in der Form zu ? geworden
+            String shape = repeated.keySet().iterator().next();
+            assertTrue(shape.contains("= ?"), shape);
+
+            assertThrows(AssertionError.class, () -> report.assertNoRepeatedStatements(3));
+            assertThrows(AssertionError.class, () -> report.assertStatementsAtMost(2));
+        }
+    }
+
+    /**
+     * Der Service ist eine EJB, ohne Container wird der EntityManager direkt gesetzt
+     */
+    private static OrderManagementService serviceFor(EntityManager em) {
+        try {
+            OrderManagementService service = new OrderManagementService();
+            Field field = OrderManagementService.class.getDeclaredField("em");
+            field.setAccessible(true);
+            field.set(service, em);
+            return service;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -34,6 +34,7 @@ CREATE TABLE IF NOT EXISTS blog_posts (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_author (author),
     INDEX idx_created_at (created_at),
+    INDEX idx_updated_at (updated_at),
     FULLTEXT INDEX idx_search (title, content)
 ) ENGINE=InnoDB;
 
@@ -84,6 +85,12 @@ INSERT INTO blog_posts (title, content, author) VALUES
 -- Nach Blog-Posts suchen
 -- SELECT * FROM blog_posts WHERE title LIKE '%Connection%' OR content LIKE '%Connection%';
 
+-- Volltextsuche über idx_search (so sucht der BlogPostDAO)
+-- SELECT id, title, MATCH(title, content) AGAINST('Connection Pooling' IN NATURAL LANGUAGE MODE) AS score
+--   FROM blog_posts WHERE MATCH(title, content) AGAINST('Connection Pooling' IN NATURAL LANGUAGE MODE)
+--   ORDER BY score DESC LIMIT 50;
+-- SELECT id, title FROM blog_posts WHERE MATCH(title, content) AGAINST('+JDBC -Payara' IN BOOLEAN MODE);
+
 -- User-Anzahl
 -- SELECT COUNT(*) FROM users;
 
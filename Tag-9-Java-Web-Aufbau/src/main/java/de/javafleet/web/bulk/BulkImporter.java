@@ -0,0 +1,276 @@
+package de.javafleet.web.bulk;
+
+import de.javafleet.common.metrics.Counter;
+import de.javafleet.common.metrics.MetricRegistry;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * BulkImporter - Liest Datensätze und schreibt sie in Chunks, beides gleichzeitig
+ *
+ * Der aufrufende Thread liest und prüft die Datensätze und sammelt sie zu
+ * Chunks. Ein virtueller Thread schreibt die Chunks per JDBC-Batch, jeden in
+ * einer eigenen Transaktion. Dazwischen liegt eine Queue mit Platz für zwei
+ * Chunks: Während ein Chunk in der Datenbank landet, wird der nächste schon
+ * gelesen. Ist die Datenbank langsamer, wartet der Leser. Im Speicher sind
+ * also nie mehr als vier Chunks, egal wie groß die Eingabe ist.
+ *
+ * Abgelehnt und im {@link ImportReport} gezählt werden:
+ * - syntaktisch kaputte Datensätze ({@link RecordFormatException})
+ * - Datensätze, die die Prüfung nicht bestehen (wie im Formular)
+ * - Zeilen, die die Datenbank ablehnt (z.B. doppelter Username, zu langer
+ *   Titel). Dann wird der Chunk zurückgerollt und zeilenweise wiederholt.
+ * Andere Datenbankfehler (Verbindung weg, Tabelle fehlt) brechen den Import
+ * ab. Bereits committete Chunks bleiben erhalten.
+ *
+ * Der Schreiber hat keine {@link de.javafleet.web.dao.UnitOfWork}: Auch in
+ * einem Request mit Transaktion committet der Import chunkweise.
+ *
+ * @param <T> die Entity (BlogPost, User)
+ */
+public final class BulkImporter<T> {
+
+    private static final Logger LOG = Logger.getLogger(BulkImporter.class.getName());
+
+    /** Standard-Chunkgröße wie bei createAll() */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /** Chunks zwischen Leser und Schreiber */
+    private static final int QUEUED_CHUNKS = 2;
+
+    private final ImportTarget<T> target;
+    private final int chunkSize;
+
+    private final Counter rowsImported;
+    private final Counter rowsRejected;
+
+    private Consumer<ImportReport> progressListener;
+
+    public BulkImporter(ImportTarget<T> target) {
+        this(target, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize Zeilen pro executeBatch()/Commit
+     */
+    public BulkImporter(ImportTarget<T> target, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.target = target;
+        this.chunkSize = chunkSize;
+
+        MetricRegistry registry = MetricRegistry.global();
+        rowsImported = registry.counter("import_rows_total",
+                "Rows written by bulk imports", "entity", target.getName());
+        rowsRejected = registry.counter("import_rejected_total",
+                "Rows rejected by bulk imports", "entity", target.getName());
+    }
+
+    /**
+     * Wird nach jedem geschriebenen Chunk mit dem aktuellen Stand aufgerufen
+     * (auf dem Schreiber-Thread)
+     */
+    public void setProgressListener(Consumer<ImportReport> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Importiert alle Datensätze bis zum Ende der Eingabe
+     * Der Reader wird nicht geschlossen.
+     * @throws SQLException wenn die Datenbank den Import abbricht
+     * @throws IOException wenn die Eingabe abbricht
+     */
+    public ImportReport run(RecordReader reader) throws IOException, SQLException {
+        ImportReport report = new ImportReport(target.getName());
+        BlockingQueue<List<Row<T>>> queue = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        ChunkWriter writer = new ChunkWriter(queue, report);
+        Thread thread = Thread.ofVirtual().name("import-" + target.getName()).start(writer);
+
+        try {
+            List<Row<T>> chunk = new ArrayList<>(chunkSize);
+            while (writer.failure == null) {
+                ImportRecord record;
+                try {
+                    record = reader.next();
+                } catch (RecordFormatException e) {
+                    report.recordRead();
+                    reject(report, e.getLine(), e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                report.recordRead();
+
+                try {
+                    chunk.add(new Row<>(record.line(), target.toEntity(record)));
+                } catch (IllegalArgumentException e) {
+                    reject(report, record.line(), e.getMessage());
+                    continue;
+                }
+
+                if (chunk.size() == chunkSize) {
+                    put(queue, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                put(queue, chunk);
+            }
+
+        } finally {
+            // Leerer Chunk = Ende, der Schreiber arbeitet die Queue noch ab
+            try {
+                queue.put(List.of());
+                thread.join();
+            } catch (InterruptedException e) {
+                thread.interrupt();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import interrupted");
+            }
+        }
+
+        writer.rethrowFailure();
+        report.finish();
+        LOG.info(report::toString);
+        return report;
+    }
+
+    private void reject(ImportReport report, long line, String reason) {
+        report.recordRejected(line, reason);
+        rowsRejected.increment();
+    }
+
+    private static <E> void put(BlockingQueue<E> queue, E element) throws InterruptedIOException {
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        }
+    }
+
+    /**
+     * Fehler, die an einzelnen Zeilen liegen: Daten (22) oder Constraints (23)
+     */
+    private static boolean isRowError(SQLException e) {
+        for (SQLException current = e; current != null; ) {
+            String state = current.getSQLState();
+            if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                return true;
+            }
+            if (current instanceof BatchUpdateException && current.getNextException() != null) {
+                current = current.getNextException();
+            } else {
+                current = current.getCause() instanceof SQLException cause ? cause : null;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ein geprüfter Datensatz mit seiner Zeilennummer für Ablehnungen
+     */
+    private record Row<T>(long line, T entity) {
+    }
+
+    /**
+     * Schreibt die Chunks aus der Queue, bis der leere Chunk kommt
+     */
+    private final class ChunkWriter implements Runnable {
+
+        private final BlockingQueue<List<Row<T>>> queue;
+        private final ImportReport report;
+
+        volatile Throwable failure;
+
+        ChunkWriter(BlockingQueue<List<Row<T>>> queue, ImportReport report) {
+            this.queue = queue;
+            this.report = report;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                List<Row<T>> chunk;
+                try {
+                    chunk = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                // Nach einem Fehler nur noch leeren, damit der Leser nicht blockiert
+                if (failure != null) {
+                    continue;
+                }
+
+                try {
+                    write(chunk);
+                    Consumer<ImportReport> listener = progressListener;
+                    if (listener != null) {
+                        listener.accept(report);
+                    }
+                } catch (SQLException | RuntimeException | Error e) {
+                    failure = e;
+                }
+            }
+        }
+
+        private void write(List<Row<T>> chunk) throws SQLException {
+            List<T> items = new ArrayList<>(chunk.size());
+            for (Row<T> row : chunk) {
+                items.add(row.entity());
+            }
+
+            try {
+                target.insertAll(items);
+                report.recordImported(items.size());
+                rowsImported.add(items.size());
+                return;
+            } catch (SQLException e) {
+                if (!isRowError(e)) {
+                    throw e;
+                }
+                LOG.fine(() -> "Chunk rejected (" + e.getMessage() + "), retrying row by row");
+            }
+
+            // Der Chunk wurde zurückgerollt: einzeln wiederholen, um die schuldigen Zeilen zu finden
+            for (Row<T> row : chunk) {
+                try {
+                    target.insert(row.entity());
+                    report.recordImported(1);
+                    rowsImported.increment();
+                } catch (SQLException e) {
+                    if (!isRowError(e)) {
+                        throw e;
+                    }
+                    reject(report, row.line(), e.getMessage());
+                }
+            }
+        }
+
+        void rethrowFailure() throws SQLException {
+            Throwable e = failure;
+            if (e instanceof SQLException sql) {
+                throw sql;
+            }
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+}
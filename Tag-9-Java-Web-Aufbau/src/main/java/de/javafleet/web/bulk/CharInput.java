@@ -0,0 +1,64 @@
+package de.javafleet.web.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * CharInput - Zeichenweises Lesen mit eigenem Puffer und einem Zeichen Vorschau
+ *
+ * BufferedReader.read() synchronisiert bei jedem Zeichen, bei Dateien im
+ * Gigabyte-Bereich fällt das ins Gewicht. Ein Byte-Order-Mark am Anfang
+ * (z.B. aus Excel) wird übersprungen.
+ */
+final class CharInput {
+
+    static final int EOF = -1;
+
+    private final Reader in;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private boolean started;
+
+    CharInput(Reader in) {
+        this.in = in;
+    }
+
+    int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    void close() throws IOException {
+        in.close();
+    }
+
+    private boolean fill() throws IOException {
+        int count;
+        do {
+            count = in.read(buffer, 0, buffer.length);
+        } while (count == 0);
+        if (count < 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        if (!started) {
+            started = true;
+            if (buffer[0] == '\uFEFF') {
+                position = 1;
+                return limit > 1 || fill();
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,175 @@
+package de.javafleet.web.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CsvRecordReader - Liest CSV nach RFC 4180, die erste Zeile enthält die Feldnamen
+ *
+ * Felder in Anführungszeichen dürfen Trennzeichen, Zeilenumbrüche und
+ * verdoppelte Anführungszeichen ("") enthalten. Zeilenenden \n und \r\n,
+ * leere Zeilen werden übersprungen.
+ *
+ * Abgelehnt (und übersprungen) werden Zeilen mit falscher Spaltenzahl und
+ * Datensätze über maxRecordChars Zeichen. Ein nicht geschlossenes
+ * Anführungszeichen verschluckt den Rest der Datei.
+ */
+public final class CsvRecordReader implements RecordReader {
+
+    private final CharInput in;
+    private final char delimiter;
+    private final int maxRecordChars;
+
+    private final List<String> values = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+
+    private String[] header;
+    private long line = 1;
+    private long recordLine;
+    private long recordChars;
+
+    /**
+     * @param delimiter Trennzeichen, meist ',' (Excel mit deutscher Einstellung: ';')
+     * @param maxRecordChars längere Datensätze werden abgelehnt
+     */
+    public CsvRecordReader(Reader in, char delimiter, int maxRecordChars) {
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+        this.in = new CharInput(in);
+        this.delimiter = delimiter;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        if (header == null) {
+            readHeader();
+            if (header == null) {
+                return null;
+            }
+        }
+
+        if (!readRecord()) {
+            return null;
+        }
+        if (values.size() != header.length) {
+            throw new RecordFormatException(recordLine,
+                    "Expected " + header.length + " fields but got " + values.size());
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>(header.length * 2);
+        for (int i = 0; i < header.length; i++) {
+            fields.put(header[i], values.get(i));
+        }
+        return new ImportRecord(recordLine, fields);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        if (!readRecord()) {
+            return;
+        }
+        header = new String[values.size()];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = values.get(i).strip();
+        }
+    }
+
+    /**
+     * Liest den nächsten nicht leeren Datensatz nach values
+     * @return false am Ende der Eingabe
+     */
+    private boolean readRecord() throws IOException {
+        int c;
+        do {
+            c = in.read();
+            if (c == '\r' && in.peek() == '\n') {
+                c = in.read();
+            }
+            if (c == '\n') {
+                line++;
+            }
+        } while (c == '\n' || c == '\r');
+        if (c == CharInput.EOF) {
+            return false;
+        }
+
+        values.clear();
+        field.setLength(0);
+        recordLine = line;
+        recordChars = 0;
+
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (quoted) {
+                if (c == CharInput.EOF) {
+                    throw new RecordFormatException(recordLine, "Unterminated quoted field");
+                }
+                if (c == '"') {
+                    if (in.peek() == '"') {
+                        in.read();
+                        append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append((char) c);
+                }
+            } else if (c == delimiter) {
+                recordChars++;
+                endField();
+                fieldStart = true;
+                c = in.read();
+                continue;
+            } else if (c == '\n' || c == '\r' || c == CharInput.EOF) {
+                if (c == '\r' && in.peek() == '\n') {
+                    in.read();
+                }
+                if (c != CharInput.EOF) {
+                    line++;
+                }
+                endField();
+                break;
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+            } else {
+                append((char) c);
+            }
+            fieldStart = false;
+            c = in.read();
+        }
+
+        if (recordChars > maxRecordChars) {
+            throw new RecordFormatException(recordLine,
+                    "Record exceeds " + maxRecordChars + " characters");
+        }
+        return true;
+    }
+
+    private void append(char c) {
+        // Zu lange Datensätze werden bis zum Ende gelesen, aber nicht gespeichert
+        if (++recordChars <= maxRecordChars) {
+            field.append(c);
+        }
+    }
+
+    private void endField() {
+        if (recordChars <= maxRecordChars) {
+            values.add(field.toString());
+        }
+        field.setLength(0);
+    }
+}
@@ -0,0 +1,88 @@
+package de.javafleet.web.bulk;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * DataFormat - Formate für Import und Export
+ */
+public enum DataFormat {
+
+    /** Ein JSON-Objekt pro Zeile, siehe {@link NdjsonRecordReader} */
+    NDJSON("application/x-ndjson", ".ndjson"),
+
+    /** Kopfzeile mit Feldnamen, dann ein Datensatz pro Zeile, siehe {@link CsvRecordReader} */
+    CSV("text/csv", ".csv");
+
+    /** Obergrenze für einen einzelnen Datensatz (Zeichen) */
+    public static final int DEFAULT_MAX_RECORD_CHARS = 1024 * 1024;
+
+    private final String contentType;
+    private final String extension;
+
+    DataFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Content-Type ohne Charset (geschrieben wird immer UTF-8)
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Dateiendung inklusive Punkt
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Öffnet einen Reader für dieses Format
+     * @param delimiter Trennzeichen für CSV, bei NDJSON ohne Bedeutung
+     */
+    public RecordReader open(Reader in, char delimiter) {
+        return switch (this) {
+            case NDJSON -> new NdjsonRecordReader(in, DEFAULT_MAX_RECORD_CHARS);
+            case CSV -> new CsvRecordReader(in, delimiter, DEFAULT_MAX_RECORD_CHARS);
+        };
+    }
+
+    /**
+     * Legt einen Encoder für den Export an, einen pro Thread
+     * @param fields Feldnamen = Spalten 1..n des ResultSets
+     */
+    RowEncoder encoder(List<String> fields, char delimiter) {
+        return switch (this) {
+            case NDJSON -> new RowEncoder.Ndjson(fields);
+            case CSV -> new RowEncoder.Csv(fields, delimiter);
+        };
+    }
+
+    /**
+     * Erkennt das Format an einem Namen ("csv", "ndjson"), einem Content-Type
+     * (text/csv, application/x-ndjson) oder einer Dateiendung (.csv, .ndjson.gz)
+     * @return das Format oder null, wenn nichts passt
+     */
+    public static DataFormat detect(String hint) {
+        if (hint == null) {
+            return null;
+        }
+        String value = hint.toLowerCase(Locale.ROOT);
+        if (value.endsWith(".gz")) {
+            value = value.substring(0, value.length() - 3);
+        }
+        if (value.equals("csv") || value.contains("text/csv") || value.endsWith(".csv")) {
+            return CSV;
+        }
+        if (value.equals("ndjson") || value.equals("jsonl") || value.contains("ndjson")
+                || value.contains("jsonlines") || value.contains("json-seq")
+                || value.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return null;
+    }
+}
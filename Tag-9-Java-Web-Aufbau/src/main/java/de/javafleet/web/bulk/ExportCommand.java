@@ -0,0 +1,135 @@
+package de.javafleet.web.bulk;
+
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.pool.PoolConfig;
+import de.javafleet.web.pool.PooledDataSource;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ExportCommand - Bulk-Export von der Kommandozeile, ohne Payara
+ *
+ * <pre>
+ * java -cp "target/classes:mysql-connector-j.jar" de.javafleet.web.bulk.ExportCommand \
+ *      posts posts.ndjson.gz --url jdbc:mysql://localhost:3306/mywebapp --user root --password secret
+ * </pre>
+ *
+ * Argumente: posts, Datei (- = stdout, .gz wird komprimiert), dann
+ * --url, --user, --password, --format csv|ndjson (Standard: Dateiendung),
+ * --delimiter, --fields id,title,..., --parallelism, --range-size.
+ * Das Ergebnis geht nach stderr.
+ *
+ * Exit-Code: 0 = fertig, 1 = abgebrochen, 2 = falsche Argumente
+ */
+public final class ExportCommand {
+
+    private static final String USAGE =
+            "Usage: ExportCommand posts <file|-> [--url JDBC_URL] [--user USER] [--password PASSWORD]\n"
+            + "                     [--format csv|ndjson] [--delimiter C] [--fields F1,F2,...]\n"
+            + "                     [--parallelism N] [--range-size N]";
+
+    private ExportCommand() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    private static int run(String[] args) {
+        if (args.length < 2 || args.length % 2 != 0) {
+            throw new IllegalArgumentException("Missing arguments");
+        }
+        String entity = args[0];
+        String file = args[1];
+        if (!entity.equals("posts")) {
+            throw new IllegalArgumentException("Unknown entity: " + entity);
+        }
+
+        PoolConfig config = new PoolConfig(ImportCommand.DEFAULT_URL, "root", "");
+        DataFormat format = DataFormat.detect(file.endsWith(".gz") ? file.substring(0, file.length() - 3) : file);
+        char delimiter = ',';
+        List<String> fields = new ArrayList<>(BlogPostDAO.API_FIELDS.keySet());
+        int parallelism = ParallelExporter.DEFAULT_PARALLELISM;
+        long rangeSize = ParallelExporter.DEFAULT_RANGE_SIZE;
+
+        for (int i = 2; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--url" -> config.setUrl(value);
+                case "--user" -> config.setUsername(value);
+                case "--password" -> config.setPassword(value);
+                case "--format" -> format = DataFormat.detect(value);
+                case "--delimiter" -> {
+                    if (value.length() != 1) {
+                        throw new IllegalArgumentException("Delimiter must be one character");
+                    }
+                    delimiter = value.charAt(0);
+                }
+                case "--fields" -> fields = List.of(value.split(","));
+                case "--parallelism" -> parallelism = parseNumber(value, "parallelism");
+                case "--range-size" -> rangeSize = parseNumber(value, "range size");
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Cannot detect format of " + file + ", use --format");
+        }
+        // Vor dem Anlegen der Datei prüfen, der Exporter prüft noch einmal
+        for (String field : fields) {
+            if (!BlogPostDAO.API_FIELDS.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field
+                        + ", allowed: " + BlogPostDAO.API_FIELDS.keySet());
+            }
+        }
+        if (parallelism < 1 || parallelism > ParallelExporter.MAX_PARALLELISM) {
+            throw new IllegalArgumentException("Parallelism must be between 1 and "
+                    + ParallelExporter.MAX_PARALLELISM);
+        }
+
+        // Ein Worker = eine Connection, plus eine für findIdRange()
+        config.setMinIdle(1);
+        config.setMaxSize(parallelism + 1);
+
+        try (PooledDataSource pool = new PooledDataSource(config);
+             OutputStream out = open(file)) {
+
+            ParallelExporter exporter = new ParallelExporter(
+                    ExportSource.posts(new BlogPostDAO(pool)), format, fields);
+            exporter.setParallelism(parallelism);
+            exporter.setRangeSize(rangeSize);
+            exporter.setGzip(file.endsWith(".gz"));
+            exporter.setDelimiter(delimiter);
+
+            System.err.println(exporter.run(out));
+            return 0;
+
+        } catch (IOException | SQLException e) {
+            System.err.println("Export failed: " + e);
+            return 1;
+        }
+    }
+
+    private static int parseNumber(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static OutputStream open(String file) throws IOException {
+        OutputStream out = file.equals("-") ? System.out : new FileOutputStream(file);
+        return new BufferedOutputStream(out, 64 * 1024);
+    }
+}
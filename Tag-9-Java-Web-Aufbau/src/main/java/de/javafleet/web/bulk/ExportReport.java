@@ -0,0 +1,21 @@
+package de.javafleet.web.bulk;
+
+/**
+ * ExportReport - Ergebnis eines Exports
+ *
+ * @param rows geschriebene Zeilen
+ * @param bytes geschriebene Bytes (bei gzip komprimiert)
+ * @param ranges gelesene ID-Bereiche
+ */
+public record ExportReport(String entity, long rows, long bytes, long ranges, long elapsedMillis) {
+
+    public double rowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : rows * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExportReport{entity=%s, rows=%d, bytes=%d, ranges=%d, millis=%d, rowsPerSecond=%.0f}",
+                entity, rows, bytes, ranges, elapsedMillis, rowsPerSecond());
+    }
+}
@@ -0,0 +1,64 @@
+package de.javafleet.web.bulk;
+
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.dao.IdRange;
+import de.javafleet.web.dao.RowCallback;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ExportSource - Woraus ein Export liest: ID-Bereich, erlaubte Felder, Bereichsabfrage
+ */
+public interface ExportSource {
+
+    /**
+     * Name für Report und Metriken ("posts")
+     */
+    String getName();
+
+    /**
+     * Erlaubte Felder in Standard-Reihenfolge
+     */
+    Map<String, String> getFields();
+
+    /**
+     * @return null, wenn es nichts zu exportieren gibt
+     */
+    IdRange findIdRange() throws SQLException;
+
+    /**
+     * Liest alle Zeilen mit fromId &lt;= id &lt; toId, Spalten 1..n = fields
+     * Wird von mehreren Threads gleichzeitig aufgerufen.
+     */
+    void scan(List<String> fields, long fromId, long toId, RowCallback callback) throws SQLException;
+
+    /**
+     * Blog-Posts mit den Feldern der JSON-API
+     */
+    static ExportSource posts(BlogPostDAO blogDAO) {
+        return new ExportSource() {
+
+            @Override
+            public String getName() {
+                return "posts";
+            }
+
+            @Override
+            public Map<String, String> getFields() {
+                return BlogPostDAO.API_FIELDS;
+            }
+
+            @Override
+            public IdRange findIdRange() throws SQLException {
+                return blogDAO.findIdRange();
+            }
+
+            @Override
+            public void scan(List<String> fields, long fromId, long toId,
+                             RowCallback callback) throws SQLException {
+                blogDAO.scanRange(fields, fromId, toId, callback);
+            }
+        };
+    }
+}
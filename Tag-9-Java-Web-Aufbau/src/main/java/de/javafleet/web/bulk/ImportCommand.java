@@ -0,0 +1,157 @@
+package de.javafleet.web.bulk;
+
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.dao.UserDAO;
+import de.javafleet.web.pool.PoolConfig;
+import de.javafleet.web.pool.PooledDataSource;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * ImportCommand - Bulk-Import von der Kommandozeile, ohne Payara
+ *
+ * <pre>
+ * java -cp "target/classes:mysql-connector-j.jar:parsson.jar" de.javafleet.web.bulk.ImportCommand \
+ *      posts posts.ndjson.gz --url jdbc:mysql://localhost:3306/mywebapp --user root --password secret
+ * </pre>
+ *
+ * Argumente: posts|users, Datei (- = stdin, .gz wird entpackt), dann
+ * --url, --user, --password, --format csv|ndjson (Standard: Dateiendung),
+ * --delimiter, --chunk-size. Der Fortschritt geht einmal pro Sekunde nach
+ * stderr, das Ergebnis nach stdout.
+ *
+ * Exit-Code: 0 = fertig (auch mit abgelehnten Zeilen), 1 = abgebrochen,
+ * 2 = falsche Argumente
+ */
+public final class ImportCommand {
+
+    /** Wie in der README, mit rewriteBatchedStatements für schnelle Batches */
+    static final String DEFAULT_URL =
+            "jdbc:mysql://localhost:3306/mywebapp?useSSL=false&serverTimezone=Europe/Berlin"
+            + "&rewriteBatchedStatements=true";
+
+    private static final String USAGE =
+            "Usage: ImportCommand posts|users <file|-> [--url JDBC_URL] [--user USER] [--password PASSWORD]\n"
+            + "                     [--format csv|ndjson] [--delimiter C] [--chunk-size N]";
+
+    private ImportCommand() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    private static int run(String[] args) {
+        if (args.length < 2 || args.length % 2 != 0) {
+            throw new IllegalArgumentException("Missing arguments");
+        }
+        String entity = args[0];
+        String file = args[1];
+        if (!entity.equals("posts") && !entity.equals("users")) {
+            throw new IllegalArgumentException("Unknown entity: " + entity);
+        }
+
+        PoolConfig config = new PoolConfig(DEFAULT_URL, "root", "");
+        config.setMinIdle(1);
+        config.setMaxSize(2);
+        DataFormat format = DataFormat.detect(file);
+        char delimiter = ',';
+        int chunkSize = BulkImporter.DEFAULT_CHUNK_SIZE;
+
+        for (int i = 2; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--url" -> config.setUrl(value);
+                case "--user" -> config.setUsername(value);
+                case "--password" -> config.setPassword(value);
+                case "--format" -> format = DataFormat.detect(value);
+                case "--delimiter" -> {
+                    if (value.length() != 1) {
+                        throw new IllegalArgumentException("Delimiter must be one character");
+                    }
+                    delimiter = value.charAt(0);
+                }
+                case "--chunk-size" -> {
+                    try {
+                        chunkSize = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid chunk size: " + value);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Cannot detect format of " + file + ", use --format");
+        }
+
+        try (PooledDataSource pool = new PooledDataSource(config);
+             RecordReader reader = format.open(
+                 new InputStreamReader(open(file), StandardCharsets.UTF_8), delimiter)) {
+
+            ImportReport report;
+            if (entity.equals("users")) {
+                BulkImporter<?> importer = new BulkImporter<>(ImportTarget.users(new UserDAO(pool)), chunkSize);
+                importer.setProgressListener(new ProgressPrinter());
+                report = importer.run(reader);
+            } else {
+                BulkImporter<?> importer = new BulkImporter<>(ImportTarget.posts(new BlogPostDAO(pool)), chunkSize);
+                importer.setProgressListener(new ProgressPrinter());
+                report = importer.run(reader);
+            }
+
+            System.out.println(report);
+            for (ImportReport.Reject reject : report.getRejects()) {
+                System.out.println("  line " + reject.line() + ": " + reject.reason());
+            }
+            if (report.getRejected() > report.getRejects().size()) {
+                System.out.println("  ... " + (report.getRejected() - report.getRejects().size())
+                        + " more rejected");
+            }
+            return 0;
+
+        } catch (IOException | SQLException e) {
+            System.err.println("Import failed: " + e);
+            return 1;
+        }
+    }
+
+    private static InputStream open(String file) throws IOException {
+        InputStream in = file.equals("-") ? System.in : Files.newInputStream(Path.of(file));
+        in = new BufferedInputStream(in, 64 * 1024);
+        return file.endsWith(".gz") ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    /**
+     * Gibt den Stand höchstens einmal pro Sekunde aus
+     */
+    private static final class ProgressPrinter implements Consumer<ImportReport> {
+
+        private long lastPrint = System.nanoTime();
+
+        @Override
+        public void accept(ImportReport report) {
+            long now = System.nanoTime();
+            if (now - lastPrint >= 1_000_000_000L) {
+                lastPrint = now;
+                System.err.printf("%s: %,d imported, %,d rejected, %,.0f rows/s%n",
+                        report.getEntity(), report.getImported(), report.getRejected(),
+                        report.getRowsPerSecond());
+            }
+        }
+    }
+}
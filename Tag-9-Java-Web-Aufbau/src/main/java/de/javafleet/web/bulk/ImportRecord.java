@@ -0,0 +1,15 @@
+package de.javafleet.web.bulk;
+
+import java.util.Map;
+
+/**
+ * ImportRecord - Ein gelesener Datensatz: Feldname → Wert (null erlaubt)
+ *
+ * @param line Zeile in der Eingabe, in der der Datensatz beginnt (ab 1)
+ */
+public record ImportRecord(long line, Map<String, String> fields) {
+
+    public String get(String name) {
+        return fields.get(name);
+    }
+}
@@ -0,0 +1,122 @@
+package de.javafleet.web.bulk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ImportReport - Fortschritt und Ergebnis eines Imports
+ *
+ * Wird während des Imports von Leser und Schreiber fortgeschrieben und darf
+ * jederzeit abgefragt werden (Fortschrittsanzeige). Von den abgelehnten
+ * Zeilen werden nur die ersten {@link #MAX_REJECTS} mit Grund behalten.
+ */
+public final class ImportReport {
+
+    /** So viele abgelehnte Zeilen werden mit Grund aufgehoben */
+    public static final int MAX_REJECTS = 100;
+
+    private final String entity;
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    private final LongAdder read = new LongAdder();
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final List<Reject> rejects = new ArrayList<>();
+
+    ImportReport(String entity) {
+        this.entity = entity;
+    }
+
+    void recordRead() {
+        read.increment();
+    }
+
+    void recordImported(int rows) {
+        imported.add(rows);
+    }
+
+    void recordRejected(long line, String reason) {
+        rejected.increment();
+        synchronized (rejects) {
+            if (rejects.size() < MAX_REJECTS) {
+                rejects.add(new Reject(line, reason != null ? reason : "Unknown error"));
+            }
+        }
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    /**
+     * Gelesene Datensätze, auch die abgelehnten
+     */
+    public long getRead() {
+        return read.sum();
+    }
+
+    public long getImported() {
+        return imported.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Die ersten abgelehnten Zeilen mit Grund, nach Zeilennummer sortiert
+     */
+    public List<Reject> getRejects() {
+        List<Reject> copy;
+        synchronized (rejects) {
+            copy = new ArrayList<>(rejects);
+        }
+        copy.sort(null);
+        return Collections.unmodifiableList(copy);
+    }
+
+    public boolean isFinished() {
+        return endNanos != 0;
+    }
+
+    /**
+     * Laufzeit bis jetzt bzw. bis zum Ende
+     */
+    public long getElapsedMillis() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Eingefügte Zeilen pro Sekunde über die gesamte Laufzeit
+     */
+    public double getRowsPerSecond() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        long nanos = end - startNanos;
+        return nanos == 0 ? 0 : getImported() * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportReport{entity=%s, read=%d, imported=%d, rejected=%d, millis=%d, rowsPerSecond=%.0f}",
+                entity, getRead(), getImported(), getRejected(), getElapsedMillis(), getRowsPerSecond());
+    }
+
+    /**
+     * Eine abgelehnte Zeile
+     */
+    public record Reject(long line, String reason) implements Comparable<Reject> {
+
+        @Override
+        public int compareTo(Reject other) {
+            return Long.compare(line, other.line);
+        }
+    }
+}
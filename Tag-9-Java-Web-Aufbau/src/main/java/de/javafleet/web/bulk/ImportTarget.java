@@ -0,0 +1,109 @@
+package de.javafleet.web.bulk;
+
+import de.javafleet.web.dao.BatchInsertReport;
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.dao.UserDAO;
+import de.javafleet.web.model.BlogPost;
+import de.javafleet.web.model.User;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * ImportTarget - Wohin ein Import schreibt: Datensatz prüfen, Entity bauen, einfügen
+ *
+ * @param <T> die Entity (BlogPost, User)
+ */
+public interface ImportTarget<T> {
+
+    /**
+     * Name für Report und Metriken ("posts", "users")
+     */
+    String getName();
+
+    /**
+     * Baut die Entity aus einem Datensatz
+     * @throws IllegalArgumentException wenn der Datensatz die Prüfung nicht besteht
+     */
+    T toEntity(ImportRecord record);
+
+    /**
+     * Fügt einen Chunk ein, alles oder nichts
+     */
+    BatchInsertReport insertAll(List<T> items) throws SQLException;
+
+    /**
+     * Fügt eine einzelne Entity ein (um nach einem fehlgeschlagenen Chunk
+     * die schuldigen Zeilen zu finden)
+     */
+    void insert(T item) throws SQLException;
+
+    /**
+     * Blog-Posts mit den Feldern title, content, author, geprüft wie im Formular
+     */
+    static ImportTarget<BlogPost> posts(BlogPostDAO blogDAO) {
+        return new ImportTarget<>() {
+
+            @Override
+            public String getName() {
+                return "posts";
+            }
+
+            @Override
+            public BlogPost toEntity(ImportRecord record) {
+                String title = record.get("title");
+                String content = record.get("content");
+                String author = record.get("author");
+                String error = BlogPost.validate(title, content, author);
+                if (error != null) {
+                    throw new IllegalArgumentException(error);
+                }
+                return new BlogPost(title, content, author);
+            }
+
+            @Override
+            public BatchInsertReport insertAll(List<BlogPost> posts) throws SQLException {
+                return blogDAO.createAll(posts, posts.size());
+            }
+
+            @Override
+            public void insert(BlogPost post) throws SQLException {
+                blogDAO.create(post);
+            }
+        };
+    }
+
+    /**
+     * User mit den Feldern username, email, password
+     */
+    static ImportTarget<User> users(UserDAO userDAO) {
+        return new ImportTarget<>() {
+
+            @Override
+            public String getName() {
+                return "users";
+            }
+
+            @Override
+            public User toEntity(ImportRecord record) {
+                String username = record.get("username");
+                String email = record.get("email");
+                String password = record.get("password");
+                String error = User.validate(username, email, password);
+                if (error != null) {
+                    throw new IllegalArgumentException(error);
+                }
+                return new User(username, email, password);
+            }
+
+            @Override
+            public BatchInsertReport insertAll(List<User> users) throws SQLException {
+                return userDAO.createAll(users, users.size());
+            }
+
+            @Override
+            public void insert(User user) throws SQLException {
+                userDAO.create(user);
+            }
+        };
+    }
+}
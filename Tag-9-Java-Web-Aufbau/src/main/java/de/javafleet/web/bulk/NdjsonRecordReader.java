@@ -0,0 +1,121 @@
+package de.javafleet.web.bulk;
+
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * NdjsonRecordReader - Liest ein flaches JSON-Objekt pro Zeile (NDJSON)
+ *
+ * <pre>
+ * {"title":"Hallo","content":"...","author":"elyndra"}
+ * {"title":"Zweiter Post","content":"...","author":"nova"}
+ * </pre>
+ *
+ * Zahlen und Wahrheitswerte werden als Text übernommen, null bleibt null.
+ * Abgelehnt (und übersprungen) werden Zeilen, die kein JSON-Objekt sind,
+ * verschachtelte Objekte oder Arrays enthalten oder länger als
+ * maxRecordChars Zeichen sind. Leere Zeilen werden übersprungen.
+ */
+public final class NdjsonRecordReader implements RecordReader {
+
+    /** Die Factory sucht den JSON-Provider nur einmal, nicht pro Zeile */
+    private static final JsonParserFactory JSON = Json.createParserFactory(null);
+
+    private final CharInput in;
+    private final int maxRecordChars;
+    private final StringBuilder text = new StringBuilder();
+
+    private long line;
+
+    /**
+     * @param maxRecordChars längere Zeilen werden abgelehnt
+     */
+    public NdjsonRecordReader(Reader in, int maxRecordChars) {
+        this.in = new CharInput(in);
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        while (true) {
+            long length = readLine();
+            if (length < 0) {
+                return null;
+            }
+            if (length > maxRecordChars) {
+                throw new RecordFormatException(line,
+                        "Record exceeds " + maxRecordChars + " characters");
+            }
+            String json = text.toString();
+            if (!json.isBlank()) {
+                return new ImportRecord(line, parse(json));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Liest die nächste Zeile nach text, höchstens maxRecordChars Zeichen
+     * @return Länge der ganzen Zeile oder -1 am Ende der Eingabe
+     */
+    private long readLine() throws IOException {
+        text.setLength(0);
+        int c = in.read();
+        if (c == CharInput.EOF) {
+            return -1;
+        }
+        line++;
+
+        long length = 0;
+        while (c != CharInput.EOF && c != '\n') {
+            if (c != '\r' && ++length <= maxRecordChars) {
+                text.append((char) c);
+            }
+            c = in.read();
+        }
+        return length;
+    }
+
+    private Map<String, String> parse(String json) throws RecordFormatException {
+        try (JsonParser parser = JSON.createParser(new StringReader(json))) {
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT) {
+                throw new RecordFormatException(line, "Expected a JSON object");
+            }
+
+            Map<String, String> fields = new LinkedHashMap<>();
+            String key = null;
+            while (parser.hasNext()) {
+                switch (parser.next()) {
+                    case KEY_NAME -> key = parser.getString();
+                    case VALUE_STRING, VALUE_NUMBER -> fields.put(key, parser.getString());
+                    case VALUE_TRUE -> fields.put(key, "true");
+                    case VALUE_FALSE -> fields.put(key, "false");
+                    case VALUE_NULL -> fields.put(key, null);
+                    case END_OBJECT -> {
+                        if (parser.hasNext()) {
+                            throw new RecordFormatException(line, "Unexpected content after the object");
+                        }
+                        return fields;
+                    }
+                    default -> throw new RecordFormatException(line,
+                            "Nested values are not supported: " + key);
+                }
+            }
+            throw new RecordFormatException(line, "Incomplete JSON object");
+
+        } catch (JsonException e) {
+            throw new RecordFormatException(line, "Invalid JSON: " + e.getMessage());
+        }
+    }
+}
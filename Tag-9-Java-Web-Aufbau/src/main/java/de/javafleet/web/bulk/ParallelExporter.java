@@ -0,0 +1,299 @@
+package de.javafleet.web.bulk;
+
+import de.javafleet.common.compression.CompressionFilter;
+import de.javafleet.common.metrics.Counter;
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.web.dao.IdRange;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * ParallelExporter - Exportiert eine Tabelle über parallele Bereichsabfragen
+ *
+ * Der ID-Bereich (MIN(id)..MAX(id)) wird in Bereiche zu rangeSize IDs
+ * geteilt. Mehrere Worker holen sich reihum den nächsten freien Bereich,
+ * lesen ihn über eine eigene Connection und kodieren die Zeilen in einen
+ * eigenen Puffer. Ist der Puffer voll, wird er als ein Block in den
+ * OutputStream geschrieben. Es schreibt immer nur ein Worker, ist der
+ * Empfänger langsam, warten die anderen (Backpressure). Im Speicher sind
+ * höchstens parallelism Puffer, egal wie groß die Tabelle ist.
+ *
+ * Mit gzip komprimiert jeder Worker seinen Block selbst zu einem eigenen
+ * gzip-Member. Aneinandergehängte Member sind eine gültige gzip-Datei
+ * (RFC 1952, gunzip und GZIPInputStream lesen sie am Stück), und das
+ * Komprimieren läuft parallel statt in einem Stream hinter dem Lock.
+ *
+ * Zu beachten:
+ * - Die Zeilen eines Bereichs kommen in ID-Reihenfolge, die Bereiche
+ *   untereinander nicht. Wer sortiert braucht, sortiert nach dem Import.
+ * - Jeder Bereich ist eine eigene Abfrage: Der Export ist kein Snapshot,
+ *   während des Exports geänderte Zeilen können alt oder neu erscheinen.
+ * - Die Worker sind Plattform-Threads: Die Arbeit ist CPU-lastig (Kodieren,
+ *   Komprimieren), virtuelle Threads brächten hier nichts.
+ * - Parallelität kostet Connections, sie sollte deutlich unter der
+ *   Poolgröße bleiben.
+ * - Der erste Fehler bricht den Export ab, die anderen Worker hören nach
+ *   ihrem nächsten Block auf. Bereits geschriebene Daten bleiben stehen.
+ */
+public final class ParallelExporter {
+
+    private static final Logger LOG = Logger.getLogger(ParallelExporter.class.getName());
+
+    /** IDs pro Bereichsabfrage */
+    public static final long DEFAULT_RANGE_SIZE = 10_000;
+
+    /** Obergrenze für Worker, mehr bringt bei einer Datenbank selten etwas */
+    public static final int MAX_PARALLELISM = 8;
+
+    /** Standard: ein Worker pro Kern, höchstens vier */
+    public static final int DEFAULT_PARALLELISM =
+            Math.min(Runtime.getRuntime().availableProcessors(), 4);
+
+    /** Zeichen pro Block, bevor ein Worker schreibt */
+    private static final int BLOCK_CHARS = 256 * 1024;
+
+    private final ExportSource source;
+    private final DataFormat format;
+    private final List<String> fields;
+
+    private int parallelism = DEFAULT_PARALLELISM;
+    private long rangeSize = DEFAULT_RANGE_SIZE;
+    private boolean gzip;
+    private char delimiter = ',';
+
+    private final Counter rowsExported;
+
+    /**
+     * @param fields Felder aus {@link ExportSource#getFields()} in Ausgabereihenfolge
+     * @throws IllegalArgumentException bei unbekannten Feldern
+     */
+    public ParallelExporter(ExportSource source, DataFormat format, List<String> fields) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("No fields selected");
+        }
+        for (String field : fields) {
+            if (!source.getFields().containsKey(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        this.source = source;
+        this.format = format;
+        this.fields = List.copyOf(fields);
+
+        rowsExported = MetricRegistry.global().counter("export_rows_total",
+                "Rows written by bulk exports", "entity", source.getName());
+    }
+
+    /**
+     * Anzahl paralleler Bereichsabfragen (1 bis {@link #MAX_PARALLELISM})
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1 || parallelism > MAX_PARALLELISM) {
+            throw new IllegalArgumentException("Parallelism must be between 1 and "
+                    + MAX_PARALLELISM + ": " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * IDs pro Bereichsabfrage
+     */
+    public void setRangeSize(long rangeSize) {
+        if (rangeSize < 1) {
+            throw new IllegalArgumentException("Range size must be positive: " + rangeSize);
+        }
+        this.rangeSize = rangeSize;
+    }
+
+    /**
+     * Ausgabe als gzip (aneinandergehängte Member)
+     */
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    /**
+     * Trennzeichen für CSV (Standard: Komma)
+     */
+    public void setDelimiter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Exportiert alle Zeilen nach out
+     * Der Stream wird nicht geschlossen, aber am Ende geflusht.
+     * @throws SQLException wenn eine Abfrage fehlschlägt
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public ExportReport run(OutputStream out) throws IOException, SQLException {
+        long start = System.nanoTime();
+        String header = format.encoder(fields, delimiter).header();
+        IdRange ids = source.findIdRange();
+
+        Export export = new Export(out, ids, ids != null ? ids.chunks(rangeSize) : 0);
+        if (header != null) {
+            export.write(header.getBytes(StandardCharsets.UTF_8), 0);
+        }
+
+        int workers = (int) Math.min(parallelism, export.ranges);
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofPlatform()
+                    .name("export-" + source.getName() + "-" + i)
+                    .start(export::work));
+        }
+        export.join(threads);
+        export.rethrowFailure();
+
+        // Auch ein leerer Export ist eine gültige gzip-Datei
+        if (gzip && export.bytes.get() == 0) {
+            export.write(new byte[0], 0);
+        }
+        out.flush();
+
+        ExportReport report = new ExportReport(source.getName(), export.rows.get(), export.bytes.get(),
+                export.ranges, (System.nanoTime() - start) / 1_000_000);
+        LOG.info(report::toString);
+        return report;
+    }
+
+    /**
+     * Zustand eines laufenden Exports, geteilt von allen Workern
+     */
+    private final class Export {
+
+        private final OutputStream out;
+        private final IdRange ids;
+        final long ranges;
+
+        private final AtomicLong nextRange = new AtomicLong();
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+
+        Export(OutputStream out, IdRange ids, long ranges) {
+            this.out = out;
+            this.ids = ids;
+            this.ranges = ranges;
+        }
+
+        /**
+         * Worker: Bereiche holen und lesen, bis alle vergeben sind oder einer scheitert
+         */
+        void work() {
+            RowEncoder encoder = format.encoder(fields, delimiter);
+            StringBuilder block = new StringBuilder(BLOCK_CHARS + 8 * 1024);
+            long[] blockRows = new long[1];
+
+            try {
+                long range;
+                while (failure.get() == null && (range = nextRange.getAndIncrement()) < ranges) {
+                    long fromId = ids.first() + range * rangeSize;
+                    long toId = Math.min(fromId + rangeSize, ids.last() + 1);
+
+                    source.scan(fields, fromId, toId, rs -> {
+                        encoder.encode(rs, block);
+                        blockRows[0]++;
+                        if (block.length() >= BLOCK_CHARS) {
+                            flush(block, blockRows);
+                        }
+                    });
+                }
+                flush(block, blockRows);
+
+            } catch (Aborted e) {
+                // ein anderer Worker ist gescheitert
+            } catch (UncheckedIOException e) {
+                failure.compareAndSet(null, e.getCause());
+            } catch (SQLException | RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private void flush(StringBuilder block, long[] blockRows) {
+            if (failure.get() != null) {
+                throw new Aborted();
+            }
+            if (block.length() == 0) {
+                return;
+            }
+            byte[] data = block.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                write(data, blockRows[0]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            block.setLength(0);
+            blockRows[0] = 0;
+        }
+
+        /**
+         * Komprimiert (außerhalb des Locks) und schreibt einen Block
+         */
+        void write(byte[] data, long blockRows) throws IOException {
+            if (gzip) {
+                data = CompressionFilter.gzip(data);
+            }
+            writeLock.lock();
+            try {
+                out.write(data);
+            } finally {
+                writeLock.unlock();
+            }
+            bytes.addAndGet(data.length);
+            rows.addAndGet(blockRows);
+            rowsExported.add(blockRows);
+        }
+
+        void join(List<Thread> threads) throws InterruptedIOException {
+            try {
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+                threads.forEach(Thread::interrupt);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Export interrupted");
+            }
+        }
+
+        void rethrowFailure() throws IOException, SQLException {
+            Throwable e = failure.get();
+            if (e instanceof IOException io) {
+                throw io;
+            }
+            if (e instanceof SQLException sql) {
+                throw sql;
+            }
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Beendet einen Worker, nachdem ein anderer gescheitert ist
+     */
+    private static final class Aborted extends RuntimeException {
+
+        Aborted() {
+            super(null, null, false, false);
+        }
+    }
+}
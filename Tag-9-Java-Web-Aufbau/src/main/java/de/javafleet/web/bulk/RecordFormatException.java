@@ -0,0 +1,28 @@
+package de.javafleet.web.bulk;
+
+import java.io.IOException;
+
+/**
+ * RecordFormatException - Ein einzelner Datensatz ist syntaktisch kaputt
+ *
+ * Der {@link RecordReader} steht danach schon am nächsten Datensatz, der
+ * Import zählt die Zeile als abgelehnt und liest weiter.
+ */
+public class RecordFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+
+    public RecordFormatException(long line, String message) {
+        super(message);
+        this.line = line;
+    }
+
+    /**
+     * Zeile, in der der kaputte Datensatz beginnt
+     */
+    public long getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,20 @@
+package de.javafleet.web.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * RecordReader - Liest Datensätze einzeln aus einem Zeichenstrom
+ *
+ * Es wird nie mehr als ein Datensatz im Speicher gehalten, die Eingabe
+ * darf also beliebig groß sein.
+ */
+public interface RecordReader extends Closeable {
+
+    /**
+     * Liest den nächsten Datensatz
+     * @return der Datensatz oder null am Ende der Eingabe
+     * @throws RecordFormatException nur dieser Datensatz ist kaputt, weiterlesen ist möglich
+     */
+    ImportRecord next() throws IOException;
+}
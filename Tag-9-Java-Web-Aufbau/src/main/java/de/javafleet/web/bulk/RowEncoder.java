@@ -0,0 +1,192 @@
+package de.javafleet.web.bulk;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * RowEncoder - Hängt die aktuelle Zeile eines ResultSets als Text an einen Puffer
+ *
+ * Spalten 1..n des ResultSets entsprechen den Feldern. Die Spaltentypen
+ * werden einmal aus den Metadaten gelesen (wie beim JsonRowWriter der API):
+ * Ganzzahlen bleiben Zahlen, Zeitstempel werden ISO-8601 ohne Zeitzone,
+ * alles andere Text. Nicht threadsicher, ein Encoder pro Thread.
+ */
+abstract class RowEncoder {
+
+    final String[] names;
+    private int[] types;
+
+    RowEncoder(List<String> fields) {
+        this.names = fields.toArray(new String[0]);
+    }
+
+    /**
+     * Kopfzeile inklusive Zeilenende oder null
+     */
+    abstract String header();
+
+    abstract void encode(ResultSet rs, StringBuilder out) throws SQLException;
+
+    /**
+     * Liest Spalte column + 1 als Text
+     * @return null bei SQL NULL
+     */
+    final String value(ResultSet rs, int column) throws SQLException {
+        if (types == null) {
+            ResultSetMetaData meta = rs.getMetaData();
+            types = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                types[i] = meta.getColumnType(i + 1);
+            }
+        }
+
+        switch (types[column]) {
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE, Types.DATE -> {
+                Timestamp value = rs.getTimestamp(column + 1);
+                return value != null ? value.toLocalDateTime().toString() : null;
+            }
+            default -> {
+                return rs.getString(column + 1);
+            }
+        }
+    }
+
+    final boolean isNumber(int column) {
+        return switch (types[column]) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Ein JSON-Objekt pro Zeile
+     */
+    static final class Ndjson extends RowEncoder {
+
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        Ndjson(List<String> fields) {
+            super(fields);
+        }
+
+        @Override
+        String header() {
+            return null;
+        }
+
+        @Override
+        void encode(ResultSet rs, StringBuilder out) throws SQLException {
+            out.append('{');
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                quote(names[i], out);
+                out.append(':');
+
+                String value = value(rs, i);
+                if (value == null) {
+                    out.append("null");
+                } else if (isNumber(i)) {
+                    out.append(value);
+                } else {
+                    quote(value, out);
+                }
+            }
+            out.append("}\n");
+        }
+
+        private static void quote(String value, StringBuilder out) {
+            out.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> out.append("\\\"");
+                    case '\\' -> out.append("\\\\");
+                    case '\n' -> out.append("\\n");
+                    case '\r' -> out.append("\\r");
+                    case '\t' -> out.append("\\t");
+                    default -> {
+                        // Zeilentrenner U+2028/U+2029 escapen, damit jede Zeile eigenständig bleibt
+                        if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                            out.append("\\u")
+                               .append(HEX[c >> 12 & 0xF]).append(HEX[c >> 8 & 0xF])
+                               .append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+                        } else {
+                            out.append(c);
+                        }
+                    }
+                }
+            }
+            out.append('"');
+        }
+    }
+
+    /**
+     * CSV nach RFC 4180 mit Kopfzeile, liest sich mit {@link CsvRecordReader}
+     * NULL wird ein leeres Feld.
+     */
+    static final class Csv extends RowEncoder {
+
+        private final char delimiter;
+
+        Csv(List<String> fields, char delimiter) {
+            super(fields);
+            if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+                throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+            }
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        String header() {
+            StringBuilder out = new StringBuilder();
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    out.append(delimiter);
+                }
+                field(names[i], out);
+            }
+            return out.append("\r\n").toString();
+        }
+
+        @Override
+        void encode(ResultSet rs, StringBuilder out) throws SQLException {
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    out.append(delimiter);
+                }
+                String value = value(rs, i);
+                if (value != null) {
+                    field(value, out);
+                }
+            }
+            out.append("\r\n");
+        }
+
+        private void field(String value, StringBuilder out) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == delimiter || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.append(value);
+                return;
+            }
+            out.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.append('"');
+                }
+                out.append(c);
+            }
+            out.append('"');
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.web.model.BlogPost;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * AbstractBlogPostIndex - Gemeinsame Basis für In-Memory-Indizes über Blog-Posts
+ *
+ * Kümmert sich um Aufbau aus {@link BlogPostDAO#streamAll()} (auch im Hintergrund),
+ * um das inkrementelle Nachführen über {@link BlogPostListener} und um das
+ * Locking. Unterklassen liefern nur noch den eigentlichen Indexzustand.
+ *
+ * @param <S> Typ des Indexzustands, wird beim Rebuild als Ganzes ausgetauscht
+ */
+public abstract class AbstractBlogPostIndex<S> implements BlogPostListener {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final Supplier<S> stateFactory;
+
+    private volatile S state;
+    private volatile boolean ready;
+
+    /** Änderungen, die während eines Rebuilds eintreffen (nur unter Write-Lock) */
+    private List<Consumer<S>> pendingChanges;
+
+    /**
+     * @param stateFactory erzeugt einen leeren Indexzustand, ohne auf die
+     *        Unterklasse zuzugreifen (sie ist im Konstruktor noch nicht fertig)
+     */
+    protected AbstractBlogPostIndex(Supplier<S> stateFactory) {
+        this.stateFactory = stateFactory;
+        this.state = stateFactory.get();
+    }
+
+    /**
+     * Nimmt einen Post auf oder ersetzt ihn
+     */
+    protected abstract void put(S state, BlogPost post);
+
+    /**
+     * Entfernt einen Post (ignoriert unbekannte IDs)
+     */
+    protected abstract void remove(S state, int id);
+
+    /**
+     * Wird nach jeder inkrementellen Änderung unter Write-Lock aufgerufen
+     */
+    protected void afterChange(S state) {
+    }
+
+    /**
+     * Wird nach einem Rebuild aufgerufen, bevor der neue Zustand aktiv wird
+     */
+    protected void afterRebuild(S state) {
+    }
+
+    /**
+     * Ist der Index vollständig aufgebaut?
+     * Vorher sollte die Suche auf die Datenbank zurückfallen.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Baut den Index synchron aus allen Posts neu auf
+     * Schreibzugriffe während des Aufbaus gehen nicht verloren, sie werden
+     * am Ende auf den neuen Index nachgespielt.
+     */
+    public void rebuild(BlogPostDAO dao) throws SQLException {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            S fresh = stateFactory.get();
+            try (ResultSetIterator<BlogPost> posts = dao.streamAll()) {
+                while (posts.hasNext()) {
+                    put(fresh, posts.next());
+                }
+            } catch (SQLException | RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Consumer<S> change : pendingChanges) {
+                    change.accept(fresh);
+                }
+                pendingChanges = null;
+                afterRebuild(fresh);
+                state = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Baut den Index in einem Hintergrund-Thread neu auf (für große Datenbestände)
+     * Bis zum Abschluss bleibt der bisherige Index in Betrieb, Fehler werden
+     * geloggt und der Aufbau wiederholt (siehe {@link BackgroundRebuild}).
+     */
+    public CompletableFuture<Void> rebuildInBackground(BlogPostDAO dao) {
+        return BackgroundRebuild.start(getClass().getSimpleName(), () -> rebuild(dao), this::toString);
+    }
+
+    @Override
+    public void postCreated(BlogPost post) {
+        BlogPost copy = copyOf(post);
+        apply(s -> put(s, copy));
+    }
+
+    @Override
+    public void postUpdated(BlogPost post) {
+        BlogPost copy = copyOf(post);
+        apply(s -> put(s, copy));
+    }
+
+    @Override
+    public void postDeleted(int id) {
+        apply(s -> remove(s, id));
+    }
+
+    /**
+     * Führt eine Änderung unter Write-Lock aus
+     */
+    protected void write(Consumer<S> action) {
+        lock.writeLock().lock();
+        try {
+            action.accept(state);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Führt eine Abfrage unter Read-Lock aus
+     */
+    protected <R> R read(Function<S, R> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<S> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            afterChange(state);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static BlogPost copyOf(BlogPost post) {
+        return new BlogPost(post.getId(), post.getTitle(), post.getContent(),
+                            post.getAuthor(), post.getCreatedAt(), post.getUpdatedAt());
+    }
+}
@@ -0,0 +1,84 @@
+package de.javafleet.web.dao;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * BackgroundRebuild - Baut Indizes und Filter in einem Daemon-Thread auf
+ *
+ * Scheitert der Aufbau (z.B. weil die Datenbank beim Start noch nicht
+ * erreichbar ist), wird der Fehler geloggt und nach einer Pause wiederholt:
+ * erst nach einer Sekunde, dann jeweils doppelt so lange, höchstens alle
+ * fünf Minuten. Bis zum ersten Erfolg bleibt der Index "nicht bereit" und
+ * die Aufrufer fragen wie bisher die Datenbank.
+ *
+ * Das Future wird mit dem ersten erfolgreichen Aufbau erfüllt und scheitert
+ * nur, wenn der Thread unterbrochen wird.
+ */
+final class BackgroundRebuild {
+
+    private static final Logger LOG = Logger.getLogger(BackgroundRebuild.class.getName());
+
+    static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    /**
+     * Ein vollständiger, synchroner Rebuild
+     */
+    @FunctionalInterface
+    interface Task {
+        void run() throws SQLException;
+    }
+
+    private BackgroundRebuild() {
+    }
+
+    /**
+     * Startet den Rebuild
+     * @param name für Thread und Log, z.B. "BlogPostIndex"
+     * @param summary Zustand nach dem Aufbau fürs Log
+     */
+    static CompletableFuture<Void> start(String name, Task task, Supplier<?> summary) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Thread thread = new Thread(() -> {
+            long backoff = INITIAL_BACKOFF.toMillis();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    long start = System.nanoTime();
+                    task.run();
+                    LOG.info(() -> String.format("%s rebuilt in %d ms: %s", name,
+                            (System.nanoTime() - start) / 1_000_000, summary.get()));
+                    future.complete(null);
+                    return;
+                } catch (Exception e) {
+                    // Den Stacktrace nur beim ersten Mal, danach reicht die Meldung
+                    String message = String.format("Rebuilding %s failed (attempt %d), retrying in %d ms",
+                            name, attempt, backoff);
+                    if (attempt == 1) {
+                        LOG.log(Level.WARNING, message, e);
+                    } else {
+                        LOG.warning(message + ": " + e);
+                    }
+                }
+
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    LOG.warning(() -> "Rebuilding " + name + " interrupted, index stays incomplete");
+                    future.completeExceptionally(e);
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF.toMillis());
+            }
+        }, name + "-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+
+        return future;
+    }
+}
@@ -0,0 +1,64 @@
+package de.javafleet.web.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BatchInsertReport - Ergebnis eines Bulk-Inserts mit Durchsatz pro Chunk
+ */
+public final class BatchInsertReport {
+
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    void addChunk(int rows, long nanos) {
+        chunks.add(new Chunk(chunks.size() + 1, rows, nanos));
+    }
+
+    public List<Chunk> getChunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    public int getTotalRows() {
+        int rows = 0;
+        for (Chunk chunk : chunks) {
+            rows += chunk.rows();
+        }
+        return rows;
+    }
+
+    public long getTotalMillis() {
+        long nanos = 0;
+        for (Chunk chunk : chunks) {
+            nanos += chunk.nanos();
+        }
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * Durchsatz über alle Chunks (Zeilen pro Sekunde)
+     */
+    public double getRowsPerSecond() {
+        long nanos = 0;
+        for (Chunk chunk : chunks) {
+            nanos += chunk.nanos();
+        }
+        return nanos == 0 ? 0 : getTotalRows() * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchInsertReport{rows=%d, chunks=%d, millis=%d, rowsPerSecond=%.0f}",
+                getTotalRows(), chunks.size(), getTotalMillis(), getRowsPerSecond());
+    }
+
+    /**
+     * Ein Chunk = ein executeBatch() in einer eigenen Transaktion
+     */
+    public record Chunk(int number, int rows, long nanos) {
+
+        public double rowsPerSecond() {
+            return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+        }
+    }
+}
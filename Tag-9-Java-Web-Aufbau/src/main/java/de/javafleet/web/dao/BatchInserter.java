@@ -0,0 +1,159 @@
+package de.javafleet.web.dao;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * BatchInserter - Gemeinsame Bulk-Insert-Logik der DAOs
+ *
+ * Schreibt die Datensätze per addBatch/executeBatch in Chunks fester Größe,
+ * jeden Chunk in einer eigenen Transaktion, und überträgt die generierten
+ * IDs zurück auf die Objekte. Schlägt ein Chunk fehl, wird nur dieser
+ * zurückgerollt, bereits committete Chunks bleiben erhalten.
+ *
+ * Läuft bereits eine Transaktion der {@link UnitOfWork}, werden alle Chunks
+ * darin geschrieben und erst mit ihr committet (alles oder nichts). Die IDs
+ * werden dann erst beim Commit übernommen, nach einem Rollback bleiben die
+ * Objekte unverändert.
+ *
+ * Mit rewriteBatchedStatements=true macht Connector/J aus jedem Chunk ein
+ * Multi-Row-INSERT und errechnet die IDs aus LAST_INSERT_ID() und
+ * auto_increment_increment. Das stimmt, weil ein einfaches INSERT mit
+ * bekannter Zeilenzahl fortlaufende Werte bekommt (in jedem
+ * innodb_autoinc_lock_mode). Für INSERT IGNORE oder ON DUPLICATE KEY UPDATE
+ * gilt das nicht, dafür ist diese Klasse nicht gedacht.
+ */
+final class BatchInserter {
+
+    private static final Logger LOG = Logger.getLogger(BatchInserter.class.getName());
+
+    /** Standard-Chunkgröße: groß genug gegen Round-Trips, klein genug für kurze Transaktionen */
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /**
+     * Setzt die Parameter des INSERTs für ein Objekt
+     */
+    @FunctionalInterface
+    interface ParameterBinder<T> {
+        void bind(PreparedStatement stmt, T item) throws SQLException;
+    }
+
+    /**
+     * Überträgt die generierte ID auf ein Objekt
+     */
+    @FunctionalInterface
+    interface KeySetter<T> {
+        void setKey(T item, int key);
+    }
+
+    private BatchInserter() {
+    }
+
+    static <T> BatchInsertReport insert(DataSource dataSource, String sql,
+                                        Collection<T> items, int chunkSize,
+                                        ParameterBinder<T> binder, KeySetter<T> keySetter,
+                                        Consumer<T> afterCommit) throws SQLException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        BatchInsertReport report = new BatchInsertReport();
+        if (items.isEmpty()) {
+            return report;
+        }
+
+        boolean outerTransaction = UnitOfWork.inTransaction();
+
+        try (Connection conn = UnitOfWork.connection(dataSource)) {
+            boolean autoCommit = conn.getAutoCommit();
+            if (!outerTransaction) {
+                conn.setAutoCommit(false);
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql,
+                     Statement.RETURN_GENERATED_KEYS)) {
+
+                List<T> chunk = new ArrayList<>(Math.min(chunkSize, items.size()));
+                for (T item : items) {
+                    chunk.add(item);
+                    if (chunk.size() == chunkSize) {
+                        insertChunk(conn, stmt, chunk, binder, keySetter, afterCommit, 
+                                    outerTransaction, report);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    insertChunk(conn, stmt, chunk, binder, keySetter, afterCommit, 
+                                outerTransaction, report);
+                }
+
+            } finally {
+                if (!outerTransaction) {
+                    conn.setAutoCommit(autoCommit);
+                }
+            }
+        }
+
+        LOG.fine(report::toString);
+        return report;
+    }
+
+    private static <T> void insertChunk(Connection conn, PreparedStatement stmt, List<T> chunk,
+                                        ParameterBinder<T> binder, KeySetter<T> keySetter,
+                                        Consumer<T> afterCommit, boolean outerTransaction,
+                                        BatchInsertReport report) throws SQLException {
+        long start = System.nanoTime();
+        int[] keys = new int[chunk.size()];
+
+        try {
+            for (T item : chunk) {
+                binder.bind(stmt, item);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            // Generierte IDs kommen in Einfügereihenfolge zurück
+            int count = 0;
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                while (generatedKeys.next() && count < keys.length) {
+                    keys[count++] = generatedKeys.getInt(1);
+                }
+            }
+            if (count != chunk.size()) {
+                throw new SQLException("Batch insert failed, expected " + chunk.size()
+                        + " generated keys but got " + count + ".");
+            }
+
+            if (!outerTransaction) {
+                conn.commit();
+            }
+
+        } catch (SQLException e) {
+            stmt.clearBatch();
+            if (!outerTransaction) {
+                conn.rollback();
+            }
+            throw e;
+        }
+
+        report.addChunk(chunk.size(), System.nanoTime() - start);
+        LOG.fine(() -> String.format("Inserted chunk of %d rows in %d ms",
+                chunk.size(), (System.nanoTime() - start) / 1_000_000));
+
+        // IDs erst nach dem Commit setzen, damit ein Rollback keine Objekte verändert.
+        // Ohne äußere Transaktion ist der Chunk schon committet, afterCommit läuft sofort.
+        for (int i = 0; i < keys.length; i++) {
+            T item = chunk.get(i);
+            int key = keys[i];
+            UnitOfWork.afterCommit(() -> {
+                keySetter.setKey(item, key);
+                afterCommit.accept(item);
+            });
+        }
+    }
+}
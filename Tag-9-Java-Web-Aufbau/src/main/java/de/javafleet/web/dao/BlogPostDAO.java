@@ -1,12 +1,20 @@
 package de.javafleet.web.dao;
 
+import de.javafleet.web.metrics.JdbcMetrics;
 import de.javafleet.web.model.BlogPost;
-import jakarta.annotation.Resource;
+import de.javafleet.web.model.BlogPostSummary;
 import javax.sql.DataSource;
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * BlogPost Data Access Object (DAO)
@@ -14,18 +22,67 @@ import java.util.List;
  */
 public class BlogPostDAO {
     
-    @Resource(name = "jdbc/MyWebAppDB")
-    private DataSource dataSource;
+    /** Obergrenze für Suchtreffer, wenn der Aufrufer keine angibt */
+    public static final int DEFAULT_MAX_RESULTS = 100;
+    
+    /** ServletContext-Attribut für den DAO des BlogServlets samt Listenern */
+    public static final String ATTRIBUTE = BlogPostDAO.class.getName();
+    
+    /**
+     * Spalten für Listenansichten: der Content wird schon in der Datenbank
+     * auf einen Anriss gekürzt und nie vollständig übertragen
+     */
+    static final String SUMMARY_COLUMNS = 
+            "id, title, SUBSTRING(content, 1, " + BlogPostSummary.EXCERPT_LENGTH + ") AS excerpt, " +
+            "CHAR_LENGTH(content) AS content_length, author, created_at, updated_at";
+    
+    /** Felder der JSON-API und ihre SQL-Ausdrücke */
+    public static final Map<String, String> API_FIELDS = apiFields();
+    
+    /** Felder der JSON-API ohne Auswahl: alles außer dem vollständigen Content */
+    public static final List<String> DEFAULT_API_FIELDS = List.of(
+            "id", "title", "excerpt", "contentLength", "author", "createdAt", "updatedAt");
+    
+    private final DataSource dataSource;
+    
+    private volatile BlogPostSearchEngine searchEngine;
+    
+    private final List<BlogPostListener> listeners = new CopyOnWriteArrayList<>();
+    
+    private final CachedCount cachedCount = new CachedCount();
+    
+    /** Änderungsstand für findListVersion(CountMode.CACHED) */
+    private final CachedVersion listVersion = new CachedVersion();
+    
+    /** Sammelt gleichzeitige create()-Aufrufe, null = aus */
+    private volatile GroupCommitWriter<BlogPost> groupCommit;
+    
+    /** Read-Through-Cache für findById (1000 Posts, 60 Sekunden) */
+    private final EntityCache<Integer, BlogPost> postCache = 
+            new EntityCache<>(1000, 60_000, BlogPostDAO::copyOf);
     
     /**
-     * Holt alle Blog-Posts aus der Datenbank
+     * @param dataSource im Container die per @Resource in den Servlet
+     *        injizierte DataSource, ohne Container (Batch-Jobs, Tests) z.B.
+     *        ein {@link de.javafleet.web.pool.PooledDataSource}. Request-Threads
+     *        nutzen die Connection ihrer {@link UnitOfWork}, alle anderen
+     *        Threads (Index-Aufbau, Export, Group Commit) diese DataSource.
+     */
+    public BlogPostDAO(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+    
+    /**
+     * Holt alle Blog-Posts inklusive Content aus der Datenbank
+     * Für Listenansichten {@link #streamSummaries()} verwenden.
      */
     public List<BlogPost> findAll() throws SQLException {
         List<BlogPost> posts = new ArrayList<>();
         String sql = "SELECT id, title, content, author, created_at, updated_at " +
                     "FROM blog_posts ORDER BY created_at DESC";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("BlogPostDAO.findAll");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
@@ -37,14 +94,180 @@ public class BlogPostDAO {
         return posts;
     }
     
+    /**
+     * Streamt alle Blog-Posts, statt sie komplett in eine Liste zu laden
+     * 
+     * Nutzt ein forward-only/read-only ResultSet mit passender Fetch-Size,
+     * die Posts werden erst beim Iterieren gelesen. Der Heap-Verbrauch bleibt
+     * so unabhängig von der Tabellengröße. Der Iterator hält eine Connection
+     * offen und MUSS geschlossen werden (try-with-resources).
+     * Lädt den vollständigen Content, z.B. für den Aufbau des Suchindex.
+     */
+    public ResultSetIterator<BlogPost> streamAll() throws SQLException {
+        String sql = "SELECT id, title, content, author, created_at, updated_at " +
+                    "FROM blog_posts ORDER BY created_at DESC";
+        
+        JdbcMetrics.tag("BlogPostDAO.streamAll");
+        Connection conn = UnitOfWork.connection(dataSource);
+        try {
+            PreparedStatement stmt = conn.prepareStatement(sql, 
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(DatabaseSupport.streamingFetchSize(conn));
+            return new ResultSetIterator<>(conn, stmt, stmt.executeQuery(), 
+                                           BlogPostDAO::mapRowToBlogPost);
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Streamt die Kurzfassungen aller Blog-Posts für die Listenansicht
+     * Der Iterator hält eine Connection offen und MUSS geschlossen werden.
+     */
+    public ResultSetIterator<BlogPostSummary> streamSummaries() throws SQLException {
+        return streamSummaries(null);
+    }
+    
+    /**
+     * Streamt die Kurzfassungen aller Blog-Posts samt Gesamtanzahl
+     * Die Anzahl wird vorab über dieselbe Connection gezählt (bzw. bei
+     * CountMode.CACHED aus dem Cache genommen), es bleibt bei einem Checkout.
+     * @param countMode Herkunft der Gesamtanzahl, null = nicht zählen
+     */
+    public ResultSetIterator<BlogPostSummary> streamSummaries(CountMode countMode) 
+            throws SQLException {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM blog_posts ORDER BY created_at DESC";
+        
+        JdbcMetrics.tag("BlogPostDAO.streamSummaries");
+        Connection conn = UnitOfWork.connection(dataSource);
+        try {
+            int total = -1;
+            if (countMode != null) {
+                total = countMode == CountMode.CACHED ? cachedCount.get() : -1;
+                if (total < 0) {
+                    total = count(conn);
+                    cachedCount.set(total);
+                }
+            }
+            
+            PreparedStatement stmt = conn.prepareStatement(sql, 
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(DatabaseSupport.streamingFetchSize(conn));
+            return new ResultSetIterator<>(conn, stmt, stmt.executeQuery(), 
+                                           BlogPostDAO::mapRowToSummary, total);
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+    
     /**
      * Holt einen Blog-Post anhand der ID
+     * Einziger Lesezugriff, der den vollständigen Content lädt.
+     * Häufig gelesene Posts kommen aus dem Cache, update() und delete()
+     * verwerfen den Eintrag sofort.
      */
     public BlogPost findById(int id) throws SQLException {
+        // In einer Transaktion können noch nicht committete Änderungen sichtbar sein
+        if (UnitOfWork.inTransaction()) {
+            return loadById(id);
+        }
+        return postCache.get(id, this::loadById);
+    }
+    
+    /**
+     * Liefert die Statistik des findById-Caches (Hits, Misses, Verdrängungen)
+     */
+    public EntityCache.Stats getCacheStats() {
+        return postCache.getStats();
+    }
+
+    /**
+     * Liest nur den Änderungsstand eines Posts (für Conditional GET)
+     * Ein Zugriff über den Primärschlüssel, Content wird nicht geladen.
+     * @return null, wenn es den Post nicht gibt
+     */
+    public ContentVersion findVersion(int id) throws SQLException {
+        String sql = "SELECT updated_at FROM blog_posts WHERE id = ?";
+
+        JdbcMetrics.tag("BlogPostDAO.findVersion");
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp updatedAt = rs.getTimestamp(1);
+                    return new ContentVersion(
+                            updatedAt != null ? updatedAt.toLocalDateTime() : null, 1);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Liest den Änderungsstand aller Posts: jüngstes updated_at und Anzahl
+     * MAX(updated_at) kommt direkt aus idx_updated_at, COUNT(*) liest den
+     * kleinsten Index. Beides ist deutlich billiger als eine Seite zu rendern.
+     * Die Anzahl aktualisiert nebenbei den Cache für {@link CountMode#CACHED}.
+     */
+    public ContentVersion findListVersion() throws SQLException {
+        return findListVersion(CountMode.EXACT);
+    }
+    
+    /**
+     * Liest den Änderungsstand aller Posts, bei CountMode.CACHED aus dem Cache
+     * Jeder Schreibzugriff über diesen DAO verwirft den gecachten Stand,
+     * Änderungen von außen sind spätestens nach 30 Sekunden sichtbar. In
+     * einer Transaktion wird wie bei findById immer gelesen.
+     */
+    public ContentVersion findListVersion(CountMode countMode) throws SQLException {
+        boolean inTransaction = UnitOfWork.inTransaction();
+        if (countMode == CountMode.CACHED && !inTransaction) {
+            ContentVersion cached = listVersion.get();
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        String sql = "SELECT MAX(updated_at), COUNT(*) FROM blog_posts";
+
+        JdbcMetrics.tag("BlogPostDAO.findListVersion");
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                Timestamp updatedAt = rs.getTimestamp(1);
+                int total = rs.getInt(2);
+                ContentVersion version = new ContentVersion(
+                        updatedAt != null ? updatedAt.toLocalDateTime() : null, total);
+                // Uncommittete Stände gehören nicht in die Caches aller Requests
+                if (!inTransaction) {
+                    // Die exakte Anzahl gibt es hier nebenbei
+                    cachedCount.set(total);
+                    listVersion.set(version);
+                }
+                return version;
+            }
+        }
+
+        return new ContentVersion(null, 0);
+    }
+
+    /**
+     * Helper-Methode: Lädt einen Blog-Post am Cache vorbei aus der Datenbank
+     */
+    private BlogPost loadById(int id) throws SQLException {
         String sql = "SELECT id, title, content, author, created_at, updated_at " +
                     "FROM blog_posts WHERE id = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("BlogPostDAO.findById");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
@@ -62,19 +285,20 @@ public class BlogPostDAO {
     /**
      * Holt Posts eines bestimmten Autors
      */
-    public List<BlogPost> findByAuthor(String author) throws SQLException {
-        List<BlogPost> posts = new ArrayList<>();
-        String sql = "SELECT id, title, content, author, created_at, updated_at " +
+    public List<BlogPostSummary> findByAuthor(String author) throws SQLException {
+        List<BlogPostSummary> posts = new ArrayList<>();
+        String sql = "SELECT " + SUMMARY_COLUMNS + " " +
                     "FROM blog_posts WHERE author = ? ORDER BY created_at DESC";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("BlogPostDAO.findByAuthor");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, author);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    posts.add(mapRowToBlogPost(rs));
+                    posts.add(mapRowToSummary(rs));
                 }
             }
         }
@@ -84,42 +308,128 @@ public class BlogPostDAO {
     
     /**
      * Sucht Blog-Posts anhand eines Suchbegriffs (Titel oder Content)
+     * Die Treffer sind nach Relevanz sortiert und auf DEFAULT_MAX_RESULTS begrenzt.
      */
-    public List<BlogPost> search(String query) throws SQLException {
-        List<BlogPost> posts = new ArrayList<>();
-        String sql = "SELECT id, title, content, author, created_at, updated_at " +
-                    "FROM blog_posts WHERE title LIKE ? OR content LIKE ? " +
-                    "ORDER BY created_at DESC";
+    public List<BlogPostSummary> search(String query) throws SQLException {
+        List<BlogPostSummary> posts = new ArrayList<>();
+        
+        for (SearchResult result : search(query, SearchMode.NATURAL_LANGUAGE, 
+                                          DEFAULT_MAX_RESULTS)) {
+            posts.add(result.getPost());
+        }
         
-        String searchPattern = "%" + query + "%";
+        return posts;
+    }
+    
+    /**
+     * Sucht Blog-Posts mit Relevanz-Score über die konfigurierte Suchstrategie
+     * @param query Suchbegriff(e)
+     * @param mode Suchmodus (natürliche Sprache oder boolesch)
+     * @param maxResults maximale Anzahl Treffer
+     */
+    public List<SearchResult> search(String query, SearchMode mode, int maxResults) 
+            throws SQLException {
+        if (query == null || query.isBlank()) {
+            return new ArrayList<>();
+        }
+        JdbcMetrics.tag("BlogPostDAO.search");
+        return getSearchEngine().search(query.trim(), mode, maxResults);
+    }
+    
+    /**
+     * Registriert einen Listener, der nach erfolgreichen Schreibzugriffen
+     * benachrichtigt wird (z.B. ein Suchindex oder Cache)
+     */
+    public void addListener(BlogPostListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Setzt die Suchstrategie (z.B. für Tests oder einen externen Suchindex)
+     */
+    public void setSearchEngine(BlogPostSearchEngine searchEngine) {
+        this.searchEngine = searchEngine;
+    }
+    
+    /**
+     * Liefert die Suchstrategie, beim ersten Aufruf passend zur Datenbank:
+     * MySQL/MariaDB nutzen den FULLTEXT-Index, alle anderen den LIKE-Fallback
+     */
+    BlogPostSearchEngine getSearchEngine() throws SQLException {
+        BlogPostSearchEngine engine = searchEngine;
+        if (engine == null) {
+            boolean mySql;
+            try (Connection conn = UnitOfWork.connection(dataSource)) {
+                mySql = DatabaseSupport.isMySql(conn);
+            }
+            
+            if (mySql) {
+                engine = new FullTextSearchEngine(dataSource);
+            } else {
+                engine = new LikeSearchEngine(dataSource);
+            }
+            searchEngine = engine;
+        }
+        return engine;
+    }
+    
+    /**
+     * Holt eine paginierte Liste von Blog-Posts
+     * @param limit Anzahl der Posts pro Seite
+     * @param offset Startposition
+     */
+    public List<BlogPostSummary> findPaginated(int limit, int offset) throws SQLException {
+        List<BlogPostSummary> posts = new ArrayList<>();
+        String sql = "SELECT " + SUMMARY_COLUMNS + " " +
+                    "FROM blog_posts ORDER BY created_at DESC LIMIT ? OFFSET ?";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("BlogPostDAO.findPaginated");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    posts.add(mapRowToBlogPost(rs));
+                    posts.add(mapRowToSummary(rs));
                 }
             }
         }
         
         return posts;
     }
-    
+
     /**
-     * Holt eine paginierte Liste von Blog-Posts
+     * Holt eine paginierte Liste von Blog-Posts samt Gesamtanzahl in einer Abfrage
+     * 
+     * Die Anzahl kommt aus einer abgeleiteten Tabelle mit genau einer Zeile,
+     * an die die Seite per LEFT JOIN gehängt wird. So werden nur die Zeilen
+     * der Seite projiziert (Anriss, Länge), nicht alle gezählten wie bei
+     * COUNT(*) OVER(). Hinter der letzten Seite bleibt die Zeile mit der
+     * Anzahl und leeren Spalten übrig. Bei CountMode.CACHED und gültigem
+     * Cache wird nur die Seite gelesen.
+     * 
      * @param limit Anzahl der Posts pro Seite
      * @param offset Startposition
+     * @param countMode exakte oder gecachte Gesamtanzahl
      */
-    public List<BlogPost> findPaginated(int limit, int offset) throws SQLException {
-        List<BlogPost> posts = new ArrayList<>();
-        String sql = "SELECT id, title, content, author, created_at, updated_at " +
-                    "FROM blog_posts ORDER BY created_at DESC LIMIT ? OFFSET ?";
+    public Page<BlogPostSummary> findPaginated(int limit, int offset, CountMode countMode) 
+            throws SQLException {
+        int total = countMode == CountMode.CACHED ? cachedCount.get() : -1;
+        if (total >= 0) {
+            return new Page<>(findPaginated(limit, offset), offset, limit, total);
+        }
+        
+        List<BlogPostSummary> posts = new ArrayList<>(limit);
+        String sql = "SELECT c.total_count, p.* " +
+                    "FROM (SELECT COUNT(*) AS total_count FROM blog_posts) c " +
+                    "LEFT JOIN (SELECT " + SUMMARY_COLUMNS + " FROM blog_posts " +
+                    "ORDER BY created_at DESC LIMIT ? OFFSET ?) p ON TRUE " +
+                    "ORDER BY p.created_at DESC";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("BlogPostDAO.findPaginated");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, limit);
@@ -127,21 +437,238 @@ public class BlogPostDAO {
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    posts.add(mapRowToBlogPost(rs));
+                    total = rs.getInt("total_count");
+                    // Leere Seite: nur die Anzahl, die Spalten der Seite sind NULL
+                    rs.getInt("id");
+                    if (!rs.wasNull()) {
+                        posts.add(mapRowToSummary(rs));
+                    }
                 }
             }
         }
         
-        return posts;
+        cachedCount.set(total);
+        
+        return new Page<>(posts, offset, limit, total);
+    }
+
+    /**
+     * Holt eine Seite von Blog-Posts per Keyset-Pagination (Seek-Methode)
+     *
+     * Statt OFFSET wird ab (created_at, id) des Cursors weitergelesen. Über
+     * idx_created_at springt die Datenbank direkt an diese Stelle, die Kosten
+     * pro Seite bleiben deshalb unabhängig von der Seitentiefe.
+     *
+     * @param limit Anzahl der Posts pro Seite
+     * @param cursor Position aus einer vorherigen Seite, null für die erste Seite
+     */
+    public KeysetPage<BlogPostSummary> findPage(int limit, PageCursor cursor) throws SQLException {
+        boolean backwards = cursor != null
+                && cursor.getDirection() == PageCursor.Direction.PREVIOUS;
+
+        String sql;
+        if (cursor == null) {
+            sql = "SELECT " + SUMMARY_COLUMNS + " " +
+                  "FROM blog_posts ORDER BY created_at DESC, id DESC LIMIT ?";
+        } else if (backwards) {
+            sql = "SELECT " + SUMMARY_COLUMNS + " " +
+                  "FROM blog_posts WHERE created_at > ? OR (created_at = ? AND id > ?) " +
+                  "ORDER BY created_at ASC, id ASC LIMIT ?";
+        } else {
+            sql = "SELECT " + SUMMARY_COLUMNS + " " +
+                  "FROM blog_posts WHERE created_at < ? OR (created_at = ? AND id < ?) " +
+                  "ORDER BY created_at DESC, id DESC LIMIT ?";
+        }
+
+        List<BlogPostSummary> posts = new ArrayList<>(limit + 1);
+
+        JdbcMetrics.tag("BlogPostDAO.findPage");
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (cursor != null) {
+                Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setInt(index++, cursor.getId());
+            }
+            // Ein Datensatz mehr als nötig verrät, ob es weitere Seiten gibt
+            stmt.setInt(index, limit + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    posts.add(mapRowToSummary(rs));
+                }
+            }
+        }
+
+        boolean hasMore = posts.size() > limit;
+        if (hasMore) {
+            posts.remove(posts.size() - 1);
+        }
+        if (backwards) {
+            Collections.reverse(posts);
+        }
+
+        if (posts.isEmpty()) {
+            return new KeysetPage<>(posts, null, null);
+        }
+
+        // Vorwärts gibt es nur bei hasMore eine nächste Seite, rückwärts immer
+        boolean hasNext = backwards || hasMore;
+        boolean hasPrevious = backwards ? hasMore : cursor != null;
+
+        String nextCursor = hasNext
+                ? cursorFor(PageCursor.Direction.NEXT, posts.get(posts.size() - 1))
+                : null;
+        String previousCursor = hasPrevious
+                ? cursorFor(PageCursor.Direction.PREVIOUS, posts.get(0))
+                : null;
+
+        return new KeysetPage<>(posts, nextCursor, previousCursor);
+    }
+
+    /**
+     * Liest eine Seite für die JSON-API und reicht jede Zeile direkt weiter
+     *
+     * Gelesen werden nur die gewünschten Felder, die Spalten 1..fields.size()
+     * des ResultSets entsprechen fields (Spaltenname = Feldname). Es entsteht
+     * kein Objekt pro Zeile, callback schreibt die Werte sofort heraus.
+     * Sortiert wird wie bei {@link #findPage(int, PageCursor)} über
+     * idx_created_at, die Kosten pro Seite hängen nicht von der Tiefe ab.
+     *
+     * @param fields Felder aus {@link #API_FIELDS}
+     * @param cursor Position aus einer vorherigen Seite (nur NEXT), null für den Anfang
+     * @return Cursor-Token für die nächste Seite oder null auf der letzten Seite
+     * @throws IllegalArgumentException bei unbekannten Feldern oder einem Rückwärts-Cursor
+     */
+    public String streamApiPage(List<String> fields, int limit, PageCursor cursor, 
+                                RowCallback callback) throws SQLException {
+        if (cursor != null && cursor.getDirection() != PageCursor.Direction.NEXT) {
+            throw new IllegalArgumentException("Only forward cursors are supported");
+        }
+        
+        String sql = "SELECT " + DatabaseSupport.selectList(fields, API_FIELDS) + 
+                    ", id AS cursor_id, created_at AS cursor_created_at FROM blog_posts " +
+                    (cursor != null ? "WHERE created_at < ? OR (created_at = ? AND id < ?) " : "") +
+                    "ORDER BY created_at DESC, id DESC LIMIT ?";
+        
+        JdbcMetrics.tag("BlogPostDAO.streamApiPage");
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (cursor != null) {
+                Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setInt(index++, cursor.getId());
+            }
+            // Ein Datensatz mehr als nötig verrät, ob es weitere Seiten gibt
+            stmt.setInt(index, limit + 1);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                int rows = 0;
+                int lastId = 0;
+                Timestamp lastCreatedAt = null;
+                while (rs.next()) {
+                    if (rows == limit) {
+                        return lastCreatedAt != null
+                                ? new PageCursor(PageCursor.Direction.NEXT, 
+                                                 lastCreatedAt.toLocalDateTime(), lastId).encode()
+                                : null;
+                    }
+                    callback.processRow(rs);
+                    lastId = rs.getInt("cursor_id");
+                    lastCreatedAt = rs.getTimestamp("cursor_created_at");
+                    rows++;
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Kleinste und größte ID, z.B. um einen Export in Bereiche aufzuteilen
+     * @return null, wenn die Tabelle leer ist
+     */
+    public IdRange findIdRange() throws SQLException {
+        String sql = "SELECT MIN(id), MAX(id) FROM blog_posts";
+        
+        JdbcMetrics.tag("BlogPostDAO.findIdRange");
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                long first = rs.getLong(1);
+                if (!rs.wasNull()) {
+                    return new IdRange(first, rs.getLong(2));
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Liest alle Posts mit fromId &lt;= id &lt; toId und reicht jede Zeile direkt weiter
+     * 
+     * Wie {@link #streamApiPage}: nur die gewünschten Felder, Spalten
+     * 1..fields.size() entsprechen fields, kein Objekt pro Zeile. Die Abfrage
+     * läuft über den Primärschlüssel und wird gestreamt, Bereiche lassen sich
+     * also gefahrlos groß wählen und auf mehreren Connections parallel lesen.
+     * 
+     * @param fields Felder aus {@link #API_FIELDS}
+     * @throws IllegalArgumentException bei unbekannten Feldern
+     */
+    public void scanRange(List<String> fields, long fromId, long toId, 
+                          RowCallback callback) throws SQLException {
+        String sql = "SELECT " + DatabaseSupport.selectList(fields, API_FIELDS) + 
+                    " FROM blog_posts WHERE id >= ? AND id < ? ORDER BY id";
+        
+        JdbcMetrics.tag("BlogPostDAO.scanRange");
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql, 
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(DatabaseSupport.streamingFetchSize(conn));
+            stmt.setLong(1, fromId);
+            stmt.setLong(2, toId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    callback.processRow(rs);
+                }
+            }
+        }
     }
     
     /**
      * Erstellt einen neuen Blog-Post
+     * 
+     * Mit {@link #enableGroupCommit} und ohne laufende Transaktion wird der
+     * Post mit gleichzeitigen create()-Aufrufen in einem Batch geschrieben.
+     * Zurück kommt der Aufruf in beiden Fällen erst nach dem Commit, mit ID.
      */
     public void create(BlogPost post) throws SQLException {
+        GroupCommitWriter<BlogPost> writer = groupCommit;
+        if (writer != null && !UnitOfWork.inTransaction()) {
+            writer.write(post);
+            cachedCount.invalidate();
+            listVersion.invalidate();
+            for (BlogPostListener listener : listeners) {
+                listener.postCreated(post);
+            }
+            return;
+        }
+        
         String sql = "INSERT INTO blog_posts (title, content, author) VALUES (?, ?, ?)";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("BlogPostDAO.create");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql, 
                  Statement.RETURN_GENERATED_KEYS)) {
             
@@ -164,15 +691,97 @@ public class BlogPostDAO {
                 }
             }
         }
+        
+        UnitOfWork.afterCommit(() -> {
+            cachedCount.invalidate();
+            listVersion.invalidate();
+            for (BlogPostListener listener : listeners) {
+                listener.postCreated(post);
+            }
+        });
+    }
+    
+    /**
+     * Schaltet Group Commit für {@link #create(BlogPost)} ein
+     * 
+     * Statt einem Autocommit-INSERT (und einem fsync) pro Post schreibt ein
+     * Hintergrund-Thread alle gleichzeitig wartenden Posts in einer
+     * Transaktion. Lohnt sich bei vielen parallelen Schreibern, kostet aber
+     * unter Last bis zu maxDelay Latenz pro Aufruf.
+     * 
+     * @param maxRows höchstens so viele Posts pro Transaktion
+     * @param maxDelay so lange wird unter Last höchstens gesammelt
+     */
+    public synchronized void enableGroupCommit(int maxRows, Duration maxDelay) {
+        disableGroupCommit();
+        String sql = "INSERT INTO blog_posts (title, content, author) VALUES (?, ?, ?)";
+        groupCommit = new GroupCommitWriter<>("BlogPostDAO", posts -> {
+            JdbcMetrics.tag("BlogPostDAO.create");
+            BatchInserter.insert(dataSource, sql, posts, posts.size(),
+                (stmt, post) -> {
+                    stmt.setString(1, post.getTitle());
+                    stmt.setString(2, post.getContent());
+                    stmt.setString(3, post.getAuthor());
+                },
+                BlogPost::setId,
+                post -> { });
+        }, maxRows, maxDelay);
+    }
+    
+    /**
+     * Schaltet Group Commit ab, wartende Posts werden noch geschrieben
+     */
+    public synchronized void disableGroupCommit() {
+        GroupCommitWriter<BlogPost> writer = groupCommit;
+        if (writer != null) {
+            groupCommit = null;
+            writer.close();
+        }
+    }
+    
+    /**
+     * Legt viele Blog-Posts per JDBC-Batch an (Chunks à 500 Zeilen)
+     */
+    public BatchInsertReport createAll(Collection<BlogPost> posts) throws SQLException {
+        return createAll(posts, BatchInserter.DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Legt viele Blog-Posts per JDBC-Batch an
+     * Ein Round-Trip und eine Transaktion pro Chunk statt pro Zeile,
+     * die generierten IDs werden in die Objekte übernommen.
+     * @param chunkSize Anzahl Zeilen pro executeBatch()/Commit
+     */
+    public BatchInsertReport createAll(Collection<BlogPost> posts, int chunkSize) 
+            throws SQLException {
+        String sql = "INSERT INTO blog_posts (title, content, author) VALUES (?, ?, ?)";
+        
+        JdbcMetrics.tag("BlogPostDAO.createAll");
+        return BatchInserter.insert(dataSource, sql, posts, chunkSize,
+            (stmt, post) -> {
+                stmt.setString(1, post.getTitle());
+                stmt.setString(2, post.getContent());
+                stmt.setString(3, post.getAuthor());
+            },
+            BlogPost::setId,
+            post -> {
+                cachedCount.invalidate();
+                listVersion.invalidate();
+                for (BlogPostListener listener : listeners) {
+                    listener.postCreated(post);
+                }
+            });
     }
     
     /**
      * Aktualisiert einen existierenden Blog-Post
+     * Danach trägt post die Zeitstempel aus der Datenbank, auch für die Listener.
      */
     public void update(BlogPost post) throws SQLException {
         String sql = "UPDATE blog_posts SET title = ?, content = ?, author = ? WHERE id = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("BlogPostDAO.update");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, post.getTitle());
@@ -185,7 +794,19 @@ public class BlogPostDAO {
             if (affectedRows == 0) {
                 throw new SQLException("Updating blog post failed, no rows affected.");
             }
+            
+            // updated_at setzt die Datenbank (ON UPDATE), created_at kennt der
+            // Aufrufer oft nicht: Listener und Indizes sollen den gespeicherten Stand sehen
+            readTimestamps(conn, post);
         }
+        
+        UnitOfWork.afterCommit(() -> {
+            postCache.invalidate(post.getId());
+            listVersion.invalidate();
+            for (BlogPostListener listener : listeners) {
+                listener.postUpdated(post);
+            }
+        });
     }
     
     /**
@@ -194,7 +815,8 @@ public class BlogPostDAO {
     public void delete(int id) throws SQLException {
         String sql = "DELETE FROM blog_posts WHERE id = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("BlogPostDAO.delete");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
@@ -205,16 +827,46 @@ public class BlogPostDAO {
                 throw new SQLException("Deleting blog post failed, no rows affected.");
             }
         }
+        
+        UnitOfWork.afterCommit(() -> {
+            postCache.invalidate(id);
+            cachedCount.invalidate();
+            listVersion.invalidate();
+            for (BlogPostListener listener : listeners) {
+                listener.postDeleted(id);
+            }
+        });
     }
     
     /**
      * Zählt alle Blog-Posts
      */
     public int count() throws SQLException {
+        JdbcMetrics.tag("BlogPostDAO.count");
+        try (Connection conn = UnitOfWork.connection(dataSource)) {
+            return count(conn);
+        }
+    }
+    
+    /**
+     * Zählt alle Blog-Posts, bei CountMode.CACHED höchstens 30 Sekunden alt
+     */
+    public int count(CountMode countMode) throws SQLException {
+        int total = countMode == CountMode.CACHED ? cachedCount.get() : -1;
+        if (total < 0) {
+            total = count();
+            cachedCount.set(total);
+        }
+        return total;
+    }
+    
+    /**
+     * Helper-Methode: Zählt über eine bereits ausgeliehene Connection
+     */
+    private static int count(Connection conn) throws SQLException {
         String sql = "SELECT COUNT(*) FROM blog_posts";
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             if (rs.next()) {
@@ -228,7 +880,7 @@ public class BlogPostDAO {
     /**
      * Helper-Methode: Mappt eine ResultSet-Zeile zu einem BlogPost-Objekt
      */
-    private BlogPost mapRowToBlogPost(ResultSet rs) throws SQLException {
+    static BlogPost mapRowToBlogPost(ResultSet rs) throws SQLException {
         BlogPost post = new BlogPost();
         post.setId(rs.getInt("id"));
         post.setTitle(rs.getString("title"));
@@ -247,4 +899,82 @@ public class BlogPostDAO {
         
         return post;
     }
+
+    /**
+     * Helper-Methode: Liest created_at und updated_at eines Posts nach
+     */
+    private static void readTimestamps(Connection conn, BlogPost post) throws SQLException {
+        String sql = "SELECT created_at, updated_at FROM blog_posts WHERE id = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, post.getId());
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp createdTimestamp = rs.getTimestamp("created_at");
+                    post.setCreatedAt(createdTimestamp != null ? createdTimestamp.toLocalDateTime() : null);
+                    Timestamp updatedTimestamp = rs.getTimestamp("updated_at");
+                    post.setUpdatedAt(updatedTimestamp != null ? updatedTimestamp.toLocalDateTime() : null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper-Methode: Mappt eine ResultSet-Zeile (SUMMARY_COLUMNS) zu einer Kurzfassung
+     */
+    static BlogPostSummary mapRowToSummary(ResultSet rs) throws SQLException {
+        BlogPostSummary summary = new BlogPostSummary();
+        summary.setId(rs.getInt("id"));
+        summary.setTitle(rs.getString("title"));
+        summary.setExcerpt(rs.getString("excerpt"));
+        summary.setContentLength(rs.getInt("content_length"));
+        summary.setAuthor(rs.getString("author"));
+        
+        Timestamp createdTimestamp = rs.getTimestamp("created_at");
+        if (createdTimestamp != null) {
+            summary.setCreatedAt(createdTimestamp.toLocalDateTime());
+        }
+        
+        Timestamp updatedTimestamp = rs.getTimestamp("updated_at");
+        if (updatedTimestamp != null) {
+            summary.setUpdatedAt(updatedTimestamp.toLocalDateTime());
+        }
+        
+        return summary;
+    }
+
+    /**
+     * Helper-Methode: Felder der JSON-API in Ausgabereihenfolge
+     */
+    private static Map<String, String> apiFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("id", "id");
+        fields.put("title", "title");
+        fields.put("excerpt", "SUBSTRING(content, 1, " + BlogPostSummary.EXCERPT_LENGTH + ")");
+        fields.put("contentLength", "CHAR_LENGTH(content)");
+        fields.put("content", "content");
+        fields.put("author", "author");
+        fields.put("createdAt", "created_at");
+        fields.put("updatedAt", "updated_at");
+        return Collections.unmodifiableMap(fields);
+    }
+    
+    /**
+     * Helper-Methode: Kopiert einen Blog-Post (für den Cache)
+     */
+    private static BlogPost copyOf(BlogPost post) {
+        return new BlogPost(post.getId(), post.getTitle(), post.getContent(),
+                            post.getAuthor(), post.getCreatedAt(), post.getUpdatedAt());
+    }
+
+    /**
+     * Helper-Methode: Erzeugt das Cursor-Token für einen Randdatensatz einer Seite
+     */
+    private String cursorFor(PageCursor.Direction direction, BlogPostSummary post) {
+        if (post.getCreatedAt() == null) {
+            return null;
+        }
+        return new PageCursor(direction, post.getCreatedAt(), post.getId()).encode();
+    }
 }
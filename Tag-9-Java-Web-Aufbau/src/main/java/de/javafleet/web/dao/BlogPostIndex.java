@@ -0,0 +1,415 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.web.model.BlogPost;
+import de.javafleet.web.model.BlogPostSummary;
+import java.util.*;
+
+/**
+ * BlogPostIndex - Invertierter In-Memory-Index für die Blog-Suche
+ *
+ * Wird einmal aus {@link BlogPostDAO#streamAll()} aufgebaut und danach über
+ * {@link BlogPostListener} inkrementell aktuell gehalten (siehe
+ * {@link AbstractBlogPostIndex}). Suchanfragen werden komplett im Speicher
+ * beantwortet (BM25-Ranking) und belegen deshalb keine Connection aus dem Pool.
+ *
+ * Speicherlayout:
+ * - pro Begriff eine Postings-Liste als int[] mit (docNr, Häufigkeit)-Paaren,
+ *   aufsteigend nach docNr, ohne Boxing
+ * - gespeichert werden nur die Listenfelder eines Posts, nicht der Content
+ * - gelöschte Dokumente werden nur markiert und bei genügend Ballast
+ *   per {@link #compact()} entfernt (wie bei Lucene zählen sie bis dahin
+ *   noch in die Dokumentfrequenz)
+ */
+public class BlogPostIndex extends AbstractBlogPostIndex<BlogPostIndex.State>
+        implements BlogPostSearchEngine {
+
+    /** Name des ServletContext-Attributs, unter dem der Index abgelegt wird */
+    public static final String ATTRIBUTE = BlogPostIndex.class.getName();
+
+    // BM25-Parameter (Standardwerte)
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /** Begriffe im Titel zählen mehrfach */
+    private static final int TITLE_BOOST = 2;
+
+    /** Ab diesem Anteil gelöschter Dokumente wird automatisch kompaktiert */
+    private static final double COMPACT_RATIO = 0.25;
+    private static final int COMPACT_MIN_DELETED = 64;
+
+    public BlogPostIndex() {
+        super(State::new);
+    }
+
+    @Override
+    protected void put(State state, BlogPost post) {
+        state.put(post);
+    }
+
+    @Override
+    protected void remove(State state, int id) {
+        state.remove(id);
+    }
+
+    @Override
+    protected void afterChange(State state) {
+        state.compactIfNeeded();
+    }
+
+    @Override
+    protected void afterRebuild(State state) {
+        state.compact();
+    }
+
+    /**
+     * Sucht im Index und sortiert nach BM25-Score
+     * Im BOOLEAN-Modus werden +muss und -darfnicht ausgewertet,
+     * Phrasen werden als Menge von Pflichtbegriffen behandelt.
+     */
+    @Override
+    public List<SearchResult> search(String query, SearchMode mode, int maxResults) {
+        // Stärkster Operator pro Begriff gewinnt (MUST_NOT > MUST > SHOULD)
+        Map<String, SearchQueryParser.Occur> occurByToken = new LinkedHashMap<>();
+        for (SearchQueryParser.Term term : SearchQueryParser.parse(query, mode)) {
+            for (String token : TextTokenizer.tokenize(term.text())) {
+                occurByToken.merge(token, term.occur(),
+                        (a, b) -> a.ordinal() >= b.ordinal() ? a : b);
+            }
+        }
+
+        return read(state -> state.search(occurByToken, maxResults));
+    }
+
+    /**
+     * Entfernt gelöschte Dokumente und verkleinert alle Arrays auf ihre Nutzgröße
+     */
+    public void compact() {
+        write(State::compact);
+    }
+
+    public int getDocumentCount() {
+        return read(state -> state.liveCount);
+    }
+
+    public int getTermCount() {
+        return read(state -> state.terms.size());
+    }
+
+    /**
+     * Grobe Schätzung des belegten Heaps in Bytes
+     */
+    public long estimateMemoryBytes() {
+        return read(State::estimateMemoryBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "BlogPostIndex{" +
+                "documents=" + getDocumentCount() +
+                ", terms=" + getTermCount() +
+                ", memoryBytes=" + estimateMemoryBytes() +
+                ", ready=" + isReady() +
+                '}';
+    }
+
+    /**
+     * Postings-Liste eines Begriffs: (docNr, Häufigkeit)-Paare hintereinander
+     */
+    private static final class Postings {
+
+        int[] data = new int[4];
+        int size;
+
+        void add(int docNo, int freq) {
+            if (2 * size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[2 * size] = docNo;
+            data[2 * size + 1] = freq;
+            size++;
+        }
+
+        int docAt(int i) {
+            return data[2 * i];
+        }
+
+        int freqAt(int i) {
+            return data[2 * i + 1];
+        }
+
+        boolean contains(int docNo) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = docAt(mid);
+                if (value < docNo) {
+                    low = mid + 1;
+                } else if (value > docNo) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Hit(int docNo, float score) {
+    }
+
+    /**
+     * Kompletter Indexzustand, wird beim Rebuild als Ganzes ausgetauscht
+     */
+    static final class State {
+
+        final Map<String, Postings> terms = new HashMap<>();
+        final Map<Integer, Integer> docNoByPostId = new HashMap<>();
+        BitSet live = new BitSet();
+        BlogPostSummary[] docs = new BlogPostSummary[16];
+        int[] docLengths = new int[16];
+        int docCount;
+        int liveCount;
+        long liveLengthSum;
+
+        void put(BlogPost post) {
+            Integer previous = docNoByPostId.get(post.getId());
+            if (previous != null) {
+                // Erstellungsdatum bleibt bei Updates ohne Datum erhalten
+                if (post.getCreatedAt() == null) {
+                    post.setCreatedAt(docs[previous].getCreatedAt());
+                }
+                remove(post.getId());
+            }
+
+            Map<String, int[]> frequencies = new HashMap<>();
+            int length = countTokens(post.getTitle(), TITLE_BOOST, frequencies)
+                       + countTokens(post.getContent(), 1, frequencies);
+
+            int docNo = docCount++;
+            if (docNo == docs.length) {
+                docs = Arrays.copyOf(docs, docs.length * 2);
+                docLengths = Arrays.copyOf(docLengths, docLengths.length * 2);
+            }
+
+            // Für die Trefferliste reicht die Kurzfassung mit Anriss
+            docs[docNo] = BlogPostSummary.of(post);
+            docLengths[docNo] = length;
+            live.set(docNo);
+            docNoByPostId.put(post.getId(), docNo);
+            liveCount++;
+            liveLengthSum += length;
+
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), k -> new Postings())
+                     .add(docNo, entry.getValue()[0]);
+            }
+        }
+
+        void remove(int postId) {
+            Integer docNo = docNoByPostId.remove(postId);
+            if (docNo == null) {
+                return;
+            }
+            live.clear(docNo);
+            docs[docNo] = null;
+            liveCount--;
+            liveLengthSum -= docLengths[docNo];
+        }
+
+        List<SearchResult> search(Map<String, SearchQueryParser.Occur> occurByToken,
+                                  int maxResults) {
+            List<Postings> scoring = new ArrayList<>();
+            List<Boolean> required = new ArrayList<>();
+            List<Postings> excluded = new ArrayList<>();
+            int requiredCount = 0;
+
+            for (Map.Entry<String, SearchQueryParser.Occur> entry : occurByToken.entrySet()) {
+                Postings postings = terms.get(entry.getKey());
+                switch (entry.getValue()) {
+                    case MUST -> {
+                        if (postings == null) {
+                            return new ArrayList<>();
+                        }
+                        scoring.add(postings);
+                        required.add(true);
+                        requiredCount++;
+                    }
+                    case MUST_NOT -> {
+                        if (postings != null) {
+                            excluded.add(postings);
+                        }
+                    }
+                    default -> {
+                        if (postings != null) {
+                            scoring.add(postings);
+                            required.add(false);
+                        }
+                    }
+                }
+            }
+
+            if (scoring.isEmpty() || liveCount == 0 || maxResults <= 0) {
+                return new ArrayList<>();
+            }
+
+            int n = scoring.size();
+            // Dokumentfrequenz und N zählen gelöschte Dokumente bis zur
+            // nächsten Kompaktierung mit, damit die IDF nie negativ wird
+            float[] idf = new float[n];
+            for (int i = 0; i < n; i++) {
+                int df = scoring.get(i).size;
+                idf[i] = (float) Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            }
+            float avgLength = Math.max(1f, (float) liveLengthSum / liveCount);
+
+            // Document-at-a-time: alle Listen parallel durchlaufen,
+            // nur die besten maxResults Treffer im Min-Heap halten
+            PriorityQueue<Hit> heap = new PriorityQueue<>(maxResults + 1,
+                    Comparator.comparingDouble(Hit::score).thenComparingInt(Hit::docNo));
+            int[] cursor = new int[n];
+
+            while (true) {
+                int docNo = Integer.MAX_VALUE;
+                for (int i = 0; i < n; i++) {
+                    Postings p = scoring.get(i);
+                    if (cursor[i] < p.size) {
+                        docNo = Math.min(docNo, p.docAt(cursor[i]));
+                    }
+                }
+                if (docNo == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                float score = 0;
+                int matchedRequired = 0;
+                float lengthNorm = K1 * (1 - B + B * docLengths[docNo] / avgLength);
+                for (int i = 0; i < n; i++) {
+                    Postings p = scoring.get(i);
+                    if (cursor[i] < p.size && p.docAt(cursor[i]) == docNo) {
+                        int freq = p.freqAt(cursor[i]);
+                        score += idf[i] * freq * (K1 + 1) / (freq + lengthNorm);
+                        if (required.get(i)) {
+                            matchedRequired++;
+                        }
+                        cursor[i]++;
+                    }
+                }
+
+                if (!live.get(docNo) || matchedRequired < requiredCount
+                        || isExcluded(excluded, docNo)) {
+                    continue;
+                }
+
+                heap.offer(new Hit(docNo, score));
+                if (heap.size() > maxResults) {
+                    heap.poll();
+                }
+            }
+
+            List<SearchResult> results = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                Hit hit = heap.poll();
+                results.add(new SearchResult(docs[hit.docNo()], hit.score()));
+            }
+            Collections.reverse(results);
+            return results;
+        }
+
+        void compactIfNeeded() {
+            int deleted = docCount - liveCount;
+            if (deleted >= COMPACT_MIN_DELETED && deleted > liveCount * COMPACT_RATIO) {
+                compact();
+            }
+        }
+
+        void compact() {
+            // Neue docNrs vergeben, die Reihenfolge bleibt dabei erhalten
+            int[] newDocNo = new int[docCount];
+            int next = 0;
+            for (int i = 0; i < docCount; i++) {
+                newDocNo[i] = live.get(i) ? next++ : -1;
+            }
+
+            BlogPostSummary[] newDocs = new BlogPostSummary[Math.max(16, next)];
+            int[] newLengths = new int[newDocs.length];
+            for (int i = 0; i < docCount; i++) {
+                if (newDocNo[i] >= 0) {
+                    newDocs[newDocNo[i]] = docs[i];
+                    newLengths[newDocNo[i]] = docLengths[i];
+                }
+            }
+
+            Iterator<Postings> it = terms.values().iterator();
+            while (it.hasNext()) {
+                Postings p = it.next();
+                int kept = 0;
+                for (int i = 0; i < p.size; i++) {
+                    int mapped = newDocNo[p.docAt(i)];
+                    if (mapped >= 0) {
+                        p.data[2 * kept] = mapped;
+                        p.data[2 * kept + 1] = p.freqAt(i);
+                        kept++;
+                    }
+                }
+                if (kept == 0) {
+                    it.remove();
+                } else {
+                    p.size = kept;
+                    p.data = Arrays.copyOf(p.data, 2 * kept);
+                }
+            }
+
+            docNoByPostId.clear();
+            for (int i = 0; i < next; i++) {
+                docNoByPostId.put(newDocs[i].getId(), i);
+            }
+
+            docs = newDocs;
+            docLengths = newLengths;
+            docCount = next;
+            live = new BitSet(next);
+            live.set(0, next);
+        }
+
+        long estimateMemoryBytes() {
+            long bytes = 0;
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                // HashMap-Eintrag + String + Postings-Objekt + int[]
+                bytes += 48 + 40 + entry.getKey().length() + 24 + 16
+                       + 4L * entry.getValue().data.length;
+            }
+            for (int i = 0; i < docCount; i++) {
+                BlogPostSummary post = docs[i];
+                if (post != null) {
+                    bytes += 64 + 2L * length(post.getTitle()) + 2L * length(post.getAuthor())
+                           + 2L * length(post.getExcerpt());
+                }
+            }
+            bytes += 8L * docs.length + 4L * docLengths.length + 64L * docNoByPostId.size();
+            return bytes;
+        }
+
+        private static boolean isExcluded(List<Postings> excluded, int docNo) {
+            for (Postings p : excluded) {
+                if (p.contains(docNo)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int countTokens(String text, int weight, Map<String, int[]> frequencies) {
+            int count = 0;
+            for (String token : TextTokenizer.tokenize(text)) {
+                frequencies.computeIfAbsent(token, k -> new int[1])[0] += weight;
+                count += weight;
+            }
+            return count;
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.web.model.BlogPost;
+
+/**
+ * BlogPostListener - Wird nach erfolgreichen Schreibzugriffen im BlogPostDAO benachrichtigt
+ *
+ * Damit halten sich In-Memory-Strukturen (Suchindex, Caches) inkrementell
+ * aktuell, ohne selbst die Datenbank abfragen zu müssen.
+ */
+public interface BlogPostListener {
+
+    /**
+     * Ein Post wurde angelegt (die generierte ID ist bereits gesetzt)
+     */
+    default void postCreated(BlogPost post) {
+    }
+
+    /**
+     * Ein Post wurde geändert
+     */
+    default void postUpdated(BlogPost post) {
+    }
+
+    /**
+     * Ein Post wurde gelöscht
+     */
+    default void postDeleted(int id) {
+    }
+}
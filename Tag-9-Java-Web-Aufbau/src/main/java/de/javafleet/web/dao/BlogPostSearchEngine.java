@@ -0,0 +1,23 @@
+package de.javafleet.web.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * BlogPostSearchEngine - Austauschbare Suchstrategie für Blog-Posts
+ *
+ * Der BlogPostDAO delegiert seine Suche an eine Implementierung dieses
+ * Interfaces. So kann MySQL seinen FULLTEXT-Index nutzen, während z.B.
+ * H2 in Tests auf eine einfache Variante zurückfällt.
+ */
+public interface BlogPostSearchEngine {
+
+    /**
+     * Sucht Blog-Posts, absteigend sortiert nach Relevanz
+     * @param query Suchbegriff(e)
+     * @param mode Suchmodus
+     * @param maxResults maximale Anzahl Treffer
+     */
+    List<SearchResult> search(String query, SearchMode mode, int maxResults)
+            throws SQLException;
+}
@@ -0,0 +1,341 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.web.model.BlogPost;
+import de.javafleet.web.model.BlogPostSummary;
+import java.util.*;
+
+/**
+ * BlogPostTrigramIndex - Fehlertolerante Teilstring-Suche über Titel und Autor
+ *
+ * Jedes Wort wird wie bei pg_trgm mit zwei Leerzeichen vorne und einem hinten
+ * aufgefüllt und in Trigramme zerlegt ("  jd", " jdb", "jdb", "dbc", "bc ").
+ * Ein Treffer ist umso besser, je mehr Trigramme der Suchanfrage im Feld
+ * vorkommen. Dadurch finden auch Wortteile und Tippfehler ("Payra", "elyndr")
+ * den richtigen Post, ohne dass blog_posts per LIKE gescannt werden muss.
+ */
+public class BlogPostTrigramIndex extends AbstractBlogPostIndex<BlogPostTrigramIndex.State> {
+
+    /** Name des ServletContext-Attributs, unter dem der Index abgelegt wird */
+    public static final String ATTRIBUTE = BlogPostTrigramIndex.class.getName();
+
+    /** Mindestanteil der Such-Trigramme, die ein Feld enthalten muss */
+    private static final float MIN_SIMILARITY = 0.3f;
+
+    private static final int COMPACT_MIN_DELETED = 64;
+
+    public BlogPostTrigramIndex() {
+        super(State::new);
+    }
+
+    @Override
+    protected void put(State state, BlogPost post) {
+        state.put(post);
+    }
+
+    @Override
+    protected void remove(State state, int id) {
+        state.remove(id);
+    }
+
+    @Override
+    protected void afterChange(State state) {
+        if (state.docCount - state.liveCount >= Math.max(COMPACT_MIN_DELETED, state.liveCount / 4)) {
+            state.compact();
+        }
+    }
+
+    @Override
+    protected void afterRebuild(State state) {
+        state.compact();
+    }
+
+    /**
+     * Liefert die ähnlichsten Posts zu einem (Teil-)Begriff in Titel oder Autor
+     * @param query Suchbegriff, darf unvollständig oder falsch geschrieben sein
+     * @param maxResults maximale Anzahl Kandidaten
+     */
+    public List<SearchResult> find(String query, int maxResults) {
+        long[] grams = trigrams(query);
+        if (grams.length == 0 || maxResults <= 0) {
+            return new ArrayList<>();
+        }
+        return read(state -> state.find(grams, maxResults));
+    }
+
+    public int getDocumentCount() {
+        return read(state -> state.liveCount);
+    }
+
+    public int getTrigramCount() {
+        return read(state -> state.titleGrams.size() + state.authorGrams.size());
+    }
+
+    @Override
+    public String toString() {
+        return "BlogPostTrigramIndex{" +
+                "documents=" + getDocumentCount() +
+                ", trigrams=" + getTrigramCount() +
+                ", ready=" + isReady() +
+                '}';
+    }
+
+    /**
+     * Zerlegt einen Text in sortierte, eindeutige Trigramme
+     * Ein Trigramm wird als long aus drei 16-Bit-Zeichen kodiert.
+     */
+    static long[] trigrams(String text) {
+        if (text == null || text.isBlank()) {
+            return new long[0];
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        long[] grams = new long[lower.length() * 3 + 3];
+        int count = 0;
+
+        int length = lower.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String padded = "  " + lower.substring(start, i) + " ";
+                for (int j = 0; j + 3 <= padded.length(); j++) {
+                    grams[count++] = ((long) padded.charAt(j) << 32)
+                                   | ((long) padded.charAt(j + 1) << 16)
+                                   | padded.charAt(j + 2);
+                }
+                start = -1;
+            }
+        }
+
+        Arrays.sort(grams, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || grams[unique - 1] != grams[i]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    /**
+     * Aufsteigend sortierte docNrs, in denen ein Trigramm vorkommt
+     */
+    private static final class Postings {
+
+        int[] docs = new int[2];
+        int size;
+
+        void add(int docNo) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, docs.length * 2);
+            }
+            docs[size++] = docNo;
+        }
+    }
+
+    /**
+     * Kompletter Indexzustand, wird beim Rebuild als Ganzes ausgetauscht
+     */
+    static final class State {
+
+        final Map<Long, Postings> titleGrams = new HashMap<>();
+        final Map<Long, Postings> authorGrams = new HashMap<>();
+        final Map<Integer, Integer> docNoByPostId = new HashMap<>();
+        BitSet live = new BitSet();
+        BlogPostSummary[] docs = new BlogPostSummary[16];
+        int[] titleGramCounts = new int[16];
+        int[] authorGramCounts = new int[16];
+        int docCount;
+        int liveCount;
+
+        void put(BlogPost post) {
+            Integer previous = docNoByPostId.get(post.getId());
+            if (previous != null) {
+                if (post.getCreatedAt() == null) {
+                    post.setCreatedAt(docs[previous].getCreatedAt());
+                }
+                remove(post.getId());
+            }
+
+            int docNo = docCount++;
+            if (docNo == docs.length) {
+                docs = Arrays.copyOf(docs, docs.length * 2);
+                titleGramCounts = Arrays.copyOf(titleGramCounts, docs.length);
+                authorGramCounts = Arrays.copyOf(authorGramCounts, docs.length);
+            }
+
+            long[] title = trigrams(post.getTitle());
+            long[] author = trigrams(post.getAuthor());
+            for (long gram : title) {
+                titleGrams.computeIfAbsent(gram, k -> new Postings()).add(docNo);
+            }
+            for (long gram : author) {
+                authorGrams.computeIfAbsent(gram, k -> new Postings()).add(docNo);
+            }
+
+            docs[docNo] = BlogPostSummary.of(post);
+            titleGramCounts[docNo] = title.length;
+            authorGramCounts[docNo] = author.length;
+            live.set(docNo);
+            docNoByPostId.put(post.getId(), docNo);
+            liveCount++;
+        }
+
+        void remove(int postId) {
+            Integer docNo = docNoByPostId.remove(postId);
+            if (docNo == null) {
+                return;
+            }
+            live.clear(docNo);
+            docs[docNo] = null;
+            liveCount--;
+        }
+
+        List<SearchResult> find(long[] grams, int maxResults) {
+            Map<Integer, Float> best = new HashMap<>();
+            collect(titleGrams, titleGramCounts, grams, best);
+            collect(authorGrams, authorGramCounts, grams, best);
+
+            List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(best.entrySet());
+            ranked.sort(Map.Entry.<Integer, Float>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+
+            List<SearchResult> results = new ArrayList<>(Math.min(maxResults, ranked.size()));
+            for (Map.Entry<Integer, Float> entry : ranked) {
+                if (results.size() == maxResults) {
+                    break;
+                }
+                results.add(new SearchResult(docs[entry.getKey()], entry.getValue()));
+            }
+            return results;
+        }
+
+        /**
+         * Zählt die gemeinsamen Trigramme pro Dokument
+         *
+         * Ein Treffer braucht mindestens minShared gemeinsame Trigramme, muss also
+         * in einer der (n - minShared + 1) kürzesten Listen stehen. Nur diese
+         * werden gemergt, die langen Listen (häufige Trigramme wie "  p") werden
+         * für die Kandidaten per binärer Suche geprüft.
+         */
+        private void collect(Map<Long, Postings> index, int[] gramCounts,
+                             long[] grams, Map<Integer, Float> best) {
+            List<Postings> lists = new ArrayList<>(grams.length);
+            for (long gram : grams) {
+                Postings postings = index.get(gram);
+                if (postings != null) {
+                    lists.add(postings);
+                }
+            }
+
+            int minShared = Math.max(1, (int) Math.ceil(grams.length * MIN_SIMILARITY));
+            if (lists.size() < minShared) {
+                return;
+            }
+
+            lists.sort(Comparator.comparingInt(p -> p.size));
+            int candidateLists = lists.size() - minShared + 1;
+
+            int[] cursor = new int[candidateLists];
+            while (true) {
+                int docNo = Integer.MAX_VALUE;
+                for (int i = 0; i < candidateLists; i++) {
+                    Postings p = lists.get(i);
+                    if (cursor[i] < p.size) {
+                        docNo = Math.min(docNo, p.docs[cursor[i]]);
+                    }
+                }
+                if (docNo == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                int shared = 0;
+                for (int i = 0; i < candidateLists; i++) {
+                    Postings p = lists.get(i);
+                    if (cursor[i] < p.size && p.docs[cursor[i]] == docNo) {
+                        shared++;
+                        cursor[i]++;
+                    }
+                }
+
+                if (!live.get(docNo)) {
+                    continue;
+                }
+                for (int i = candidateLists; i < lists.size(); i++) {
+                    Postings p = lists.get(i);
+                    if (Arrays.binarySearch(p.docs, 0, p.size, docNo) >= 0) {
+                        shared++;
+                    }
+                }
+                if (shared < minShared) {
+                    continue;
+                }
+
+                // Anteil der Such-Trigramme im Feld (findet Teilstrings),
+                // dazu Jaccard, damit kurze, genaue Treffer vorne landen
+                float wordSimilarity = (float) shared / grams.length;
+                float jaccard = (float) shared / (grams.length + gramCounts[docNo] - shared);
+                float score = (2 * wordSimilarity + jaccard) / 3;
+
+                best.merge(docNo, score, Math::max);
+            }
+        }
+
+        void compact() {
+            int[] newDocNo = new int[docCount];
+            int next = 0;
+            for (int i = 0; i < docCount; i++) {
+                newDocNo[i] = live.get(i) ? next++ : -1;
+            }
+
+            BlogPostSummary[] newDocs = new BlogPostSummary[Math.max(16, next)];
+            int[] newTitleCounts = new int[newDocs.length];
+            int[] newAuthorCounts = new int[newDocs.length];
+            for (int i = 0; i < docCount; i++) {
+                int mapped = newDocNo[i];
+                if (mapped >= 0) {
+                    newDocs[mapped] = docs[i];
+                    newTitleCounts[mapped] = titleGramCounts[i];
+                    newAuthorCounts[mapped] = authorGramCounts[i];
+                }
+            }
+
+            compactPostings(titleGrams, newDocNo);
+            compactPostings(authorGrams, newDocNo);
+
+            docNoByPostId.clear();
+            for (int i = 0; i < next; i++) {
+                docNoByPostId.put(newDocs[i].getId(), i);
+            }
+
+            docs = newDocs;
+            titleGramCounts = newTitleCounts;
+            authorGramCounts = newAuthorCounts;
+            docCount = next;
+            live = new BitSet(next);
+            live.set(0, next);
+        }
+
+        private static void compactPostings(Map<Long, Postings> index, int[] newDocNo) {
+            Iterator<Postings> it = index.values().iterator();
+            while (it.hasNext()) {
+                Postings p = it.next();
+                int kept = 0;
+                for (int i = 0; i < p.size; i++) {
+                    int mapped = newDocNo[p.docs[i]];
+                    if (mapped >= 0) {
+                        p.docs[kept++] = mapped;
+                    }
+                }
+                if (kept == 0) {
+                    it.remove();
+                } else {
+                    p.size = kept;
+                    p.docs = Arrays.copyOf(p.docs, kept);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.javafleet.web.dao;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CachedCount - Zwischengespeicherte Zeilenanzahl einer Tabelle
+ *
+ * COUNT(*) muss bei InnoDB den ganzen Index lesen und wird auf großen Tabellen
+ * teuer. Listenansichten können deshalb mit einer höchstens ttl alten Anzahl
+ * arbeiten. Schreibzugriffe über denselben DAO verwerfen den Wert sofort,
+ * Änderungen von außen werden spätestens nach Ablauf der ttl sichtbar.
+ *
+ * In einer Transaktion der {@link UnitOfWork} gezählte Werte werden nicht
+ * übernommen: Sie können noch nicht committete (oder später
+ * zurückgerollte) Zeilen enthalten, der Cache gilt aber für alle Requests.
+ */
+final class CachedCount {
+
+    /** Standard-Lebensdauer eines gecachten Werts */
+    static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    private static final int UNKNOWN = -1;
+
+    private final long ttlNanos;
+
+    private volatile int value = UNKNOWN;
+    private volatile long loadedAt;
+
+    CachedCount() {
+        this(DEFAULT_TTL_MILLIS);
+    }
+
+    CachedCount(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Liefert den gecachten Wert oder -1, wenn keiner vorliegt oder er abgelaufen ist
+     */
+    int get() {
+        int current = value;
+        if (current == UNKNOWN || System.nanoTime() - loadedAt > ttlNanos) {
+            return UNKNOWN;
+        }
+        return current;
+    }
+
+    /**
+     * Übernimmt eine frisch gezählte Anzahl, außer innerhalb einer Transaktion
+     */
+    void set(int count) {
+        if (UnitOfWork.inTransaction()) {
+            return;
+        }
+        loadedAt = System.nanoTime();
+        value = count;
+    }
+
+    void invalidate() {
+        value = UNKNOWN;
+    }
+}
@@ -0,0 +1,47 @@
+package de.javafleet.web.dao;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CachedVersion - Zwischengespeicherter Änderungsstand einer Liste
+ *
+ * Wie {@link CachedCount}, aber für MAX(updated_at) und Anzahl zusammen.
+ * Anders als die Anzahl ändert sich der Stand auch bei einem UPDATE, der DAO
+ * verwirft ihn deshalb nach jedem Schreibzugriff. Änderungen von außen
+ * werden spätestens nach Ablauf der ttl sichtbar.
+ */
+final class CachedVersion {
+
+    private final long ttlNanos;
+
+    private volatile ContentVersion value;
+    private volatile long loadedAt;
+
+    CachedVersion() {
+        this(CachedCount.DEFAULT_TTL_MILLIS);
+    }
+
+    CachedVersion(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Liefert den gecachten Stand oder null, wenn keiner vorliegt oder er abgelaufen ist
+     */
+    ContentVersion get() {
+        ContentVersion current = value;
+        if (current == null || System.nanoTime() - loadedAt > ttlNanos) {
+            return null;
+        }
+        return current;
+    }
+
+    void set(ContentVersion version) {
+        loadedAt = System.nanoTime();
+        value = version;
+    }
+
+    void invalidate() {
+        value = null;
+    }
+}
@@ -0,0 +1,27 @@
+package de.javafleet.web.dao;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * ContentVersion - Änderungsstand eines Posts oder einer Liste
+ *
+ * Grundlage für ETag und Last-Modified. Bei Listen gehört die Anzahl dazu:
+ * Ein DELETE ändert kein updated_at, wohl aber die Anzahl.
+ *
+ * @param lastModified jüngstes updated_at (null bei leerer Tabelle)
+ * @param count Anzahl der Posts (1 für einen einzelnen Post)
+ */
+public record ContentVersion(LocalDateTime lastModified, int count) {
+
+    /**
+     * lastModified als Epoch-Millisekunden (0 ohne Zeitstempel)
+     * Die Datenbank liefert updated_at in der Zeitzone der JVM.
+     */
+    public long lastModifiedMillis() {
+        if (lastModified == null) {
+            return 0;
+        }
+        return lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
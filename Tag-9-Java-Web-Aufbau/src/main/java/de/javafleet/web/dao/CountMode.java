@@ -0,0 +1,13 @@
+package de.javafleet.web.dao;
+
+/**
+ * CountMode - Wie die Gesamtanzahl zu einer Seite ermittelt wird
+ */
+public enum CountMode {
+
+    /** Exakt, per COUNT(*) in derselben Abfrage wie die Seite */
+    EXACT,
+
+    /** Aus dem Cache, falls aktuell, sonst exakt ermittelt und gecacht */
+    CACHED
+}
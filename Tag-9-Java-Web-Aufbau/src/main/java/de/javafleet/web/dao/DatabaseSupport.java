@@ -0,0 +1,69 @@
+package de.javafleet.web.dao;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DatabaseSupport - Hilfsmethoden für datenbankabhängiges Verhalten der DAOs
+ */
+final class DatabaseSupport {
+
+    /** Fetch-Size für gestreamte Abfragen auf Datenbanken mit Cursor-Fetch */
+    static final int STREAM_FETCH_SIZE = 500;
+
+    private DatabaseSupport() {
+    }
+
+    /**
+     * Läuft die Connection gegen MySQL oder MariaDB?
+     */
+    static boolean isMySql(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName();
+        return product != null && (product.contains("MySQL") || product.contains("MariaDB"));
+    }
+
+    /**
+     * Fetch-Size, mit der ein ResultSet wirklich gestreamt wird
+     *
+     * Connector/J puffert sonst das komplette Ergebnis im Client. Gestreamt wird
+     * entweder Zeile für Zeile (Integer.MIN_VALUE) oder, mit useCursorFetch=true
+     * in der URL, blockweise über einen serverseitigen Cursor.
+     */
+    static int streamingFetchSize(Connection conn) throws SQLException {
+        if (!isMySql(conn)) {
+            return STREAM_FETCH_SIZE;
+        }
+        DatabaseMetaData meta = conn.getMetaData();
+        String url = meta.getURL();
+        if (url != null && url.contains("useCursorFetch=true")) {
+            return STREAM_FETCH_SIZE;
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Spaltenliste für ausgewählte API-Felder: "ausdruck AS feld, ..."
+     * Nur Felder aus columns sind erlaubt, Eingaben landen so nie im SQL.
+     * @throws IllegalArgumentException bei unbekannten Feldern oder leerer Auswahl
+     */
+    static String selectList(List<String> fields, Map<String, String> columns) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("No fields selected");
+        }
+        StringBuilder sql = new StringBuilder();
+        for (String field : fields) {
+            String expression = columns.get(field);
+            if (expression == null) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            if (sql.length() > 0) {
+                sql.append(", ");
+            }
+            sql.append(expression).append(" AS ").append(field);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package de.javafleet.web.dao;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * EntityCache - Begrenzter Read-Through-Cache mit LRU- und TTL-Verdrängung
+ *
+ * Aufgeteilt in Segmente mit eigenem Lock und eigener LRU-Liste (LinkedHashMap
+ * in Zugriffsreihenfolge), damit sich parallele Requests kaum blockieren.
+ * Die Datenbank wird außerhalb der Locks abgefragt.
+ *
+ * Schutz vor veralteten Einträgen: Jedes Segment zählt seine Invalidierungen.
+ * Ein geladener Wert wird nur übernommen, wenn seit Beginn des Ladens keine
+ * Invalidierung im Segment stattgefunden hat. Ein Leser, der vor einem Update
+ * den alten Stand gelesen hat, kann den Cache so nicht mehr überschreiben.
+ *
+ * Gespeichert und herausgegeben werden Kopien (copier), Änderungen des
+ * Aufrufers am Objekt landen also nicht im Cache.
+ */
+public class EntityCache<K, V> {
+
+    /**
+     * Lädt einen Wert aus der Datenbank (null = nicht vorhanden, wird nicht gecacht)
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxSize maximale Anzahl Einträge (auf die Segmente verteilt)
+     * @param ttlMillis maximale Lebensdauer eines Eintrags
+     * @param copier erzeugt eine unabhängige Kopie eines Werts
+     */
+    public EntityCache(int maxSize, long ttlMillis, UnaryOperator<V> copier) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.copier = copier;
+
+        int perSegment = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        // Generische Arrays gibt es nicht, der Cast betrifft nur diese Zuweisung
+        @SuppressWarnings("unchecked")
+        Segment<K, V>[] array = (Segment<K, V>[]) new Segment<?, ?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            array[i] = new Segment<>(perSegment);
+        }
+        segments = array;
+    }
+
+    /**
+     * Liefert den Wert aus dem Cache oder lädt ihn über den Loader nach
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        Segment<K, V> segment = segmentFor(key);
+
+        long generation;     // nur unter lock
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.map.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt <= ttlNanos) {
+                    hits.increment();
+                    return copier.apply(entry.value);
+                }
+                segment.map.remove(key);
+                expirations.increment();
+            }
+            generation = segment.generation;
+        } finally {
+            segment.lock.unlock();
+        }
+
+        misses.increment();
+        V value = loader.load(key);
+        if (value == null) {
+            return null;
+        }
+
+        V cached = copier.apply(value);
+        segment.lock.lock();
+        try {
+            // Zwischenzeitlich invalidiert: der geladene Stand kann veraltet sein
+            if (segment.generation == generation) {
+                segment.map.put(key, new Entry<>(cached, System.nanoTime()));
+                if (segment.map.size() > segment.maxSize) {
+                    Iterator<Map.Entry<K, Entry<V>>> eldest = segment.map.entrySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        return value;
+    }
+
+    /**
+     * Entfernt einen Eintrag, z.B. nach update() oder delete()
+     */
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.generation++;
+            segment.map.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * Leert den kompletten Cache
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.generation++;
+                segment.map.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        invalidations.increment();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Momentaufnahme der Cache-Statistik
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(),
+                         expirations.sum(), invalidations.sum(), size());
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCache" + getStats();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Statistik eines EntityCache
+     */
+    public record Stats(long hits, long misses, long evictions,
+                        long expirations, long invalidations, int size) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+
+    private static final class Segment<K, V> {
+
+        final ReentrantLock lock = new ReentrantLock();
+        long generation;     // nur unter lock
+        final int maxSize;
+        final LinkedHashMap<K, Entry<V>> map;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+            this.map = new LinkedHashMap<>(16, 0.75f, true);
+        }
+    }
+}
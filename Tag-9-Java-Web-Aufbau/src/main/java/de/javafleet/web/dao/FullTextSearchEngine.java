@@ -0,0 +1,57 @@
+package de.javafleet.web.dao;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FullTextSearchEngine - Volltextsuche über den MySQL FULLTEXT-Index
+ *
+ * Nutzt MATCH ... AGAINST auf idx_search (title, content). Der Index liefert
+ * die Treffer direkt, statt wie LIKE '%q%' die ganze Tabelle zu scannen.
+ */
+public class FullTextSearchEngine implements BlogPostSearchEngine {
+
+    private static final String NATURAL_LANGUAGE_SQL =
+            "SELECT " + BlogPostDAO.SUMMARY_COLUMNS + ", " +
+            "MATCH(title, content) AGAINST(? IN NATURAL LANGUAGE MODE) AS score " +
+            "FROM blog_posts WHERE MATCH(title, content) AGAINST(? IN NATURAL LANGUAGE MODE) " +
+            "ORDER BY score DESC LIMIT ?";
+
+    private static final String BOOLEAN_SQL =
+            "SELECT " + BlogPostDAO.SUMMARY_COLUMNS + ", " +
+            "MATCH(title, content) AGAINST(? IN BOOLEAN MODE) AS score " +
+            "FROM blog_posts WHERE MATCH(title, content) AGAINST(? IN BOOLEAN MODE) " +
+            "ORDER BY score DESC LIMIT ?";
+
+    private final DataSource dataSource;
+
+    public FullTextSearchEngine(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public List<SearchResult> search(String query, SearchMode mode, int maxResults)
+            throws SQLException {
+        List<SearchResult> results = new ArrayList<>();
+        String sql = mode == SearchMode.BOOLEAN ? BOOLEAN_SQL : NATURAL_LANGUAGE_SQL;
+
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, query);
+            stmt.setString(2, query);
+            stmt.setInt(3, maxResults);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new SearchResult(BlogPostDAO.mapRowToSummary(rs),
+                                                 rs.getDouble("score")));
+                }
+            }
+        }
+
+        return results;
+    }
+}
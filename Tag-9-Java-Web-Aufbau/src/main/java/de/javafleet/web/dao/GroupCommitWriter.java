@@ -0,0 +1,268 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.common.metrics.Counter;
+import de.javafleet.common.metrics.Histogram;
+import de.javafleet.common.metrics.MetricRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * GroupCommitWriter - Fasst gleichzeitige Einzel-Inserts zu einem Batch zusammen
+ *
+ * Jeder Autocommit-INSERT kostet die Datenbank einen fsync des Logs. Kommen
+ * viele Inserts gleichzeitig, stellen die Aufrufer ihre Zeile hier in eine
+ * Queue und warten. Ein Schreiber-Thread nimmt alles, was ansteht (höchstens
+ * maxRows), schreibt es per {@link BatchInserter} in einer Transaktion und
+ * weckt die Aufrufer. Der Durchsatz wächst so mit der Zahl der Schreiber
+ * statt mit der fsync-Rate.
+ *
+ * Gewartet wird nur unter Last: War der letzte Batch größer als eine Zeile,
+ * sammelt der Schreiber bis zu maxDelay weiter. Einzelne Inserts ohne
+ * Konkurrenz gehen sofort durch und zahlen keine zusätzliche Latenz.
+ *
+ * Fehler:
+ * - Lehnt die Datenbank eine Zeile ab (SQLState 22 oder 23), wird der Batch
+ *   zurückgerollt und zeilenweise wiederholt. Nur der Aufrufer der
+ *   schuldigen Zeile bekommt die Exception.
+ * - Andere Fehler bekommen alle Aufrufer des Batches, mit dem SQLState
+ *   des Originals.
+ * - Eine Zeile ist erst committet, wenn der Aufruf zurückkehrt. Wer
+ *   unterbrochen wird, wartet trotzdem auf das Ergebnis.
+ *
+ * Nur für Aufrufer ohne laufende Transaktion der {@link UnitOfWork}: Deren
+ * Zeile muss mit der Transaktion committet werden, nicht mit dem Batch.
+ *
+ * @param <T> die Entity, die IDs setzt der BatchWriter
+ */
+final class GroupCommitWriter<T> implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(GroupCommitWriter.class.getName());
+
+    /** Wartende Batches pro Schreiber, danach blockieren die Aufrufer */
+    private static final int QUEUED_BATCHES = 4;
+
+    /** So oft prüft ein wartender Schreiber, ob close() aufgerufen wurde */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Schreibt einen Batch in einer eigenen Transaktion und setzt die IDs
+     */
+    @FunctionalInterface
+    interface BatchWriter<T> {
+        void write(List<T> items) throws SQLException;
+    }
+
+    private final String name;
+    private final BatchWriter<T> writer;
+    private final int maxRows;
+    private final long maxDelayNanos;
+
+    private final BlockingQueue<Pending<T>> queue;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private final Counter batches;
+    private final Counter rows;
+    private final Histogram batchSizes;
+
+    /**
+     * @param name für Thread und Metriken, z.B. "BlogPostDAO"
+     * @param maxRows höchstens so viele Zeilen pro Batch
+     * @param maxDelay so lange wird unter Last höchstens gesammelt
+     */
+    GroupCommitWriter(String name, BatchWriter<T> writer, int maxRows, Duration maxDelay) {
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("Max rows must be positive: " + maxRows);
+        }
+        this.name = name;
+        this.writer = writer;
+        this.maxRows = maxRows;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.queue = new ArrayBlockingQueue<>(maxRows * QUEUED_BATCHES);
+
+        MetricRegistry registry = MetricRegistry.global();
+        batches = registry.counter("dao_group_commit_batches_total",
+                "Transactions written by group commit", "dao", name);
+        rows = registry.counter("dao_group_commit_rows_total",
+                "Rows written by group commit", "dao", name);
+        batchSizes = registry.summary("dao_group_commit_batch_size",
+                "Rows per group commit transaction", "dao", name, 1);
+
+        // Wartet meist auf Zeilen oder die Datenbank, wie die Requests auf einem
+        // virtuellen Thread (Connector/J 9 pinnt nicht mehr)
+        thread = Thread.ofVirtual().name("group-commit-" + name).start(this::run);
+    }
+
+    /**
+     * Schreibt die Zeile mit dem nächsten Batch und wartet auf den Commit
+     * Nach {@link #close()} wird direkt auf dem aufrufenden Thread geschrieben.
+     */
+    void write(T item) throws SQLException {
+        Pending<T> pending = new Pending<>(item);
+        if (!enqueue(pending)) {
+            writer.write(List.of(item));
+            return;
+        }
+
+        try {
+            // Nicht unterbrechbar: Die Zeile kann schon committet sein
+            pending.done.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sql) {
+                throw new SQLException("Group commit failed: " + sql.getMessage(),
+                        sql.getSQLState(), sql.getErrorCode(), sql);
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new SQLException("Group commit failed", cause);
+        }
+    }
+
+    /**
+     * Schreibt alle wartenden Zeilen und beendet den Schreiber
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Wer nach dem letzten Batch noch eingestellt hat, schreibt selbst
+        List<Pending<T>> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (Pending<T> pending : rest) {
+            writeBatch(List.of(pending));
+        }
+    }
+
+    private boolean enqueue(Pending<T> pending) throws SQLException {
+        try {
+            while (!closed) {
+                if (queue.offer(pending, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // Zu spät für close()? Dann selbst schreiben, sofern noch niemand sie hat
+                    return !closed || !queue.remove(pending);
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for group commit");
+        }
+    }
+
+    private void run() {
+        List<Pending<T>> batch = new ArrayList<>(maxRows);
+        int lastSize = 0;
+        try {
+            while (true) {
+                Pending<T> first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxRows - 1);
+
+                // Unter Last kurz weitersammeln, damit sich der Commit lohnt
+                if (lastSize > 1 && batch.size() < maxRows && maxDelayNanos > 0 && !closed) {
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    long remaining;
+                    while (batch.size() < maxRows && (remaining = deadline - System.nanoTime()) > 0) {
+                        Pending<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, maxRows - batch.size());
+                    }
+                }
+
+                lastSize = batch.size();
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Nur bei JVM-Ende, close() unterbricht nicht: Eingesammeltes noch schreiben
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<Pending<T>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Pending<T> pending : batch) {
+            items.add(pending.item);
+        }
+
+        try {
+            writer.write(items);
+            batches.increment();
+            rows.add(items.size());
+            batchSizes.record(items.size());
+            for (Pending<T> pending : batch) {
+                pending.done.complete(null);
+            }
+            return;
+        } catch (SQLException e) {
+            if (batch.size() == 1 || !isRowError(e)) {
+                for (Pending<T> pending : batch) {
+                    pending.done.completeExceptionally(e);
+                }
+                return;
+            }
+            LOG.fine(() -> name + ": batch of " + batch.size() + " rejected ("
+                    + e.getMessage() + "), retrying row by row");
+        } catch (RuntimeException | Error e) {
+            for (Pending<T> pending : batch) {
+                pending.done.completeExceptionally(e);
+            }
+            return;
+        }
+
+        // Der Batch wurde zurückgerollt: einzeln wiederholen, um die schuldigen Zeilen zu finden
+        for (Pending<T> pending : batch) {
+            writeBatch(List.of(pending));
+        }
+    }
+
+    /**
+     * Fehler, die an einzelnen Zeilen liegen: Daten (22) oder Constraints (23)
+     */
+    private static boolean isRowError(SQLException e) {
+        for (SQLException current = e; current != null; ) {
+            String state = current.getSQLState();
+            if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                return true;
+            }
+            current = current.getNextException() != null ? current.getNextException()
+                    : current.getCause() instanceof SQLException cause ? cause : null;
+        }
+        return false;
+    }
+
+    /**
+     * Eine eingestellte Zeile und ihr Ergebnis
+     */
+    private static final class Pending<T> {
+
+        final T item;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(T item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package de.javafleet.web.dao;
+
+/**
+ * IdRange - Kleinste und größte ID einer Tabelle, beide inklusive
+ *
+ * Grundlage für Exporte, die die Tabelle in ID-Bereiche aufteilen. Lücken
+ * (gelöschte Zeilen) machen einzelne Bereiche nur kleiner.
+ */
+public record IdRange(long first, long last) {
+
+    public IdRange {
+        if (last < first) {
+            throw new IllegalArgumentException("Empty range: " + first + ".." + last);
+        }
+    }
+
+    /**
+     * Anzahl der Bereiche mit höchstens size IDs
+     */
+    public long chunks(long size) {
+        return (last - first) / size + 1;
+    }
+}
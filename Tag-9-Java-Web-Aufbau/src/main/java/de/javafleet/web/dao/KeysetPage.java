@@ -0,0 +1,43 @@
+package de.javafleet.web.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * KeysetPage - Eine Seite aus einer Keyset-Pagination
+ *
+ * Enthält die Datensätze der Seite sowie die Tokens für die nächste
+ * und die vorherige Seite (null, wenn es in diese Richtung nichts mehr gibt).
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final String previousCursor;
+
+    public KeysetPage(List<T> items, String nextCursor, String previousCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean isHasPrevious() {
+        return previousCursor != null;
+    }
+}
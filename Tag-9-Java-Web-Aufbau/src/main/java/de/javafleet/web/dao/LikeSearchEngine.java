@@ -0,0 +1,122 @@
+package de.javafleet.web.dao;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * LikeSearchEngine - Fallback-Suche mit LIKE für Datenbanken ohne MySQL FULLTEXT
+ *
+ * Wird z.B. mit H2 in Tests verwendet. Zerlegt die Suchanfrage in Begriffe und
+ * berechnet einen einfachen Score (Treffer im Titel zählen doppelt). Im
+ * BOOLEAN-Modus werden +muss, -darfnicht und "Phrasen" unterstützt.
+ * Groß-/Kleinschreibung wird wie bei MySQL (_ci-Collation) ignoriert.
+ * Achtung: LIKE '%q%' kann keinen Index nutzen, daher nur für kleine Tabellen.
+ */
+public class LikeSearchEngine implements BlogPostSearchEngine {
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    private final DataSource dataSource;
+
+    public LikeSearchEngine(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public List<SearchResult> search(String query, SearchMode mode, int maxResults)
+            throws SQLException {
+        List<SearchResult> results = new ArrayList<>();
+        List<SearchQueryParser.Term> terms = SearchQueryParser.parse(query, mode);
+
+        List<SearchQueryParser.Term> scoring = new ArrayList<>();
+        List<SearchQueryParser.Term> required = new ArrayList<>();
+        List<SearchQueryParser.Term> excluded = new ArrayList<>();
+        for (SearchQueryParser.Term term : terms) {
+            switch (term.occur()) {
+                case MUST -> { required.add(term); scoring.add(term); }
+                case MUST_NOT -> excluded.add(term);
+                default -> scoring.add(term);
+            }
+        }
+
+        if (scoring.isEmpty()) {
+            return results;
+        }
+
+        List<String> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT " + BlogPostDAO.SUMMARY_COLUMNS + ", (");
+
+        for (int i = 0; i < scoring.size(); i++) {
+            if (i > 0) {
+                sql.append(" + ");
+            }
+            sql.append("CASE WHEN LOWER(title) LIKE ? THEN ").append(TITLE_WEIGHT).append(" ELSE 0 END")
+               .append(" + CASE WHEN LOWER(content) LIKE ? THEN ").append(CONTENT_WEIGHT).append(" ELSE 0 END");
+            params.add(likePattern(scoring.get(i)));
+            params.add(likePattern(scoring.get(i)));
+        }
+        sql.append(") AS score FROM blog_posts WHERE ");
+
+        // Ohne Pflichtbegriffe muss mindestens ein optionaler Begriff passen
+        List<SearchQueryParser.Term> positive = required.isEmpty() ? scoring : required;
+        String joiner = required.isEmpty() ? " OR " : " AND ";
+        sql.append('(');
+        for (int i = 0; i < positive.size(); i++) {
+            if (i > 0) {
+                sql.append(joiner);
+            }
+            sql.append("(LOWER(title) LIKE ? OR LOWER(content) LIKE ?)");
+            params.add(likePattern(positive.get(i)));
+            params.add(likePattern(positive.get(i)));
+        }
+        sql.append(')');
+
+        for (SearchQueryParser.Term term : excluded) {
+            sql.append(" AND NOT (LOWER(title) LIKE ? OR LOWER(content) LIKE ?)");
+            params.add(likePattern(term));
+            params.add(likePattern(term));
+        }
+
+        sql.append(" ORDER BY score DESC, created_at DESC LIMIT ?");
+
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            for (String param : params) {
+                stmt.setString(index++, param);
+            }
+            stmt.setInt(index, maxResults);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new SearchResult(BlogPostDAO.mapRowToSummary(rs),
+                                                 rs.getDouble("score")));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Helper-Methode: Baut das LIKE-Muster für einen Suchbegriff
+     */
+    private static String likePattern(SearchQueryParser.Term term) {
+        return "%" + escapeLike(term.text().toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    /**
+     * Helper-Methode: Maskiert die LIKE-Platzhalter % und _
+     */
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,65 @@
+package de.javafleet.web.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page - Eine Seite aus einer OFFSET-Pagination inklusive Gesamtanzahl
+ *
+ * Seite und Gesamtanzahl stammen aus einer einzigen Abfrage
+ * (siehe {@link CountMode}), es genügt also ein Round-Trip pro Seite.
+ */
+public final class Page<T> {
+
+    private final List<T> items;
+    private final int offset;
+    private final int limit;
+    private final int total;
+
+    public Page(List<T> items, int offset, int limit, int total) {
+        this.items = Collections.unmodifiableList(items);
+        this.offset = offset;
+        this.limit = limit;
+        this.total = total;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Gesamtanzahl aller Datensätze (bei CountMode.CACHED ggf. leicht veraltet)
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Aktuelle Seite, beginnend bei 1
+     */
+    public int getPageNumber() {
+        return limit > 0 ? offset / limit + 1 : 1;
+    }
+
+    public int getTotalPages() {
+        return limit > 0 ? (int) Math.ceil((double) total / limit) : 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", offset=" + offset +
+                ", limit=" + limit +
+                ", total=" + total +
+                '}';
+    }
+}
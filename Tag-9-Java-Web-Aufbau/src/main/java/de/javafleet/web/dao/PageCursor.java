@@ -0,0 +1,100 @@
+package de.javafleet.web.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * PageCursor - Position innerhalb einer Keyset-Pagination
+ *
+ * Merkt sich (created_at, id) des Randelements einer Seite und die Richtung,
+ * in die weitergeblättert wird. Nach außen wird der Cursor nur als
+ * undurchsichtiges, URL-sicheres Token weitergegeben.
+ */
+public final class PageCursor {
+
+    /**
+     * Blätterrichtung relativ zum Randelement
+     */
+    public enum Direction {
+        NEXT, PREVIOUS
+    }
+
+    private static final char SEPARATOR = '|';
+
+    private final Direction direction;
+    private final LocalDateTime createdAt;
+    private final int id;
+
+    public PageCursor(Direction direction, LocalDateTime createdAt, int id) {
+        if (direction == null || createdAt == null) {
+            throw new IllegalArgumentException("Direction and createdAt are required");
+        }
+        this.direction = direction;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Kodiert den Cursor als URL-sicheres Token (Base64 ohne Padding)
+     */
+    public String encode() {
+        String raw = direction.name().charAt(0) + String.valueOf(SEPARATOR)
+                + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dekodiert ein Token, das vorher mit {@link #encode()} erzeugt wurde
+     * @throws IllegalArgumentException wenn das Token ungültig ist
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("Empty cursor token");
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token),
+                                    StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            if (parts.length != 3 || parts[0].length() != 1) {
+                throw new IllegalArgumentException("Malformed cursor token");
+            }
+
+            Direction direction = switch (parts[0].charAt(0)) {
+                case 'N' -> Direction.NEXT;
+                case 'P' -> Direction.PREVIOUS;
+                default -> throw new IllegalArgumentException("Unknown cursor direction");
+            };
+
+            return new PageCursor(direction, LocalDateTime.parse(parts[1]),
+                                  Integer.parseInt(parts[2]));
+
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor token", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" +
+                "direction=" + direction +
+                ", createdAt=" + createdAt +
+                ", id=" + id +
+                '}';
+    }
+}
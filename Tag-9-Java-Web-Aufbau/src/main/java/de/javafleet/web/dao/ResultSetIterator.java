@@ -0,0 +1,126 @@
+package de.javafleet.web.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * ResultSetIterator - Liest Datensätze erst beim Iterieren aus dem ResultSet
+ *
+ * Hält Connection, Statement und ResultSet offen, bis das Ende erreicht ist
+ * oder {@link #close()} aufgerufen wird. Es liegt also immer nur die aktuelle
+ * Zeile im Speicher, egal wie groß die Tabelle ist. Der Aufrufer MUSS den
+ * Iterator schließen, sonst bleibt die Connection aus dem Pool ausgeliehen:
+ *
+ * <pre>
+ * try (ResultSetIterator&lt;BlogPost&gt; posts = blogDAO.streamAll()) {
+ *     while (posts.hasNext()) { ... }
+ * }
+ * </pre>
+ *
+ * Lesefehler werden als {@link IllegalStateException} mit der
+ * {@link SQLException} als Ursache weitergereicht, weil {@link Iterator}
+ * keine geprüften Exceptions erlaubt.
+ */
+public class ResultSetIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final Connection connection;
+    private final Statement statement;
+    private final ResultSet resultSet;
+    private final RowMapper<T> mapper;
+    private final int total;
+
+    private T next;
+    private boolean closed;
+
+    public ResultSetIterator(Connection connection, Statement statement,
+                             ResultSet resultSet, RowMapper<T> mapper) {
+        this(connection, statement, resultSet, mapper, -1);
+    }
+
+    /**
+     * @param total Gesamtanzahl der Zeilen, falls vorab ermittelt, sonst -1
+     */
+    public ResultSetIterator(Connection connection, Statement statement,
+                             ResultSet resultSet, RowMapper<T> mapper, int total) {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+        this.total = total;
+    }
+
+    /**
+     * Gesamtanzahl der Zeilen oder -1, wenn sie nicht mit abgefragt wurde
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+
+        try {
+            if (resultSet.next()) {
+                next = mapper.map(resultSet);
+                return true;
+            }
+            close();
+            return false;
+
+        } catch (SQLException e) {
+            closeQuietly();
+            throw new IllegalStateException("Reading result set failed", e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T current = next;
+        next = null;
+        return current;
+    }
+
+    /**
+     * Gibt ResultSet, Statement und Connection frei (mehrfacher Aufruf erlaubt)
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        next = null;
+
+        // Erst ResultSet, dann Statement, zuletzt die Connection, auch wenn ein close() scheitert
+        try {
+            resultSet.close();
+        } finally {
+            try {
+                statement.close();
+            } finally {
+                connection.close();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (SQLException ignored) {
+            // Der ursprüngliche Fehler ist wichtiger
+        }
+    }
+}
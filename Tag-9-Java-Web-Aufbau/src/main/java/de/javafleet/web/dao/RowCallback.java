@@ -0,0 +1,16 @@
+package de.javafleet.web.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * RowCallback - Verarbeitet die aktuelle Zeile eines ResultSets direkt
+ *
+ * Anders als {@link RowMapper} entsteht kein Objekt pro Zeile. Der Aufrufer
+ * liest die Spalten und schreibt sie z.B. sofort in eine Antwort.
+ */
+@FunctionalInterface
+public interface RowCallback {
+
+    void processRow(ResultSet rs) throws SQLException;
+}
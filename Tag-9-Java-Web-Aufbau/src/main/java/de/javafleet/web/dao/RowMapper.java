@@ -0,0 +1,13 @@
+package de.javafleet.web.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * RowMapper - Mappt die aktuelle Zeile eines ResultSets auf ein Objekt
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,12 @@
+package de.javafleet.web.dao;
+
+/**
+ * SearchMode - Suchmodus für die Volltextsuche
+ *
+ * NATURAL_LANGUAGE: freie Suchbegriffe, sortiert nach Relevanz
+ * BOOLEAN: Operatoren wie +muss, -darfnicht und "Phrase"
+ */
+public enum SearchMode {
+    NATURAL_LANGUAGE,
+    BOOLEAN
+}
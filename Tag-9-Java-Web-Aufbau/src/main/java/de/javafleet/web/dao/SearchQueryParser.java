@@ -0,0 +1,85 @@
+package de.javafleet.web.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SearchQueryParser - Zerlegt Suchanfragen in Begriffe
+ *
+ * Wird von den Suchstrategien ohne MySQL FULLTEXT genutzt, damit sich
+ * +muss, -darfnicht und "Phrasen" überall gleich verhalten.
+ */
+final class SearchQueryParser {
+
+    private static final int MAX_TERMS = 10;
+
+    private SearchQueryParser() {
+    }
+
+    /**
+     * Zerlegt die Suchanfrage in Begriffe und "Phrasen"
+     * Operatoren werden nur im BOOLEAN-Modus ausgewertet.
+     */
+    static List<Term> parse(String query, SearchMode mode) {
+        List<Term> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+
+        int i = 0;
+        int length = query.length();
+        while (i < length && terms.size() < MAX_TERMS) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            Occur occur = Occur.SHOULD;
+            if (c == '+' || c == '-') {
+                if (mode == SearchMode.BOOLEAN) {
+                    occur = c == '+' ? Occur.MUST : Occur.MUST_NOT;
+                }
+                i++;
+                if (i >= length) {
+                    break;
+                }
+            }
+
+            int end;
+            String text;
+            if (query.charAt(i) == '"') {
+                end = query.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = length;
+                }
+                text = query.substring(i + 1, end);
+                end++;
+            } else {
+                end = i;
+                while (end < length && !Character.isWhitespace(query.charAt(end))) {
+                    end++;
+                }
+                text = query.substring(i, end);
+            }
+
+            if (mode == SearchMode.BOOLEAN) {
+                // Trunkierung (wort*) ist bei LIKE '%...%' ohnehin implizit
+                text = text.replace("*", "");
+            }
+            if (!text.isBlank()) {
+                terms.add(new Term(text.trim(), occur));
+            }
+            i = end;
+        }
+
+        return terms;
+    }
+
+    enum Occur {
+        SHOULD, MUST, MUST_NOT
+    }
+
+    record Term(String text, Occur occur) {
+    }
+}
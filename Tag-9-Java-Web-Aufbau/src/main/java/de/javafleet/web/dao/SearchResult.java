@@ -0,0 +1,33 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.web.model.BlogPostSummary;
+
+/**
+ * SearchResult - Ein Treffer der Volltextsuche mit Relevanz-Score
+ */
+public final class SearchResult {
+
+    private final BlogPostSummary post;
+    private final double score;
+
+    public SearchResult(BlogPostSummary post, double score) {
+        this.post = post;
+        this.score = score;
+    }
+
+    public BlogPostSummary getPost() {
+        return post;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+                "postId=" + post.getId() +
+                ", score=" + score +
+                '}';
+    }
+}
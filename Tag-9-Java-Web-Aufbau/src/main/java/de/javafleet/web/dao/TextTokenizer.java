@@ -0,0 +1,60 @@
+package de.javafleet.web.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * TextTokenizer - Zerlegt Text in normalisierte Suchbegriffe
+ *
+ * Kleinschreibung, Trennung an allem außer Buchstaben und Ziffern,
+ * Begriffe unter zwei Zeichen und häufige Stoppwörter fallen weg.
+ */
+final class TextTokenizer {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "der", "die", "das", "und", "oder", "ist", "ein", "eine", "einer", "in",
+            "im", "zu", "mit", "von", "den", "dem", "des", "auf", "für", "nicht",
+            "es", "ich", "du", "wir", "sie", "hier", "wie", "warum", "so",
+            "the", "and", "or", "is", "of", "to", "a", "an", "on", "for", "with");
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * Liefert die Begriffe in Textreihenfolge (Duplikate bleiben erhalten)
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addToken(tokens, text.substring(start, i));
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String token) {
+        if (token.length() < MIN_TOKEN_LENGTH) {
+            return;
+        }
+        String normalized = token.toLowerCase(Locale.ROOT);
+        if (!STOP_WORDS.contains(normalized)) {
+            tokens.add(normalized);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package de.javafleet.web.dao;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * UnitOfWork - Eine Connection für alle DAO-Aufrufe eines Requests
+ *
+ * Wird vom UnitOfWorkFilter an den Request-Thread gebunden. Die DAOs holen
+ * sich ihre Connection über {@link #connection(DataSource)}: Ist eine
+ * UnitOfWork aktiv, bekommen sie deren Connection (erst beim ersten Zugriff
+ * aus dem Pool geliehen), sonst wie bisher eine eigene aus der DataSource.
+ * Das close() der DAOs auf der geliehenen Connection ist wirkungslos, zurück
+ * in den Pool geht sie erst mit {@link #close()} am Ende des Requests.
+ *
+ * Optional lassen sich mehrere DAO-Aufrufe zu einer Transaktion bündeln:
+ *
+ * <pre>
+ * UnitOfWork uow = UnitOfWork.current();
+ * uow.beginTransaction();
+ * blogDAO.update(post);
+ * blogDAO.delete(otherId);
+ * uow.commit();          // ohne commit() rollt close() zurück
+ * </pre>
+ *
+ * Listener und Caches werden über {@link #afterCommit(Runnable)} erst nach
+ * dem Commit benachrichtigt, bei einem Rollback gar nicht.
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(UnitOfWork.class.getName());
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+    private final List<Runnable> afterCommitActions = new ArrayList<>();
+
+    private Connection connection;
+    private Connection handle;
+    private boolean transactionActive;
+    private boolean closed;
+
+    private UnitOfWork(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Startet eine UnitOfWork und bindet sie an den aktuellen Thread
+     * @throws IllegalStateException wenn bereits eine aktiv ist
+     */
+    public static UnitOfWork begin(DataSource dataSource) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("Unit of work already active on this thread");
+        }
+        UnitOfWork unitOfWork = new UnitOfWork(dataSource);
+        CURRENT.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    /**
+     * Liefert die UnitOfWork des aktuellen Threads oder null
+     */
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Connection für einen DAO-Aufruf: die der aktiven UnitOfWork oder,
+     * ohne UnitOfWork, eine neue aus der übergebenen DataSource
+     * Der Aufrufer schließt sie wie gewohnt mit try-with-resources.
+     */
+    public static Connection connection(DataSource dataSource) throws SQLException {
+        UnitOfWork unitOfWork = CURRENT.get();
+        if (unitOfWork != null) {
+            return unitOfWork.getConnection();
+        }
+        if (dataSource == null) {
+            throw new SQLException("No DataSource available and no unit of work active");
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Läuft gerade eine Transaktion der UnitOfWork auf diesem Thread?
+     */
+    public static boolean inTransaction() {
+        UnitOfWork unitOfWork = CURRENT.get();
+        return unitOfWork != null && unitOfWork.transactionActive;
+    }
+
+    /**
+     * Führt eine Aktion nach dem Commit der laufenden Transaktion aus,
+     * ohne Transaktion sofort
+     */
+    public static void afterCommit(Runnable action) {
+        UnitOfWork unitOfWork = CURRENT.get();
+        if (unitOfWork != null && unitOfWork.transactionActive) {
+            unitOfWork.afterCommitActions.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Liefert die gemeinsame Connection, beim ersten Aufruf aus dem Pool
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Unit of work already closed");
+        }
+        if (connection == null) {
+            connection = dataSource.getConnection();
+            handle = nonClosing(connection);
+        }
+        return handle;
+    }
+
+    /**
+     * Hat die UnitOfWork bereits eine Connection aus dem Pool geliehen?
+     */
+    public boolean isConnectionBorrowed() {
+        return connection != null;
+    }
+
+    public boolean isTransactionActive() {
+        return transactionActive;
+    }
+
+    /**
+     * Startet eine Transaktion über alle folgenden DAO-Aufrufe
+     */
+    public void beginTransaction() throws SQLException {
+        if (transactionActive) {
+            throw new IllegalStateException("Transaction already active");
+        }
+        getConnection();
+        connection.setAutoCommit(false);
+        transactionActive = true;
+    }
+
+    /**
+     * Schreibt die Transaktion fest und führt die afterCommit-Aktionen aus
+     */
+    public void commit() throws SQLException {
+        if (!transactionActive) {
+            throw new IllegalStateException("No active transaction");
+        }
+        connection.commit();
+        endTransaction();
+
+        List<Runnable> actions = new ArrayList<>(afterCommitActions);
+        afterCommitActions.clear();
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // Die Daten sind committet, ein Listener-Fehler darf das nicht verschleiern
+                LOG.log(Level.WARNING, "After-commit action failed", e);
+            }
+        }
+    }
+
+    /**
+     * Rollt die Transaktion zurück und verwirft die afterCommit-Aktionen
+     */
+    public void rollback() throws SQLException {
+        if (!transactionActive) {
+            throw new IllegalStateException("No active transaction");
+        }
+        afterCommitActions.clear();
+        try {
+            connection.rollback();
+        } finally {
+            endTransaction();
+        }
+    }
+
+    /**
+     * Beendet die UnitOfWork: rollt eine offene Transaktion zurück,
+     * gibt die Connection an den Pool und löst die Bindung an den Thread
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        if (connection == null) {
+            return;
+        }
+
+        try {
+            if (transactionActive) {
+                LOG.warning("Unit of work closed with open transaction, rolling back");
+                rollback();
+            }
+        } finally {
+            connection.close();
+            connection = null;
+            handle = null;
+        }
+    }
+
+    private void endTransaction() throws SQLException {
+        transactionActive = false;
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Helper-Methode: Connection, deren close() nichts tut
+     */
+    private static Connection nonClosing(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        return null;
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(target)) {
+                            return target;
+                        }
+                        break;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "UnitOfWork[" + target + "]";
+                    default:
+                        break;
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    @Override
+    public String toString() {
+        return "UnitOfWork{" +
+                "connectionBorrowed=" + isConnectionBorrowed() +
+                ", transactionActive=" + transactionActive +
+                ", closed=" + closed +
+                '}';
+    }
+}
@@ -1,36 +1,54 @@
 package de.javafleet.web.dao;
 
+import de.javafleet.web.metrics.JdbcMetrics;
 import de.javafleet.web.model.User;
-import jakarta.annotation.Resource;
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * User Data Access Object (DAO)
  * Verwaltet alle Datenbankzugriffe für User-Objekte
  * 
- * Nutzt Dependency Injection für DataSource (moderne Methode)
+ * Die DataSource kommt vom Servlet, das sie per @Resource injiziert bekommt
  */
 public class UserDAO {
     
-    @Resource(name = "jdbc/MyWebAppDB")
-    private DataSource dataSource;
+    /** Felder der JSON-API und ihre SQL-Ausdrücke (das Passwort gehört nie dazu) */
+    public static final Map<String, String> API_FIELDS = apiFields();
+    
+    /** ServletContext-Attribut für den DAO des UserListServlets (Bloom-Filter, Typeahead) */
+    public static final String ATTRIBUTE = UserDAO.class.getName();
+    
+    private final DataSource dataSource;
+    
+    private final CachedCount cachedCount = new CachedCount();
+    
+    /** Read-Through-Cache für findById (1000 User, 60 Sekunden) */
+    private final EntityCache<Integer, User> userCache = 
+            new EntityCache<>(1000, 60_000, UserDAO::copyOf);
+    
+    /** Beantwortet usernameExists() für sicher freie Namen ohne Datenbank */
+    private volatile UsernameBloomFilter usernameFilter;
+    
+    private final List<UserListener> listeners = new CopyOnWriteArrayList<>();
     
     /**
-     * Alternative: JNDI-Lookup im Konstruktor (klassische Methode)
+     * @param dataSource injizierte DataSource des Servlets oder ein
+     *        {@link de.javafleet.web.pool.PooledDataSource}; wird von allen
+     *        Threads ohne {@link UnitOfWork} genutzt (z.B. beim Aufbau von
+     *        Bloom-Filter und Typeahead-Index)
      */
-    /*
-    public UserDAO() {
-        try {
-            Context ctx = new InitialContext();
-            dataSource = (DataSource) ctx.lookup("jdbc/MyWebAppDB");
-        } catch (NamingException e) {
-            throw new RuntimeException("Datasource init failed", e);
-        }
+    public UserDAO(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
     }
-    */
     
     /**
      * Holt alle User aus der Datenbank
@@ -39,7 +57,8 @@ public class UserDAO {
         List<User> users = new ArrayList<>();
         String sql = "SELECT id, username, email FROM users ORDER BY username";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("UserDAO.findAll");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
@@ -51,13 +70,123 @@ public class UserDAO {
         return users;
     }
     
+    /**
+     * Streamt alle User, statt sie komplett in eine Liste zu laden
+     * Der Iterator hält eine Connection offen und MUSS geschlossen werden.
+     */
+    public ResultSetIterator<User> streamAll() throws SQLException {
+        return streamAll(null);
+    }
+    
+    /**
+     * Streamt alle User samt Gesamtanzahl über eine einzige Connection
+     * @param countMode Herkunft der Gesamtanzahl, null = nicht zählen
+     */
+    public ResultSetIterator<User> streamAll(CountMode countMode) throws SQLException {
+        String sql = "SELECT id, username, email FROM users ORDER BY username";
+        
+        JdbcMetrics.tag("UserDAO.streamAll");
+        Connection conn = UnitOfWork.connection(dataSource);
+        try {
+            int total = -1;
+            if (countMode != null) {
+                total = countMode == CountMode.CACHED ? cachedCount.get() : -1;
+                if (total < 0) {
+                    total = count(conn);
+                    cachedCount.set(total);
+                }
+            }
+            
+            PreparedStatement stmt = conn.prepareStatement(sql, 
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(DatabaseSupport.streamingFetchSize(conn));
+            return new ResultSetIterator<>(conn, stmt, stmt.executeQuery(), 
+                                           this::mapRowToUser, total);
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Liest eine Seite für die JSON-API und reicht jede Zeile direkt weiter
+     * Die Spalten 1..fields.size() des ResultSets entsprechen fields, es
+     * entsteht kein User-Objekt. Geblättert wird über den Primärschlüssel.
+     * @param fields Felder aus {@link #API_FIELDS}
+     * @param afterId letzte ID der vorherigen Seite, 0 für den Anfang
+     * @return ID für die nächste Seite oder 0 auf der letzten Seite
+     * @throws IllegalArgumentException bei unbekannten Feldern
+     */
+    public int streamApiPage(List<String> fields, int limit, int afterId, 
+                             RowCallback callback) throws SQLException {
+        String sql = "SELECT " + DatabaseSupport.selectList(fields, API_FIELDS) + 
+                    ", id AS cursor_id FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        
+        JdbcMetrics.tag("UserDAO.streamApiPage");
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, afterId);
+            // Ein Datensatz mehr als nötig verrät, ob es weitere Seiten gibt
+            stmt.setInt(2, limit + 1);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                int rows = 0;
+                int lastId = 0;
+                while (rs.next()) {
+                    if (rows == limit) {
+                        return lastId;
+                    }
+                    callback.processRow(rs);
+                    lastId = rs.getInt("cursor_id");
+                    rows++;
+                }
+            }
+        }
+        
+        return 0;
+    }
+    
     /**
      * Holt einen User anhand der ID
+     * Häufig gelesene User kommen aus dem Cache, update() und delete()
+     * verwerfen den Eintrag sofort.
      */
     public User findById(int id) throws SQLException {
+        // In einer Transaktion können noch nicht committete Änderungen sichtbar sein
+        if (UnitOfWork.inTransaction()) {
+            return loadById(id);
+        }
+        return userCache.get(id, this::loadById);
+    }
+    
+    /**
+     * Liefert die Statistik des findById-Caches (Hits, Misses, Verdrängungen)
+     */
+    public EntityCache.Stats getCacheStats() {
+        return userCache.getStats();
+    }
+    
+    /**
+     * Setzt den Bloom-Filter für usernameExists() (null = immer die Datenbank fragen)
+     * Der Filter muss danach noch mit rebuild() aufgebaut werden.
+     */
+    public void setUsernameFilter(UsernameBloomFilter usernameFilter) {
+        this.usernameFilter = usernameFilter;
+    }
+    
+    public UsernameBloomFilter getUsernameFilter() {
+        return usernameFilter;
+    }
+    
+    /**
+     * Helper-Methode: Lädt einen User am Cache vorbei aus der Datenbank
+     */
+    private User loadById(int id) throws SQLException {
         String sql = "SELECT id, username, email FROM users WHERE id = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("UserDAO.findById");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
@@ -78,7 +207,8 @@ public class UserDAO {
     public User findByUsername(String username) throws SQLException {
         String sql = "SELECT id, username, email FROM users WHERE username = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("UserDAO.findByUsername");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, username);
@@ -104,11 +234,45 @@ public class UserDAO {
         
         String searchPattern = "%" + query + "%";
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("UserDAO.search");
+        try (Connection conn = UnitOfWork.connection(dataSource);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, searchPattern);
+            stmt.setString(2, searchPattern);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(mapRowToUser(rs));
+                }
+            }
+        }
+        
+        return users;
+    }
+    
+    /**
+     * Sucht User, deren Username oder E-Mail mit prefix beginnt (Typeahead)
+     * Anders als search() kann die Datenbank hier idx_username und idx_email
+     * nutzen. Gedacht als Fallback, solange der {@link UserPrefixIndex}
+     * noch aufgebaut wird.
+     * @param limit maximale Anzahl Treffer
+     */
+    public List<User> searchPrefix(String prefix, int limit) throws SQLException {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT id, username, email FROM users " +
+                    "WHERE username LIKE ? ESCAPE '!' OR email LIKE ? ESCAPE '!' " +
+                    "ORDER BY username LIMIT ?";
+        
+        String searchPattern = escapeLike(prefix) + "%";
+        
+        JdbcMetrics.tag("UserDAO.searchPrefix");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, searchPattern);
             stmt.setString(2, searchPattern);
+            stmt.setInt(3, limit);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -120,6 +284,14 @@ public class UserDAO {
         return users;
     }
     
+    /**
+     * Registriert einen Listener, der nach erfolgreichen Schreibzugriffen
+     * benachrichtigt wird (z.B. der Typeahead-Index)
+     */
+    public void addListener(UserListener listener) {
+        listeners.add(listener);
+    }
+    
     /**
      * Erstellt einen neuen User in der Datenbank
      * Die generierte ID wird im User-Objekt gesetzt
@@ -127,7 +299,14 @@ public class UserDAO {
     public void create(User user) throws SQLException {
         String sql = "INSERT INTO users (username, email, password) VALUES (?, ?, ?)";
         
-        try (Connection conn = dataSource.getConnection();
+        // Vor dem INSERT aufnehmen: Scheitert er, bleibt nur ein Falsch-Positiv
+        UsernameBloomFilter filter = usernameFilter;
+        if (filter != null) {
+            filter.add(user.getUsername());
+        }
+        
+        JdbcMetrics.tag("UserDAO.create");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql, 
                  Statement.RETURN_GENERATED_KEYS)) {
             
@@ -150,6 +329,59 @@ public class UserDAO {
                 }
             }
         }
+        
+        UnitOfWork.afterCommit(() -> {
+            cachedCount.invalidate();
+            if (filter != null) {
+                filter.rebuildIfNeeded(this);
+            }
+            for (UserListener listener : listeners) {
+                listener.userCreated(user);
+            }
+        });
+    }
+    
+    /**
+     * Legt viele User per JDBC-Batch an (Chunks à 500 Zeilen)
+     */
+    public BatchInsertReport createAll(Collection<User> users) throws SQLException {
+        return createAll(users, BatchInserter.DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Legt viele User per JDBC-Batch an
+     * Ein Round-Trip und eine Transaktion pro Chunk statt pro Zeile,
+     * die generierten IDs werden in die Objekte übernommen.
+     * @param chunkSize Anzahl Zeilen pro executeBatch()/Commit
+     */
+    public BatchInsertReport createAll(Collection<User> users, int chunkSize) 
+            throws SQLException {
+        String sql = "INSERT INTO users (username, email, password) VALUES (?, ?, ?)";
+        
+        UsernameBloomFilter filter = usernameFilter;
+        if (filter != null) {
+            for (User user : users) {
+                filter.add(user.getUsername());
+            }
+        }
+        
+        JdbcMetrics.tag("UserDAO.createAll");
+        return BatchInserter.insert(dataSource, sql, users, chunkSize,
+            (stmt, user) -> {
+                stmt.setString(1, user.getUsername());
+                stmt.setString(2, user.getEmail());
+                stmt.setString(3, user.getPassword());
+            },
+            User::setId,
+            user -> {
+                cachedCount.invalidate();
+                if (filter != null) {
+                    filter.rebuildIfNeeded(this);
+                }
+                for (UserListener listener : listeners) {
+                    listener.userCreated(user);
+                }
+            });
     }
     
     /**
@@ -158,9 +390,20 @@ public class UserDAO {
     public void update(User user) throws SQLException {
         String sql = "UPDATE users SET username = ?, email = ? WHERE id = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        UsernameBloomFilter filter = usernameFilter;
+        String previousUsername = null;
+        
+        JdbcMetrics.tag("UserDAO.update");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
+            if (filter != null) {
+                previousUsername = findUsername(conn, user.getId());
+                if (!user.getUsername().equals(previousUsername)) {
+                    filter.add(user.getUsername());
+                }
+            }
+            
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getEmail());
             stmt.setInt(3, user.getId());
@@ -171,6 +414,18 @@ public class UserDAO {
                 throw new SQLException("Updating user failed, no rows affected.");
             }
         }
+        
+        String renamedFrom = user.getUsername().equals(previousUsername) ? null : previousUsername;
+        UnitOfWork.afterCommit(() -> {
+            userCache.invalidate(user.getId());
+            if (filter != null && renamedFrom != null) {
+                filter.markRemoved(renamedFrom);
+                filter.rebuildIfNeeded(this);
+            }
+            for (UserListener listener : listeners) {
+                listener.userUpdated(user);
+            }
+        });
     }
     
     /**
@@ -179,9 +434,17 @@ public class UserDAO {
     public void delete(int id) throws SQLException {
         String sql = "DELETE FROM users WHERE id = ?";
         
-        try (Connection conn = dataSource.getConnection();
+        UsernameBloomFilter filter = usernameFilter;
+        String username = null;
+        
+        JdbcMetrics.tag("UserDAO.delete");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
+            if (filter != null) {
+                username = findUsername(conn, id);
+            }
+            
             stmt.setInt(1, id);
             
             int affectedRows = stmt.executeUpdate();
@@ -190,37 +453,99 @@ public class UserDAO {
                 throw new SQLException("Deleting user failed, no rows affected.");
             }
         }
+        
+        String deletedUsername = username;
+        UnitOfWork.afterCommit(() -> {
+            userCache.invalidate(id);
+            cachedCount.invalidate();
+            if (filter != null) {
+                filter.markRemoved(deletedUsername);
+                filter.rebuildIfNeeded(this);
+            }
+            for (UserListener listener : listeners) {
+                listener.userDeleted(id);
+            }
+        });
     }
     
     /**
      * Prüft, ob ein Username bereits existiert
+     * Ist ein {@link UsernameBloomFilter} gesetzt, beantwortet er sicher freie
+     * Namen ohne Datenbank. Nur bei "vielleicht vergeben" läuft die Abfrage.
      */
     public boolean usernameExists(String username) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
+        UsernameBloomFilter filter = usernameFilter;
+        if (filter != null && !filter.mightContain(username)) {
+            return false;
+        }
+        
+        // EXISTS bricht beim ersten Treffer ab, COUNT(*) zählt alle
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE username = ?)";
+        boolean exists = false;
         
-        try (Connection conn = dataSource.getConnection();
+        JdbcMetrics.tag("UserDAO.usernameExists");
+        try (Connection conn = UnitOfWork.connection(dataSource);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, username);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                    exists = rs.getBoolean(1);
                 }
             }
         }
         
-        return false;
+        if (filter != null) {
+            filter.recordFallback(exists);
+        }
+        return exists;
+    }
+    
+    /**
+     * Helper-Methode: Liest den aktuellen Username über eine bereits ausgeliehene Connection
+     */
+    private static String findUsername(Connection conn, int id) throws SQLException {
+        String sql = "SELECT username FROM users WHERE id = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
     }
     
     /**
      * Zählt alle User in der Datenbank
      */
     public int count() throws SQLException {
+        JdbcMetrics.tag("UserDAO.count");
+        try (Connection conn = UnitOfWork.connection(dataSource)) {
+            return count(conn);
+        }
+    }
+    
+    /**
+     * Zählt alle User, bei CountMode.CACHED höchstens 30 Sekunden alt
+     */
+    public int count(CountMode countMode) throws SQLException {
+        int total = countMode == CountMode.CACHED ? cachedCount.get() : -1;
+        if (total < 0) {
+            total = count();
+            cachedCount.set(total);
+        }
+        return total;
+    }
+    
+    /**
+     * Helper-Methode: Zählt über eine bereits ausgeliehene Connection
+     */
+    private static int count(Connection conn) throws SQLException {
         String sql = "SELECT COUNT(*) FROM users";
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             if (rs.next()) {
@@ -231,6 +556,34 @@ public class UserDAO {
         return 0;
     }
     
+    /**
+     * Helper-Methode: Maskiert %, _ und ! für LIKE ... ESCAPE '!'
+     */
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+    
+    /**
+     * Helper-Methode: Felder der JSON-API in Ausgabereihenfolge
+     */
+    private static Map<String, String> apiFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("id", "id");
+        fields.put("username", "username");
+        fields.put("email", "email");
+        fields.put("createdAt", "created_at");
+        return Collections.unmodifiableMap(fields);
+    }
+    
+    /**
+     * Helper-Methode: Kopiert einen User (für den Cache)
+     */
+    private static User copyOf(User user) {
+        User copy = new User(user.getId(), user.getUsername(), user.getEmail());
+        copy.setPassword(user.getPassword());
+        return copy;
+    }
+    
     /**
      * Helper-Methode: Mappt eine ResultSet-Zeile zu einem User-Objekt
      */
@@ -0,0 +1,31 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.web.model.User;
+
+/**
+ * UserListener - Wird nach erfolgreichen Schreibzugriffen im UserDAO benachrichtigt
+ *
+ * Gegenstück zu {@link BlogPostListener}: In-Memory-Strukturen wie der
+ * {@link UserPrefixIndex} bleiben so ohne eigene Abfragen aktuell.
+ * Die Aufrufe kommen erst nach dem Commit.
+ */
+public interface UserListener {
+
+    /**
+     * Ein User wurde angelegt (die generierte ID ist bereits gesetzt)
+     */
+    default void userCreated(User user) {
+    }
+
+    /**
+     * Ein User wurde geändert
+     */
+    default void userUpdated(User user) {
+    }
+
+    /**
+     * Ein User wurde gelöscht
+     */
+    default void userDeleted(int id) {
+    }
+}
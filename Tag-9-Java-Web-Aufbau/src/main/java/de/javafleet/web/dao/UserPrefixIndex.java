@@ -0,0 +1,231 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.web.model.User;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * UserPrefixIndex - Sortierter In-Memory-Index für die Typeahead-Suche
+ *
+ * Hält Usernames und E-Mail-Adressen (klein geschrieben) in zwei sortierten
+ * Maps. Eine Präfixsuche springt per tailMap() an die erste passende Stelle
+ * und liest nur so viele Einträge, wie Treffer gebraucht werden: O(log n + N)
+ * statt eines LIKE '%q%' über die ganze Tabelle.
+ *
+ * Gelesen wird ohne Lock (ConcurrentSkipListMap). Schreibzugriffe kommen über
+ * {@link UserListener} und werden serialisiert, damit ein laufender Rebuild
+ * sie nachspielen kann. Während einer Änderung kann eine Suche kurzzeitig
+ * den alten oder den neuen Stand eines Users sehen.
+ */
+public class UserPrefixIndex implements UserListener {
+
+    /** Obergrenze für Treffer pro Suche */
+    public static final int MAX_RESULTS = 50;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile State state = new State();
+    private volatile boolean ready;
+
+    /** Änderungen, die während eines Rebuilds eintreffen (nur unter writeLock) */
+    private List<Consumer<State>> pendingChanges;
+
+    /**
+     * Ist der Index vollständig aufgebaut?
+     * Vorher sollte die Suche auf {@link UserDAO#searchPrefix(String, int)} zurückfallen.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Anzahl der indexierten User
+     */
+    public int size() {
+        return state.users.size();
+    }
+
+    /**
+     * Sucht User, deren Username oder E-Mail mit prefix beginnt
+     * Username-Treffer kommen zuerst, jeweils alphabetisch sortiert.
+     * @param limit maximale Anzahl Treffer (höchstens {@link #MAX_RESULTS})
+     */
+    public List<User> find(String prefix, int limit) {
+        List<User> result = new ArrayList<>();
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return result;
+        }
+        String key = normalize(prefix.strip());
+        int max = Math.min(limit, MAX_RESULTS);
+
+        State current = state;
+        Map<Integer, User> matches = new LinkedHashMap<>();
+        collect(current.byUsername, key, max, matches);
+        collect(current.byEmail, key, max, matches);
+
+        for (User user : matches.values()) {
+            result.add(copyOf(user));
+        }
+        return result;
+    }
+
+    /**
+     * Baut den Index synchron aus allen Usern neu auf
+     * Schreibzugriffe während des Aufbaus werden am Ende nachgespielt.
+     */
+    public void rebuild(UserDAO dao) throws SQLException {
+        rebuildLock.lock();
+        try {
+            writeLock.lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                writeLock.unlock();
+            }
+
+            State fresh = new State();
+            try (ResultSetIterator<User> users = dao.streamAll()) {
+                while (users.hasNext()) {
+                    fresh.put(users.next());
+                }
+            } catch (SQLException | RuntimeException e) {
+                writeLock.lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    writeLock.unlock();
+                }
+                throw e;
+            }
+
+            writeLock.lock();
+            try {
+                for (Consumer<State> change : pendingChanges) {
+                    change.accept(fresh);
+                }
+                pendingChanges = null;
+                state = fresh;
+                ready = true;
+            } finally {
+                writeLock.unlock();
+            }
+
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Baut den Index in einem Hintergrund-Thread neu auf
+     * Bis zum Abschluss bleibt der bisherige Index in Betrieb, Fehler werden
+     * geloggt und der Aufbau wiederholt.
+     */
+    public CompletableFuture<Void> rebuildInBackground(UserDAO dao) {
+        return BackgroundRebuild.start("UserPrefixIndex", () -> rebuild(dao), this::toString);
+    }
+
+    @Override
+    public void userCreated(User user) {
+        User copy = copyOf(user);
+        apply(s -> s.put(copy));
+    }
+
+    @Override
+    public void userUpdated(User user) {
+        User copy = copyOf(user);
+        apply(s -> s.put(copy));
+    }
+
+    @Override
+    public void userDeleted(int id) {
+        apply(s -> s.remove(id));
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrefixIndex{users=" + size() + ", ready=" + ready + '}';
+    }
+
+    private void apply(Consumer<State> change) {
+        writeLock.lock();
+        try {
+            change.accept(state);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static void collect(NavigableMap<String, User> map, String prefix, int max,
+                                Map<Integer, User> matches) {
+        for (Map.Entry<String, User> entry : map.tailMap(prefix, true).entrySet()) {
+            if (matches.size() >= max || !entry.getKey().startsWith(prefix)) {
+                return;
+            }
+            matches.putIfAbsent(entry.getValue().getId(), entry.getValue());
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Schlüssel in den sortierten Maps: Text, Trennzeichen, ID
+     * Die ID macht gleiche Texte (z.B. zwei User derselben Domain) eindeutig.
+     */
+    private static String key(String text, int id) {
+        return normalize(text) + '\u0000' + id;
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getUsername(), user.getEmail());
+    }
+
+    /**
+     * Indexzustand, wird beim Rebuild als Ganzes ausgetauscht
+     */
+    private static final class State {
+
+        final Map<Integer, User> users = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<String, User> byUsername = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<String, User> byEmail = new ConcurrentSkipListMap<>();
+
+        void put(User user) {
+            remove(user.getId());
+            users.put(user.getId(), user);
+            if (user.getUsername() != null) {
+                byUsername.put(key(user.getUsername(), user.getId()), user);
+            }
+            if (user.getEmail() != null) {
+                byEmail.put(key(user.getEmail(), user.getId()), user);
+            }
+        }
+
+        void remove(int id) {
+            User old = users.remove(id);
+            if (old == null) {
+                return;
+            }
+            if (old.getUsername() != null) {
+                byUsername.remove(key(old.getUsername(), id));
+            }
+            if (old.getEmail() != null) {
+                byEmail.remove(key(old.getEmail(), id));
+            }
+        }
+    }
+}
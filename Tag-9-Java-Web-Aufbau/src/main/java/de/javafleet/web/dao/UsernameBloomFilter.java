@@ -0,0 +1,420 @@
+package de.javafleet.web.dao;
+
+import de.javafleet.web.model.User;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * UsernameBloomFilter - Bloom-Filter über alle Usernames
+ *
+ * Beantwortet "gibt es diesen Username?" ohne Datenbank, solange die
+ * Antwort "sicher nicht" lautet. Nur bei "vielleicht" fragt
+ * {@link UserDAO#usernameExists(String)} die Datenbank. Neue Namen bei der
+ * Registrierung (und Bots, die Namen durchprobieren) kosten so keinen
+ * Round-Trip mehr.
+ *
+ * Die Bits liegen in einem AtomicLongArray, Lesen geht ohne Lock. Gelöschte
+ * und umbenannte Namen bleiben bis zum nächsten Rebuild im Filter: Ein
+ * Entfernen würde Bits zurücksetzen, die auch andere Namen belegen, und
+ * damit vergebene Namen als frei melden. Sobald zu viele Namen veraltet
+ * sind oder die Kapazität überschritten ist, baut {@link #rebuildIfNeeded}
+ * den Filter im Hintergrund neu auf.
+ *
+ * Der Filter darf sich nur in eine Richtung irren: Ein Name zu viel kostet
+ * eine Abfrage, ein fehlender Name würde einen vergebenen Username als frei
+ * melden. Deshalb:
+ * - Namen werden großzügiger normalisiert als die MySQL-Collation vergleicht
+ *   (Groß/Klein, Akzente, Leerzeichen am Ende)
+ * - create() und update() nehmen den Namen VOR dem Schreiben auf
+ * - Entfernt wird nur durch einen Rebuild
+ *
+ * Die Antwort gilt nur für Schreibzugriffe über diesen UserDAO. Legen andere
+ * Instanzen oder Skripte User an, hilft nur ein regelmäßiger Rebuild. Die
+ * UNIQUE-Constraint auf users.username bleibt in jedem Fall die letzte Instanz.
+ */
+public class UsernameBloomFilter {
+
+    /** Angestrebte Falsch-Positiv-Rate */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /** Mindestkapazität, auch bei leerer Tabelle */
+    public static final int DEFAULT_MIN_CAPACITY = 10_000;
+
+    /** Reserve beim Rebuild: Platz für doppelt so viele User wie vorhanden */
+    private static final int GROWTH_FACTOR = 2;
+
+    /** Anteil veralteter Namen, ab dem neu aufgebaut wird */
+    private static final double MAX_STALE_RATIO = 0.25;
+
+    /** Darunter lohnt sich kein Rebuild wegen veralteter Namen */
+    private static final int MIN_STALE_ENTRIES = 100;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final double falsePositiveRate;
+    private final int minCapacity;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile Bits bits;
+    private volatile boolean ready;
+
+    /** Aufnahmen, die während eines Rebuilds eintreffen (nur unter writeLock) */
+    private List<String> pendingAdds;
+
+    /** Entfernungen während eines Rebuilds, gelten auch für den neuen Filter (nur unter writeLock) */
+    private int pendingStale;
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder definiteNegatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public UsernameBloomFilter() {
+        this(DEFAULT_MIN_CAPACITY, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * @param minCapacity Anzahl Namen, für die der Filter mindestens ausgelegt wird
+     * @param falsePositiveRate angestrebte Falsch-Positiv-Rate bei voller Auslastung
+     */
+    public UsernameBloomFilter(int minCapacity, double falsePositiveRate) {
+        if (minCapacity < 1) {
+            throw new IllegalArgumentException("minCapacity must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        this.minCapacity = minCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bits = new Bits(minCapacity, falsePositiveRate);
+    }
+
+    /**
+     * Ist der Filter vollständig aufgebaut?
+     * Vorher liefert {@link #mightContain(String)} immer true.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Kann der Username vergeben sein?
+     * @return false = sicher nicht vergeben, true = Datenbank fragen
+     */
+    public boolean mightContain(String username) {
+        lookups.increment();
+        if (!ready || username == null) {
+            return true;
+        }
+        boolean maybe = bits.mightContain(normalize(username));
+        if (!maybe) {
+            definiteNegatives.increment();
+        }
+        return maybe;
+    }
+
+    /**
+     * Meldet das Ergebnis der Datenbankabfrage nach einem "vielleicht"
+     * Daraus ergibt sich die tatsächlich beobachtete Falsch-Positiv-Rate.
+     */
+    void recordFallback(boolean exists) {
+        if (!exists && ready) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Nimmt einen Username auf (vor dem INSERT/UPDATE aufrufen)
+     */
+    public void add(String username) {
+        if (username == null) {
+            return;
+        }
+        String key = normalize(username);
+        writeLock.lock();
+        try {
+            bits.add(key);
+            if (pendingAdds != null) {
+                pendingAdds.add(key);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Meldet einen gelöschten oder umbenannten Username (nach dem Commit aufrufen)
+     * Der Name bleibt im Filter, bis {@link #rebuildIfNeeded} neu aufbaut.
+     * Bis dahin kostet er bei einer Neuregistrierung nur eine Abfrage.
+     */
+    public void markRemoved(String username) {
+        if (username == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            bits.stale++;
+            if (pendingAdds != null) {
+                pendingStale++;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sind zu viele Namen veraltet oder ist die Kapazität überschritten?
+     */
+    public boolean needsRebuild() {
+        Bits current = bits;
+        return current.entries > current.capacity
+                || current.stale >= Math.max(MIN_STALE_ENTRIES, current.entries * MAX_STALE_RATIO);
+    }
+
+    /**
+     * Startet einen Rebuild im Hintergrund, falls nötig und nicht schon einer läuft
+     * @return true, wenn ein Rebuild gestartet wurde
+     */
+    public boolean rebuildIfNeeded(UserDAO dao) {
+        if (!ready || !needsRebuild() || !rebuildScheduled.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildInBackground(dao).whenComplete((result, e) -> rebuildScheduled.set(false));
+        return true;
+    }
+
+    /**
+     * Baut den Filter synchron aus allen Usernames neu auf
+     * Die Größe richtet sich nach der aktuellen Anzahl User.
+     */
+    public void rebuild(UserDAO dao) throws SQLException {
+        rebuildLock.lock();
+        try {
+            writeLock.lock();
+            try {
+                pendingAdds = new ArrayList<>();
+                pendingStale = 0;
+            } finally {
+                writeLock.unlock();
+            }
+
+            Bits fresh;
+            try {
+                int capacity = Math.max(minCapacity, dao.count() * GROWTH_FACTOR);
+                fresh = new Bits(capacity, falsePositiveRate);
+                try (ResultSetIterator<User> users = dao.streamAll()) {
+                    while (users.hasNext()) {
+                        fresh.add(normalize(users.next().getUsername()));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                writeLock.lock();
+                try {
+                    pendingAdds = null;
+                } finally {
+                    writeLock.unlock();
+                }
+                throw e;
+            }
+
+            writeLock.lock();
+            try {
+                // Entfernte Namen hat der Stream vielleicht noch gesehen: als veraltet zählen
+                for (String key : pendingAdds) {
+                    fresh.add(key);
+                }
+                fresh.stale = pendingStale;
+                pendingAdds = null;
+                bits = fresh;
+                ready = true;
+            } finally {
+                writeLock.unlock();
+            }
+
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Baut den Filter in einem Hintergrund-Thread auf
+     * Bis zum Abschluss fragt usernameExists() wie bisher die Datenbank,
+     * Fehler werden geloggt und der Aufbau wiederholt.
+     */
+    public CompletableFuture<Void> rebuildInBackground(UserDAO dao) {
+        return BackgroundRebuild.start("UsernameBloomFilter", () -> rebuild(dao), this::getStats);
+    }
+
+    /**
+     * Momentaufnahme von Größe, Auslastung und Trefferquote
+     */
+    public Stats getStats() {
+        Bits current = bits;
+        return new Stats(current.entries, current.stale, current.capacity, current.size, current.hashes,
+                         current.memoryBytes(), current.expectedFalsePositiveRate(),
+                         lookups.sum(), definiteNegatives.sum(), falsePositives.sum());
+    }
+
+    @Override
+    public String toString() {
+        return "UsernameBloomFilter" + getStats();
+    }
+
+    /**
+     * Bringt einen Username auf die Form, unter der der Filter ihn speichert
+     * Fasst mindestens alles zusammen, was die Collation als gleich ansieht.
+     */
+    static String normalize(String username) {
+        int end = username.length();
+        while (end > 0 && username.charAt(end - 1) == ' ') {
+            end--;
+        }
+        String trimmed = username.substring(0, end);
+
+        boolean ascii = true;
+        for (int i = 0; i < trimmed.length() && ascii; i++) {
+            ascii = trimmed.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+
+        String decomposed = Normalizer.normalize(trimmed, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace("ß", "ss");
+    }
+
+    /**
+     * Statistik eines UsernameBloomFilter
+     * @param entries aufgenommene Namen (inklusive Umbenennungen seit dem Rebuild)
+     * @param staleEntries davon seit dem Rebuild gelöscht oder umbenannt
+     * @param capacity Anzahl Namen, für die der Filter ausgelegt ist
+     * @param bits Größe des Bitfelds
+     */
+    public record Stats(long entries, long staleEntries, int capacity, int bits, int hashFunctions,
+                        long memoryBytes, double expectedFalsePositiveRate,
+                        long lookups, long definiteNegatives, long falsePositives) {
+
+        /**
+         * Anteil der "vielleicht"-Antworten, bei denen der Name doch frei war
+         */
+        public double observedFalsePositiveRate() {
+            long negatives = definiteNegatives + falsePositives;
+            return negatives == 0 ? 0.0 : (double) falsePositives / negatives;
+        }
+
+        /**
+         * Anteil der Abfragen, die ohne Datenbank beantwortet wurden
+         */
+        public double savedQueryRate() {
+            return lookups == 0 ? 0.0 : (double) definiteNegatives / lookups;
+        }
+    }
+
+    /**
+     * Das eigentliche Bitfeld, wird beim Rebuild als Ganzes ausgetauscht
+     */
+    private static final class Bits {
+
+        final int capacity;
+        final int size;
+        final int hashes;
+        final AtomicLongArray cells;
+        volatile long entries;      // nur unter writeLock geschrieben
+        volatile long stale;        // nur unter writeLock geschrieben
+
+        Bits(int capacity, double falsePositiveRate) {
+            // Optimale Größe: m = -n ln(p) / ln(2)^2, k = m/n ln(2)
+            double ln2 = Math.log(2);
+            long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.capacity = capacity;
+            this.size = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+            this.hashes = Math.max(1, (int) Math.round((double) size / capacity * ln2));
+            this.cells = new AtomicLongArray((size + 63) >>> 6);
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                if (!get(index(h1, h2, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                set(index(h1, h2, i));
+            }
+            entries++;
+        }
+
+        long memoryBytes() {
+            return (long) cells.length() * Long.BYTES;
+        }
+
+        /**
+         * Erwartete Falsch-Positiv-Rate beim aktuellen Füllstand: (1 - e^(-kn/m))^k
+         */
+        double expectedFalsePositiveRate() {
+            double n = Math.max(0, entries);
+            return Math.pow(1 - Math.exp(-hashes * n / size), hashes);
+        }
+
+        private int index(int h1, int h2, int i) {
+            // Kirsch-Mitzenmacher: k Hashfunktionen aus zwei Hälften eines 64-Bit-Hashes
+            int combined = h1 + i * h2;
+            if (combined < 0) {
+                combined = ~combined;
+            }
+            return combined % size;
+        }
+
+        private boolean get(int index) {
+            return (cells.get(index >>> 6) & (1L << (index & 63))) != 0;
+        }
+
+        private void set(int index) {
+            long mask = 1L << (index & 63);
+            if ((cells.get(index >>> 6) & mask) == 0) {
+                cells.getAndAccumulate(index >>> 6, mask, (word, bit) -> word | bit);
+            }
+        }
+
+        /**
+         * FNV-1a über die Zeichen, gemischt mit dem Murmur3-Finalizer
+         */
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb53fe85a9ca3L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package de.javafleet.web.filters;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import jakarta.servlet.*;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RequestMetricsFilter - Misst Dauer und Fehler jedes Requests
+ *
+ * Die Servlets benennen ihre Aktion über {@link #setEndpoint}, z.B.
+ * "BlogServlet.search". Requests ohne Namen (CSS, Bilder, JSPs) landen
+ * gesammelt unter "other", damit die Anzahl der Zeitreihen begrenzt bleibt.
+ *
+ * Metriken (siehe /metrics):
+ * - http_request_duration_seconds{endpoint}: p50/p90/p99/p999 inkl. Rendern der JSP
+ * - http_request_errors_total{endpoint}: Exceptions und Status 5xx
+ * - http_requests_in_flight: gerade laufende Requests
+ */
+@WebFilter(filterName = "RequestMetricsFilter", urlPatterns = "/*", asyncSupported = true)
+public class RequestMetricsFilter implements Filter {
+
+    private static final String ENDPOINT_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".endpoint";
+
+    private static final String OTHER = "other";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private MetricRegistry registry;
+
+    /**
+     * Benennt die Aktion des laufenden Requests für die Metriken
+     * @param endpoint konstanter Name, z.B. "BlogServlet.list"
+     */
+    public static void setEndpoint(ServletRequest request, String endpoint) {
+        request.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+    }
+
+    /**
+     * Name der Aktion des Requests oder "other"
+     */
+    public static String getEndpoint(ServletRequest request) {
+        return request.getAttribute(ENDPOINT_ATTRIBUTE) instanceof String name ? name : OTHER;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        registry = MetricRegistry.global();
+        registry.gauge("http_requests_in_flight", "Requests currently being processed",
+                       inFlight::get);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            inFlight.decrementAndGet();
+
+            String endpoint = getEndpoint(request);
+            registry.summary("http_request_duration_seconds", "Request duration by endpoint",
+                             "endpoint", endpoint, MetricRegistry.NANOS).record(elapsed);
+
+            if (failed || (response instanceof HttpServletResponse http && http.getStatus() >= 500)) {
+                registry.counter("http_request_errors_total", "Failed requests by endpoint",
+                                 "endpoint", endpoint).increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.javafleet.web.filters;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.common.metrics.SqlRecorder;
+import de.javafleet.common.metrics.SqlReport;
+import jakarta.servlet.*;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.annotation.WebInitParam;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * SqlBudgetFilter - SQL-Budget und N+1-Erkennung pro Request
+ *
+ * Zählt über einen {@link SqlRecorder} alle Statements und die gesamte
+ * Datenbankzeit eines Requests. Überschreitet ein Request das Budget oder
+ * führt er dieselbe Statement-Form wiederholt aus (N+1), wird das mit der
+ * Aktion und den betroffenen Statements geloggt und in
+ * sql_budget_violations_total{endpoint} gezählt.
+ *
+ * Init-Parameter:
+ * - maxStatements: erlaubte Statements pro Request (Standard 20)
+ * - maxDbTimeMillis: erlaubte Datenbankzeit pro Request (Standard 500)
+ * - repeatThreshold: ab so vielen gleichen Statements gilt ein Request als N+1 (Standard 5)
+ * - devMode: true = Ergebnis als X-Sql-*-Header an jede Antwort (Standard false)
+ *
+ * Header werden nur gesetzt, solange die Antwort noch nicht gesendet ist.
+ * Im devMode wird der Antwortpuffer dafür auf 1 MB vergrößert.
+ */
+@WebFilter(filterName = "SqlBudgetFilter",
+           urlPatterns = "/*",
+           asyncSupported = true,
+           initParams = {
+               @WebInitParam(name = "maxStatements", value = "20"),
+               @WebInitParam(name = "maxDbTimeMillis", value = "500"),
+               @WebInitParam(name = "repeatThreshold", value = "5"),
+               @WebInitParam(name = "devMode", value = "false")
+           })
+public class SqlBudgetFilter implements Filter {
+
+    private static final Logger LOG = Logger.getLogger(SqlBudgetFilter.class.getName());
+
+    private static final int DEV_BUFFER_SIZE = 1024 * 1024;
+
+    private int maxStatements;
+    private long maxDbTimeMillis;
+    private int repeatThreshold;
+    private boolean devMode;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        maxStatements = intParam(filterConfig, "maxStatements", 20);
+        maxDbTimeMillis = intParam(filterConfig, "maxDbTimeMillis", 500);
+        repeatThreshold = intParam(filterConfig, "repeatThreshold", 5);
+        devMode = Boolean.parseBoolean(filterConfig.getInitParameter("devMode"));
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+
+        // Verschachtelte Dispatches zählen zum äußeren Request
+        if (SqlRecorder.current() != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (devMode) {
+            response.setBufferSize(DEV_BUFFER_SIZE);
+        }
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            chain.doFilter(request, response);
+            check(recorder.report(), request, response);
+        }
+    }
+
+    private void check(SqlReport report, ServletRequest request, ServletResponse response) {
+        if (report.getStatementCount() == 0) {
+            return;
+        }
+
+        String endpoint = RequestMetricsFilter.getEndpoint(request);
+        MetricRegistry registry = MetricRegistry.global();
+        registry.summary("http_request_sql_statements", "SQL statements per request",
+                         "endpoint", endpoint, MetricRegistry.NONE)
+                .record(report.getStatementCount());
+
+        Map<String, Long> repeated = report.getRepeatedShapes(repeatThreshold);
+        long dbTimeMillis = report.getDbTime().toMillis();
+        boolean exceeded = report.getStatementCount() > maxStatements
+                || dbTimeMillis > maxDbTimeMillis;
+
+        if (exceeded || !repeated.isEmpty()) {
+            registry.counter("sql_budget_violations_total",
+                             "Requests over the SQL budget or with repeated statements",
+                             "endpoint", endpoint).increment();
+            LOG.warning(() -> "SQL budget violated by " + endpoint
+                    + ": " + report.getStatementCount() + " statements (max " + maxStatements + "), "
+                    + dbTimeMillis + " ms (max " + maxDbTimeMillis + " ms)"
+                    + (repeated.isEmpty() ? "" : ", repeated statements: " + repeated));
+        }
+
+        if (devMode && response instanceof HttpServletResponse http && !http.isCommitted()) {
+            http.setHeader("X-Sql-Statements", Long.toString(report.getStatementCount()));
+            http.setHeader("X-Sql-Time-Ms", Long.toString(dbTimeMillis));
+            http.setHeader("X-Sql-Budget", exceeded ? "exceeded" : "ok");
+            if (!repeated.isEmpty()) {
+                http.setHeader("X-Sql-Repeated", repeated.size() + " statement(s) repeated "
+                        + repeatThreshold + "+ times");
+            }
+        }
+    }
+
+    private static int intParam(FilterConfig config, String name, int defaultValue) {
+        String value = config.getInitParameter(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Init parameter " + name + " must be a number: " + value);
+        }
+    }
+}
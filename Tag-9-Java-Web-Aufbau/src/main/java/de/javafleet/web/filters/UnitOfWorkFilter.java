@@ -0,0 +1,206 @@
+package de.javafleet.web.filters;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.web.dao.UnitOfWork;
+import de.javafleet.web.metrics.InstrumentedDataSource;
+import de.javafleet.web.metrics.JdbcMetrics;
+import de.javafleet.web.pool.BoundedDataSource;
+import de.javafleet.web.pool.PooledDataSource;
+import jakarta.annotation.Resource;
+import jakarta.servlet.*;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.annotation.WebInitParam;
+import jakarta.servlet.http.HttpServletRequest;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * UnitOfWorkFilter - Bindet pro Request eine UnitOfWork an den Thread
+ *
+ * Alle DAO-Aufrufe eines Requests teilen sich dadurch eine Connection, die
+ * erst beim ersten Datenbankzugriff aus dem Pool geliehen und am Ende des
+ * Requests zurückgegeben wird. Requests ohne Datenbankzugriff (CSS, Bilder)
+ * belegen keine Connection.
+ *
+ * Init-Parameter:
+ * - transactionalMethods: HTTP-Methoden, die komplett in einer Transaktion
+ *   laufen (Standard: keine, z.B. "POST" oder "POST,PUT,DELETE").
+ *   Wirft der Request eine Exception, wird zurückgerollt.
+ *   Achtung: Committet wird nach dem Servlet. Eine bereits gesendete Antwort
+ *   (z.B. ein Redirect) kann den Commit nicht mehr abwarten. Wo das zählt,
+ *   steuert das Servlet die Transaktion selbst über UnitOfWork.current().
+ *
+ * - maxConnections: so viele Connections dürfen gleichzeitig gehalten
+ *   werden, die übrigen warten in einer {@link BoundedDataSource} statt im
+ *   Pool (Standard: Max Pool Size 20, beim PooledDataSource dessen maxSize)
+ * - backgroundConnections: davon reserviert für Arbeit außerhalb der
+ *   Requests (Standard: 4), siehe {@link #backgroundDataSource}
+ * - connectionTimeoutMillis: maximale Wartezeit darauf (Standard: 5000)
+ *
+ * Requests und Hintergrundarbeit (Index-Aufbau, Group Commit,
+ * Export-Worker) haben getrennte Permits. Ein Request, der seine Connection
+ * hält und auf einen Hintergrund-Thread wartet, kann diesem so nicht das
+ * letzte Permit wegnehmen.
+ *
+ * Die DataSource wird mit einer {@link InstrumentedDataSource} umhüllt,
+ * Wartezeit und Haltezeit der Request-Connection landen in den
+ * {@link JdbcMetrics} der DAO-Methode, die sie zuerst braucht.
+ */
+@WebFilter(filterName = "UnitOfWorkFilter",
+           urlPatterns = "/*",
+           asyncSupported = true,
+           initParams = {
+               @WebInitParam(name = "transactionalMethods", value = ""),
+               @WebInitParam(name = "maxConnections", value = "20"),
+               @WebInitParam(name = "backgroundConnections", value = "4"),
+               @WebInitParam(name = "connectionTimeoutMillis", value = "5000")
+           })
+public class UnitOfWorkFilter implements Filter {
+
+    private static final Logger LOG = Logger.getLogger(UnitOfWorkFilter.class.getName());
+
+    /** ServletContext-Attribut für die DataSource der Hintergrundarbeit */
+    public static final String BACKGROUND_DATA_SOURCE = UnitOfWorkFilter.class.getName() + ".background";
+
+    @Resource(name = "jdbc/MyWebAppDB")
+    private DataSource dataSource;
+
+    private Set<String> transactionalMethods = Set.of();
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        if (dataSource != null) {
+            int maxConnections = maxConnections(filterConfig);
+            int backgroundConnections = intParam(filterConfig, "backgroundConnections", 4);
+            if (backgroundConnections < 1 || backgroundConnections >= maxConnections) {
+                throw new ServletException("backgroundConnections must be between 1 and "
+                        + (maxConnections - 1) + ": " + backgroundConnections);
+            }
+            long timeoutMillis = longParam(filterConfig, "connectionTimeoutMillis", 5000);
+
+            BoundedDataSource background = new BoundedDataSource(dataSource,
+                    backgroundConnections, timeoutMillis);
+            filterConfig.getServletContext().setAttribute(BACKGROUND_DATA_SOURCE,
+                    new InstrumentedDataSource(background));
+
+            BoundedDataSource bounded = new BoundedDataSource(dataSource,
+                    maxConnections - backgroundConnections, timeoutMillis);
+            InstrumentedDataSource instrumented = new InstrumentedDataSource(bounded);
+            dataSource = instrumented;
+
+            MetricRegistry registry = MetricRegistry.global();
+            registry.gauge("jdbc_connections_active", "Connections currently borrowed from the pool",
+                           instrumented::getActiveConnections);
+            registry.gauge("jdbc_connections_peak", "Highest number of connections borrowed at once",
+                           instrumented::getPeakConnections);
+            registry.gauge("jdbc_connections_waiting", "Requests waiting for a connection permit",
+                           bounded::getWaiting);
+            registry.gauge("jdbc_connection_timeouts", "Requests that got no connection permit in time",
+                           bounded::getTimeouts);
+            registry.gauge("jdbc_background_connections_in_use", "Connections held by background work",
+                           background::getInUse);
+            registry.gauge("jdbc_background_connections_waiting", "Background tasks waiting for a connection permit",
+                           background::getWaiting);
+        }
+
+        String methods = filterConfig.getInitParameter("transactionalMethods");
+        if (methods != null && !methods.isBlank()) {
+            transactionalMethods = Set.of(methods.trim().toUpperCase().split("\\s*,\\s*"));
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+
+        // Verschachtelte Dispatches (forward/include) nutzen die äußere UnitOfWork
+        if (dataSource == null || UnitOfWork.current() != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean transactional = request instanceof HttpServletRequest http
+                && transactionalMethods.contains(http.getMethod());
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(dataSource)) {
+            if (transactional) {
+                unitOfWork.beginTransaction();
+            }
+
+            chain.doFilter(request, response);
+
+            if (unitOfWork.isTransactionActive()) {
+                unitOfWork.commit();
+            }
+
+        } catch (SQLException e) {
+            // close() hat eine offene Transaktion bereits zurückgerollt
+            throw new ServletException("Database error", e);
+        } finally {
+            // Pool-Threads werden wiederverwendet: keine Markierung in den nächsten Request
+            JdbcMetrics.clearTag();
+        }
+    }
+
+    /**
+     * DataSource für DAOs, deren Arbeit auch außerhalb der Requests läuft
+     *
+     * Auf Request-Threads nutzen die DAOs ohnehin die Connection der
+     * UnitOfWork. Alles andere (Hintergrund-Threads, Export-Worker) holt sich
+     * seine Connection hier und damit aus den reservierten Permits.
+     * Filter werden vor den Servlets initialisiert, fehlt das Attribut
+     * trotzdem, bleibt es bei fallback.
+     */
+    public static DataSource backgroundDataSource(ServletContext context, DataSource fallback) {
+        if (context.getAttribute(BACKGROUND_DATA_SOURCE) instanceof DataSource background) {
+            return background;
+        }
+        if (fallback != null) {
+            LOG.warning("UnitOfWorkFilter not initialized, background work bypasses the connection limit");
+        }
+        return fallback;
+    }
+
+    /**
+     * Anzahl Permits: so groß wie der Pool, damit niemand im Pool selbst wartet
+     */
+    private int maxConnections(FilterConfig config) throws ServletException {
+        try {
+            if (dataSource.isWrapperFor(PooledDataSource.class)) {
+                return dataSource.unwrap(PooledDataSource.class).getConfig().getMaxSize();
+            }
+        } catch (SQLException e) {
+            // Kein PooledDataSource: Init-Parameter verwenden
+        }
+        return intParam(config, "maxConnections", 20);
+    }
+
+    private static int intParam(FilterConfig config, String name, int defaultValue)
+            throws ServletException {
+        String value = config.getInitParameter(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ServletException("Init parameter " + name + " must be a number: " + value);
+        }
+    }
+
+    private static long longParam(FilterConfig config, String name, long defaultValue)
+            throws ServletException {
+        String value = config.getInitParameter(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ServletException("Init parameter " + name + " must be a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package de.javafleet.web.filters;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.common.metrics.SqlRecorder;
+import de.javafleet.web.dao.UnitOfWork;
+import jakarta.servlet.*;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.annotation.WebInitParam;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * VirtualThreadFilter - Führt Requests auf virtuellen Threads aus
+ *
+ * Der Request wird per startAsync() vom Container-Thread gelöst, der sofort
+ * für neue Verbindungen frei wird. Der Rest der Filterkette und das Servlet
+ * laufen auf einem eigenen virtuellen Thread. Blockierendes JDBC kostet dann
+ * keinen Plattform-Thread mehr, tausende langsame Clients parken nur.
+ *
+ * Weil die ganze Kette auf dem virtuellen Thread läuft, sehen
+ * UnitOfWorkFilter, SqlBudgetFilter und RequestMetricsFilter wie bisher einen
+ * einzigen Thread pro Request. Dafür muss dieser Filter als erster laufen
+ * (Reihenfolge in WEB-INF/web.xml). Findet er bereits eine UnitOfWork oder
+ * einen SqlRecorder vor, lässt er den Request auf dem Container-Thread.
+ *
+ * Die Anzahl gleichzeitiger Datenbankzugriffe begrenzt der UnitOfWorkFilter
+ * über eine {@link de.javafleet.web.pool.BoundedDataSource}.
+ *
+ * Init-Parameter:
+ * - enabled: false = alles bleibt auf den Container-Threads (Standard: true)
+ * - timeoutMillis: Obergrenze pro Request, danach 503 (Standard: 30000)
+ */
+@WebFilter(filterName = "VirtualThreadFilter",
+           urlPatterns = { "/blog", "/users", "/api/*" },
+           asyncSupported = true,
+           initParams = {
+               @WebInitParam(name = "enabled", value = "true"),
+               @WebInitParam(name = "timeoutMillis", value = "30000")
+           })
+public class VirtualThreadFilter implements Filter {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadFilter.class.getName());
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicBoolean misorderedReported = new AtomicBoolean();
+
+    private ExecutorService executor;
+    private boolean enabled;
+    private long timeoutMillis;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        String enabledParam = filterConfig.getInitParameter("enabled");
+        enabled = enabledParam == null || Boolean.parseBoolean(enabledParam.trim());
+
+        String timeoutParam = filterConfig.getInitParameter("timeoutMillis");
+        timeoutMillis = timeoutParam == null || timeoutParam.isBlank()
+                ? 30_000 : Long.parseLong(timeoutParam.trim());
+
+        if (enabled) {
+            executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("request-", 0).factory());
+            MetricRegistry.global().gauge("http_requests_virtual_threads",
+                    "Requests currently running on virtual threads", running::get);
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+
+        if (!enabled
+                || request.getDispatcherType() != DispatcherType.REQUEST
+                || !request.isAsyncSupported()
+                || Thread.currentThread().isVirtual()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Ein äußerer Filter hat schon Thread-Zustand angelegt: nicht umziehen
+        if (UnitOfWork.current() != null || SqlRecorder.current() != null) {
+            if (misorderedReported.compareAndSet(false, true)) {
+                LOG.warning("VirtualThreadFilter must be the first filter, "
+                        + "requests stay on container threads (check WEB-INF/web.xml)");
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(timeoutMillis);
+
+        RequestTask task = new RequestTask(async, chain);
+        async.addListener(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Nur beim Undeploy: Request noch auf dem Container-Thread beenden
+            task.run();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Ein Request auf seinem virtuellen Thread
+     */
+    private final class RequestTask implements Runnable, AsyncListener {
+
+        private final AsyncContext async;
+        private final FilterChain chain;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile Thread thread;
+
+        RequestTask(AsyncContext async, FilterChain chain) {
+            this.async = async;
+            this.chain = chain;
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            running.incrementAndGet();
+            try {
+                chain.doFilter(async.getRequest(), async.getResponse());
+            } catch (IOException | ServletException | RuntimeException e) {
+                LOG.log(Level.WARNING, "Request failed on virtual thread", e);
+                sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } finally {
+                running.decrementAndGet();
+                thread = null;
+                complete();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            LOG.warning(() -> "Request exceeded " + timeoutMillis + " ms on virtual thread");
+            Thread worker = thread;
+            if (worker != null) {
+                // Beendet Wartezeiten, z.B. auf eine Connection
+                worker.interrupt();
+            }
+            sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            complete();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            completed.set(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void sendError(int status) {
+            if (completed.get()
+                    || !(async.getResponse() instanceof HttpServletResponse http)
+                    || http.isCommitted()) {
+                return;
+            }
+            try {
+                http.sendError(status);
+            } catch (IOException | IllegalStateException e) {
+                LOG.log(Level.FINE, "Sending error status failed", e);
+            }
+        }
+
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                try {
+                    async.complete();
+                } catch (IllegalStateException e) {
+                    // Container hat den Request bereits beendet (Timeout, Verbindungsabbruch)
+                    LOG.log(Level.FINE, "Async request already completed", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package de.javafleet.web.metrics;
+
+import de.javafleet.common.metrics.SqlRecorder;
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * InstrumentedDataSource - Misst, wie die DAOs den Connection Pool nutzen
+ *
+ * Umhüllt eine beliebige DataSource (den Payara-Pool ebenso wie einen
+ * {@link de.javafleet.web.pool.PooledDataSource}) und zeichnet pro
+ * DAO-Methode ({@link JdbcMetrics#tag(String)}) auf:
+ * - Wartezeit in getConnection()
+ * - Haltezeit der Connection bis zum close()
+ * - Dauer jedes execute*()-Aufrufs
+ * - Anzahl gelesener Zeilen pro ResultSet
+ *
+ * Zusätzlich zählt sie die gerade ausgeliehenen Connections und den
+ * Höchststand. Steigen Wartezeit und Höchststand gemeinsam, ist der Pool
+ * zu klein oder eine DAO-Methode hält ihre Connection zu lange.
+ *
+ * Jedes Statement wird außerdem an einen aktiven {@link SqlRecorder} gemeldet.
+ */
+public class InstrumentedDataSource implements DataSource {
+
+    private final DataSource delegate;
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+
+    public InstrumentedDataSource(DataSource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        JdbcMetrics.Operation operation = JdbcMetrics.current();
+        long start = System.nanoTime();
+        Connection connection = delegate.getConnection();
+        return borrowed(connection, operation, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        JdbcMetrics.Operation operation = JdbcMetrics.current();
+        long start = System.nanoTime();
+        Connection connection = delegate.getConnection(username, password);
+        return borrowed(connection, operation, start);
+    }
+
+    /**
+     * Anzahl der gerade ausgeliehenen Connections
+     */
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /**
+     * Höchste Anzahl gleichzeitig ausgeliehener Connections
+     */
+    public int getPeakConnections() {
+        return peakConnections.get();
+    }
+
+    public DataSource getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedDataSource{active=" + activeConnections.get() +
+                ", peak=" + peakConnections.get() +
+                ", delegate=" + delegate + '}';
+    }
+
+    private Connection borrowed(Connection connection, JdbcMetrics.Operation operation, long start) {
+        long now = System.nanoTime();
+        operation.getBorrowWait().record(now - start);
+
+        int active = activeConnections.incrementAndGet();
+        peakConnections.accumulateAndGet(active, Math::max);
+
+        return proxy(Connection.class, new ConnectionHandler(connection, operation, now));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Behandelt equals, hashCode, toString und unwrap für alle Proxies
+     * @return Ergebnis oder null, wenn der Aufruf weitergereicht werden soll
+     */
+    private static Object handleObjectMethod(Object proxy, Object target, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Instrumented[" + target + "]";
+            case "unwrap":
+                return ((Class<?>) args[0]).isInstance(target) ? target : null;
+            default:
+                return null;
+        }
+    }
+
+    // --- DataSource-Pflichtmethoden ------------------------------------------
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    /**
+     * Misst die Haltezeit und umhüllt erzeugte Statements
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final JdbcMetrics.Operation operation;
+        private final long borrowedAt;
+        private boolean closed;
+
+        ConnectionHandler(Connection target, JdbcMetrics.Operation operation, long borrowedAt) {
+            this.target = target;
+            this.operation = operation;
+            this.borrowedAt = borrowedAt;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object special = handleObjectMethod(proxy, target, method, args);
+            if (special != null) {
+                return special;
+            }
+
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!closed) {
+                    closed = true;
+                    operation.getHoldTime().record(System.nanoTime() - borrowedAt);
+                    activeConnections.decrementAndGet();
+                }
+                target.close();
+                return null;
+            }
+
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement statement) {
+                // Zuordnung zur DAO-Methode, die das Statement erzeugt
+                String sql = args != null && args.length > 0 && args[0] instanceof String text
+                        ? text : null;
+                return proxy(method.getReturnType(),
+                             new StatementHandler(statement, sql, (Connection) proxy,
+                                                  JdbcMetrics.current()));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Misst die execute*()-Aufrufe und umhüllt ResultSets
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final Connection connection;
+        private final JdbcMetrics.Operation operation;
+        private ResultSetHandler currentResultSet;
+
+        StatementHandler(Statement target, String preparedSql, Connection connection,
+                         JdbcMetrics.Operation operation) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.connection = connection;
+            this.operation = operation;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object special = handleObjectMethod(proxy, target, method, args);
+            if (special != null) {
+                return special;
+            }
+
+            String name = method.getName();
+            switch (name) {
+                case "getConnection":
+                    return connection;
+                case "close":
+                    finishResultSet();
+                    target.close();
+                    return null;
+                default:
+                    break;
+            }
+
+            Object result;
+            if (name.startsWith("execute")) {
+                finishResultSet();
+                long start = System.nanoTime();
+                try {
+                    result = invokeTarget(target, method, args);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    operation.getExecuteTime().record(elapsed);
+                    SqlRecorder.statementExecuted(
+                            args != null && args.length > 0 && args[0] instanceof String sql
+                                    ? sql : preparedSql,
+                            elapsed);
+                }
+            } else {
+                result = invokeTarget(target, method, args);
+            }
+
+            if (result instanceof ResultSet resultSet
+                    && ("executeQuery".equals(name) || "getResultSet".equals(name))) {
+                finishResultSet();
+                currentResultSet = new ResultSetHandler(resultSet, (Statement) proxy, operation);
+                return proxy(ResultSet.class, currentResultSet);
+            }
+            return result;
+        }
+
+        private void finishResultSet() {
+            if (currentResultSet != null) {
+                currentResultSet.finish();
+                currentResultSet = null;
+            }
+        }
+    }
+
+    /**
+     * Zählt die gelesenen Zeilen eines ResultSets
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final Statement statement;
+        private final JdbcMetrics.Operation operation;
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet target, Statement statement, JdbcMetrics.Operation operation) {
+            this.target = target;
+            this.statement = statement;
+            this.operation = operation;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object special = handleObjectMethod(proxy, target, method, args);
+            if (special != null) {
+                return special;
+            }
+
+            switch (method.getName()) {
+                case "next":
+                    boolean hasRow = target.next();
+                    if (hasRow) {
+                        rows++;
+                    } else {
+                        finish();
+                    }
+                    return hasRow;
+                case "getStatement":
+                    return statement;
+                case "close":
+                    finish();
+                    target.close();
+                    return null;
+                default:
+                    return invokeTarget(target, method, args);
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                operation.getRowsFetched().record(rows);
+            }
+        }
+    }
+}
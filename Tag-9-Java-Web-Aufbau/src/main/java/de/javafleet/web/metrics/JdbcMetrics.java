@@ -0,0 +1,159 @@
+package de.javafleet.web.metrics;
+
+import de.javafleet.common.metrics.Histogram;
+import de.javafleet.common.metrics.MetricRegistry;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdbcMetrics - Messwerte der {@link InstrumentedDataSource} pro DAO-Methode
+ *
+ * Die DAOs markieren vor ihrem Datenbankzugriff, wer gerade arbeitet:
+ *
+ * <pre>
+ * JdbcMetrics.tag("BlogPostDAO.search");
+ * try (Connection conn = UnitOfWork.connection(dataSource); ...
+ * </pre>
+ *
+ * Die Markierung gilt für den Thread bis zur nächsten. Statements und
+ * ResultSets merken sich die Operation beim Erzeugen, ein später gelesener
+ * Stream wird also noch der richtigen DAO-Methode zugeordnet.
+ *
+ * Läuft ein Request in einer UnitOfWork, wird die Connection nur einmal
+ * geliehen: Wartezeit und Haltezeit zählen dann für die erste DAO-Methode
+ * des Requests und die Haltezeit umfasst den ganzen Request.
+ *
+ * Alle Histogramme erscheinen mit dem Label operation unter /metrics.
+ */
+public final class JdbcMetrics {
+
+    /** Operation für JDBC-Zugriffe ohne Markierung */
+    public static final String UNTAGGED = "untagged";
+
+    private static final ThreadLocal<String> CURRENT_TAG = new ThreadLocal<>();
+
+    private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private JdbcMetrics() {
+    }
+
+    /**
+     * Ordnet die folgenden JDBC-Zugriffe dieses Threads einer Operation zu
+     * @param operation z.B. "BlogPostDAO.search"
+     */
+    public static void tag(String operation) {
+        CURRENT_TAG.set(operation);
+    }
+
+    /**
+     * Entfernt die Markierung, z.B. am Ende eines Requests
+     */
+    public static void clearTag() {
+        CURRENT_TAG.remove();
+    }
+
+    /**
+     * Messwerte der aktuell markierten Operation
+     */
+    static Operation current() {
+        String tag = CURRENT_TAG.get();
+        return operation(tag != null ? tag : UNTAGGED);
+    }
+
+    /**
+     * Messwerte einer Operation, bei Bedarf neu angelegt
+     */
+    public static Operation operation(String name) {
+        Operation operation = OPERATIONS.get(name);
+        if (operation == null) {
+            operation = OPERATIONS.computeIfAbsent(name, Operation::new);
+        }
+        return operation;
+    }
+
+    /**
+     * Alle bisher gemessenen Operationen, nach Namen sortiert
+     */
+    public static Map<String, Operation> getOperations() {
+        return Collections.unmodifiableMap(new TreeMap<>(OPERATIONS));
+    }
+
+    /**
+     * Histogramme einer DAO-Methode
+     * Zeiten in Nanosekunden, Zeilen pro ResultSet.
+     */
+    public static final class Operation {
+
+        private final String name;
+        private final Histogram borrowWait = new Histogram();
+        private final Histogram holdTime = new Histogram();
+        private final Histogram executeTime = new Histogram();
+        private final Histogram rowsFetched = new Histogram();
+
+        private Operation(String name) {
+            this.name = name;
+
+            MetricRegistry registry = MetricRegistry.global();
+            registry.register("jdbc_connection_wait_seconds",
+                    "Time spent waiting in DataSource.getConnection()",
+                    "operation", name, borrowWait, MetricRegistry.NANOS);
+            registry.register("jdbc_connection_hold_seconds",
+                    "Time a connection was held until close()",
+                    "operation", name, holdTime, MetricRegistry.NANOS);
+            registry.register("jdbc_statement_execute_seconds",
+                    "Duration of Statement.execute*() calls",
+                    "operation", name, executeTime, MetricRegistry.NANOS);
+            registry.register("jdbc_rows_fetched",
+                    "Rows read per ResultSet",
+                    "operation", name, rowsFetched, MetricRegistry.NONE);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Wartezeit in getConnection() */
+        public Histogram getBorrowWait() {
+            return borrowWait;
+        }
+
+        /** Zeit vom Ausleihen bis zum close() der Connection */
+        public Histogram getHoldTime() {
+            return holdTime;
+        }
+
+        /** Dauer der execute*()-Aufrufe */
+        public Histogram getExecuteTime() {
+            return executeTime;
+        }
+
+        /** Gelesene Zeilen pro ResultSet */
+        public Histogram getRowsFetched() {
+            return rowsFetched;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{borrowWaitMs=" + millis(borrowWait.snapshot()) +
+                    ", holdTimeMs=" + millis(holdTime.snapshot()) +
+                    ", executeTimeMs=" + millis(executeTime.snapshot()) +
+                    ", rowsFetched=" + rowsFetched.snapshot() +
+                    '}';
+        }
+
+        private static String millis(Histogram.Snapshot snapshot) {
+            return "{count=" + snapshot.getCount() +
+                    ", p50=" + toMillis(snapshot.getValueAtQuantile(0.5)) +
+                    ", p99=" + toMillis(snapshot.getValueAtQuantile(0.99)) +
+                    ", max=" + toMillis(snapshot.getMax()) +
+                    '}';
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -87,6 +87,19 @@ public class BlogPost implements Serializable {
         this.updatedAt = updatedAt;
     }
     
+    /**
+     * Prüft die Eingaben für einen Post (Formular und Import)
+     * @return Fehlermeldung oder null, wenn alles in Ordnung ist
+     */
+    public static String validate(String title, String content, String author) {
+        if (title == null || title.trim().isEmpty() ||
+            content == null || content.trim().isEmpty() ||
+            author == null || author.trim().isEmpty()) {
+            return "All fields are required";
+        }
+        return null;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,148 @@
+package de.javafleet.web.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * BlogPostSummary Model - Kurzfassung eines Blog-Beitrags für Listenansichten
+ *
+ * Enthält statt des vollständigen Contents nur einen Anriss (excerpt), der
+ * bereits in der Datenbank gekürzt wird. Den kompletten Beitrag liefert
+ * ausschließlich BlogPostDAO.findById().
+ */
+public class BlogPostSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Maximale Länge des Anrisses in Zeichen */
+    public static final int EXCERPT_LENGTH = 200;
+
+    private int id;
+    private String title;
+    private String excerpt;
+    private int contentLength;
+    private String author;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Konstruktoren
+    public BlogPostSummary() {
+    }
+
+    public BlogPostSummary(int id, String title, String excerpt, int contentLength,
+                          String author, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.contentLength = contentLength;
+        this.author = author;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Erzeugt die Kurzfassung eines vollständig geladenen Posts
+     * Gekürzt wird wie in der Datenbank (SUBSTRING) auf EXCERPT_LENGTH Zeichen.
+     */
+    public static BlogPostSummary of(BlogPost post) {
+        String content = post.getContent();
+        String excerpt = content;
+        if (content != null && content.length() > EXCERPT_LENGTH) {
+            excerpt = content.substring(0, EXCERPT_LENGTH);
+        }
+        return new BlogPostSummary(post.getId(), post.getTitle(), excerpt,
+                                   content != null ? content.length() : 0,
+                                   post.getAuthor(), post.getCreatedAt(), post.getUpdatedAt());
+    }
+
+    // Getters und Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    /**
+     * Länge des vollständigen Contents in Zeichen
+     */
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(int contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Ist der Anriss kürzer als der vollständige Content?
+     */
+    public boolean isTruncated() {
+        return excerpt != null && contentLength > excerpt.length();
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BlogPostSummary summary = (BlogPostSummary) o;
+        return id == summary.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "BlogPostSummary{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", author='" + author + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
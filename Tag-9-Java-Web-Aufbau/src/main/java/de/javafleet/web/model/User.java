@@ -79,6 +79,19 @@ public class User implements Serializable {
         return Objects.hash(id);
     }
     
+    /**
+     * Prüft die Eingaben für einen neuen User (Import)
+     * @return Fehlermeldung oder null, wenn alles in Ordnung ist
+     */
+    public static String validate(String username, String email, String password) {
+        if (username == null || username.trim().isEmpty() ||
+            email == null || email.trim().isEmpty() ||
+            password == null || password.isEmpty()) {
+            return "Username, email and password are required";
+        }
+        return null;
+    }
+    
     // toString für Debugging
     @Override
     public String toString() {
@@ -0,0 +1,223 @@
+package de.javafleet.web.pool;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * BoundedDataSource - Begrenzt, wie viele Threads gleichzeitig eine Connection halten
+ *
+ * Vor getConnection() wird ein Permit aus einem fairen Semaphore geholt,
+ * close() gibt es zurück. Mit so vielen Permits wie der Pool Connections
+ * hat, wartet niemand mehr im Pool selbst, sondern vorher im Semaphore.
+ *
+ * Das zählt bei virtuellen Threads: Tausende Requests können gleichzeitig
+ * laufen, aber nur so viele wie Connections da sind, dürfen in den
+ * JDBC-Code. Ein Semaphore parkt wartende virtuelle Threads, ohne ihren
+ * Träger-Thread zu blockieren. Viele Pools und ältere JDBC-Treiber warten
+ * dagegen in synchronized-Blöcken und würden unter Java 21 den Träger-Thread
+ * festhalten (Pinning).
+ *
+ * Bekommt ein Thread innerhalb von timeout kein Permit, gibt es wie beim
+ * Pool eine SQLTransientConnectionException.
+ */
+public class BoundedDataSource implements DataSource {
+
+    private final DataSource delegate;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long timeoutNanos;
+
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param maxConcurrent höchstens so viele Connections gleichzeitig (Poolgröße)
+     * @param timeoutMillis maximale Wartezeit auf ein Permit
+     */
+    public BoundedDataSource(DataSource delegate, int maxConcurrent, long timeoutMillis) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.delegate = delegate;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return bounded(delegate.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return bounded(delegate.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Anzahl der gerade gehaltenen Connections
+     */
+    public int getInUse() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * Anzahl der Threads, die auf ein Permit warten (Schätzwert)
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Anzahl der Threads, die innerhalb des Timeouts kein Permit bekommen haben
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public DataSource getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedDataSource{inUse=" + getInUse() +
+                ", max=" + maxConcurrent +
+                ", waiting=" + getWaiting() +
+                ", timeouts=" + getTimeouts() +
+                ", delegate=" + delegate + '}';
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("Connection not available, "
+                        + maxConcurrent + " connections in use for more than "
+                        + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private Connection bounded(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PermitHandle(connection));
+    }
+
+    // --- DataSource-Pflichtmethoden ------------------------------------------
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    /**
+     * Gibt beim ersten close() das Permit zurück
+     */
+    private final class PermitHandle implements InvocationHandler {
+
+        private final Connection target;
+        private boolean released;
+
+        PermitHandle(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (!released) {
+                            released = true;
+                            permits.release();
+                        }
+                    }
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Bounded[" + target + "]";
+                default:
+                    break;
+            }
+            if ("unwrap".equals(method.getName()) && ((Class<?>) args[0]).isInstance(target)) {
+                return target;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package de.javafleet.web.pool;
+
+/**
+ * PoolConfig - Einstellungen für den PooledDataSource
+ *
+ * Die Standardwerte entsprechen ungefähr dem JDBC-Pool in Payara
+ * (siehe DEPLOYMENT.md): 8 bis 32 Connections, 30 Sekunden Wartezeit.
+ */
+public class PoolConfig {
+
+    private String url;
+    private String username;
+    private String password;
+
+    private int minIdle = 8;
+    private int maxSize = 32;
+
+    /** Maximale Wartezeit auf eine Connection */
+    private long connectionTimeoutMillis = 30_000;
+
+    /** Idle-Connections über minIdle werden danach geschlossen (0 = nie) */
+    private long idleTimeoutMillis = 600_000;
+
+    /** Connections werden nach dieser Lebensdauer ersetzt (0 = nie) */
+    private long maxLifetimeMillis = 1_800_000;
+
+    /** Warnung, wenn eine Connection länger ausgeliehen ist (0 = aus) */
+    private long leakDetectionThresholdMillis = 0;
+
+    /** Idle-Connections werden vor der Ausgabe erst nach dieser Zeit geprüft */
+    private long validationIntervalMillis = 500;
+
+    /** Intervall des Housekeeping-Threads */
+    private long housekeepingIntervalMillis = 30_000;
+
+    public PoolConfig() {
+    }
+
+    public PoolConfig(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    // Getters und Setters
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+
+    public long getHousekeepingIntervalMillis() {
+        return housekeepingIntervalMillis;
+    }
+
+    public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) {
+        this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+    }
+
+    /**
+     * Prüft die Einstellungen auf Plausibilität
+     * @throws IllegalArgumentException bei ungültigen Werten
+     */
+    void validate() {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("JDBC URL is required");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        if (minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("minIdle must be between 0 and maxSize: " + minIdle);
+        }
+        if (connectionTimeoutMillis < 0) {
+            throw new IllegalArgumentException("connectionTimeoutMillis must not be negative");
+        }
+        if (housekeepingIntervalMillis < 1) {
+            throw new IllegalArgumentException("housekeepingIntervalMillis must be positive");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig{" +
+                "url='" + url + '\'' +
+                ", username='" + username + '\'' +
+                ", minIdle=" + minIdle +
+                ", maxSize=" + maxSize +
+                ", connectionTimeoutMillis=" + connectionTimeoutMillis +
+                '}';
+    }
+}
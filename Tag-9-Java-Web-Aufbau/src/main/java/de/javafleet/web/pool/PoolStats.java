@@ -0,0 +1,20 @@
+package de.javafleet.web.pool;
+
+/**
+ * PoolStats - Momentaufnahme eines PooledDataSource
+ *
+ * @param total offene Connections (aktiv + idle)
+ * @param active ausgeliehene Connections
+ * @param idle freie Connections
+ * @param waiting Threads, die gerade auf eine Connection warten
+ * @param borrowed Ausleihen seit dem Start
+ * @param created geöffnete Connections seit dem Start
+ * @param closed geschlossene Connections seit dem Start
+ * @param timeouts Ausleihen, die nach connectionTimeout abgebrochen wurden
+ * @param leaks als Leak gemeldete Connections
+ * @param maxWaitMillis längste Wartezeit auf eine Connection
+ */
+public record PoolStats(int total, int active, int idle, int waiting,
+                        long borrowed, long created, long closed,
+                        long timeouts, long leaks, long maxWaitMillis) {
+}
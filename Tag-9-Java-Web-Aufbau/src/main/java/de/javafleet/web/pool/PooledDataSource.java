@@ -0,0 +1,634 @@
+package de.javafleet.web.pool;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * PooledDataSource - Eingebauter Connection Pool für den Betrieb ohne Payara
+ *
+ * Gedacht für Batch-Jobs, Tests und Benchmarks, in denen kein
+ * container-verwalteter Pool (jdbc/MyWebAppDB) zur Verfügung steht:
+ *
+ * <pre>
+ * PoolConfig config = new PoolConfig("jdbc:h2:mem:test", "sa", "");
+ * try (PooledDataSource pool = new PooledDataSource(config)) {
+ *     BlogPostDAO blogDAO = new BlogPostDAO(pool);
+ *     ...
+ * }
+ * </pre>
+ *
+ * Ausleihen und Zurückgeben laufen ohne Locks: Jede Connection hat einen
+ * atomaren Zustand (frei, ausgeliehen, entfernt), ausgeliehen wird per
+ * compareAndSet. Sind alle Connections belegt und ist maxSize erreicht,
+ * stellt sich der Thread in eine faire Warteschlange (FIFO) und bekommt die
+ * nächste zurückgegebene Connection direkt übergeben, höchstens bis
+ * connectionTimeout. Neue Anfragen überholen wartende Threads dabei nicht.
+ *
+ * Ein Housekeeping-Thread schließt überzählige Idle-Connections, ersetzt
+ * Connections nach maxLifetime, füllt auf minIdle auf und meldet
+ * Connections, die länger als leakDetectionThreshold ausgeliehen sind.
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(PooledDataSource.class.getName());
+
+    private static final int NOT_IN_USE = 0;
+    private static final int IN_USE = 1;
+    private static final int REMOVED = -1;
+
+    /**
+     * Wartende Threads schauen spätestens danach selbst nach freien Connections,
+     * falls eine Rückgabe die Warteschlange knapp verpasst hat
+     */
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /** Wird beim Schließen an wartende Threads übergeben, um sie aufzuwecken */
+    private static final PoolEntry CLOSED_MARKER = new PoolEntry(null);
+
+    private final PoolConfig config;
+    private final long connectionTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final long leakThresholdNanos;
+    private final long validationIntervalNanos;
+
+    private final CopyOnWriteArrayList<PoolEntry> entries = new CopyOnWriteArrayList<>();
+    private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+    private final ThreadLocal<PoolEntry> lastUsed = new ThreadLocal<>();
+
+    /** Offene plus gerade entstehende Connections, begrenzt auf maxSize */
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder closedConnections = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed;
+    private volatile PrintWriter logWriter;
+    private volatile int loginTimeout;
+
+    public PooledDataSource(PoolConfig config) {
+        config.validate();
+        this.config = config;
+        this.connectionTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getConnectionTimeoutMillis());
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxLifetimeMillis());
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getLeakDetectionThresholdMillis());
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getValidationIntervalMillis());
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "PooledDataSource-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Erste Runde sofort: füllt den Pool im Hintergrund auf minIdle
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0,
+                config.getHousekeepingIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + connectionTimeoutNanos;
+        boolean waited = false;
+
+        while (true) {
+            if (closed) {
+                throw new SQLException("Pool is closed");
+            }
+
+            // Wartende Threads haben Vorrang, neue Anfragen reihen sich hinten ein
+            PoolEntry entry = waited || waiters.get() == 0 ? tryAcquireIdle() : null;
+            if (entry == null) {
+                entry = tryCreate();
+            }
+            if (entry == null) {
+                waited = true;
+                entry = awaitHandoff(deadline);
+                if (entry == null) {
+                    continue;
+                }
+            }
+
+            if (!isUsable(entry)) {
+                remove(entry);
+                continue;
+            }
+
+            long waitNanos = System.nanoTime() - start;
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            borrowed.increment();
+
+            entry.borrowedAt = System.nanoTime();
+            entry.leakReported = false;
+            entry.borrowStack = leakThresholdNanos > 0
+                    ? new Exception("Connection borrowed here")
+                    : null;
+            lastUsed.set(entry);
+            return entry.newHandle(this);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException(
+                "PooledDataSource uses the credentials from PoolConfig");
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Pool-Statistik
+     */
+    public PoolStats getStats() {
+        int active = 0;
+        int idle = 0;
+        for (PoolEntry entry : entries) {
+            int state = entry.state.get();
+            if (state == IN_USE) {
+                active++;
+            } else if (state == NOT_IN_USE) {
+                idle++;
+            }
+        }
+        return new PoolStats(active + idle, active, idle, waiters.get(),
+                             borrowed.sum(), created.sum(), closedConnections.sum(),
+                             timeouts.sum(), leaks.sum(),
+                             TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Schließt alle freien Connections sofort, ausgeliehene bei der Rückgabe
+     * Wartende Threads bekommen eine SQLException.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+
+        for (PoolEntry entry : entries) {
+            if (entry.state.compareAndSet(NOT_IN_USE, REMOVED)) {
+                closeEntry(entry);
+            }
+        }
+        while (waiters.get() > 0) {
+            if (!handoffQueue.offer(CLOSED_MARKER)) {
+                Thread.onSpinWait();
+            }
+        }
+        LOG.info(() -> "Pool closed: " + getStats());
+    }
+
+    @Override
+    public String toString() {
+        return "PooledDataSource{" + config.getUrl() + ", " + getStats() + '}';
+    }
+
+    // --- Ausleihen und Zurückgeben -------------------------------------------
+
+    /**
+     * Sucht lock-frei eine freie Connection, zuerst die zuletzt vom Thread genutzte
+     */
+    private PoolEntry tryAcquireIdle() {
+        PoolEntry hint = lastUsed.get();
+        if (hint != null && hint.state.compareAndSet(NOT_IN_USE, IN_USE)) {
+            return hint;
+        }
+        for (PoolEntry entry : entries) {
+            if (entry.state.compareAndSet(NOT_IN_USE, IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Öffnet eine neue Connection, falls maxSize noch nicht erreicht ist
+     */
+    private PoolEntry tryCreate() throws SQLException {
+        if (!reserveSlot()) {
+            return null;
+        }
+        PoolEntry entry = openEntry();
+        entry.state.set(IN_USE);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Wartet in der fairen Warteschlange auf eine zurückgegebene Connection
+     * @return die Connection oder null, wenn erneut gesucht werden soll
+     */
+    private PoolEntry awaitHandoff(long deadline) throws SQLException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw timeout();
+        }
+
+        waiters.incrementAndGet();
+        try {
+            PoolEntry entry = handoffQueue.poll(Math.min(remaining, WAIT_SLICE_NANOS),
+                                                 TimeUnit.NANOSECONDS);
+            if (entry == CLOSED_MARKER) {
+                throw new SQLException("Pool is closed");
+            }
+            if (entry == null) {
+                return null;
+            }
+            return entry.state.compareAndSet(NOT_IN_USE, IN_USE) ? entry : null;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Nimmt eine Connection zurück und übergibt sie an einen wartenden Thread
+     */
+    void release(PoolEntry entry) {
+        if (entry.leakReported) {
+            LOG.info(() -> "Previously reported leaked connection returned after "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.borrowedAt) + " ms");
+        }
+        entry.borrowStack = null;
+        entry.lastAccessed = System.nanoTime();
+
+        if (closed || isExpired(entry)) {
+            remove(entry);
+            return;
+        }
+
+        entry.state.set(NOT_IN_USE);
+        handOff(entry);
+    }
+
+    /**
+     * Übergibt eine freie Connection, solange Threads warten
+     */
+    private void handOff(PoolEntry entry) {
+        for (int spins = 0; waiters.get() > 0; spins++) {
+            if (entry.state.get() != NOT_IN_USE || handoffQueue.offer(entry)) {
+                return;
+            }
+            if (spins > 100) {
+                LockSupport.parkNanos(10_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private SQLException timeout() {
+        timeouts.increment();
+        return new SQLTransientConnectionException("Connection not available, request timed out after "
+                + TimeUnit.NANOSECONDS.toMillis(connectionTimeoutNanos) + " ms " + getStats());
+    }
+
+    // --- Lebenszyklus einzelner Connections ----------------------------------
+
+    private boolean reserveSlot() {
+        while (true) {
+            int total = totalConnections.get();
+            if (total >= config.getMaxSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PoolEntry openEntry() throws SQLException {
+        try {
+            Connection connection = config.getUsername() == null
+                    ? DriverManager.getConnection(config.getUrl())
+                    : DriverManager.getConnection(config.getUrl(),
+                                                  config.getUsername(), config.getPassword());
+            created.increment();
+            return new PoolEntry(connection);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isExpired(PoolEntry entry) {
+        return maxLifetimeNanos > 0 && System.nanoTime() - entry.createdAt > maxLifetimeNanos;
+    }
+
+    private boolean isUsable(PoolEntry entry) {
+        if (isExpired(entry)) {
+            return false;
+        }
+        if (System.nanoTime() - entry.lastAccessed > validationIntervalNanos) {
+            try {
+                return entry.connection.isValid(5);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Entfernt eine (ausgeliehene oder freie) Connection endgültig
+     * Warten Threads, wird sofort Ersatz geöffnet.
+     */
+    private void remove(PoolEntry entry) {
+        entry.state.set(REMOVED);
+        closeEntry(entry);
+        if (!closed && waiters.get() > 0) {
+            try {
+                housekeeper.execute(this::addIdleConnection);
+            } catch (RejectedExecutionException e) {
+                // Pool wird gerade geschlossen
+            }
+        }
+    }
+
+    private void closeEntry(PoolEntry entry) {
+        if (!entries.remove(entry)) {
+            return;
+        }
+        totalConnections.decrementAndGet();
+        closedConnections.increment();
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            LOG.log(Level.FINE, "Closing pooled connection failed", e);
+        }
+    }
+
+    private void addIdleConnection() {
+        if (closed || !reserveSlot()) {
+            return;
+        }
+        try {
+            PoolEntry entry = openEntry();
+            entries.add(entry);
+            handOff(entry);
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "Opening pooled connection failed", e);
+        }
+    }
+
+    // --- Housekeeping --------------------------------------------------------
+
+    private void housekeep() {
+        try {
+            long now = System.nanoTime();
+            int idle = 0;
+            for (PoolEntry entry : entries) {
+                if (entry.state.get() == NOT_IN_USE) {
+                    idle++;
+                }
+            }
+
+            for (PoolEntry entry : entries) {
+                int state = entry.state.get();
+                if (state == NOT_IN_USE) {
+                    boolean idleTooLong = idleTimeoutNanos > 0 && idle > config.getMinIdle()
+                            && now - entry.lastAccessed > idleTimeoutNanos;
+                    if ((idleTooLong || isExpired(entry))
+                            && entry.state.compareAndSet(NOT_IN_USE, REMOVED)) {
+                        closeEntry(entry);
+                        idle--;
+                    }
+                } else if (state == IN_USE) {
+                    detectLeak(entry, now);
+                }
+            }
+
+            while (!closed && idle < config.getMinIdle()
+                    && totalConnections.get() < config.getMaxSize()) {
+                addIdleConnection();
+                idle++;
+            }
+
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Pool housekeeping failed", e);
+        }
+    }
+
+    private void detectLeak(PoolEntry entry, long now) {
+        Throwable stack = entry.borrowStack;
+        if (leakThresholdNanos > 0 && stack != null && !entry.leakReported
+                && now - entry.borrowedAt > leakThresholdNanos) {
+            entry.leakReported = true;
+            leaks.increment();
+            LOG.log(Level.WARNING, "Connection leak detection triggered, connection held for "
+                    + TimeUnit.NANOSECONDS.toMillis(now - entry.borrowedAt) + " ms", stack);
+        }
+    }
+
+    // --- DataSource-Pflichtmethoden ------------------------------------------
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOG;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Eine physische Connection mit ihrem Pool-Zustand
+     */
+    static final class PoolEntry {
+
+        final Connection connection;
+        final AtomicInteger state = new AtomicInteger(NOT_IN_USE);
+        final long createdAt = System.nanoTime();
+        volatile long lastAccessed = createdAt;
+        volatile long borrowedAt;
+        volatile Throwable borrowStack;
+        volatile boolean leakReported;
+
+        PoolEntry(Connection connection) {
+            this.connection = connection;
+        }
+
+        Connection newHandle(PooledDataSource pool) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Handle(pool, this));
+        }
+    }
+
+    /**
+     * Die an den Aufrufer ausgegebene Connection
+     *
+     * close() gibt die physische Connection an den Pool zurück, vorher werden
+     * offene Statements geschlossen und eine offene Transaktion zurückgerollt.
+     * Danach sind alle Aufrufe auf diesem Handle ungültig.
+     *
+     * Geschlossene Statements werden beim Anlegen neuer aussortiert, sobald
+     * die Liste ihre Grenze erreicht. Die Grenze wächst mit der Zahl der
+     * offenen Statements: amortisiert O(1), und ein lange gehaltenes Handle
+     * (z.B. in einem Batch-Job) hält nur offene Statements fest.
+     */
+    static final class Handle implements java.lang.reflect.InvocationHandler {
+
+        private static final int MIN_PRUNE_SIZE = 16;
+
+        private final PooledDataSource pool;
+        private final PoolEntry entry;
+        private final List<Statement> statements = new ArrayList<>();
+        private int pruneAt = MIN_PRUNE_SIZE;
+        private boolean closed;
+
+        Handle(PooledDataSource pool, PoolEntry entry) {
+            this.pool = pool;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    closeHandle();
+                    return null;
+                case "isClosed":
+                    return closed || entry.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.connection + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            if ("unwrap".equals(method.getName()) && ((Class<?>) args[0]).isInstance(entry.connection)) {
+                return entry.connection;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement statement) {
+                if (statements.size() >= pruneAt) {
+                    pruneClosedStatements();
+                }
+                statements.add(statement);
+            }
+            return result;
+        }
+
+        /**
+         * Anzahl der Statements, die beim Schließen noch geprüft werden
+         */
+        int trackedStatements() {
+            return statements.size();
+        }
+
+        private void pruneClosedStatements() {
+            statements.removeIf(statement -> {
+                try {
+                    return statement.isClosed();
+                } catch (SQLException e) {
+                    return false;
+                }
+            });
+            pruneAt = Math.max(MIN_PRUNE_SIZE, statements.size() * 2);
+        }
+
+        private void closeHandle() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            try {
+                for (Statement statement : statements) {
+                    statement.close();
+                }
+                statements.clear();
+                if (!entry.connection.getAutoCommit()) {
+                    entry.connection.rollback();
+                    entry.connection.setAutoCommit(true);
+                }
+                entry.connection.clearWarnings();
+            } catch (SQLException e) {
+                // Zustand unklar: Connection nicht wiederverwenden
+                LOG.log(Level.FINE, "Resetting pooled connection failed", e);
+                pool.remove(entry);
+                return;
+            }
+            pool.release(entry);
+        }
+    }
+}
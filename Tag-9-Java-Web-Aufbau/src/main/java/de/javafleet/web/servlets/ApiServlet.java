@@ -0,0 +1,291 @@
+package de.javafleet.web.servlets;
+
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.dao.PageCursor;
+import de.javafleet.web.dao.RowCallback;
+import de.javafleet.web.dao.UserDAO;
+import de.javafleet.web.filters.RequestMetricsFilter;
+import de.javafleet.web.filters.UnitOfWorkFilter;
+import jakarta.annotation.Resource;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.*;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ApiServlet - JSON-API für Blog-Posts und User
+ *
+ * URLs:
+ * - GET /api/posts → neueste Posts zuerst
+ * - GET /api/users → User nach ID
+ *
+ * Parameter:
+ * - fields=id,title,... → nur diese Felder (Standard: alle außer content)
+ * - limit=N → Einträge pro Seite (Standard 50, höchstens 500)
+ * - cursor=T → nächste Seite, T kommt aus "next" der vorherigen Antwort
+ *
+ * Antwort: {"items":[{...},...],"next":"T"} bzw. "next":null auf der letzten Seite
+ *
+ * Die Zeilen gehen direkt vom ResultSet in den JsonGenerator und von dort
+ * in den OutputStream. Es gibt keine Zwischenliste und keine Entity-Objekte,
+ * gelesen werden nur die ausgewählten Spalten.
+ */
+@WebServlet(urlPatterns = { "/api/posts", "/api/users" }, asyncSupported = true)
+public class ApiServlet extends HttpServlet {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    /** Die Factory sucht den JSON-Provider nur einmal, nicht pro Request */
+    private static final JsonGeneratorFactory JSON = Json.createGeneratorFactory(null);
+
+    @Resource(name = "jdbc/MyWebAppDB")
+    private DataSource dataSource;
+
+    private BlogPostDAO blogDAO;
+
+    private UserDAO userDAO;
+
+    @Override
+    public void init() throws ServletException {
+        DataSource background = UnitOfWorkFilter.backgroundDataSource(getServletContext(), dataSource);
+        blogDAO = new BlogPostDAO(background);
+        userDAO = new UserDAO(background);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request,
+                        HttpServletResponse response)
+                        throws ServletException, IOException {
+
+        try {
+            if ("/api/users".equals(request.getServletPath())) {
+                listUsers(request, response);
+            } else {
+                listPosts(request, response);
+            }
+
+        } catch (SQLException e) {
+            throw new ServletException("Database error", e);
+        }
+    }
+
+    /**
+     * Eine Seite Blog-Posts (Keyset über created_at, id)
+     */
+    private void listPosts(HttpServletRequest request,
+                          HttpServletResponse response)
+                          throws SQLException, IOException {
+
+        RequestMetricsFilter.setEndpoint(request, "ApiServlet.listPosts");
+
+        List<String> fields = parseFields(request, response,
+                                          BlogPostDAO.API_FIELDS, BlogPostDAO.DEFAULT_API_FIELDS);
+        int limit = parseLimit(request, response);
+        if (fields == null || limit < 0) {
+            return;
+        }
+
+        PageCursor cursor = null;
+        String cursorParam = request.getParameter("cursor");
+        if (cursorParam != null && !cursorParam.isEmpty()) {
+            try {
+                cursor = PageCursor.decode(cursorParam);
+                if (cursor.getDirection() != PageCursor.Direction.NEXT) {
+                    throw new IllegalArgumentException("Only forward cursors are supported");
+                }
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                  "Invalid cursor");
+                return;
+            }
+        }
+
+        try (JsonGenerator json = startPage(response)) {
+            String next = blogDAO.streamApiPage(fields, limit, cursor, new JsonRowWriter(json, fields));
+            endPage(json, next);
+        }
+    }
+
+    /**
+     * Eine Seite User (Keyset über die ID)
+     */
+    private void listUsers(HttpServletRequest request,
+                          HttpServletResponse response)
+                          throws SQLException, IOException {
+
+        RequestMetricsFilter.setEndpoint(request, "ApiServlet.listUsers");
+
+        List<String> fields = parseFields(request, response,
+                                          UserDAO.API_FIELDS, List.copyOf(UserDAO.API_FIELDS.keySet()));
+        int limit = parseLimit(request, response);
+        if (fields == null || limit < 0) {
+            return;
+        }
+
+        int afterId = 0;
+        String cursorParam = request.getParameter("cursor");
+        if (cursorParam != null && !cursorParam.isEmpty()) {
+            try {
+                afterId = Integer.parseInt(cursorParam);
+            } catch (NumberFormatException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                  "Invalid cursor");
+                return;
+            }
+        }
+
+        try (JsonGenerator json = startPage(response)) {
+            int next = userDAO.streamApiPage(fields, limit, afterId, new JsonRowWriter(json, fields));
+            endPage(json, next > 0 ? Integer.toString(next) : null);
+        }
+    }
+
+    /**
+     * Liest fields=a,b,c und sendet 400 bei unbekannten Feldern
+     * @return die Felder in angefragter Reihenfolge oder null nach einem Fehler
+     */
+    private static List<String> parseFields(HttpServletRequest request,
+                                            HttpServletResponse response,
+                                            Map<String, String> allowed,
+                                            List<String> defaults)
+                                            throws IOException {
+
+        String fieldsParam = request.getParameter("fields");
+        if (fieldsParam == null || fieldsParam.isBlank()) {
+            return defaults;
+        }
+
+        List<String> fields = new ArrayList<>();
+        for (String field : fieldsParam.split(",")) {
+            String name = field.strip();
+            if (name.isEmpty() || fields.contains(name)) {
+                continue;
+            }
+            if (!allowed.containsKey(name)) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                  "Unknown field: " + name + ", allowed: " + allowed.keySet());
+                return null;
+            }
+            fields.add(name);
+        }
+        return fields.isEmpty() ? defaults : fields;
+    }
+
+    /**
+     * Liest limit und sendet 400 bei ungültigen Werten
+     * @return das Limit (höchstens MAX_LIMIT) oder -1 nach einem Fehler
+     */
+    private static int parseLimit(HttpServletRequest request,
+                                  HttpServletResponse response)
+                                  throws IOException {
+
+        String limitParam = request.getParameter("limit");
+        if (limitParam == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int limit = Integer.parseInt(limitParam);
+            if (limit >= 1) {
+                return Math.min(limit, MAX_LIMIT);
+            }
+        } catch (NumberFormatException e) {
+            // unten als 400 beantwortet
+        }
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                          "Invalid limit");
+        return -1;
+    }
+
+    private static JsonGenerator startPage(HttpServletResponse response) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        JsonGenerator json = JSON.createGenerator(response.getOutputStream(), StandardCharsets.UTF_8);
+        json.writeStartObject();
+        json.writeStartArray("items");
+        return json;
+    }
+
+    private static void endPage(JsonGenerator json, String next) {
+        json.writeEnd();
+        if (next != null) {
+            json.write("next", next);
+        } else {
+            json.writeNull("next");
+        }
+        json.writeEnd();
+    }
+
+    /**
+     * Schreibt die aktuelle Zeile als JSON-Objekt
+     * Die Spaltentypen werden einmal pro Abfrage aus den Metadaten gelesen.
+     */
+    private static final class JsonRowWriter implements RowCallback {
+
+        private final JsonGenerator json;
+        private final String[] names;
+        private int[] types;
+
+        JsonRowWriter(JsonGenerator json, List<String> fields) {
+            this.json = json;
+            this.names = fields.toArray(new String[0]);
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (types == null) {
+                ResultSetMetaData meta = rs.getMetaData();
+                types = new int[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    types[i] = meta.getColumnType(i + 1);
+                }
+            }
+
+            json.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                int column = i + 1;
+                switch (types[i]) {
+                    case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> {
+                        long value = rs.getLong(column);
+                        if (rs.wasNull()) {
+                            json.writeNull(names[i]);
+                        } else {
+                            json.write(names[i], value);
+                        }
+                    }
+                    case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE, Types.DATE -> {
+                        Timestamp value = rs.getTimestamp(column);
+                        if (value == null) {
+                            json.writeNull(names[i]);
+                        } else {
+                            json.write(names[i], value.toLocalDateTime().toString());
+                        }
+                    }
+                    default -> {
+                        String value = rs.getString(column);
+                        if (value == null) {
+                            json.writeNull(names[i]);
+                        } else {
+                            json.write(names[i], value);
+                        }
+                    }
+                }
+            }
+            json.writeEnd();
+        }
+    }
+}
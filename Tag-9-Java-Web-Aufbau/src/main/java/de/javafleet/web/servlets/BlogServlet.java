@@ -1,14 +1,32 @@
 package de.javafleet.web.servlets;
 
+import de.javafleet.common.metrics.MetricRegistry;
 import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.dao.BlogPostIndex;
+import de.javafleet.web.dao.BlogPostTrigramIndex;
+import de.javafleet.web.dao.ContentVersion;
+import de.javafleet.web.dao.CountMode;
+import de.javafleet.web.dao.KeysetPage;
+import de.javafleet.web.dao.Page;
+import de.javafleet.web.dao.PageCursor;
+import de.javafleet.web.dao.ResultSetIterator;
+import de.javafleet.web.dao.SearchMode;
+import de.javafleet.web.dao.SearchResult;
+import de.javafleet.web.filters.RequestMetricsFilter;
+import de.javafleet.web.filters.UnitOfWorkFilter;
 import de.javafleet.web.model.BlogPost;
+import de.javafleet.web.model.BlogPostSummary;
+import de.javafleet.web.servlets.RenderedPageCache.RenderedPage;
 import jakarta.annotation.Resource;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebInitParam;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.*;
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,24 +34,107 @@ import java.util.List;
  * 
  * URLs:
  * - GET  /blog → Liste aller Posts
+ * - GET  /blog?page=N → Seite N (OFFSET-Pagination, für kleine Tabellen)
+ * - GET  /blog?cursor=T → Seite ab Cursor T (Keyset-Pagination, leer = erste Seite)
+ * - GET  /blog?search=Q → Volltextsuche (optional &mode=boolean)
+ * - GET  /blog?fuzzy=Q → Fehlertolerante Suche in Titel und Autor
  * - GET  /blog?id=X → Details zu Post X
  * - GET  /blog?action=new → Formular für neuen Post
  * - POST /blog → Neuen Post erstellen
  * - GET  /blog?action=edit&id=X → Formular zum Bearbeiten
  * - POST /blog?action=update&id=X → Post aktualisieren
  * - POST /blog?action=delete&id=X → Post löschen
+ * 
+ * Listen und Einzelansicht tragen ETag und Last-Modified. Kennt der Client
+ * den Stand schon, gibt es 304 Not Modified, bevor Content gelesen oder
+ * eine JSP gerendert wird (siehe {@link ConditionalGet}).
+ * 
+ * Gerenderte Seiten liegen im {@link RenderedPageCache}. Ein Treffer
+ * kommt ohne Datenbank und ohne JSP aus, der DAO invalidiert nach jedem
+ * Schreibzugriff die betroffenen Seiten.
+ * 
+ * Init-Parameter:
+ * - groupCommitMaxRows: gleichzeitige neue Posts werden zu Transaktionen
+ *   mit höchstens so vielen Zeilen zusammengefasst (Standard 0 = aus,
+ *   siehe {@link BlogPostDAO#enableGroupCommit})
+ * - groupCommitMaxDelayMillis: so lange wird unter Last gesammelt (Standard 2)
  */
-@WebServlet("/blog")
+@WebServlet(urlPatterns = "/blog", loadOnStartup = 1, asyncSupported = true,
+            initParams = {
+                @WebInitParam(name = "groupCommitMaxRows", value = "0"),
+                @WebInitParam(name = "groupCommitMaxDelayMillis", value = "2")
+            })
 public class BlogServlet extends HttpServlet {
     
+    private static final int POSTS_PER_PAGE = 10;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    
     @Resource(name = "jdbc/MyWebAppDB")
     private DataSource dataSource;
     
     private BlogPostDAO blogDAO;
     
+    private BlogPostIndex searchIndex;
+    
+    private BlogPostTrigramIndex trigramIndex;
+    
+    private RenderedPageCache pageCache;
+    
     @Override
     public void init() throws ServletException {
-        blogDAO = new BlogPostDAO();
+        // Index-Aufbau und Group Commit laufen auf eigenen Threads, außerhalb der UnitOfWork
+        blogDAO = new BlogPostDAO(UnitOfWorkFilter.backgroundDataSource(getServletContext(), dataSource));
+        
+        // Suchindex beim Start im Hintergrund aufbauen, danach hält ihn
+        // der DAO über Listener-Aufrufe aktuell
+        searchIndex = new BlogPostIndex();
+        blogDAO.addListener(searchIndex);
+        searchIndex.rebuildInBackground(blogDAO);
+        getServletContext().setAttribute(BlogPostIndex.ATTRIBUTE, searchIndex);
+        
+        trigramIndex = new BlogPostTrigramIndex();
+        blogDAO.addListener(trigramIndex);
+        trigramIndex.rebuildInBackground(blogDAO);
+        getServletContext().setAttribute(BlogPostTrigramIndex.ATTRIBUTE, trigramIndex);
+        
+        pageCache = new RenderedPageCache();
+        blogDAO.addListener(pageCache);
+        
+        // Andere Schreiber (z.B. der Import) nutzen diesen DAO samt Listenern
+        getServletContext().setAttribute(BlogPostDAO.ATTRIBUTE, blogDAO);
+        
+        int groupCommitRows = intParam("groupCommitMaxRows", 0);
+        if (groupCommitRows > 0) {
+            blogDAO.enableGroupCommit(groupCommitRows, 
+                    Duration.ofMillis(intParam("groupCommitMaxDelayMillis", 2)));
+        }
+        
+        MetricRegistry registry = MetricRegistry.global();
+        registry.gauge("dao_cache_hit_ratio", "findById cache hit ratio", 
+                       "cache", "BlogPostDAO", () -> blogDAO.getCacheStats().hitRate());
+        registry.gauge("dao_cache_size", "findById cache entries", 
+                       "cache", "BlogPostDAO", () -> blogDAO.getCacheStats().size());
+        registry.gauge("page_cache_hit_ratio", "Rendered page cache hit ratio", 
+                       () -> pageCache.getStats().hitRate());
+        registry.gauge("page_cache_bytes", "Bytes held by the rendered page cache", 
+                       () -> pageCache.getStats().bytes());
+    }
+    
+    @Override
+    public void destroy() {
+        blogDAO.disableGroupCommit();
+    }
+    
+    private int intParam(String name, int defaultValue) throws ServletException {
+        String value = getInitParameter(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ServletException("Init parameter " + name + " must be a number: " + value);
+        }
     }
     
     @Override
@@ -46,6 +147,8 @@ public class BlogServlet extends HttpServlet {
             String idParam = request.getParameter("id");
             String searchQuery = request.getParameter("search");
             String pageParam = request.getParameter("page");
+            String cursorParam = request.getParameter("cursor");
+            String fuzzyQuery = request.getParameter("fuzzy");
             
             if ("new".equals(action)) {
                 // Formular für neuen Post anzeigen
@@ -59,6 +162,12 @@ public class BlogServlet extends HttpServlet {
             } else if (searchQuery != null) {
                 // Posts suchen
                 searchPosts(request, response, searchQuery);
+            } else if (fuzzyQuery != null) {
+                // Fehlertolerante Suche in Titel und Autor
+                fuzzySearchPosts(request, response, fuzzyQuery);
+            } else if (cursorParam != null) {
+                // Keyset-paginierte Liste anzeigen
+                showPostsAfterCursor(request, response, cursorParam);
             } else if (pageParam != null) {
                 // Paginierte Liste anzeigen
                 showPaginatedPosts(request, response, pageParam);
@@ -103,14 +212,34 @@ public class BlogServlet extends HttpServlet {
                              HttpServletResponse response) 
                              throws SQLException, ServletException, IOException {
         
-        List<BlogPost> posts = blogDAO.findAll();
-        int postCount = blogDAO.count();
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.showAllPosts");
         
-        request.setAttribute("posts", posts);
-        request.setAttribute("postCount", postCount);
+        String key = "list:all";
+        RenderedPage cached = pageCache.get(key);
+        if (cached != null) {
+            writeCached(request, response, "list", cached);
+            return;
+        }
         
-        request.getRequestDispatcher("/WEB-INF/views/blog-list.jsp")
-               .forward(request, response);
+        // Der Stand kommt aus dem Cache des DAO, gelesen wird nur nach Schreibzugriffen
+        ContentVersion version = blogDAO.findListVersion(CountMode.CACHED);
+        if (ConditionalGet.isNotModified(request, response, "list", version)) {
+            return;
+        }
+        
+        // Posts werden erst beim Rendern gelesen, die JSP flusht in Blöcken.
+        // Anzahl und Posts kommen über dieselbe Connection.
+        pageCache.render(key, version, response, out -> {
+            try (ResultSetIterator<BlogPostSummary> posts = 
+                     blogDAO.streamSummaries(CountMode.CACHED)) {
+                request.setAttribute("posts", posts);
+                request.setAttribute("postCount", posts.getTotal());
+                request.setAttribute("streaming", true);
+                
+                request.getRequestDispatcher("/WEB-INF/views/blog-list.jsp")
+                       .forward(request, out);
+            }
+        });
     }
     
     /**
@@ -121,6 +250,8 @@ public class BlogServlet extends HttpServlet {
                                    String pageParam) 
                                    throws SQLException, ServletException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.showPaginatedPosts");
+        
         int page = 1;
         try {
             page = Integer.parseInt(pageParam);
@@ -129,20 +260,79 @@ public class BlogServlet extends HttpServlet {
             page = 1;
         }
         
-        int postsPerPage = 10;
+        String key = "list:page:" + page;
+        RenderedPage cached = pageCache.get(key);
+        if (cached != null) {
+            writeCached(request, response, "list", cached);
+            return;
+        }
+        
+        ContentVersion version = blogDAO.findListVersion(CountMode.CACHED);
+        if (ConditionalGet.isNotModified(request, response, "list", version)) {
+            return;
+        }
+        
+        int postsPerPage = POSTS_PER_PAGE;
         int offset = (page - 1) * postsPerPage;
         
-        List<BlogPost> posts = blogDAO.findPaginated(postsPerPage, offset);
-        int totalPosts = blogDAO.count();
-        int totalPages = (int) Math.ceil((double) totalPosts / postsPerPage);
+        // Seite und Gesamtanzahl in einer Abfrage, die Anzahl meist aus dem Cache
+        Page<BlogPostSummary> posts = blogDAO.findPaginated(postsPerPage, offset, CountMode.CACHED);
         
-        request.setAttribute("posts", posts);
+        request.setAttribute("posts", posts.getItems());
+        request.setAttribute("postCount", posts.getTotal());
         request.setAttribute("currentPage", page);
-        request.setAttribute("totalPages", totalPages);
+        request.setAttribute("totalPages", posts.getTotalPages());
         request.setAttribute("postsPerPage", postsPerPage);
         
-        request.getRequestDispatcher("/WEB-INF/views/blog-list.jsp")
-               .forward(request, response);
+        pageCache.render(key, version, response, out -> 
+                request.getRequestDispatcher("/WEB-INF/views/blog-list.jsp")
+                       .forward(request, out));
+    }
+    
+    /**
+     * Zeigt eine Seite Blog-Posts per Keyset-Pagination an
+     * Die Kosten pro Seite bleiben auch für tiefe Archivseiten konstant.
+     */
+    private void showPostsAfterCursor(HttpServletRequest request, 
+                                     HttpServletResponse response, 
+                                     String cursorParam) 
+                                     throws SQLException, ServletException, IOException {
+        
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.showPostsAfterCursor");
+        
+        PageCursor cursor = null;
+        if (!cursorParam.isEmpty()) {
+            try {
+                cursor = PageCursor.decode(cursorParam);
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, 
+                                  "Invalid cursor");
+                return;
+            }
+        }
+        
+        String key = "list:cursor:" + cursorParam;
+        RenderedPage cached = pageCache.get(key);
+        if (cached != null) {
+            writeCached(request, response, "list", cached);
+            return;
+        }
+        
+        ContentVersion version = blogDAO.findListVersion(CountMode.CACHED);
+        if (ConditionalGet.isNotModified(request, response, "list", version)) {
+            return;
+        }
+        
+        KeysetPage<BlogPostSummary> page = blogDAO.findPage(POSTS_PER_PAGE, cursor);
+        
+        request.setAttribute("posts", page.getItems());
+        request.setAttribute("nextCursor", page.getNextCursor());
+        request.setAttribute("previousCursor", page.getPreviousCursor());
+        request.setAttribute("postsPerPage", POSTS_PER_PAGE);
+        
+        pageCache.render(key, version, response, out -> 
+                request.getRequestDispatcher("/WEB-INF/views/blog-list.jsp")
+                       .forward(request, out));
     }
     
     /**
@@ -153,8 +343,31 @@ public class BlogServlet extends HttpServlet {
                          String idParam) 
                          throws SQLException, ServletException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.showPost");
+        
         try {
             int id = Integer.parseInt(idParam);
+            
+            String key = RenderedPageCache.POST_PREFIX + id;
+            RenderedPage cached = pageCache.get(key);
+            if (cached != null) {
+                writeCached(request, response, "post-" + id, cached);
+                return;
+            }
+            
+            // Fragt der Client nach, reicht meist updated_at statt des ganzen Posts
+            if (ConditionalGet.hasValidators(request)) {
+                ContentVersion version = blogDAO.findVersion(id);
+                if (version == null) {
+                    response.sendError(HttpServletResponse.SC_NOT_FOUND, 
+                                      "Blog post not found");
+                    return;
+                }
+                if (ConditionalGet.isNotModified(request, response, "post-" + id, version)) {
+                    return;
+                }
+            }
+            
             BlogPost post = blogDAO.findById(id);
             
             if (post == null) {
@@ -163,9 +376,16 @@ public class BlogServlet extends HttpServlet {
                 return;
             }
             
+            // Validatoren aus dem geladenen Post, ohne zusätzliche Abfrage
+            ContentVersion version = new ContentVersion(post.getUpdatedAt(), 1);
+            if (ConditionalGet.isNotModified(request, response, "post-" + id, version)) {
+                return;
+            }
+            
             request.setAttribute("post", post);
-            request.getRequestDispatcher("/WEB-INF/views/blog-post.jsp")
-                   .forward(request, response);
+            pageCache.render(key, version, response, out -> 
+                    request.getRequestDispatcher("/WEB-INF/views/blog-post.jsp")
+                           .forward(request, out));
             
         } catch (NumberFormatException e) {
             response.sendError(HttpServletResponse.SC_BAD_REQUEST, 
@@ -181,14 +401,89 @@ public class BlogServlet extends HttpServlet {
                             String searchQuery) 
                             throws SQLException, ServletException, IOException {
         
-        List<BlogPost> posts = blogDAO.search(searchQuery);
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.searchPosts");
+        
+        SearchMode mode = "boolean".equals(request.getParameter("mode")) 
+                ? SearchMode.BOOLEAN 
+                : SearchMode.NATURAL_LANGUAGE;
+        
+        String key = "search:" + mode + ':' + searchQuery;
+        RenderedPage cached = pageCache.get(key);
+        if (cached != null) {
+            cached.writeTo(request, response);
+            return;
+        }
+        
+        // Solange der Index noch aufgebaut wird, sucht die Datenbank
+        List<SearchResult> results = searchIndex.isReady() 
+                ? searchIndex.search(searchQuery, mode, MAX_SEARCH_RESULTS) 
+                : blogDAO.search(searchQuery, mode, MAX_SEARCH_RESULTS);
+        List<BlogPostSummary> posts = new ArrayList<>(results.size());
+        for (SearchResult result : results) {
+            posts.add(result.getPost());
+        }
         
         request.setAttribute("posts", posts);
+        request.setAttribute("searchResults", results);
         request.setAttribute("searchQuery", searchQuery);
         request.setAttribute("postCount", posts.size());
         
-        request.getRequestDispatcher("/WEB-INF/views/blog-list.jsp")
-               .forward(request, response);
+        pageCache.render(key, null, response, out -> 
+                request.getRequestDispatcher("/WEB-INF/views/blog-list.jsp")
+                       .forward(request, out));
+    }
+    
+    /**
+     * Sucht Blog-Posts fehlertolerant über den Trigramm-Index (Titel und Autor)
+     */
+    private void fuzzySearchPosts(HttpServletRequest request, 
+                                 HttpServletResponse response, 
+                                 String fuzzyQuery) 
+                                 throws SQLException, ServletException, IOException {
+        
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.fuzzySearchPosts");
+        
+        String key = "fuzzy:" + fuzzyQuery;
+        RenderedPage cached = pageCache.get(key);
+        if (cached != null) {
+            cached.writeTo(request, response);
+            return;
+        }
+        
+        List<BlogPostSummary> posts;
+        if (trigramIndex.isReady()) {
+            posts = new ArrayList<>();
+            for (SearchResult result : trigramIndex.find(fuzzyQuery, MAX_SEARCH_RESULTS)) {
+                posts.add(result.getPost());
+            }
+        } else {
+            // Solange der Index noch aufgebaut wird, sucht die Datenbank
+            posts = blogDAO.search(fuzzyQuery);
+        }
+        
+        request.setAttribute("posts", posts);
+        request.setAttribute("searchQuery", fuzzyQuery);
+        request.setAttribute("postCount", posts.size());
+        
+        pageCache.render(key, null, response, out -> 
+                request.getRequestDispatcher("/WEB-INF/views/blog-list.jsp")
+                       .forward(request, out));
+    }
+    
+    /**
+     * Schreibt eine gecachte Seite, bzw. 304, wenn der Client ihren Stand kennt
+     */
+    private static void writeCached(HttpServletRequest request, 
+                                   HttpServletResponse response, 
+                                   String kind, 
+                                   RenderedPage page) 
+                                   throws IOException {
+        
+        if (page.version() != null 
+                && ConditionalGet.isNotModified(request, response, kind, page.version())) {
+            return;
+        }
+        page.writeTo(request, response);
     }
     
     /**
@@ -198,6 +493,8 @@ public class BlogServlet extends HttpServlet {
                                 HttpServletResponse response) 
                                 throws ServletException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.showNewPostForm");
+        
         request.getRequestDispatcher("/WEB-INF/views/blog-form.jsp")
                .forward(request, response);
     }
@@ -210,6 +507,8 @@ public class BlogServlet extends HttpServlet {
                                  String idParam) 
                                  throws SQLException, ServletException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.showEditPostForm");
+        
         try {
             int id = Integer.parseInt(idParam);
             BlogPost post = blogDAO.findById(id);
@@ -237,16 +536,16 @@ public class BlogServlet extends HttpServlet {
                            HttpServletResponse response) 
                            throws SQLException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.createPost");
+        
         String title = request.getParameter("title");
         String content = request.getParameter("content");
         String author = request.getParameter("author");
         
         // Validierung
-        if (title == null || title.trim().isEmpty() ||
-            content == null || content.trim().isEmpty() ||
-            author == null || author.trim().isEmpty()) {
-            response.sendError(HttpServletResponse.SC_BAD_REQUEST, 
-                              "All fields are required");
+        String error = BlogPost.validate(title, content, author);
+        if (error != null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, error);
             return;
         }
         
@@ -264,6 +563,8 @@ public class BlogServlet extends HttpServlet {
                            HttpServletResponse response) 
                            throws SQLException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.updatePost");
+        
         String idParam = request.getParameter("id");
         String title = request.getParameter("title");
         String content = request.getParameter("content");
@@ -273,11 +574,9 @@ public class BlogServlet extends HttpServlet {
             int id = Integer.parseInt(idParam);
             
             // Validierung
-            if (title == null || title.trim().isEmpty() ||
-                content == null || content.trim().isEmpty() ||
-                author == null || author.trim().isEmpty()) {
-                response.sendError(HttpServletResponse.SC_BAD_REQUEST, 
-                                  "All fields are required");
+            String error = BlogPost.validate(title, content, author);
+            if (error != null) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, error);
                 return;
             }
             
@@ -305,6 +604,8 @@ public class BlogServlet extends HttpServlet {
                            HttpServletResponse response) 
                            throws SQLException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "BlogServlet.deletePost");
+        
         String idParam = request.getParameter("id");
         
         try {
@@ -0,0 +1,100 @@
+package de.javafleet.web.servlets;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.web.dao.ContentVersion;
+import de.javafleet.web.filters.RequestMetricsFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ConditionalGet - ETag und Last-Modified für gerenderte Seiten
+ *
+ * Die Servlets lesen vor dem Rendern nur den Änderungsstand
+ * ({@link ContentVersion}) und fragen hier, ob der Client die Seite schon
+ * kennt. Dann gibt es 304 Not Modified ohne Content-Abfrage und ohne JSP.
+ *
+ * Die ETags sind schwach (W/), denn sie beschreiben den Stand der Daten und
+ * nicht die Bytes der Antwort. Der Startzeitpunkt der Anwendung gehört dazu,
+ * damit nach einem Redeploy mit geänderten JSPs neu gerendert wird.
+ *
+ * updated_at hat Sekundengenauigkeit: Zwei Änderungen am selben Post in
+ * derselben Sekunde ergeben denselben Stand.
+ */
+final class ConditionalGet {
+
+    /** Start der Anwendung, auf Sekunden gekürzt wie der Last-Modified-Header */
+    private static final long STARTED_MILLIS = System.currentTimeMillis() / 1000 * 1000;
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Hat der Client eine Version der Seite, die er bestätigt haben möchte?
+     */
+    static boolean hasValidators(HttpServletRequest request) {
+        return request.getHeader("If-None-Match") != null
+                || request.getHeader("If-Modified-Since") != null;
+    }
+
+    /**
+     * Setzt ETag, Last-Modified und Cache-Control und prüft die Bedingungen des Requests
+     * If-None-Match hat Vorrang, If-Modified-Since zählt nur ohne If-None-Match.
+     * @param kind Art der Seite, z.B. "post-42" oder "list"
+     * @return true, wenn bereits 304 gesetzt wurde und nichts mehr zu tun ist
+     */
+    static boolean isNotModified(HttpServletRequest request, HttpServletResponse response,
+                                 String kind, ContentVersion version) {
+
+        long lastModified = Math.max(version.lastModifiedMillis() / 1000 * 1000, STARTED_MILLIS);
+        String etag = "W/\"" + kind
+                + '-' + Long.toString(version.lastModifiedMillis(), 36)
+                + '-' + Integer.toString(version.count(), 36)
+                + '-' + Long.toString(STARTED_MILLIS, 36) + '"';
+
+        // Immer nachfragen, aber gern mit Validatoren
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified = ifNoneMatch != null
+                ? matches(ifNoneMatch, etag)
+                : notModifiedSince(request, lastModified);
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            MetricRegistry.global().counter("http_not_modified_total",
+                    "Requests answered with 304 Not Modified",
+                    "endpoint", RequestMetricsFilter.getEndpoint(request)).increment();
+        }
+        return notModified;
+    }
+
+    /**
+     * Schwacher Vergleich gegen eine Liste von ETags (RFC 9110, 13.1.2)
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static boolean notModifiedSince(HttpServletRequest request, long lastModified) {
+        try {
+            long since = request.getDateHeader("If-Modified-Since");
+            return since >= 0 && lastModified <= since;
+        } catch (IllegalArgumentException e) {
+            // Unlesbares Datum: wie ohne Bedingung behandeln
+            return false;
+        }
+    }
+}
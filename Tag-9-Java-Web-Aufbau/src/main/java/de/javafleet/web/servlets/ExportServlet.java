@@ -0,0 +1,133 @@
+package de.javafleet.web.servlets;
+
+import de.javafleet.web.bulk.DataFormat;
+import de.javafleet.web.bulk.ExportSource;
+import de.javafleet.web.bulk.ParallelExporter;
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.filters.RequestMetricsFilter;
+import de.javafleet.web.filters.UnitOfWorkFilter;
+import jakarta.annotation.Resource;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.*;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ExportServlet - Bulk-Export der Blog-Posts
+ *
+ * URLs:
+ * - GET /export/posts → alle Posts als Download
+ *
+ * Parameter:
+ * - format=ndjson|csv → Standard: ndjson
+ * - fields=id,title,... → Felder der JSON-API (Standard: alle inklusive content)
+ * - gzip=true → Ausgabe als .gz (Content-Type application/gzip)
+ * - parallelism=N → parallele Bereichsabfragen (Standard: Kerne, höchstens 4; maximal 8)
+ * - delimiter=; → Trennzeichen für CSV (Standard: Komma)
+ *
+ * Gelesen wird über den {@link ParallelExporter} in ID-Bereichen auf
+ * mehreren Connections gleichzeitig, geschrieben direkt in den
+ * OutputStream. Die Zeilen eines Bereichs sind nach ID sortiert, die
+ * Bereiche untereinander nicht, und der Export ist kein Snapshot.
+ * Den Fortschritt zeigt export_rows_total unter /metrics.
+ *
+ * Läuft wie der ImportServlet bewusst nicht über den VirtualThreadFilter,
+ * dessen Async-Timeout würde lange Exporte abbrechen. Der Servlet prüft
+ * keine Berechtigung: /export/* im Betrieb per security-constraint schützen.
+ */
+@WebServlet("/export/posts")
+public class ExportServlet extends HttpServlet {
+
+    @Resource(name = "jdbc/MyWebAppDB")
+    private DataSource dataSource;
+
+    private BlogPostDAO blogDAO;
+
+    @Override
+    public void init() throws ServletException {
+        // Die Export-Worker leihen sich eigene Connections
+        blogDAO = new BlogPostDAO(UnitOfWorkFilter.backgroundDataSource(getServletContext(), dataSource));
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request,
+                        HttpServletResponse response)
+                        throws ServletException, IOException {
+
+        RequestMetricsFilter.setEndpoint(request, "ExportServlet.exportPosts");
+
+        String formatParam = request.getParameter("format");
+        DataFormat format = formatParam != null ? DataFormat.detect(formatParam) : DataFormat.NDJSON;
+        if (format == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                              "Unknown format, use csv or ndjson");
+            return;
+        }
+
+        List<String> fields = new ArrayList<>();
+        String fieldsParam = request.getParameter("fields");
+        if (fieldsParam != null && !fieldsParam.isBlank()) {
+            for (String field : fieldsParam.split(",")) {
+                String name = field.strip();
+                if (name.isEmpty() || fields.contains(name)) {
+                    continue;
+                }
+                if (!BlogPostDAO.API_FIELDS.containsKey(name)) {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                      "Unknown field: " + name + ", allowed: " + BlogPostDAO.API_FIELDS.keySet());
+                    return;
+                }
+                fields.add(name);
+            }
+        }
+        if (fields.isEmpty()) {
+            fields.addAll(BlogPostDAO.API_FIELDS.keySet());
+        }
+
+        ParallelExporter exporter = new ParallelExporter(ExportSource.posts(blogDAO), format, fields);
+        boolean gzip = "true".equals(request.getParameter("gzip"));
+        exporter.setGzip(gzip);
+
+        String parallelismParam = request.getParameter("parallelism");
+        if (parallelismParam != null) {
+            try {
+                exporter.setParallelism(Integer.parseInt(parallelismParam));
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                  "Invalid parallelism, allowed: 1 to " + ParallelExporter.MAX_PARALLELISM);
+                return;
+            }
+        }
+
+        String delimiterParam = request.getParameter("delimiter");
+        if (delimiterParam != null && !delimiterParam.isEmpty()) {
+            if (delimiterParam.length() != 1 || "\"\r\n".indexOf(delimiterParam.charAt(0)) >= 0) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                  "Invalid delimiter");
+                return;
+            }
+            exporter.setDelimiter(delimiterParam.charAt(0));
+        }
+
+        // application/gzip lässt der CompressionFilter in Ruhe, NDJSON und CSV komprimiert er selbst
+        String filename = "posts" + format.getExtension() + (gzip ? ".gz" : "");
+        if (gzip) {
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType(format.getContentType());
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+
+        try {
+            exporter.run(response.getOutputStream());
+
+        } catch (SQLException e) {
+            throw new ServletException("Database error", e);
+        }
+    }
+}
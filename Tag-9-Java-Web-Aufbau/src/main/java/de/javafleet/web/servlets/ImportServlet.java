@@ -0,0 +1,180 @@
+package de.javafleet.web.servlets;
+
+import de.javafleet.web.bulk.BulkImporter;
+import de.javafleet.web.bulk.DataFormat;
+import de.javafleet.web.bulk.ImportReport;
+import de.javafleet.web.bulk.ImportTarget;
+import de.javafleet.web.bulk.RecordReader;
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.dao.UserDAO;
+import de.javafleet.web.filters.RequestMetricsFilter;
+import de.javafleet.web.filters.UnitOfWorkFilter;
+import jakarta.annotation.Resource;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.*;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * ImportServlet - Bulk-Import von Blog-Posts und Usern
+ *
+ * URLs:
+ * - POST /import/posts → Felder title, content, author
+ * - POST /import/users → Felder username, email, password
+ *
+ * Der Request-Body ist CSV (Content-Type text/csv, erste Zeile mit den
+ * Feldnamen) oder NDJSON (application/x-ndjson, ein JSON-Objekt pro Zeile).
+ *
+ * Parameter:
+ * - format=csv|ndjson → statt über den Content-Type
+ * - delimiter=; → Trennzeichen für CSV (Standard: Komma)
+ * - chunkSize=N → Zeilen pro Batch und Commit (Standard 500, höchstens 5000)
+ *
+ * Antwort: {"entity":"posts","read":N,"imported":N,"rejected":N,"millis":N,
+ * "rowsPerSecond":N,"rejects":[{"line":3,"reason":"..."},...]}
+ *
+ * Der Body wird gestreamt gelesen und über den {@link BulkImporter} in
+ * Chunks geschrieben, der Heap bleibt auch bei Dateien im Gigabyte-Bereich
+ * konstant. Den Fortschritt zeigen import_rows_total und
+ * import_rejected_total unter /metrics.
+ *
+ * Geschrieben wird über die DAOs von BlogServlet und UserListServlet, damit
+ * Suchindex, Seiten-Cache, Typeahead und Bloom-Filter die neuen Zeilen sehen.
+ *
+ * Läuft bewusst nicht über den VirtualThreadFilter, dessen Async-Timeout
+ * würde lange Importe abbrechen. Der Servlet prüft keine Berechtigung:
+ * /import/* im Betrieb per security-constraint schützen.
+ */
+@WebServlet(urlPatterns = { "/import/posts", "/import/users" })
+public class ImportServlet extends HttpServlet {
+
+    private static final Logger LOG = Logger.getLogger(ImportServlet.class.getName());
+
+    private static final int MAX_CHUNK_SIZE = 5000;
+
+    private static final JsonGeneratorFactory JSON = Json.createGeneratorFactory(null);
+
+    @Resource(name = "jdbc/MyWebAppDB")
+    private DataSource dataSource;
+
+    private BlogPostDAO blogDAO;
+
+    private UserDAO userDAO;
+
+    @Override
+    public void init() throws ServletException {
+        DataSource background = UnitOfWorkFilter.backgroundDataSource(getServletContext(), dataSource);
+        if (getServletContext().getAttribute(BlogPostDAO.ATTRIBUTE) instanceof BlogPostDAO shared) {
+            blogDAO = shared;
+        } else {
+            LOG.warning("BlogServlet not initialized, imported posts will bypass its caches");
+            blogDAO = new BlogPostDAO(background);
+        }
+        if (getServletContext().getAttribute(UserDAO.ATTRIBUTE) instanceof UserDAO shared) {
+            userDAO = shared;
+        } else {
+            LOG.warning("UserListServlet not initialized, imported users will bypass its indexes");
+            userDAO = new UserDAO(background);
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request,
+                         HttpServletResponse response)
+                         throws ServletException, IOException {
+
+        boolean users = "/import/users".equals(request.getServletPath());
+        RequestMetricsFilter.setEndpoint(request, users ? "ImportServlet.importUsers"
+                                                        : "ImportServlet.importPosts");
+
+        String formatParam = request.getParameter("format");
+        DataFormat format = DataFormat.detect(formatParam != null ? formatParam
+                                                                   : request.getContentType());
+        if (format == null) {
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE,
+                              "Use text/csv or application/x-ndjson");
+            return;
+        }
+
+        String delimiterParam = request.getParameter("delimiter");
+        char delimiter = ',';
+        if (delimiterParam != null && !delimiterParam.isEmpty()) {
+            if (delimiterParam.length() != 1 || "\"\r\n".indexOf(delimiterParam.charAt(0)) >= 0) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                  "Invalid delimiter");
+                return;
+            }
+            delimiter = delimiterParam.charAt(0);
+        }
+
+        int chunkSize = BulkImporter.DEFAULT_CHUNK_SIZE;
+        String chunkParam = request.getParameter("chunkSize");
+        if (chunkParam != null) {
+            try {
+                chunkSize = Integer.parseInt(chunkParam);
+            } catch (NumberFormatException e) {
+                chunkSize = 0;
+            }
+            if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                  "Invalid chunkSize");
+                return;
+            }
+        }
+
+        String encoding = request.getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+
+        ImportReport report;
+        try (RecordReader reader = format.open(
+                 new InputStreamReader(request.getInputStream(), charset), delimiter)) {
+            report = users ? run(new BulkImporter<>(ImportTarget.users(userDAO), chunkSize), reader)
+                           : run(new BulkImporter<>(ImportTarget.posts(blogDAO), chunkSize), reader);
+
+        } catch (SQLException e) {
+            throw new ServletException("Database error", e);
+        }
+
+        writeReport(response, report);
+    }
+
+    private static ImportReport run(BulkImporter<?> importer, RecordReader reader)
+            throws IOException, SQLException {
+        importer.setProgressListener(report -> LOG.fine(report::toString));
+        return importer.run(reader);
+    }
+
+    private static void writeReport(HttpServletResponse response, ImportReport report)
+            throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonGenerator json = JSON.createGenerator(response.getOutputStream(), StandardCharsets.UTF_8)) {
+            json.writeStartObject()
+                .write("entity", report.getEntity())
+                .write("read", report.getRead())
+                .write("imported", report.getImported())
+                .write("rejected", report.getRejected())
+                .write("millis", report.getElapsedMillis())
+                .write("rowsPerSecond", Math.round(report.getRowsPerSecond()))
+                .writeStartArray("rejects");
+            for (ImportReport.Reject reject : report.getRejects()) {
+                json.writeStartObject()
+                    .write("line", reject.line())
+                    .write("reason", reject.reason())
+                    .writeEnd();
+            }
+            json.writeEnd();
+            json.writeEnd();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package de.javafleet.web.servlets;
+
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.web.filters.RequestMetricsFilter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.*;
+import java.io.IOException;
+
+/**
+ * MetricsServlet - Gibt alle Metriken im Prometheus-Textformat aus
+ *
+ * URLs:
+ * - GET /metrics → Servlet-, DAO- und Pool-Metriken
+ *
+ * Prometheus-Konfiguration (scrape_configs):
+ * <pre>
+ * - job_name: 'blog'
+ *   metrics_path: '/metrics'
+ *   static_configs:
+ *     - targets: ['localhost:8080']
+ * </pre>
+ *
+ * Achtung: Die Metriken enthalten keine Nutzerdaten, verraten aber
+ * Last und Aufbau der Anwendung. In Produktion per Firewall oder
+ * security-constraint auf das Monitoring beschränken.
+ */
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Override
+    protected void doGet(HttpServletRequest request,
+                        HttpServletResponse response)
+                        throws ServletException, IOException {
+
+        RequestMetricsFilter.setEndpoint(request, "MetricsServlet.scrape");
+
+        response.setContentType(CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-store");
+        MetricRegistry.global().writeTo(response.getWriter());
+    }
+}
@@ -0,0 +1,442 @@
+package de.javafleet.web.servlets;
+
+import de.javafleet.common.compression.CompressionFilter;
+import de.javafleet.web.dao.BlogPostListener;
+import de.javafleet.web.dao.ContentVersion;
+import de.javafleet.web.model.BlogPost;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RenderedPageCache - Cache für fertig gerenderte Blog-Seiten
+ *
+ * Gespeichert werden die bereits kodierten Bytes der Antwort, ab
+ * {@link CompressionFilter#DEFAULT_MIN_SIZE} zusätzlich gzip-komprimiert.
+ * Ein Treffer schreibt sie direkt in den OutputStream, ohne Datenbank, ohne
+ * JSP und ohne erneute Kompression.
+ *
+ * Beim ersten Rendern geht die Ausgabe wie gewohnt an den Client und wird
+ * nebenbei mitgeschrieben (Tee). Die JSP kann also weiter in Blöcken flushen.
+ * Übernommen werden nur vollständige Antworten mit Status 200 bis
+ * maxEntryBytes, die Summe aller Seiten bleibt unter maxBytes
+ * (LRU-Verdrängung).
+ *
+ * Invalidiert wird als {@link BlogPostListener} nach jedem Commit im DAO:
+ * - Änderung oder Löschen eines Posts: seine Detailseite und alle Listen
+ * - Neuer Post: nur Listen und Suchergebnisse
+ * Wie beim {@link de.javafleet.web.dao.EntityCache} wird eine gerenderte
+ * Seite verworfen, wenn während des Renderns invalidiert wurde. Änderungen
+ * an der Datenbank vorbei werden nach ttl sichtbar.
+ *
+ * Schlüssel beginnen mit {@link #POST_PREFIX} (Detailseite) oder einem
+ * beliebigen anderen Präfix (Listen, Suche).
+ */
+public class RenderedPageCache implements BlogPostListener {
+
+    /** Präfix für Detailseiten, gefolgt von der Post-ID */
+    public static final String POST_PREFIX = "post:";
+
+    /** Standard: 16 MB insgesamt, 512 KB pro Seite, 60 Sekunden */
+    private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+    private static final int DEFAULT_MAX_ENTRY_BYTES = 512 * 1024;
+    private static final long DEFAULT_TTL_MILLIS = 60_000;
+
+    /** Geschätzter Speicher pro Eintrag zusätzlich zu Body und Schlüssel */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    /**
+     * Rendert eine Seite in die übergebene (mitschreibende) Response
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(HttpServletResponse response) throws SQLException, ServletException, IOException;
+    }
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final long ttlNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, RenderedPage> pages = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;          // nur unter lock
+    private long generation;     // nur unter lock
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+
+    public RenderedPageCache() {
+        this(DEFAULT_MAX_BYTES, DEFAULT_MAX_ENTRY_BYTES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param maxBytes Obergrenze für alle Seiten zusammen
+     * @param maxEntryBytes größere Seiten werden nicht gecacht
+     * @param ttlMillis maximale Lebensdauer einer Seite
+     */
+    public RenderedPageCache(long maxBytes, int maxEntryBytes, long ttlMillis) {
+        if (maxBytes < 1 || maxEntryBytes < 1) {
+            throw new IllegalArgumentException("maxBytes and maxEntryBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int) Math.min(maxEntryBytes, maxBytes);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Liefert eine gecachte Seite oder null
+     */
+    public RenderedPage get(String key) {
+        lock.lock();
+        try {
+            RenderedPage page = pages.get(key);
+            if (page != null) {
+                if (System.nanoTime() - page.renderedAt() <= ttlNanos) {
+                    hits.increment();
+                    return page;
+                }
+                remove(key);
+                expirations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Rendert eine Seite zum Client und legt sie dabei im Cache ab
+     * @param version Änderungsstand für ETag/Last-Modified bei späteren Treffern (optional)
+     */
+    public void render(String key, ContentVersion version, HttpServletResponse response,
+                       Renderer renderer) throws SQLException, ServletException, IOException {
+        long startGeneration;
+        lock.lock();
+        try {
+            startGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        CapturingResponse capture = new CapturingResponse(response);
+        renderer.render(capture);
+        capture.finish();
+
+        byte[] body = capture.body();
+        if (body == null) {
+            if (capture.overflow) {
+                oversized.increment();
+            }
+            return;
+        }
+
+        // Einmal beim Einlagern komprimieren statt bei jedem Treffer
+        byte[] gzipBody = body.length >= CompressionFilter.DEFAULT_MIN_SIZE
+                ? CompressionFilter.gzip(body) : null;
+        RenderedPage page = new RenderedPage(body, gzipBody, capture.getContentType(),
+                                             version, System.nanoTime());
+        lock.lock();
+        try {
+            // Zwischenzeitlich invalidiert: die Seite kann veraltete Daten zeigen
+            if (generation == startGeneration) {
+                remove(key);
+                pages.put(key, page);
+                bytes += weight(key, page);
+                evict();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void postCreated(BlogPost post) {
+        invalidate(null);
+    }
+
+    @Override
+    public void postUpdated(BlogPost post) {
+        invalidate(POST_PREFIX + post.getId());
+    }
+
+    @Override
+    public void postDeleted(int id) {
+        invalidate(POST_PREFIX + id);
+    }
+
+    /**
+     * Leert den kompletten Cache
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            pages.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * Momentaufnahme der Cache-Statistik
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                             invalidations.sum(), oversized.sum(), pages.size(), bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RenderedPageCache" + getStats();
+    }
+
+    /**
+     * Entfernt die Detailseite postKey (falls angegeben) und alle Listen
+     */
+    private void invalidate(String postKey) {
+        lock.lock();
+        try {
+            generation++;
+            Iterator<Map.Entry<String, RenderedPage>> it = pages.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, RenderedPage> entry = it.next();
+                String key = entry.getKey();
+                if (!key.startsWith(POST_PREFIX) || key.equals(postKey)) {
+                    bytes -= weight(key, entry.getValue());
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        invalidations.increment();
+    }
+
+    private void remove(String key) {
+        RenderedPage old = pages.remove(key);
+        if (old != null) {
+            bytes -= weight(key, old);
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, RenderedPage>> eldest = pages.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, RenderedPage> entry = eldest.next();
+            bytes -= weight(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long weight(String key, RenderedPage page) {
+        int gzipLength = page.gzipBody() != null ? page.gzipBody().length : 0;
+        return page.body().length + gzipLength + 2L * key.length() + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * Eine gerenderte Seite
+     * @param body kodierte Bytes der Antwort (nicht verändern)
+     * @param gzipBody body gzip-komprimiert, null bei kleinen Seiten
+     * @param contentType Content-Type inklusive Charset, passend zu body
+     * @param version Änderungsstand beim Rendern oder null
+     */
+    public record RenderedPage(byte[] body, byte[] gzipBody, String contentType,
+                               ContentVersion version, long renderedAt) {
+
+        /**
+         * Schreibt die Seite in die Response, komprimiert, wenn der Client gzip versteht
+         */
+        public void writeTo(HttpServletRequest request, HttpServletResponse response)
+                throws IOException {
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            byte[] bytes = body;
+            if (gzipBody != null
+                    && CompressionFilter.GZIP.equals(CompressionFilter.negotiate(request))) {
+                response.setHeader("Content-Encoding", CompressionFilter.GZIP);
+                response.setHeader("Vary", "Accept-Encoding");
+                bytes = gzipBody;
+            }
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+        }
+    }
+
+    /**
+     * Statistik eines RenderedPageCache
+     */
+    public record Stats(long hits, long misses, long evictions, long expirations,
+                        long invalidations, long oversized, int size, long bytes) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    /**
+     * Reicht die Ausgabe an den Client durch und schreibt sie bis maxEntryBytes mit
+     */
+    private final class CapturingResponse extends HttpServletResponseWrapper {
+
+        private ByteArrayOutputStream captured = new ByteArrayOutputStream(8192);
+        private boolean overflow;
+        private TeeOutputStream stream;
+        private PrintWriter writer;
+
+        CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = new TeeOutputStream(super.getOutputStream());
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                // Kodiert wird wie vom Container, Content-Type steht bereits fest
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+                stream = new TeeOutputStream(super.getOutputStream());
+                writer = new PrintWriter(new OutputStreamWriter(stream, charset));
+            }
+            return writer;
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            discardCaptured();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            discardCaptured();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        void finish() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        /**
+         * Die mitgeschriebenen Bytes oder null, wenn die Seite nicht cachebar ist
+         */
+        byte[] body() {
+            if (overflow || captured == null || getStatus() != SC_OK) {
+                return null;
+            }
+            return captured.toByteArray();
+        }
+
+        private void discardCaptured() {
+            if (captured != null) {
+                captured.reset();
+            }
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (captured == null) {
+                return;
+            }
+            if (captured.size() + len > maxEntryBytes) {
+                overflow = true;
+                captured = null;
+                return;
+            }
+            captured.write(b, off, len);
+        }
+
+        private final class TeeOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream target;
+
+            TeeOutputStream(ServletOutputStream target) {
+                this.target = target;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                target.write(b);
+                capture(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                target.write(b, off, len);
+                capture(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                target.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                target.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return target.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                target.setWriteListener(writeListener);
+            }
+        }
+    }
+}
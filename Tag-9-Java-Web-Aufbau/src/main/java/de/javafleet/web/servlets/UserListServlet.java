@@ -1,8 +1,17 @@
 package de.javafleet.web.servlets;
 
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.web.dao.CountMode;
+import de.javafleet.web.dao.ResultSetIterator;
 import de.javafleet.web.dao.UserDAO;
+import de.javafleet.web.dao.UserPrefixIndex;
+import de.javafleet.web.dao.UsernameBloomFilter;
+import de.javafleet.web.filters.RequestMetricsFilter;
+import de.javafleet.web.filters.UnitOfWorkFilter;
 import de.javafleet.web.model.User;
 import jakarta.annotation.Resource;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.*;
@@ -18,19 +27,61 @@ import java.util.List;
  * - /users → Liste aller User
  * - /users?id=X → Details zu User X
  * - /users?search=query → Suche nach User
+ * - /users?suggest=prefix → Typeahead-Vorschläge als JSON
  */
-@WebServlet("/users")
+@WebServlet(urlPatterns = "/users", loadOnStartup = 1, asyncSupported = true)
 public class UserListServlet extends HttpServlet {
     
     @Resource(name = "jdbc/MyWebAppDB")
     private DataSource dataSource;
     
+    /** Standardanzahl Vorschläge für die Typeahead-Suche */
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    
     private UserDAO userDAO;
     
+    private UserPrefixIndex prefixIndex;
+    
     @Override
     public void init() throws ServletException {
-        userDAO = new UserDAO();
-        // DataSource wird automatisch injiziert
+        // Eigene Threads (Bloom-Filter, Index) brauchen die DataSource, Requests nutzen die UnitOfWork
+        userDAO = new UserDAO(UnitOfWorkFilter.backgroundDataSource(getServletContext(), dataSource));
+        
+        MetricRegistry registry = MetricRegistry.global();
+        registry.gauge("dao_cache_hit_ratio", "findById cache hit ratio", 
+                       "cache", "UserDAO", () -> userDAO.getCacheStats().hitRate());
+        registry.gauge("dao_cache_size", "findById cache entries", 
+                       "cache", "UserDAO", () -> userDAO.getCacheStats().size());
+        
+        // Bloom-Filter für usernameExists(), bis zum Abschluss fragt die Datenbank
+        UsernameBloomFilter usernameFilter = new UsernameBloomFilter();
+        userDAO.setUsernameFilter(usernameFilter);
+        usernameFilter.rebuildInBackground(userDAO);
+        
+        // Typeahead-Index, danach hält ihn der DAO über Listener-Aufrufe aktuell
+        prefixIndex = new UserPrefixIndex();
+        userDAO.addListener(prefixIndex);
+        prefixIndex.rebuildInBackground(userDAO);
+        
+        // Der Import schreibt über diesen DAO, damit Filter und Index aktuell bleiben
+        getServletContext().setAttribute(UserDAO.ATTRIBUTE, userDAO);
+        
+        registry.gauge("username_filter_entries", "Usernames in the Bloom filter", 
+                       () -> usernameFilter.getStats().entries());
+        registry.gauge("username_filter_stale_entries", 
+                       "Deleted or renamed usernames left in the Bloom filter", 
+                       () -> usernameFilter.getStats().staleEntries());
+        registry.gauge("username_filter_memory_bytes", "Memory used by the Bloom filter bits", 
+                       () -> usernameFilter.getStats().memoryBytes());
+        registry.gauge("username_filter_expected_fpp", 
+                       "Expected false positive rate at the current fill level", 
+                       () -> usernameFilter.getStats().expectedFalsePositiveRate());
+        registry.gauge("username_filter_observed_fpp", 
+                       "Share of possible positives that turned out to be free", 
+                       () -> usernameFilter.getStats().observedFalsePositiveRate());
+        registry.gauge("username_filter_saved_query_ratio", 
+                       "Share of usernameExists() calls answered without the database", 
+                       () -> usernameFilter.getStats().savedQueryRate());
     }
     
     @Override
@@ -41,8 +92,12 @@ public class UserListServlet extends HttpServlet {
         try {
             String idParam = request.getParameter("id");
             String searchQuery = request.getParameter("search");
+            String suggestQuery = request.getParameter("suggest");
             
-            if (idParam != null) {
+            if (suggestQuery != null) {
+                // Typeahead-Vorschläge (JSON)
+                suggestUsers(request, response, suggestQuery);
+            } else if (idParam != null) {
                 // Einzelnen User anzeigen
                 showUser(request, response, idParam);
             } else if (searchQuery != null) {
@@ -65,14 +120,18 @@ public class UserListServlet extends HttpServlet {
                              HttpServletResponse response) 
                              throws SQLException, ServletException, IOException {
         
-        List<User> users = userDAO.findAll();
-        int userCount = userDAO.count();
-        
-        request.setAttribute("users", users);
-        request.setAttribute("userCount", userCount);
+        RequestMetricsFilter.setEndpoint(request, "UserListServlet.showAllUsers");
         
-        request.getRequestDispatcher("/WEB-INF/views/user-list.jsp")
-               .forward(request, response);
+        // User werden erst beim Rendern gelesen, die JSP flusht in Blöcken.
+        // Anzahl und User kommen über dieselbe Connection.
+        try (ResultSetIterator<User> users = userDAO.streamAll(CountMode.CACHED)) {
+            request.setAttribute("users", users);
+            request.setAttribute("userCount", users.getTotal());
+            request.setAttribute("streaming", true);
+            
+            request.getRequestDispatcher("/WEB-INF/views/user-list.jsp")
+                   .forward(request, response);
+        }
     }
     
     /**
@@ -83,6 +142,8 @@ public class UserListServlet extends HttpServlet {
                          String idParam) 
                          throws SQLException, ServletException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "UserListServlet.showUser");
+        
         try {
             int id = Integer.parseInt(idParam);
             User user = userDAO.findById(id);
@@ -111,6 +172,8 @@ public class UserListServlet extends HttpServlet {
                             String searchQuery) 
                             throws SQLException, ServletException, IOException {
         
+        RequestMetricsFilter.setEndpoint(request, "UserListServlet.searchUsers");
+        
         List<User> users = userDAO.search(searchQuery);
         
         request.setAttribute("users", users);
@@ -120,4 +183,53 @@ public class UserListServlet extends HttpServlet {
         request.getRequestDispatcher("/WEB-INF/views/user-list.jsp")
                .forward(request, response);
     }
+    
+    /**
+     * Liefert Vorschläge für das Suchfeld als JSON-Array
+     * [{"id":1,"username":"elyndra","email":"elyndra@javafleet.de"}, ...]
+     */
+    private void suggestUsers(HttpServletRequest request, 
+                             HttpServletResponse response, 
+                             String prefix) 
+                             throws SQLException, IOException {
+        
+        RequestMetricsFilter.setEndpoint(request, "UserListServlet.suggestUsers");
+        
+        int limit = DEFAULT_SUGGESTIONS;
+        String limitParam = request.getParameter("limit");
+        if (limitParam != null) {
+            try {
+                limit = Math.min(Integer.parseInt(limitParam), UserPrefixIndex.MAX_RESULTS);
+            } catch (NumberFormatException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, 
+                                  "Invalid limit");
+                return;
+            }
+        }
+        
+        // Solange der Index noch aufgebaut wird, sucht die Datenbank
+        List<User> users;
+        if (prefix.isBlank() || limit <= 0) {
+            users = List.of();
+        } else if (prefixIndex.isReady()) {
+            users = prefixIndex.find(prefix, limit);
+        } else {
+            users = userDAO.searchPrefix(prefix.strip(), limit);
+        }
+        
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        
+        try (JsonGenerator json = Json.createGenerator(response.getWriter())) {
+            json.writeStartArray();
+            for (User user : users) {
+                json.writeStartObject()
+                    .write("id", user.getId())
+                    .write("username", user.getUsername())
+                    .write("email", user.getEmail())
+                    .writeEnd();
+            }
+            json.writeEnd();
+        }
+    }
 }
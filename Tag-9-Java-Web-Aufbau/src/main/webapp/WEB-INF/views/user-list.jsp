@@ -1,4 +1,6 @@
-<%@ page contentType="text/html;charset=UTF-8" language="java" %>
+<%@ page contentType="text/html;charset=UTF-8" language="java" buffer="16kb" autoFlush="true" %>
+<%-- ${users} kann ein ResultSetIterator sein: Zeilen werden beim Rendern gelesen,
+     der Puffer wird alle 16 KB an den Client geschickt --%>
 <%@ taglib prefix="c" uri="jakarta.tags.core" %>
 <!DOCTYPE html>
 <html lang="de">
@@ -47,6 +49,41 @@
             gap: 10px;
         }
         
+        .search-box {
+            position: relative;
+        }
+        
+        .suggestions {
+            position: absolute;
+            top: 100%;
+            left: 0;
+            width: 300px;
+            margin-top: 2px;
+            background: white;
+            border: 2px solid #ddd;
+            border-radius: 5px;
+            box-shadow: 0 4px 6px rgba(0, 0, 0, 0.1);
+            list-style: none;
+            z-index: 10;
+        }
+        
+        .suggestions a {
+            display: block;
+            padding: 8px 15px;
+            color: #333;
+            text-decoration: none;
+        }
+        
+        .suggestions a:hover,
+        .suggestions a.active {
+            background: #f8f9fa;
+        }
+        
+        .suggestions small {
+            color: #999;
+            margin-left: 8px;
+        }
+        
         .search-box input {
             padding: 10px 15px;
             border: 2px solid #ddd;
@@ -141,10 +178,12 @@
             </div>
             
             <form action="users" method="get" class="search-box">
-                <input type="text" name="search" 
+                <input type="text" name="search" id="user-search"
                        placeholder="User suchen..." 
+                       autocomplete="off"
                        value="${searchQuery}">
                 <button type="submit" class="btn">🔍 Suchen</button>
+                <ul id="user-suggestions" class="suggestions" hidden></ul>
             </form>
         </div>
         
@@ -156,7 +195,7 @@
         </div>
         
         <c:choose>
-            <c:when test="${empty users}">
+            <c:when test="${streaming ? not users.hasNext() : empty users}">
                 <div class="empty-state">
                     <h2>Keine User gefunden</h2>
                     <p>Es wurden keine User gefunden, die deinen Suchkriterien entsprechen.</p>
@@ -196,5 +235,86 @@
         
         <a href="index.jsp" class="back-link">← Zurück zur Startseite</a>
     </div>
+    
+    <script>
+        // Typeahead: Vorschläge kommen als JSON von /users?suggest=...
+        (function () {
+            const input = document.getElementById('user-search');
+            const list = document.getElementById('user-suggestions');
+            let timer = null;
+            let request = null;
+            let active = -1;
+            
+            function hide() {
+                list.hidden = true;
+                list.replaceChildren();
+                active = -1;
+            }
+            
+            function render(users) {
+                list.replaceChildren();
+                active = -1;
+                for (const user of users) {
+                    const link = document.createElement('a');
+                    link.href = 'users?id=' + user.id;
+                    link.textContent = user.username;
+                    const email = document.createElement('small');
+                    email.textContent = user.email;
+                    link.appendChild(email);
+                    const item = document.createElement('li');
+                    item.appendChild(link);
+                    list.appendChild(item);
+                }
+                list.hidden = users.length === 0;
+            }
+            
+            function load() {
+                const prefix = input.value.trim();
+                if (prefix.length === 0) {
+                    hide();
+                    return;
+                }
+                if (request) {
+                    request.abort();
+                }
+                request = new AbortController();
+                fetch('users?suggest=' + encodeURIComponent(prefix), { signal: request.signal })
+                    .then(response => response.ok ? response.json() : [])
+                    .then(render)
+                    .catch(() => {});
+            }
+            
+            function highlight(index) {
+                const links = list.querySelectorAll('a');
+                if (links.length === 0) {
+                    return;
+                }
+                active = (index + links.length) % links.length;
+                links.forEach((link, i) => link.classList.toggle('active', i === active));
+            }
+            
+            input.addEventListener('input', () => {
+                clearTimeout(timer);
+                timer = setTimeout(load, 150);
+            });
+            
+            input.addEventListener('keydown', event => {
+                if (event.key === 'ArrowDown') {
+                    event.preventDefault();
+                    highlight(active + 1);
+                } else if (event.key === 'ArrowUp') {
+                    event.preventDefault();
+                    highlight(active - 1);
+                } else if (event.key === 'Enter' && active >= 0) {
+                    event.preventDefault();
+                    list.querySelectorAll('a')[active].click();
+                } else if (event.key === 'Escape') {
+                    hide();
+                }
+            });
+            
+            input.addEventListener('blur', () => setTimeout(hide, 200));
+        })();
+    </script>
 </body>
 </html>
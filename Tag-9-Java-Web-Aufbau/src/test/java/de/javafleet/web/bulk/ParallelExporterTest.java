@@ -0,0 +1,139 @@
+package de.javafleet.web.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.dao.TestDatabase;
+import de.javafleet.web.model.BlogPost;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelExporterTest {
+
+    private static final int POSTS = 3000;
+
+    private static final Pattern ID = Pattern.compile("^\\{\"id\":(\\d+),");
+
+    private BlogPostDAO blogDAO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        blogDAO = new BlogPostDAO(TestDatabase.create());
+        List<BlogPost> posts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            // Lang genug für mehrere 256K-Blöcke pro Worker
+            posts.add(new BlogPost("Post " + i, "Zeile\n\"zitiert\"\u2028" + "x".repeat(400), "author" + (i % 7)));
+        }
+        blogDAO.createAll(posts);
+    }
+
+    @Test
+    void gzipExportIsReadableAsOneStream() throws Exception {
+        ParallelExporter exporter = new ParallelExporter(ExportSource.posts(blogDAO),
+                DataFormat.NDJSON, List.copyOf(BlogPostDAO.API_FIELDS.keySet()));
+        exporter.setGzip(true);
+        exporter.setParallelism(4);
+        exporter.setRangeSize(100);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportReport report = exporter.run(out);
+
+        byte[] gzip = out.toByteArray();
+        assertTrue(countMembers(gzip) > 1, "expected concatenated gzip members");
+
+        String[] lines = gunzip(gzip).split("\n");
+        assertEquals(POSTS, lines.length);
+        assertEquals(POSTS, report.rows());
+        assertEquals(30, report.ranges());
+
+        Set<Integer> ids = new HashSet<>();
+        for (String line : lines) {
+            Matcher matcher = ID.matcher(line);
+            assertTrue(matcher.find(), line);
+            ids.add(Integer.parseInt(matcher.group(1)));
+            // Zeilenumbrüche und U+2028 im Inhalt sind escaped
+            assertTrue(line.contains("Zeile\\n\\\"zitiert\\\"\\u2028"), line);
+        }
+        assertEquals(POSTS, ids.size());
+    }
+
+    @Test
+    void csvExportHasOneHeader() throws Exception {
+        ParallelExporter exporter = new ParallelExporter(ExportSource.posts(blogDAO),
+                DataFormat.CSV, List.of("id", "title"));
+        exporter.setGzip(true);
+        exporter.setParallelism(3);
+        exporter.setRangeSize(250);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.run(out);
+
+        String[] lines = gunzip(out.toByteArray()).split("\r\n");
+        assertEquals("id,title", lines[0]);
+        assertEquals(POSTS + 1, lines.length);
+    }
+
+    @Test
+    void emptyGzipExportIsValid() throws Exception {
+        BlogPostDAO emptyDAO = new BlogPostDAO(TestDatabase.create());
+        ParallelExporter exporter = new ParallelExporter(ExportSource.posts(emptyDAO),
+                DataFormat.NDJSON, List.of("id"));
+        exporter.setGzip(true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportReport report = exporter.run(out);
+
+        assertEquals(0, report.rows());
+        assertEquals("", gunzip(out.toByteArray()));
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Zählt die gzip-Member, indem jedes einzeln bis zu seinem Ende gelesen wird
+     */
+    private static int countMembers(byte[] data) throws IOException {
+        int members = 0;
+        int offset = 0;
+        while (offset < data.length) {
+            Inflater inflater = new Inflater(true);
+            try {
+                // Header ohne Extras (so schreibt ihn GZIPOutputStream): 10 Bytes
+                assertEquals(0x1f, data[offset] & 0xff);
+                assertEquals(0x8b, data[offset + 1] & 0xff);
+                inflater.setInput(data, offset + 10, data.length - offset - 10);
+                byte[] buffer = new byte[64 * 1024];
+                while (!inflater.finished()) {
+                    inflater.inflate(buffer);
+                }
+                // Danach CRC32 und Länge: 8 Bytes
+                offset = data.length - inflater.getRemaining() + 8;
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+            members++;
+        }
+        return members;
+    }
+}
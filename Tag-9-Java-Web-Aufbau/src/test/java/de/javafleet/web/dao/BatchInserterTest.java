@@ -0,0 +1,151 @@
+package de.javafleet.web.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.javafleet.web.model.BlogPost;
+import de.javafleet.web.model.User;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchInserterTest {
+
+    private DataSource dataSource;
+    private BlogPostDAO blogDAO;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create();
+        blogDAO = new BlogPostDAO(dataSource);
+        blogDAO.addListener(new BlogPostListener() {
+            @Override
+            public void postCreated(BlogPost post) {
+                created.incrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    void splitsIntoChunksAndMapsGeneratedKeys() throws Exception {
+        List<BlogPost> posts = posts(1201);
+
+        BatchInsertReport report = blogDAO.createAll(posts, 500);
+
+        assertEquals(List.of(500, 500, 201),
+                report.getChunks().stream().map(BatchInsertReport.Chunk::rows).toList());
+        assertEquals(List.of(1, 2, 3),
+                report.getChunks().stream().map(BatchInsertReport.Chunk::number).toList());
+        assertEquals(1201, report.getTotalRows());
+        assertTrue(report.getRowsPerSecond() > 0);
+
+        // IDs in Einfügereihenfolge, passend zur Zeile in der Datenbank
+        for (int i = 0; i < posts.size(); i++) {
+            BlogPost post = posts.get(i);
+            assertEquals(i + 1, post.getId());
+            assertEquals(post.getTitle(), blogDAO.findById(post.getId()).getTitle());
+        }
+        assertEquals(1201, count("blog_posts"));
+        assertEquals(1201, created.get());
+    }
+
+    @Test
+    void exactMultipleAndEmptyInput() throws Exception {
+        assertEquals(2, blogDAO.createAll(posts(1000), 500).getChunks().size());
+        assertEquals(1, blogDAO.createAll(posts(1), 500).getChunks().size());
+        assertEquals(0, blogDAO.createAll(List.of(), 500).getChunks().size());
+        assertThrows(IllegalArgumentException.class, () -> blogDAO.createAll(posts(1), 0));
+    }
+
+    @Test
+    void failingChunkIsRolledBackAlone() throws Exception {
+        UserDAO userDAO = new UserDAO(dataSource);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            users.add(new User("user" + i, "user" + i + "@example.com", "x"));
+        }
+        // Doppelter Name im zweiten Chunk
+        users.set(700, new User("user10", "dup@example.com", "x"));
+
+        assertThrows(SQLException.class, () -> userDAO.createAll(users, 500));
+
+        assertEquals(500, count("users"));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i + 1, users.get(i).getId());
+        }
+        for (int i = 500; i < 1200; i++) {
+            assertEquals(0, users.get(i).getId(), "user" + i);
+        }
+    }
+
+    @Test
+    void outerTransactionSetsKeysOnCommit() throws Exception {
+        List<BlogPost> posts = posts(750);
+
+        UnitOfWork unitOfWork = UnitOfWork.begin(dataSource);
+        try {
+            unitOfWork.beginTransaction();
+            BatchInsertReport report = blogDAO.createAll(posts, 500);
+            assertEquals(2, report.getChunks().size());
+
+            // Vor dem Commit: weder IDs noch Listener-Aufrufe
+            assertEquals(0, posts.get(0).getId());
+            assertEquals(0, created.get());
+
+            unitOfWork.commit();
+        } finally {
+            unitOfWork.close();
+        }
+
+        assertEquals(1, posts.get(0).getId());
+        assertEquals(750, posts.get(749).getId());
+        assertEquals(750, created.get());
+        assertEquals(750, count("blog_posts"));
+    }
+
+    @Test
+    void outerTransactionRollbackLeavesObjectsUntouched() throws Exception {
+        List<BlogPost> posts = posts(600);
+
+        UnitOfWork unitOfWork = UnitOfWork.begin(dataSource);
+        try {
+            unitOfWork.beginTransaction();
+            blogDAO.createAll(posts, 500);
+            unitOfWork.rollback();
+        } finally {
+            unitOfWork.close();
+        }
+
+        for (BlogPost post : posts) {
+            assertEquals(0, post.getId());
+        }
+        assertEquals(0, created.get());
+        assertEquals(0, count("blog_posts"));
+    }
+
+    private static List<BlogPost> posts(int count) {
+        List<BlogPost> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            posts.add(new BlogPost("Post " + i, "Inhalt " + i, "author" + (i % 3)));
+        }
+        return posts;
+    }
+
+    private int count(String table) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package de.javafleet.web.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.javafleet.common.metrics.SqlRecorder;
+import de.javafleet.web.metrics.InstrumentedDataSource;
+import de.javafleet.web.model.BlogPost;
+import de.javafleet.web.model.BlogPostSummary;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BlogPostDAOTest {
+
+    private DataSource dataSource;
+    private BlogPostDAO blogDAO;
+    private BlogPost first;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create();
+        blogDAO = new BlogPostDAO(new InstrumentedDataSource(dataSource));
+        for (int i = 0; i < 3; i++) {
+            BlogPost post = new BlogPost("Post " + i, "Inhalt " + i, "anna");
+            blogDAO.create(post);
+            if (first == null) {
+                first = post;
+            }
+        }
+    }
+
+    @Test
+    void cachedListVersionSkipsTheQuery() throws Exception {
+        ContentVersion loaded = blogDAO.findListVersion(CountMode.CACHED);
+        assertEquals(3, loaded.count());
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertSame(loaded, blogDAO.findListVersion(CountMode.CACHED));
+            // Die Anzahl stammt aus derselben Abfrage
+            assertEquals(3, blogDAO.count(CountMode.CACHED));
+            assertEquals(0, recorder.report().getStatementCount());
+        }
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            blogDAO.findListVersion();
+            assertEquals(1, recorder.report().getStatementCount());
+        }
+    }
+
+    @Test
+    void writesInvalidateTheListVersion() throws Exception {
+        blogDAO.findListVersion(CountMode.CACHED);
+
+        // Ein UPDATE ändert die Anzahl nicht, wohl aber den Stand
+        first.setTitle("Geändert");
+        blogDAO.update(first);
+        assertListVersionQueried(3);
+
+        blogDAO.delete(first.getId());
+        assertListVersionQueried(2);
+
+        blogDAO.create(new BlogPost("Neu", "Inhalt", "ben"));
+        assertListVersionQueried(3);
+    }
+
+    @Test
+    void paginatedPageAndTotalInOneStatement() throws Exception {
+        // 22 ältere Posts mit eindeutigem created_at, dazu die 3 neuen aus setUp
+        List<String> inserts = new ArrayList<>();
+        for (int i = 1; i <= 22; i++) {
+            inserts.add(String.format("INSERT INTO blog_posts (title, content, author, created_at) "
+                    + "VALUES ('Alt %d', 'Inhalt', 'ben', TIMESTAMP '2020-01-01 00:00:00' + INTERVAL '%d' MINUTE)",
+                    i, i));
+        }
+        TestDatabase.execute(dataSource, inserts.toArray(new String[0]));
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            Page<BlogPostSummary> page = blogDAO.findPaginated(10, 20, CountMode.EXACT);
+            recorder.report().assertStatementsAtMost(1);
+
+            assertEquals(25, page.getTotal());
+            assertEquals(3, page.getTotalPages());
+            List<String> titles = new ArrayList<>();
+            for (BlogPostSummary post : page.getItems()) {
+                titles.add(post.getTitle());
+            }
+            assertEquals(List.of("Alt 5", "Alt 4", "Alt 3", "Alt 2", "Alt 1"), titles);
+        }
+
+        // Hinter der letzten Seite: keine Posts, aber die Anzahl
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            Page<BlogPostSummary> beyond = blogDAO.findPaginated(10, 30, CountMode.EXACT);
+            recorder.report().assertStatementsAtMost(1);
+            assertTrue(beyond.getItems().isEmpty());
+            assertEquals(25, beyond.getTotal());
+        }
+
+        // Die Anzahl ist jetzt gecacht, gelesen wird nur die Seite
+        Page<BlogPostSummary> cached = blogDAO.findPaginated(10, 0, CountMode.CACHED);
+        assertEquals(25, cached.getTotal());
+        assertEquals(10, cached.getItems().size());
+    }
+
+    @Test
+    void paginatedOnEmptyTable() throws Exception {
+        BlogPostDAO emptyDAO = new BlogPostDAO(TestDatabase.create());
+        Page<BlogPostSummary> page = emptyDAO.findPaginated(10, 0, CountMode.EXACT);
+        assertTrue(page.getItems().isEmpty());
+        assertEquals(0, page.getTotal());
+    }
+
+    @Test
+    void countsInsideTransactionsStayOutOfTheCache() throws Exception {
+        UnitOfWork unitOfWork = UnitOfWork.begin(dataSource);
+        try {
+            unitOfWork.beginTransaction();
+            blogDAO.create(new BlogPost("Rollback", "Inhalt", "ben"));
+            assertEquals(4, blogDAO.findPaginated(10, 0, CountMode.EXACT).getTotal());
+            assertEquals(4, blogDAO.count(CountMode.CACHED));
+            unitOfWork.rollback();
+        } finally {
+            unitOfWork.close();
+        }
+
+        // Die zurückgerollte Zeile darf nicht aus dem Cache kommen
+        assertEquals(3, blogDAO.count(CountMode.CACHED));
+        assertEquals(3, blogDAO.findPaginated(10, 0, CountMode.CACHED).getTotal());
+    }
+
+    @Test
+    void updateHandsListenersTheStoredTimestamps() throws Exception {
+        BlogPostIndex index = new BlogPostIndex();
+        index.rebuild(blogDAO);
+        blogDAO.addListener(index);
+        List<BlogPost> notified = new ArrayList<>();
+        blogDAO.addListener(new BlogPostListener() {
+            @Override
+            public void postUpdated(BlogPost post) {
+                notified.add(post);
+            }
+        });
+
+        // Wie der BlogServlet: nur ID und Felder aus dem Formular
+        BlogPost edited = new BlogPost("Neuer Titel", "Neuer Inhalt", "anna");
+        edited.setId(first.getId());
+        blogDAO.update(edited);
+
+        assertEquals(1, notified.size());
+        assertNotNull(notified.get(0).getCreatedAt());
+        assertNotNull(notified.get(0).getUpdatedAt());
+        BlogPostSummary found = index.search("Titel", SearchMode.NATURAL_LANGUAGE, 10).get(0).getPost();
+        assertEquals(first.getId(), found.getId());
+        assertNotNull(found.getCreatedAt());
+        assertNotNull(found.getUpdatedAt());
+    }
+
+    private void assertListVersionQueried(int expectedCount) throws Exception {
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertEquals(expectedCount, blogDAO.findListVersion(CountMode.CACHED).count());
+            assertEquals(1, recorder.report().getStatementCount());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package de.javafleet.web.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.javafleet.web.model.BlogPost;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class BlogPostIndexRebuildTest {
+
+    @Test
+    void rebuildInBackgroundBuildsBothIndexes() throws Exception {
+        DataSource dataSource = TestDatabase.create();
+        BlogPostDAO dao = new BlogPostDAO(dataSource);
+        dao.create(new BlogPost("Connection Pooling", "Warum ein Pool Verbindungen spart", "anna"));
+        dao.create(new BlogPost("Servlets", "Der Lebenszyklus eines Servlets", "ben"));
+
+        BlogPostIndex index = new BlogPostIndex();
+        BlogPostTrigramIndex trigrams = new BlogPostTrigramIndex();
+        index.rebuildInBackground(dao).get(10, TimeUnit.SECONDS);
+        trigrams.rebuildInBackground(dao).get(10, TimeUnit.SECONDS);
+
+        assertTrue(index.isReady());
+        assertTrue(trigrams.isReady());
+        assertEquals(2, index.getDocumentCount());
+        assertEquals(2, trigrams.getDocumentCount());
+        assertEquals(1, trigrams.find("Servlte", 10).size());
+    }
+
+    @Test
+    void failedRebuildIsRetried() throws Exception {
+        // Ohne Tabelle scheitert der erste Versuch wie bei einer noch nicht erreichbaren Datenbank
+        DataSource dataSource = TestDatabase.empty();
+        BlogPostDAO dao = new BlogPostDAO(dataSource);
+
+        BlogPostIndex index = new BlogPostIndex();
+        CompletableFuture<Void> rebuilt = index.rebuildInBackground(dao);
+        Thread.sleep(200);
+        assertFalse(index.isReady());
+        assertFalse(rebuilt.isDone());
+
+        TestDatabase.createTables(dataSource);
+        TestDatabase.execute(dataSource,
+                "INSERT INTO blog_posts (title, content, author) VALUES ('Retry', 'Zweiter Versuch', 'anna')");
+
+        rebuilt.get(10, TimeUnit.SECONDS);
+        assertTrue(index.isReady());
+        assertEquals(1, index.getDocumentCount());
+    }
+}
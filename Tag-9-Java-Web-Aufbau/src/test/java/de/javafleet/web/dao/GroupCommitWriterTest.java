@@ -0,0 +1,138 @@
+package de.javafleet.web.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.javafleet.common.metrics.Counter;
+import de.javafleet.common.metrics.Histogram;
+import de.javafleet.common.metrics.MetricRegistry;
+import de.javafleet.web.model.BlogPost;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class GroupCommitWriterTest {
+
+    private static final int THREADS = 16;
+    private static final int POSTS_PER_THREAD = 25;
+    private static final int MAX_ROWS = 32;
+
+    @Test
+    void concurrentCreatesShareTransactionsAndIsolateBadRows() throws Exception {
+        DataSource dataSource = TestDatabase.create();
+        BlogPostDAO dao = new BlogPostDAO(dataSource);
+        dao.enableGroupCommit(MAX_ROWS, Duration.ofMillis(5));
+
+        MetricRegistry registry = MetricRegistry.global();
+        Counter batches = registry.counter("dao_group_commit_batches_total",
+                "Transactions written by group commit", "dao", "BlogPostDAO");
+        Counter rows = registry.counter("dao_group_commit_rows_total",
+                "Rows written by group commit", "dao", "BlogPostDAO");
+        Histogram batchSizes = registry.summary("dao_group_commit_batch_size",
+                "Rows per group commit transaction", "dao", "BlogPostDAO", 1);
+        long batchesBefore = batches.get();
+        long rowsBefore = rows.get();
+
+        ConcurrentLinkedQueue<BlogPost> created = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<SQLException> rejected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < POSTS_PER_THREAD; i++) {
+                        // Jeder zehnte Titel ist zu lang für VARCHAR(255)
+                        String title = i % 10 == 9 ? "x".repeat(300) : "Post " + thread + "-" + i;
+                        BlogPost post = new BlogPost(title, "Inhalt", "author" + thread);
+                        try {
+                            dao.create(post);
+                            created.add(post);
+                        } catch (SQLException e) {
+                            rejected.add(e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            dao.disableGroupCommit();
+        }
+
+        int bad = THREADS * (POSTS_PER_THREAD / 10);
+        int good = THREADS * POSTS_PER_THREAD - bad;
+
+        // Nur die schuldigen Zeilen scheitern, mit dem SQLState der Datenbank
+        assertEquals(bad, rejected.size());
+        for (SQLException e : rejected) {
+            assertTrue(e.getSQLState().startsWith("22"), e.getSQLState());
+        }
+
+        assertEquals(good, created.size());
+        Set<Integer> ids = new HashSet<>();
+        for (BlogPost post : created) {
+            assertTrue(post.getId() > 0);
+            ids.add(post.getId());
+        }
+        assertEquals(good, ids.size());
+        assertEquals(good, countPosts(dataSource));
+
+        // Zusammengefasst: weniger Transaktionen als Zeilen, keine größer als maxRows
+        long writtenRows = rows.get() - rowsBefore;
+        long writtenBatches = batches.get() - batchesBefore;
+        assertEquals(good, writtenRows);
+        assertTrue(writtenBatches < writtenRows,
+                writtenBatches + " batches for " + writtenRows + " rows");
+        assertTrue(batchSizes.snapshot().getMax() <= MAX_ROWS);
+    }
+
+    @Test
+    void writesDirectlyInsideTransaction() throws Exception {
+        DataSource dataSource = TestDatabase.create();
+        BlogPostDAO dao = new BlogPostDAO(dataSource);
+        dao.enableGroupCommit(MAX_ROWS, Duration.ofMillis(5));
+        try {
+            BlogPost post = new BlogPost("Rollback", "Inhalt", "anna");
+            UnitOfWork unitOfWork = UnitOfWork.begin(dataSource);
+            try {
+                unitOfWork.beginTransaction();
+                dao.create(post);
+                unitOfWork.rollback();
+            } finally {
+                unitOfWork.close();
+            }
+            assertEquals(0, countPosts(dataSource));
+        } finally {
+            dao.disableGroupCommit();
+        }
+    }
+
+    private static int countPosts(DataSource dataSource) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM blog_posts")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.javafleet.web.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+
+/**
+ * TestDatabase - H2-In-Memory-Datenbank im MySQL-Modus für die Tests
+ *
+ * Jeder Aufruf bekommt eine eigene, leere Datenbank. Das Schema entspricht
+ * den Tabellen users und blog_posts aus der Anleitung.
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Neue Datenbank mit den Tabellen users und blog_posts
+     */
+    public static DataSource create() throws SQLException {
+        DataSource dataSource = empty();
+        createTables(dataSource);
+        return dataSource;
+    }
+
+    /**
+     * Neue Datenbank ohne Tabellen
+     */
+    public static DataSource empty() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    public static void createTables(DataSource dataSource) throws SQLException {
+        execute(dataSource,
+                "CREATE TABLE IF NOT EXISTS users ("
+                + "id INT PRIMARY KEY AUTO_INCREMENT, "
+                + "username VARCHAR(50) NOT NULL UNIQUE, "
+                + "email VARCHAR(100) NOT NULL, "
+                + "password VARCHAR(255) NOT NULL, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                "CREATE TABLE IF NOT EXISTS blog_posts ("
+                + "id INT PRIMARY KEY AUTO_INCREMENT, "
+                + "title VARCHAR(255) NOT NULL, "
+                + "content TEXT NOT NULL, "
+                + "author VARCHAR(100) NOT NULL, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+    }
+
+    public static void execute(DataSource dataSource, String... sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String statement : sql) {
+                stmt.execute(statement);
+            }
+        }
+    }
+}
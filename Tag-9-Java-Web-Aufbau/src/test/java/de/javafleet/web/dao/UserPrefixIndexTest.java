@@ -0,0 +1,39 @@
+package de.javafleet.web.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.javafleet.web.model.User;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class UserPrefixIndexTest {
+
+    @Test
+    void rebuildInBackgroundRetriesUntilDatabaseIsAvailable() throws Exception {
+        DataSource dataSource = TestDatabase.empty();
+        UserDAO dao = new UserDAO(dataSource);
+        UserPrefixIndex index = new UserPrefixIndex();
+        dao.addListener(index);
+
+        CompletableFuture<Void> rebuilt = index.rebuildInBackground(dao);
+        Thread.sleep(200);
+        assertFalse(index.isReady());
+
+        TestDatabase.createTables(dataSource);
+        dao.create(new User("anna", "anna@example.com", "x"));
+        dao.create(new User("annika", "annika@example.com", "x"));
+        dao.create(new User("ben", "ben@example.com", "x"));
+
+        rebuilt.get(10, TimeUnit.SECONDS);
+        assertTrue(index.isReady());
+        assertEquals(3, index.size());
+
+        List<User> found = index.find("ANN", 10);
+        assertEquals(List.of("anna", "annika"), found.stream().map(User::getUsername).toList());
+    }
+}
@@ -0,0 +1,100 @@
+package de.javafleet.web.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.javafleet.web.model.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class UsernameBloomFilterTest {
+
+    @Test
+    void rebuildInBackgroundRetriesUntilDatabaseIsAvailable() throws Exception {
+        DataSource dataSource = TestDatabase.empty();
+        UserDAO dao = new UserDAO(dataSource);
+        UsernameBloomFilter filter = new UsernameBloomFilter();
+
+        CompletableFuture<Void> rebuilt = filter.rebuildInBackground(dao);
+        Thread.sleep(200);
+        assertFalse(filter.isReady());
+        // Nicht bereit heißt: immer die Datenbank fragen
+        assertTrue(filter.mightContain("anna"));
+
+        TestDatabase.createTables(dataSource);
+        TestDatabase.execute(dataSource,
+                "INSERT INTO users (username, email, password) VALUES ('anna', 'anna@example.com', 'x')");
+
+        rebuilt.get(10, TimeUnit.SECONDS);
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightContain("Anna"));
+        assertFalse(dao.usernameExists("ben"));
+        assertTrue(dao.usernameExists("anna"));
+    }
+
+    @Test
+    void markRemovedNeverHidesOtherNames() throws Exception {
+        UserDAO dao = new UserDAO(TestDatabase.create());
+        UsernameBloomFilter filter = new UsernameBloomFilter(100, 0.2);
+        filter.rebuild(dao);
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            names.add("user" + i);
+            filter.add("user" + i);
+        }
+        // Bei 20 % Falsch-Positiven treffen Fremdnamen sicher belegte Bits
+        for (int i = 0; i < 1000; i++) {
+            filter.markRemoved("other" + i);
+        }
+
+        for (String name : names) {
+            assertTrue(filter.mightContain(name), name);
+        }
+        assertEquals(1000, filter.getStats().staleEntries());
+        assertTrue(filter.needsRebuild());
+    }
+
+    @Test
+    void deletesTriggerRebuildThatDropsStaleNames() throws Exception {
+        UserDAO dao = new UserDAO(TestDatabase.create());
+        UsernameBloomFilter filter = new UsernameBloomFilter();
+        dao.setUsernameFilter(filter);
+        filter.rebuild(dao);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", "x");
+            dao.create(user);
+            users.add(user);
+        }
+        // 100 veraltete Namen sind die Schwelle (mindestens ein Viertel von 200)
+        for (User user : users.subList(0, 99)) {
+            dao.delete(user.getId());
+        }
+        assertEquals(99, filter.getStats().staleEntries());
+        assertFalse(filter.needsRebuild());
+
+        dao.delete(users.get(99).getId());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (filter.getStats().entries() == 200 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        UsernameBloomFilter.Stats stats = filter.getStats();
+        assertEquals(100, stats.entries());
+        assertEquals(0, stats.staleEntries());
+        for (User user : users.subList(100, 200)) {
+            assertTrue(filter.mightContain(user.getUsername()));
+        }
+        long stillContained = users.subList(0, 100).stream()
+                .filter(user -> filter.mightContain(user.getUsername()))
+                .count();
+        assertTrue(stillContained <= 5, "deleted names still in filter: " + stillContained);
+    }
+}
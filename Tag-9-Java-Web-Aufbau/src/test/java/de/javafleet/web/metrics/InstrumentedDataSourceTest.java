@@ -0,0 +1,73 @@
+package de.javafleet.web.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.javafleet.common.metrics.SqlRecorder;
+import de.javafleet.common.metrics.SqlReport;
+import de.javafleet.web.dao.BlogPostDAO;
+import de.javafleet.web.dao.CountMode;
+import de.javafleet.web.dao.TestDatabase;
+import de.javafleet.web.model.BlogPost;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Zählt die Statements der DAOs über die InstrumentedDataSource,
+ * wie der SqlBudgetFilter im Betrieb.
+ */
+class InstrumentedDataSourceTest {
+
+    private BlogPostDAO blogDAO;
+    private final List<Integer> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        blogDAO = new BlogPostDAO(new InstrumentedDataSource(TestDatabase.create()));
+        for (int i = 0; i < 5; i++) {
+            BlogPost post = new BlogPost("Post " + i, "Inhalt " + i, "anna");
+            blogDAO.create(post);
+            ids.add(post.getId());
+        }
+    }
+
+    @Test
+    void paginatedListIsOneStatement() throws Exception {
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            blogDAO.findPaginated(10, 0, CountMode.EXACT);
+
+            SqlReport report = recorder.report()
+                    .assertStatementsAtMost(1)
+                    .assertNoRepeatedStatements(2)
+                    .assertDbTimeAtMost(Duration.ofSeconds(10));
+            assertEquals(1, report.getStatementCount());
+            assertEquals(1, report.getShapes().size());
+        }
+    }
+
+    @Test
+    void detectsRepeatedStatements() throws Exception {
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            for (int id : ids) {
+                blogDAO.findById(id);
+            }
+
+            SqlReport report = recorder.report();
+            assertEquals(5, report.getStatementCount());
+            Map<String, Long> repeated = report.getRepeatedShapes(5);
+            assertEquals(1, repeated.size());
+            assertEquals(5L, repeated.values().iterator().next());
+
+            AssertionError error = assertThrows(AssertionError.class,
+                    () -> report.assertNoRepeatedStatements(3));
+            assertTrue(error.getMessage().contains("N+1"), error.getMessage());
+            assertThrows(AssertionError.class, () -> report.assertStatementsAtMost(4));
+            assertThrows(AssertionError.class, () -> report.assertDbTimeAtMost(Duration.ZERO));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package de.javafleet.web.pool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PooledDataSourceTest {
+
+    private PooledDataSource pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private PoolConfig config() {
+        PoolConfig config = new PoolConfig(
+                "jdbc:h2:mem:pool-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        config.setMinIdle(0);
+        config.setMaxSize(4);
+        config.setConnectionTimeoutMillis(2_000);
+        return config;
+    }
+
+    @Test
+    void borrowAndReturnReusesConnection() throws Exception {
+        pool = new PooledDataSource(config());
+
+        Connection first = pool.getConnection();
+        Connection physical = first.unwrap(Connection.class);
+        assertEquals(1, pool.getStats().active());
+        first.close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::createStatement);
+
+        PoolStats stats = pool.getStats();
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.idle());
+
+        try (Connection second = pool.getConnection()) {
+            assertSame(physical, second.unwrap(Connection.class));
+        }
+        assertEquals(1, pool.getStats().created());
+        assertEquals(2, pool.getStats().borrowed());
+    }
+
+    @Test
+    void returnRollsBackAndClosesStatements() throws Exception {
+        pool = new PooledDataSource(config());
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INT)");
+        }
+
+        Connection conn = pool.getConnection();
+        conn.setAutoCommit(false);
+        Statement stmt = conn.createStatement();
+        stmt.executeUpdate("INSERT INTO t VALUES (1)");
+        conn.close();
+        assertTrue(stmt.isClosed());
+
+        try (Connection next = pool.getConnection();
+             Statement count = next.createStatement();
+             ResultSet rs = count.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(next.getAutoCommit());
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void closedStatementsAreNotRetained() throws Exception {
+        pool = new PooledDataSource(config());
+        try (Connection conn = pool.getConnection()) {
+            PooledDataSource.Handle handle = (PooledDataSource.Handle) Proxy.getInvocationHandler(conn);
+
+            List<Statement> open = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                open.add(conn.prepareStatement("SELECT " + i));
+            }
+            for (int i = 0; i < 10_000; i++) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT 1");
+                }
+            }
+            assertTrue(handle.trackedStatements() <= 32, "tracked: " + handle.trackedStatements());
+
+            conn.close();
+            for (Statement stmt : open) {
+                assertTrue(stmt.isClosed());
+            }
+        }
+    }
+
+    @Test
+    void timesOutWhenExhausted() throws Exception {
+        PoolConfig config = config();
+        config.setMaxSize(1);
+        config.setConnectionTimeoutMillis(200);
+        pool = new PooledDataSource(config);
+
+        try (Connection held = pool.getConnection()) {
+            long start = System.nanoTime();
+            assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(waited >= 190, "waited " + waited + " ms");
+        }
+        assertEquals(1, pool.getStats().timeouts());
+    }
+
+    @Test
+    void waitingThreadGetsReturnedConnection() throws Exception {
+        PoolConfig config = config();
+        config.setMaxSize(1);
+        pool = new PooledDataSource(config);
+
+        Connection held = pool.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await(() -> pool.getStats().waiting() == 1);
+        held.close();
+
+        try (Connection handedOver = waiter.get(2, TimeUnit.SECONDS)) {
+            assertFalse(handedOver.isClosed());
+        }
+        assertEquals(1, pool.getStats().created());
+    }
+
+    @Test
+    void evictsIdleConnectionsAboveMinIdle() throws Exception {
+        PoolConfig config = config();
+        config.setMinIdle(1);
+        config.setIdleTimeoutMillis(100);
+        config.setValidationIntervalMillis(0);
+        config.setHousekeepingIntervalMillis(50);
+        pool = new PooledDataSource(config);
+
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            connections.add(pool.getConnection());
+        }
+        for (Connection conn : connections) {
+            conn.close();
+        }
+        // Die Wartung kann inzwischen eine vierte für minIdle angelegt haben
+        assertTrue(pool.getStats().idle() >= 3);
+
+        await(() -> pool.getStats().total() == 1);
+        assertEquals(1, pool.getStats().idle());
+        assertTrue(pool.getStats().closed() >= 2);
+    }
+
+    @Test
+    void replacesConnectionsAfterMaxLifetime() throws Exception {
+        PoolConfig config = config();
+        config.setMaxLifetimeMillis(100);
+        pool = new PooledDataSource(config);
+
+        Connection physical;
+        try (Connection conn = pool.getConnection()) {
+            physical = conn.unwrap(Connection.class);
+        }
+        Thread.sleep(150);
+
+        try (Connection conn = pool.getConnection()) {
+            assertNotSame(physical, conn.unwrap(Connection.class));
+        }
+        assertTrue(physical.isClosed());
+        assertEquals(2, pool.getStats().created());
+    }
+
+    @Test
+    void reportsLeakedConnections() throws Exception {
+        PoolConfig config = config();
+        config.setLeakDetectionThresholdMillis(100);
+        config.setHousekeepingIntervalMillis(50);
+        pool = new PooledDataSource(config);
+
+        try (Connection conn = pool.getConnection()) {
+            await(() -> pool.getStats().leaks() == 1);
+            // Gemeldet wird nur einmal pro Ausleihe
+            Thread.sleep(150);
+            assertEquals(1, pool.getStats().leaks());
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+    }
+
+    @Test
+    void closedPoolRejectsBorrowing() throws Exception {
+        pool = new PooledDataSource(config());
+        Connection conn = pool.getConnection();
+        Connection physical = conn.unwrap(Connection.class);
+        pool.close();
+
+        assertThrows(SQLException.class, pool::getConnection);
+        conn.close();
+        assertTrue(physical.isClosed());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5 s");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
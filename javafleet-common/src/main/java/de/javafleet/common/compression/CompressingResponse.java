@@ -0,0 +1,378 @@
+package de.javafleet.common.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * CompressingResponse - Komprimiert die Ausgabe, sobald sie sich lohnt
+ *
+ * Entschieden wird beim ersten Schreiben: Komprimiert werden nur Textformate
+ * (HTML, CSS, JSON, JavaScript, XML) mit Status 200 und ohne eigenes
+ * Content-Encoding. Bis minSize Bytes zusammen sind, wird gepuffert. Bleibt
+ * die Antwort kleiner, geht sie unverändert und mit Content-Length hinaus.
+ * Danach wird gestreamt, flush() kommt beim Client als entpackbarer Block an.
+ */
+final class CompressingResponse extends HttpServletResponseWrapper {
+
+    private enum State { UNDECIDED, BUFFERING, COMPRESSING, PASSTHROUGH }
+
+    private final String encoding;
+    private final DeflaterPool pool;
+    private final int minSize;
+
+    private State state = State.UNDECIDED;
+    private long contentLength = -1;
+    private ByteArrayOutputStream buffer;
+    private DeflatingOutputStream deflating;
+    private Output output;
+    private PrintWriter writer;
+    private boolean finished;
+
+    private long bytesIn;
+    private long bytesOut;
+
+    CompressingResponse(HttpServletResponse response, String encoding,
+                        DeflaterPool pool, int minSize) {
+        super(response);
+        this.encoding = encoding;
+        this.pool = pool;
+        this.minSize = minSize;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (output == null) {
+            output = new Output();
+        }
+        return output;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (output != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            String charset = getCharacterEncoding();
+            output = new Output();
+            writer = new PrintWriter(new OutputStreamWriter(output,
+                    charset != null ? Charset.forName(charset) : StandardCharsets.ISO_8859_1));
+        }
+        return writer;
+    }
+
+    // --- Content-Length erst nach der Entscheidung weitergeben ---------------
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (state == State.PASSTHROUGH) {
+            super.setContentLengthLong(len);
+        } else if (state != State.COMPRESSING) {
+            contentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name) && value != null) {
+            setContentLengthLong(Long.parseLong(value.trim()));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name) && value != null) {
+            setContentLengthLong(Long.parseLong(value.trim()));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    // --- Fehlerseiten und Redirects schreibt der Container selbst ------------
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        discard();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        discard();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        discard();
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (deflating != null) {
+            deflating.abort();
+            deflating = null;
+        }
+        buffer = null;
+        contentLength = -1;
+        state = State.UNDECIDED;
+        super.addHeader("Vary", "Accept-Encoding");
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (state == State.BUFFERING) {
+            buffer.reset();
+        } else if (state == State.COMPRESSING) {
+            // Noch nichts beim Client: mit frischem Stream von vorn beginnen
+            deflating.abort();
+            try {
+                deflating = new DeflatingOutputStream(getResponse().getOutputStream(),
+                                                      pool, CompressionFilter.GZIP.equals(encoding));
+            } catch (IOException e) {
+                throw new IllegalStateException("Restarting compression failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (output != null) {
+            flush();
+        }
+        super.flushBuffer();
+    }
+
+    /**
+     * Schließt die Ausgabe ab: Puffer schreiben bzw. Kompression beenden
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (writer != null) {
+            // finished ist schon gesetzt: dieser flush() startet keine Kompression
+            writer.flush();
+        }
+
+        switch (state) {
+            case UNDECIDED -> passThrough();
+            case BUFFERING -> {
+                contentLength = buffer.size();
+                passThrough();
+                buffer.writeTo(getResponse().getOutputStream());
+                buffer = null;
+            }
+            case COMPRESSING -> {
+                deflating.finish();
+                bytesIn = deflating.getBytesIn();
+                bytesOut = deflating.getBytesOut();
+            }
+            case PASSTHROUGH -> {
+                // nichts zu tun
+            }
+        }
+    }
+
+    /**
+     * Bricht nach einer Exception ab, gibt nur den Deflater zurück
+     */
+    void abort() {
+        finished = true;
+        if (deflating != null) {
+            deflating.abort();
+        }
+    }
+
+    /**
+     * Unkomprimierte Bytes, 0 wenn nicht komprimiert wurde
+     */
+    long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * Komprimierte Bytes, 0 wenn nicht komprimiert wurde
+     */
+    long getBytesOut() {
+        return bytesOut;
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        if (state == State.UNDECIDED) {
+            decide();
+        }
+        switch (state) {
+            case BUFFERING -> {
+                if (buffer.size() + len < minSize) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                startCompressing();
+                deflating.write(b, off, len);
+            }
+            case COMPRESSING -> deflating.write(b, off, len);
+            default -> getResponse().getOutputStream().write(b, off, len);
+        }
+    }
+
+    private void flush() throws IOException {
+        if (state == State.BUFFERING && buffer.size() > 0 && !finished) {
+            // Der Aufrufer will streamen: ab hier komprimiert
+            startCompressing();
+        }
+        if (state == State.COMPRESSING) {
+            deflating.flush();
+        } else if (state == State.PASSTHROUGH) {
+            getResponse().getOutputStream().flush();
+        }
+    }
+
+    private void decide() throws IOException {
+        if (!isCompressible()) {
+            passThrough();
+        } else if (contentLength >= minSize) {
+            startCompressing();
+        } else if (contentLength >= 0) {
+            passThrough();
+        } else {
+            state = State.BUFFERING;
+            buffer = new ByteArrayOutputStream(minSize);
+        }
+    }
+
+    private boolean isCompressible() {
+        int status = getStatus();
+        if (status != SC_OK || containsHeader("Content-Encoding") || containsHeader("Content-Range")) {
+            return false;
+        }
+        String type = getContentType();
+        if (type == null) {
+            return false;
+        }
+        type = type.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/")
+                || type.contains("json")
+                || type.contains("javascript")
+                || type.contains("xml");
+    }
+
+    private void passThrough() {
+        state = State.PASSTHROUGH;
+        if (contentLength >= 0) {
+            super.setContentLengthLong(contentLength);
+        }
+    }
+
+    private void startCompressing() throws IOException {
+        state = State.COMPRESSING;
+        super.setHeader("Content-Encoding", encoding);
+        deflating = new DeflatingOutputStream(getResponse().getOutputStream(),
+                                              pool, CompressionFilter.GZIP.equals(encoding));
+        if (buffer != null) {
+            buffer.writeTo(deflating);
+            buffer = null;
+        }
+    }
+
+    private void discard() {
+        if (deflating != null) {
+            deflating.abort();
+            deflating = null;
+        }
+        buffer = null;
+        state = State.PASSTHROUGH;
+        finished = true;
+    }
+
+    /**
+     * Der OutputStream, den Servlet und JSP zu sehen bekommen
+     */
+    private final class Output extends ServletOutputStream {
+
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            CompressingResponse.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressingResponse.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            CompressingResponse.this.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                getResponse().getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
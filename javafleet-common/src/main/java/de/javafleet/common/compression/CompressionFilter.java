@@ -0,0 +1,255 @@
+package de.javafleet.common.compression;
+
+import de.javafleet.common.metrics.Counter;
+import de.javafleet.common.metrics.MetricRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.annotation.WebInitParam;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+
+/**
+ * CompressionFilter - Komprimiert Textantworten mit gzip oder deflate
+ *
+ * Das Verfahren wird über Accept-Encoding ausgehandelt, gzip hat bei
+ * gleicher Gewichtung Vorrang. Die Antwort wird nicht komplett gepuffert:
+ * Ab minSize Bytes wird komprimiert gestreamt, kleinere Antworten gehen
+ * unverändert hinaus (siehe {@link CompressingResponse}). Die Deflater
+ * kommen aus einem {@link DeflaterPool}.
+ *
+ * Antworten mit gesetztem Content-Encoding bleiben unangetastet, bereits
+ * komprimierte Bytes (z.B. aus {@link #gzip(byte[])} im Seiten-Cache) gehen
+ * also unverändert hinaus.
+ *
+ * Muss nach Filtern laufen, die den Request per startAsync() auf einen
+ * anderen Thread verlegen (WEB-INF/web.xml), sonst kehrt die Filterkette
+ * zurück, bevor die Antwort geschrieben ist.
+ *
+ * Registriert wird der Filter über die Annotation, sobald das Jar in
+ * WEB-INF/lib liegt. Die Reihenfolge legt das web.xml der Anwendung fest.
+ *
+ * Init-Parameter:
+ * - enabled: false = nie komprimieren (Standard: true)
+ * - minSize: kleinere Antworten bleiben unkomprimiert (Standard: 1024)
+ */
+@WebFilter(filterName = "CompressionFilter",
+           urlPatterns = "/*",
+           asyncSupported = true,
+           initParams = {
+               @WebInitParam(name = "enabled", value = "true"),
+               @WebInitParam(name = "minSize", value = "1024")
+           })
+public class CompressionFilter implements Filter {
+
+    private static final Logger LOG = Logger.getLogger(CompressionFilter.class.getName());
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    /** Ab dieser Größe lohnt sich die Kompression */
+    public static final int DEFAULT_MIN_SIZE = 1024;
+
+    private static final int MAX_IDLE_DEFLATERS = 64;
+
+    private static final DeflaterPool GZIP_DEFLATERS =
+            new DeflaterPool(Deflater.DEFAULT_COMPRESSION, true, MAX_IDLE_DEFLATERS);
+    private static final DeflaterPool DEFLATE_DEFLATERS =
+            new DeflaterPool(Deflater.DEFAULT_COMPRESSION, false, MAX_IDLE_DEFLATERS);
+
+    private final AtomicBoolean misorderedReported = new AtomicBoolean();
+
+    private boolean enabled;
+    private int minSize;
+
+    private Counter compressed;
+    private Counter bytesIn;
+    private Counter bytesOut;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        String enabledParam = filterConfig.getInitParameter("enabled");
+        enabled = enabledParam == null || Boolean.parseBoolean(enabledParam.trim());
+
+        String minSizeParam = filterConfig.getInitParameter("minSize");
+        minSize = minSizeParam == null || minSizeParam.isBlank()
+                ? DEFAULT_MIN_SIZE : Integer.parseInt(minSizeParam.trim());
+
+        MetricRegistry registry = MetricRegistry.global();
+        compressed = registry.counter("http_responses_compressed_total",
+                "Responses sent with gzip or deflate");
+        bytesIn = registry.counter("http_compression_input_bytes_total",
+                "Response bytes before compression");
+        bytesOut = registry.counter("http_compression_output_bytes_total",
+                "Response bytes after compression");
+        registry.gauge("http_compression_deflaters_created",
+                "Deflaters created by the pools",
+                () -> GZIP_DEFLATERS.getCreated() + DEFLATE_DEFLATERS.getCreated());
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+
+        if (!enabled
+                || !(request instanceof HttpServletRequest http)
+                || !(response instanceof HttpServletResponse httpResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Auch unkomprimierte Antworten hängen vom Header ab (für Proxies)
+        httpResponse.addHeader("Vary", "Accept-Encoding");
+
+        String encoding = negotiate(http);
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressing = new CompressingResponse(httpResponse, encoding,
+                GZIP.equals(encoding) ? GZIP_DEFLATERS : DEFLATE_DEFLATERS, minSize);
+        boolean completed = false;
+        try {
+            chain.doFilter(request, compressing);
+            completed = true;
+        } finally {
+            if (!completed) {
+                compressing.abort();
+            }
+        }
+
+        if (request.isAsyncStarted()) {
+            // Die Antwort wird noch geschrieben, abschließen ginge zu früh
+            if (misorderedReported.compareAndSet(false, true)) {
+                LOG.warning("CompressionFilter must run after filters that start "
+                        + "async processing (check WEB-INF/web.xml)");
+            }
+            request.getAsyncContext().addListener(new AbortOnComplete(compressing));
+            return;
+        }
+
+        compressing.finish();
+        if (compressing.getBytesIn() > 0) {
+            compressed.increment();
+            bytesIn.add(compressing.getBytesIn());
+            bytesOut.add(compressing.getBytesOut());
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * Handelt das Verfahren über Accept-Encoding aus
+     * @return {@link #GZIP}, {@link #DEFLATE} oder null für unkomprimiert
+     */
+    public static String negotiate(HttpServletRequest request) {
+        String header = request.getHeader("Accept-Encoding");
+        if (header == null) {
+            return null;
+        }
+
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : header.split(",")) {
+            String[] tokens = part.split(";");
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].strip();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (tokens[0].strip().toLowerCase(Locale.ROOT)) {
+                case "gzip", "x-gzip" -> gzip = q;
+                case DEFLATE -> deflate = q;
+                case "*" -> any = q;
+                default -> {
+                    // identity, br, ...
+                }
+            }
+        }
+
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    /**
+     * Komprimiert einen fertigen Body mit gzip, z.B. für einen Cache-Eintrag
+     */
+    public static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try {
+            DeflatingOutputStream gzip = new DeflatingOutputStream(out, GZIP_DEFLATERS, true);
+            try {
+                gzip.write(data, 0, data.length);
+                gzip.finish();
+            } finally {
+                gzip.abort();
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream wirft nicht
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Gibt bei falscher Filter-Reihenfolge wenigstens den Deflater zurück
+     */
+    private static final class AbortOnComplete implements AsyncListener {
+
+        private final CompressingResponse response;
+
+        AbortOnComplete(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            response.abort();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            response.abort();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            response.abort();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
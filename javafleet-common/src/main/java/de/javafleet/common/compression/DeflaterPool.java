@@ -0,0 +1,81 @@
+package de.javafleet.common.compression;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * DeflaterPool - Wiederverwendbare Deflater für die Kompression von Responses
+ *
+ * Ein Deflater belegt rund 256 KB nativen Speicher, den erst end() wieder
+ * freigibt. Pro Response einen neuen anzulegen kostet Allokation und
+ * verlässt sich zum Aufräumen auf den Cleaner. Der Pool hält bis zu maxIdle
+ * zurückgegebene Deflater bereit, überzählige werden sofort beendet.
+ */
+public final class DeflaterPool {
+
+    private final int level;
+    private final boolean nowrap;
+    private final int maxIdle;
+
+    private final ConcurrentLinkedQueue<Deflater> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+
+    /**
+     * @param level Kompressionsstufe (Deflater.DEFAULT_COMPRESSION = 6)
+     * @param nowrap true für rohes Deflate (gzip schreibt Header und Trailer selbst)
+     * @param maxIdle höchstens so viele Deflater werden zurückgehalten
+     */
+    public DeflaterPool(int level, boolean nowrap, int maxIdle) {
+        this.level = level;
+        this.nowrap = nowrap;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Liefert einen zurückgesetzten Deflater, bei Bedarf einen neuen
+     */
+    public Deflater borrow() {
+        Deflater deflater = idle.poll();
+        if (deflater != null) {
+            idleCount.decrementAndGet();
+            return deflater;
+        }
+        created.increment();
+        return new Deflater(level, nowrap);
+    }
+
+    /**
+     * Gibt einen Deflater zurück, danach darf der Aufrufer ihn nicht mehr benutzen
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(deflater);
+        } else {
+            idleCount.decrementAndGet();
+            deflater.end();
+        }
+    }
+
+    /**
+     * Anzahl der bereitliegenden Deflater
+     */
+    public int getIdle() {
+        return idleCount.get();
+    }
+
+    /**
+     * Anzahl der seit dem Start erzeugten Deflater
+     */
+    public long getCreated() {
+        return created.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "DeflaterPool{idle=" + getIdle() + ", created=" + getCreated() + '}';
+    }
+}
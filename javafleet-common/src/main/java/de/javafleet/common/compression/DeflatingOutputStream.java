@@ -0,0 +1,167 @@
+package de.javafleet.common.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * DeflatingOutputStream - Komprimiert mit einem Deflater aus dem Pool
+ *
+ * Schreibt gzip (Header, rohes Deflate, CRC-Trailer) oder deflate (zlib).
+ * GZIPOutputStream legt seinen Deflater selbst an und lässt sich deshalb
+ * nicht mit einem Pool kombinieren.
+ *
+ * flush() schließt den aktuellen Block ab (SYNC_FLUSH): Der Client kann alles
+ * bisher Geschriebene sofort entpacken, gestreamte Seiten bleiben gestreamt.
+ * finish() schreibt das Ende und gibt den Deflater zurück. Ohne finish()
+ * muss abort() aufgerufen werden, sonst fehlt der Deflater im Pool.
+ */
+final class DeflatingOutputStream extends OutputStream {
+
+    private static final byte[] GZIP_HEADER = {
+        0x1f, (byte) 0x8b,      // Magic
+        Deflater.DEFLATED,      // Methode
+        0,                      // Flags
+        0, 0, 0, 0,             // Zeitstempel (keiner)
+        0,                      // Extra-Flags
+        (byte) 0xff             // Betriebssystem (unbekannt)
+    };
+
+    private final OutputStream out;
+    private final DeflaterPool pool;
+    private final Deflater deflater;
+    private final CRC32 crc;
+
+    private final byte[] buffer = new byte[8192];
+    private final byte[] single = new byte[1];
+
+    private long bytesIn;
+    private long bytesOut;
+    private boolean finished;
+
+    /**
+     * @param gzip true für gzip (Pool mit nowrap=true), false für deflate (nowrap=false)
+     */
+    DeflatingOutputStream(OutputStream out, DeflaterPool pool, boolean gzip) throws IOException {
+        this.out = out;
+        this.pool = pool;
+        this.deflater = pool.borrow();
+        this.crc = gzip ? new CRC32() : null;
+        if (gzip) {
+            out.write(GZIP_HEADER);
+            bytesOut += GZIP_HEADER.length;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Compressed stream already finished");
+        }
+        if (len == 0) {
+            return;
+        }
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (!finished) {
+            // Voller Puffer heißt: es kann noch mehr anstehen
+            int length;
+            do {
+                length = deflate(Deflater.SYNC_FLUSH);
+            } while (length == buffer.length);
+        }
+        out.flush();
+    }
+
+    /**
+     * Schreibt den Rest und den Trailer, gibt den Deflater zurück
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+            bytesIn = deflater.getBytesRead();
+            if (crc != null) {
+                writeIntLE((int) crc.getValue());
+                writeIntLE((int) bytesIn);
+            }
+        } finally {
+            pool.release(deflater);
+        }
+    }
+
+    /**
+     * Gibt den Deflater zurück, ohne das Ende zu schreiben
+     */
+    void abort() {
+        if (!finished) {
+            finished = true;
+            pool.release(deflater);
+        }
+    }
+
+    /**
+     * Schreibt den Rest und schließt den darunterliegenden Stream
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Unkomprimierte Bytes (gültig nach finish())
+     */
+    long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * Komprimierte Bytes inklusive Header und Trailer
+     */
+    long getBytesOut() {
+        return bytesOut;
+    }
+
+    private int deflate(int flush) throws IOException {
+        int length = deflater.deflate(buffer, 0, buffer.length, flush);
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            bytesOut += length;
+        }
+        return length;
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+        bytesOut += 4;
+    }
+}
@@ -0,0 +1,34 @@
+package de.javafleet.common.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter - Monoton steigender Zähler (z.B. Anzahl Fehler)
+ *
+ * Basiert auf LongAdder: parallele Threads zählen in eigene Zellen und
+ * blockieren sich nicht gegenseitig.
+ */
+public class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Counter cannot decrease: " + amount);
+        }
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
@@ -0,0 +1,153 @@
+package de.javafleet.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram - Lock-freies Histogramm mit logarithmisch-linearen Buckets
+ *
+ * Aufgebaut wie ein HDR-Histogramm: Jede Zweierpotenz ist in 32 gleich breite
+ * Buckets unterteilt, der Fehler eines Perzentils liegt damit unter 3 %,
+ * egal ob Mikrosekunden oder Minuten gemessen werden. Werte unter 64 werden
+ * exakt gezählt (z.B. Zeilenanzahlen).
+ *
+ * {@link #record(long)} kommt ohne Lock und ohne Allokation aus und ist damit
+ * auch für jeden einzelnen JDBC- oder Service-Aufruf billig genug. Ausgewertet wird über
+ * {@link #snapshot()}.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    /** Größte Verschiebung: Werte bis ca. 7 * 10^13 (knapp 20 Stunden in ns) */
+    private static final int MAX_SHIFT = 40;
+    private static final int BUCKETS = MAX_SHIFT * HALF_SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Zählt einen Wert (negative Werte zählen als 0)
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        sum.add(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Momentaufnahme aller Buckets
+     * Nicht atomar über alle Buckets, parallel gezählte Werte können fehlen.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Größter Wert, der in den Bucket fällt
+     */
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Ausgewerteter Stand eines Histogramms
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        /**
+         * Wert, unter dem der angegebene Anteil der Messungen liegt
+         * @param quantile zwischen 0.0 und 1.0, z.B. 0.99 für p99
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count +
+                    ", mean=" + Math.round(getMean()) +
+                    ", p50=" + getValueAtQuantile(0.5) +
+                    ", p99=" + getValueAtQuantile(0.99) +
+                    ", max=" + max +
+                    '}';
+        }
+    }
+}
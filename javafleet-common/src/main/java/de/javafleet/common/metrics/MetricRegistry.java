@@ -0,0 +1,222 @@
+package de.javafleet.common.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * MetricRegistry - Zentrale Sammlung aller Metriken der Anwendung
+ *
+ * Eine Metrik (Familie) hat einen Namen und höchstens ein Label, z.B.
+ * http_request_duration_seconds{endpoint="BlogServlet.list"}. Die Werte
+ * werden im Prometheus-Textformat ausgegeben ({@link #writeTo(Writer)}).
+ *
+ * Messen ohne Allokation: Einmal angelegt, liefern {@link #counter} und
+ * {@link #summary} dasselbe Objekt über zwei Map-Lookups zurück. Wer eine
+ * Metrik sehr oft braucht, hält die Referenz selbst fest.
+ *
+ * Typen:
+ * - counter: {@link Counter}
+ * - gauge: wird beim Abruf über einen DoubleSupplier gelesen
+ * - summary: {@link Histogram}, ausgegeben als p50/p90/p99/p999, _sum und _count
+ */
+public final class MetricRegistry {
+
+    /** Teiler für Histogramme in Nanosekunden, ausgegeben in Sekunden */
+    public static final double NANOS = 1e9;
+
+    /** Histogramme ohne Einheit (z.B. Zeilen) */
+    public static final double NONE = 1.0;
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private static final String NO_LABEL = "";
+
+    private static final MetricRegistry GLOBAL = new MetricRegistry();
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * Die Registry der Webanwendung, ausgegeben unter /metrics
+     */
+    public static MetricRegistry global() {
+        return GLOBAL;
+    }
+
+    public Counter counter(String name, String help) {
+        return counter(name, help, null, NO_LABEL);
+    }
+
+    /**
+     * Liefert den Counter für einen Label-Wert, beim ersten Aufruf neu angelegt
+     */
+    public Counter counter(String name, String help, String labelName, String labelValue) {
+        Family family = family(name, help, Type.COUNTER, labelName, NONE);
+        Object metric = family.children.get(labelValue);
+        if (metric == null) {
+            metric = family.children.computeIfAbsent(labelValue, value -> new Counter());
+        }
+        return (Counter) metric;
+    }
+
+    public Histogram summary(String name, String help, double unit) {
+        return summary(name, help, null, NO_LABEL, unit);
+    }
+
+    /**
+     * Liefert das Histogramm für einen Label-Wert, beim ersten Aufruf neu angelegt
+     * @param unit Teiler für die Ausgabe, z.B. {@link #NANOS}
+     */
+    public Histogram summary(String name, String help, String labelName, String labelValue,
+                             double unit) {
+        Family family = family(name, help, Type.SUMMARY, labelName, unit);
+        Object metric = family.children.get(labelValue);
+        if (metric == null) {
+            metric = family.children.computeIfAbsent(labelValue, value -> new Histogram());
+        }
+        return (Histogram) metric;
+    }
+
+    /**
+     * Nimmt ein bestehendes Histogramm in die Ausgabe auf
+     */
+    public void register(String name, String help, String labelName, String labelValue,
+                         Histogram histogram, double unit) {
+        family(name, help, Type.SUMMARY, labelName, unit).children.put(labelValue, histogram);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value) {
+        gauge(name, help, null, NO_LABEL, value);
+    }
+
+    /**
+     * Registriert einen Messwert, der erst beim Abruf gelesen wird
+     * Ein erneuter Aufruf mit demselben Label ersetzt den alten Supplier.
+     */
+    public void gauge(String name, String help, String labelName, String labelValue,
+                      DoubleSupplier value) {
+        family(name, help, Type.GAUGE, labelName, NONE).children.put(labelValue, value);
+    }
+
+    /**
+     * Entfernt eine Metrik samt aller Label-Werte
+     */
+    public void remove(String name) {
+        families.remove(name);
+    }
+
+    /**
+     * Schreibt alle Metriken im Prometheus-Textformat (Version 0.0.4)
+     */
+    public void writeTo(Writer out) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        for (Family family : new TreeMap<>(families).values()) {
+            out.write("# HELP " + family.name + " " + escapeHelp(family.help) + "\n");
+            out.write("# TYPE " + family.name + " " + family.type.exposition + "\n");
+
+            for (Map.Entry<String, Object> child : new TreeMap<>(family.children).entrySet()) {
+                String label = family.labelName == null ? null
+                        : family.labelName + "=\"" + escapeLabel(child.getKey()) + "\"";
+                line.setLength(0);
+
+                switch (family.type) {
+                    case COUNTER -> sample(line, family.name, label, null,
+                                           ((Counter) child.getValue()).get());
+                    case GAUGE -> sample(line, family.name, label, null,
+                                         ((DoubleSupplier) child.getValue()).getAsDouble());
+                    case SUMMARY -> {
+                        Histogram.Snapshot snapshot = ((Histogram) child.getValue()).snapshot();
+                        for (double quantile : QUANTILES) {
+                            sample(line, family.name, label, "quantile=\"" + quantile + "\"",
+                                   snapshot.getValueAtQuantile(quantile) / family.unit);
+                        }
+                        sample(line, family.name + "_sum", label, null,
+                               snapshot.getSum() / family.unit);
+                        sample(line, family.name + "_count", label, null, snapshot.getCount());
+                    }
+                }
+                out.write(line.toString());
+            }
+        }
+    }
+
+    private Family family(String name, String help, Type type, String labelName, double unit) {
+        Family family = families.get(name);
+        if (family == null) {
+            family = families.computeIfAbsent(name,
+                    key -> new Family(name, help, type, labelName, unit));
+        }
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type
+                    + ", not a " + type);
+        }
+        return family;
+    }
+
+    private static void sample(StringBuilder line, String name, String label,
+                               String extraLabel, double value) {
+        line.append(name);
+        if (label != null || extraLabel != null) {
+            line.append('{');
+            if (label != null) {
+                line.append(label);
+            }
+            if (extraLabel != null) {
+                if (label != null) {
+                    line.append(',');
+                }
+                line.append(extraLabel);
+            }
+            line.append('}');
+        }
+        line.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            line.append((long) value);
+        } else {
+            line.append(value);
+        }
+        line.append('\n');
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private enum Type {
+        COUNTER("counter"), GAUGE("gauge"), SUMMARY("summary");
+
+        final String exposition;
+
+        Type(String exposition) {
+            this.exposition = exposition;
+        }
+    }
+
+    /**
+     * Eine Metrik mit all ihren Label-Werten
+     */
+    private static final class Family {
+
+        final String name;
+        final String help;
+        final Type type;
+        final String labelName;
+        final double unit;
+        final Map<String, Object> children = new ConcurrentHashMap<>();
+
+        Family(String name, String help, Type type, String labelName, double unit) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelName = labelName;
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package de.javafleet.common.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * SqlRecorder - Zählt die Statements eines Requests oder Testabschnitts
+ *
+ * Solange ein Recorder an den Thread gebunden ist, meldet der Hook des
+ * Projekts jedes ausgeführte Statement mit Dauer und SQL an
+ * {@link #statementExecuted}: im JDBC-Projekt die InstrumentedDataSource,
+ * im JPA-Projekt der SqlBudgetSessionListener von EclipseLink (dort zählt
+ * auch Lazy Loading mit). Gleiche Statements werden über ihre "Form"
+ * erkannt: Literale und Parameter werden zu ?, IN-Listen zu (?). Dieselbe
+ * Form viele Male in einem Request ist das typische N+1-Muster.
+ *
+ * In Tests:
+ *
+ * <pre>
+ * try (SqlRecorder recorder = SqlRecorder.start()) {
+ *     orderService.findRecentOrders(20);
+ *     recorder.report()
+ *             .assertStatementsAtMost(1)
+ *             .assertNoRepeatedStatements(2);
+ * }
+ * </pre>
+ *
+ * Im Webbetrieb bindet der SqlBudgetFilter einen Recorder pro Request.
+ * Ohne aktiven Recorder kostet die Meldung nur einen ThreadLocal-Zugriff.
+ */
+public final class SqlRecorder implements AutoCloseable {
+
+    /** Obergrenze verschiedener Formen pro Recorder, schützt vor dynamischem SQL */
+    static final int MAX_SHAPES = 256;
+
+    private static final ThreadLocal<SqlRecorder> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlRecorder previous;
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder dbTimeNanos = new LongAdder();
+    private final Map<String, LongAdder> shapes = new ConcurrentHashMap<>();
+    private boolean closed;
+
+    private SqlRecorder(SqlRecorder previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Startet die Aufzeichnung auf dem aktuellen Thread
+     * Ein bereits aktiver Recorder wird danach mit close() wiederhergestellt.
+     */
+    public static SqlRecorder start() {
+        SqlRecorder recorder = new SqlRecorder(CURRENT.get());
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * Der Recorder des aktuellen Threads oder null
+     */
+    public static SqlRecorder current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bindet diesen Recorder zusätzlich an den aktuellen Thread
+     * Für Teilabfragen eines Requests, die auf anderen Threads laufen:
+     * Ihre Statements zählen dann mit. close() stellt den vorherigen Zustand her.
+     */
+    public Attachment attach() {
+        SqlRecorder before = CURRENT.get();
+        CURRENT.set(this);
+        return new Attachment(before);
+    }
+
+    /**
+     * Meldet ein ausgeführtes Statement an den aktiven Recorder (falls vorhanden)
+     */
+    public static void statementExecuted(String sql, long nanos) {
+        SqlRecorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.record(sql, nanos);
+        }
+    }
+
+    /**
+     * Zeichnet ein Statement auf, auch von anderen Threads aus
+     */
+    public void record(String sql, long nanos) {
+        statements.increment();
+        dbTimeNanos.add(nanos);
+        if (sql == null) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        LongAdder count = shapes.get(shape);
+        if (count == null) {
+            if (shapes.size() >= MAX_SHAPES) {
+                return;
+            }
+            count = shapes.computeIfAbsent(shape, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Momentaufnahme der bisherigen Aufzeichnung
+     */
+    public SqlReport report() {
+        Map<String, Long> counts = new TreeMap<>();
+        shapes.forEach((shape, count) -> counts.put(shape, count.sum()));
+        return new SqlReport(statements.sum(), dbTimeNanos.sum(), counts);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Bindung eines Recorders an einen weiteren Thread, siehe {@link #attach()}
+     */
+    public static final class Attachment implements AutoCloseable {
+
+        private final SqlRecorder previous;
+
+        private Attachment(SqlRecorder previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Normalisiert SQL, damit sich Statements nur im Parameter nicht unterscheiden
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,90 @@
+package de.javafleet.common.metrics;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SqlReport - Ergebnis eines {@link SqlRecorder}
+ *
+ * Die assert-Methoden werfen einen AssertionError, damit eine
+ * Query-Regression im Test wie jede andere Assertion scheitert.
+ * Sie liefern den Report zurück und lassen sich verketten.
+ */
+public final class SqlReport {
+
+    private final long statementCount;
+    private final long dbTimeNanos;
+    private final Map<String, Long> shapes;
+
+    SqlReport(long statementCount, long dbTimeNanos, Map<String, Long> shapes) {
+        this.statementCount = statementCount;
+        this.dbTimeNanos = dbTimeNanos;
+        this.shapes = Collections.unmodifiableMap(shapes);
+    }
+
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    public Duration getDbTime() {
+        return Duration.ofNanos(dbTimeNanos);
+    }
+
+    /**
+     * Anzahl Ausführungen pro Statement-Form
+     */
+    public Map<String, Long> getShapes() {
+        return shapes;
+    }
+
+    /**
+     * Statement-Formen, die mindestens threshold-mal ausgeführt wurden (N+1-Verdacht)
+     */
+    public Map<String, Long> getRepeatedShapes(int threshold) {
+        Map<String, Long> repeated = new LinkedHashMap<>();
+        shapes.forEach((shape, count) -> {
+            if (count >= threshold) {
+                repeated.put(shape, count);
+            }
+        });
+        return repeated;
+    }
+
+    public SqlReport assertStatementsAtMost(long max) {
+        if (statementCount > max) {
+            throw new AssertionError("Expected at most " + max + " SQL statements but "
+                    + statementCount + " were executed: " + shapes);
+        }
+        return this;
+    }
+
+    public SqlReport assertDbTimeAtMost(Duration max) {
+        if (getDbTime().compareTo(max) > 0) {
+            throw new AssertionError("Expected at most " + max.toMillis() + " ms database time but was "
+                    + getDbTime().toMillis() + " ms");
+        }
+        return this;
+    }
+
+    /**
+     * Scheitert, wenn eine Statement-Form threshold-mal oder öfter lief
+     */
+    public SqlReport assertNoRepeatedStatements(int threshold) {
+        Map<String, Long> repeated = getRepeatedShapes(threshold);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("Possible N+1 queries, statements repeated "
+                    + threshold + "+ times: " + repeated);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlReport{statements=" + statementCount +
+                ", dbTimeMs=" + getDbTime().toMillis() +
+                ", shapes=" + shapes +
+                '}';
+    }
+}
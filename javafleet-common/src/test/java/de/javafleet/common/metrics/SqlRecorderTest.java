@@ -0,0 +1,70 @@
+package de.javafleet.common.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SqlRecorderTest {
+
+    @Test
+    void normalizesLiteralsAndInLists() {
+        assertEquals("SELECT * FROM users WHERE username = ? AND id > ?",
+                SqlRecorder.shapeOf("SELECT *  FROM users\n WHERE username = 'o''brien' AND id > 42"));
+        assertEquals("SELECT ID FROM orders WHERE STATUS = ? AND TOTAL_AMOUNT > ?",
+                SqlRecorder.shapeOf("SELECT ID FROM orders WHERE STATUS = 'PENDING' AND TOTAL_AMOUNT > 19.99"));
+        assertEquals("SELECT title FROM blog_posts WHERE id IN (?)",
+                SqlRecorder.shapeOf("SELECT title FROM blog_posts WHERE id IN (1, 2, 3)"));
+        assertEquals("SELECT title FROM blog_posts WHERE id IN (?)",
+                SqlRecorder.shapeOf("SELECT title FROM blog_posts WHERE id IN ( ?,? , ? )"));
+        assertEquals("SELECT title FROM blog_posts WHERE id IN (?)",
+                SqlRecorder.shapeOf("SELECT title FROM blog_posts WHERE id IN (7)"));
+        // Ziffern in Bezeichnern bleiben stehen
+        assertEquals("SELECT col1 FROM t2 LIMIT ?",
+                SqlRecorder.shapeOf("SELECT col1 FROM t2 LIMIT 10"));
+    }
+
+    @Test
+    void sameShapeIsCountedOnce() {
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            SqlRecorder.statementExecuted("SELECT * FROM users WHERE id = 1", 1_000);
+            SqlRecorder.statementExecuted("SELECT * FROM users WHERE id = 2", 1_000);
+            SqlRecorder.statementExecuted("SELECT * FROM users WHERE id IN (3, 4)", 1_000);
+
+            assertEquals(Map.of("SELECT * FROM users WHERE id = ?", 2L,
+                                "SELECT * FROM users WHERE id IN (?)", 1L),
+                         recorder.report().getShapes());
+            assertEquals(Duration.ofNanos(3_000), recorder.report().getDbTime());
+        }
+    }
+
+    @Test
+    void nestedRecorderRestoresOuter() {
+        try (SqlRecorder outer = SqlRecorder.start()) {
+            try (SqlRecorder inner = SqlRecorder.start()) {
+                SqlRecorder.statementExecuted("SELECT 1", 0);
+                assertEquals(1, inner.report().getStatementCount());
+            }
+            assertSame(outer, SqlRecorder.current());
+            assertEquals(0, outer.report().getStatementCount());
+        }
+        assertNull(SqlRecorder.current());
+    }
+
+    @Test
+    void attachedThreadCountsIntoRecorder() throws Exception {
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            Thread worker = new Thread(() -> {
+                try (SqlRecorder.Attachment attached = recorder.attach()) {
+                    SqlRecorder.statementExecuted("SELECT 1", 0);
+                }
+            });
+            worker.start();
+            worker.join();
+            assertEquals(1, recorder.report().getStatementCount());
+        }
+    }
+}